@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("maven-publish")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "net.ultranetwork"
@@ -20,6 +21,10 @@ repositories {
 
 dependencies {
     implementation("io.papermc.paper:paper-api:1.21.5-R0.1-SNAPSHOT")
+
+    testImplementation(platform("org.junit:junit-bom:5.11.4"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
 publishing {
@@ -38,6 +43,50 @@ publishing {
         }
     }
 }
+// Glyph masks and advance widths of the bundled font, so they are not rasterized on first use
+val fontDataDir = layout.buildDirectory.dir("generated/fontData")
+val generateFontData by tasks.registering(JavaExec::class) {
+    group = "build"
+    description = "Pre-renders the bundled font's glyphs and advances into a binary resource"
+
+    val font = file("src/main/resources/minecraft_font.ttf")
+    val output = fontDataDir.map { it.file("minecraft_font.glyphs") }
+
+    // The font is on the classpath too, so RenderUtil loads it rather than warning
+    classpath = sourceSets.main.get().output.classesDirs + sourceSets.main.get().compileClasspath +
+        files("src/main/resources")
+    mainClass.set("net.ultranetwork.render.util.FontData")
+    jvmArgs("-Djava.awt.headless=true")
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf(font.absolutePath, output.get().asFile.absolutePath)
+    })
+
+    inputs.file(font)
+    outputs.file(output)
+}
+
+sourceSets.main {
+    resources.srcDir(files(fontDataDir).builtBy(generateFontData))
+}
+
 tasks.test {
     useJUnitPlatform()
+    jvmArgs("-Djava.awt.headless=true")
+    testLogging.showStandardStreams = true
+
+    // ./gradlew test -PupdateGolden=true writes new golden hashes and images to build/golden
+    systemProperty("golden.update", providers.gradleProperty("updateGolden").getOrElse("false"))
+    systemProperty("golden.output", layout.buildDirectory.dir("golden").get().asFile.absolutePath)
+    providers.systemProperty("render.threads").orNull?.let { systemProperty("render.threads", it) }
+    providers.systemProperty("render.rounds").orNull?.let { systemProperty("render.rounds", it) }
+}
+
+// Benchmarks live in src/jmh and run with ./gradlew jmh
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    jvmArgs.add("-Djava.awt.headless=true")
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package net.ultranetwork.render.item;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.ultranetwork.render.util.ArgbRaster;
+import net.ultranetwork.render.util.RenderUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Renders tooltips from snapshots, since ItemStack needs a running server for its meta. Rendering runs
+ * on the benchmark thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ItemImageRendererBenchmark {
+  @Param({"1", "10", "30"})
+  public int loreLines;
+
+  private TooltipSnapshot snapshot;
+  private TooltipLayout layout;
+
+  @Setup
+  public void setUp() {
+    final List<Component> lore = new ArrayList<>();
+
+    for (int i = 0; i < this.loreLines; i++) {
+      lore.add(Component.text("Line " + i + ": ", NamedTextColor.GRAY)
+          .append(Component.text("+" + (i * 7) + " Attack Damage", NamedTextColor.BLUE))
+          .append(Component.text(" (" + i + "%)", NamedTextColor.DARK_GRAY)));
+    }
+
+    this.snapshot = new TooltipSnapshot(Component.text("Excalibur", NamedTextColor.GOLD, TextDecoration.BOLD), 3, lore);
+    this.layout = layoutOnly();
+  }
+
+  @Benchmark
+  public TooltipLayout layoutOnly() {
+    return TooltipLayout.compute(this.snapshot.lines(), ItemImageRenderer.DEFAULT_PADDING,
+        ItemImageRenderer.DEFAULT_LINE_SPACING, RenderUtil.DEFAULT_TEXT_COLOUR);
+  }
+
+  @Benchmark
+  public BufferedImage paintOnly() {
+    final BufferedImage image = new BufferedImage(this.layout.width(), this.layout.height(), BufferedImage.TYPE_INT_ARGB);
+    ItemImageRenderer.paint(ArgbRaster.wrap(image), this.layout, ItemImageRenderer.DEFAULT_BACKGROUND_COLOUR,
+        ItemImageRenderer.DEFAULT_TOOLTIP_SHADOW_COLOUR, null);
+    return image;
+  }
+
+  @Benchmark
+  public BufferedImage render() {
+    return ItemImageRenderer.builder()
+        .snapshot(this.snapshot)
+        .executor(Runnable::run)
+        .build()
+        .join();
+  }
+}
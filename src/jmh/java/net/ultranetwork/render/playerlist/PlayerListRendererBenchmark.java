@@ -0,0 +1,73 @@
+package net.ultranetwork.render.playerlist;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.ultranetwork.render.head.HeadProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Renders on the benchmark thread, with heads served from memory so no network is involved.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PlayerListRendererBenchmark {
+  private static final int[] PINGS = {-1, 20, 149, 180, 320, 650};
+
+  @Param({"10", "80", "400"})
+  public int players;
+
+  @Param({"false", "true"})
+  public boolean heads;
+
+  private List<PlayerListName> names;
+  private HeadProvider headStub;
+
+  @Setup
+  public void setUp() {
+    this.names = new ArrayList<>(this.players);
+
+    for (int i = 0; i < this.players; i++) {
+      this.names.add(PlayerListName.of(
+          Component.text("[" + (i % 4 == 0 ? "Admin" : "Member") + "] ", i % 4 == 0 ? NamedTextColor.RED : NamedTextColor.GRAY)
+              .append(Component.text("Player" + i, NamedTextColor.WHITE)),
+          PINGS[i % PINGS.length],
+          "Player" + i,
+          i % 4 == 0 ? 1 : 0));
+    }
+
+    final BufferedImage head = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+    for (int y = 0; y < 8; y++) {
+      for (int x = 0; x < 8; x++) {
+        head.setRGB(x, y, 0xff000000 | (x * 0x1f0000) | (y * 0x1f00) | 0x40);
+      }
+    }
+
+    final CompletableFuture<BufferedImage> served = CompletableFuture.completedFuture(head);
+    this.headStub = playerName -> served;
+  }
+
+  @Benchmark
+  public BufferedImage render() {
+    return PlayerListRenderer.builder()
+        .header(Component.text("Ultra Network", NamedTextColor.GOLD))
+        .names(this.names)
+        .showNameHeads(this.heads)
+        .headProvider(this.headStub)
+        .executor(Runnable::run)
+        .build()
+        .join();
+  }
+}
@@ -0,0 +1,53 @@
+package net.ultranetwork.render.util;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ImageUtilBenchmark {
+  /**
+   * tooltip: few colours, so it is written indexed. gradient: too many colours for a palette.
+   */
+  @Param({"tooltip", "gradient"})
+  public String content;
+
+  private BufferedImage image;
+
+  @Setup
+  public void setUp() {
+    this.image = new BufferedImage(240, 180, BufferedImage.TYPE_INT_ARGB);
+    final ArgbRaster raster = ArgbRaster.wrap(this.image);
+
+    if (this.content.equals("tooltip")) {
+      raster.fillRect(1, 1, 238, 178, 0xf0100010);
+      raster.drawHorizontalLine(0, 239, 0, 0xf0100010);
+      raster.drawHorizontalLine(0, 239, 179, 0xf0100010);
+
+      for (int line = 0; line < 10; line++) {
+        raster.fillRect(6, 8 + line * 17, 60 + line * 15, 10, line % 2 == 0 ? 0xffaaaaaa : 0xff5555ff);
+      }
+    }
+    else {
+      for (int y = 0; y < 180; y++) {
+        for (int x = 0; x < 240; x++) {
+          this.image.setRGB(x, y, 0xff000000 | (x << 16) | (y << 8) | ((x * y) & 0xff));
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public byte[] createImageBytes() {
+    return ImageUtil.createImageBytes(this.image);
+  }
+}
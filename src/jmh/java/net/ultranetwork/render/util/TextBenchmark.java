@@ -0,0 +1,88 @@
+package net.ultranetwork.render.util;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TextBenchmark {
+  private static final Color SHADOW_COLOUR = new Color(5, 0, 5, 100);
+
+  @Param({"short", "long", "nested", "bold"})
+  public String shape;
+
+  private Component component;
+  private BufferedImage canvas;
+  private ArgbRaster raster;
+
+  @Setup
+  public void setUp() {
+    this.component = switch (this.shape) {
+      case "short" -> Component.text("Diamond Sword", NamedTextColor.AQUA);
+      case "long" -> Component.text("A long line of lore text that runs right across the tooltip, "
+          + "the way quest descriptions and enchantment blurbs tend to", NamedTextColor.GRAY);
+      case "nested" -> nested(6);
+      case "bold" -> Component.text("Legendary ", NamedTextColor.GOLD, TextDecoration.BOLD)
+          .append(Component.text("Blade of the ", NamedTextColor.YELLOW))
+          .append(Component.text("Ancients", TextColor.color(0xff55aa)).decoration(TextDecoration.BOLD, false));
+      default -> throw new IllegalArgumentException("Unknown shape " + this.shape);
+    };
+
+    this.canvas = new BufferedImage(RenderUtil.calculateComponentWidth(this.component) + 4, 24, BufferedImage.TYPE_INT_ARGB);
+    this.raster = ArgbRaster.wrap(this.canvas);
+  }
+
+  /**
+   * @return A component nested depth levels deep, alternating colours and decorations
+   */
+  private static Component nested(int depth) {
+    Component component = Component.text("level " + depth + " ", TextColor.color(0x202020 * depth));
+
+    if (depth > 0) {
+      component = component.append(nested(depth - 1).decoration(TextDecoration.BOLD, depth % 2 == 0));
+    }
+
+    return component;
+  }
+
+  @Benchmark
+  public int calculateComponentWidth() {
+    return RenderUtil.calculateComponentWidth(this.component);
+  }
+
+  @Benchmark
+  public int drawAdventureComponent() {
+    return RenderUtil.drawAdventureComponent(this.canvas, this.component, 1, 16, RenderUtil.DEFAULT_TEXT_COLOUR, SHADOW_COLOUR);
+  }
+
+  /**
+   * Like {@link #calculateComponentWidth()} but compiling the component every time, as for text not seen before.
+   */
+  @Benchmark
+  public int compileAndMeasure() {
+    return CompiledText.compile(this.component, RenderUtil.DEFAULT_TEXT_COLOUR).width();
+  }
+
+  /**
+   * Like {@link #drawAdventureComponent()} but compiling the component every time, as for text not seen before.
+   */
+  @Benchmark
+  public int compileAndDraw() {
+    return RenderUtil.drawCompiledText(this.raster, CompiledText.compile(this.component, RenderUtil.DEFAULT_TEXT_COLOUR),
+        1, 16, SHADOW_COLOUR);
+  }
+}
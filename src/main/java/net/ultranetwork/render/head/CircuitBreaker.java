@@ -0,0 +1,63 @@
+package net.ultranetwork.render.head;
+
+import java.time.Duration;
+
+/**
+ * Stops calling upstream after a run of consecutive failures, then lets a single trial call
+ * through once the open period has passed.
+ */
+final class CircuitBreaker {
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openNanos;
+  private State state = State.CLOSED; // guarded by this
+  private int consecutiveFailures; // guarded by this
+  private long openedAt; // guarded by this
+
+  CircuitBreaker(int failureThreshold, Duration openDuration) {
+    this.failureThreshold = Math.max(1, failureThreshold);
+    this.openNanos = openDuration.toNanos();
+  }
+
+  /**
+   * @return Whether a call may be made now
+   */
+  synchronized boolean tryAcquire() {
+    switch (this.state) {
+      case CLOSED:
+        return true;
+      case OPEN:
+        if (System.nanoTime() - this.openedAt < this.openNanos) {
+          return false;
+        }
+
+        this.state = State.HALF_OPEN; // Let this one call through as the trial
+        return true;
+      default:
+        return false; // Trial already in flight
+    }
+  }
+
+  synchronized void onSuccess() {
+    this.consecutiveFailures = 0;
+    this.state = State.CLOSED;
+  }
+
+  synchronized void onFailure() {
+    this.consecutiveFailures++;
+
+    if (this.state == State.HALF_OPEN || this.consecutiveFailures >= this.failureThreshold) {
+      this.state = State.OPEN;
+      this.openedAt = System.nanoTime();
+    }
+  }
+
+  synchronized State state() {
+    return this.state;
+  }
+}
@@ -0,0 +1,379 @@
+package net.ultranetwork.render.head;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import javax.imageio.ImageIO;
+import net.ultranetwork.render.util.LruCache;
+import net.ultranetwork.render.util.RenderExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Caches player heads fetched through an {@link HttpHeadProvider} in memory and optionally on disk.
+ * <p>
+ * Expired entries are served immediately while a conditional request (If-None-Match / If-Modified-Since)
+ * revalidates them in the background. Concurrent requests for the same player share one fetch.
+ */
+public final class HeadCache implements HeadProvider {
+  private static final System.Logger LOGGER = System.getLogger(HeadCache.class.getName());
+
+  private static final Duration DEFAULT_TTL = Duration.ofHours(6);
+  private static final Duration MISS_TTL = Duration.ofMinutes(1);
+  private static final int DEFAULT_MAX_MEMORY_ENTRIES = 4096;
+  private static final Pattern SAFE_FILE_NAME = Pattern.compile("[a-z0-9_]{1,32}");
+
+  private final HttpHeadProvider upstream;
+  private final Duration ttl;
+  private final Path diskDirectory;
+  private final Clock clock;
+  private final Executor ioExecutor;
+  private final LruCache<String, Entry> memory;
+  private final Map<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * @param image        The head, or null if the player has no head upstream
+   * @param bytes        The PNG as served upstream, or null for misses
+   * @param etag         The ETag of the response, if any
+   * @param lastModified The Last-Modified of the response, if any
+   * @param expiresAt    When the entry must be revalidated
+   */
+  private record Entry(
+      @Nullable BufferedImage image,
+      byte @Nullable [] bytes,
+      @Nullable String etag,
+      @Nullable String lastModified,
+      @NotNull Instant expiresAt
+  ) {
+    boolean isExpired(Instant now) {
+      return !now.isBefore(this.expiresAt);
+    }
+
+    Entry withExpiry(Instant expiresAt) {
+      return new Entry(this.image, this.bytes, this.etag, this.lastModified, expiresAt);
+    }
+  }
+
+  private static final class DefaultHolder {
+    private static final HeadCache INSTANCE = HeadCache.builder().build();
+  }
+
+  private HeadCache(Builder builder) {
+    this.upstream = builder.upstream != null ? builder.upstream : HttpHeadProvider.builder().build();
+    this.ttl = builder.ttl;
+    this.diskDirectory = builder.diskDirectory;
+    this.clock = builder.clock;
+    this.ioExecutor = builder.ioExecutor;
+    this.memory = new LruCache<>(builder.maxMemoryEntries);
+  }
+
+  /**
+   * @return The cache behind {@link HeadProvider#defaultProvider()}
+   */
+  @NotNull
+  static HeadCache defaultCache() {
+    return DefaultHolder.INSTANCE;
+  }
+
+  @Override
+  @NotNull
+  public CompletableFuture<BufferedImage> fetchHead(@NotNull String playerName) {
+    final String key = playerName.toLowerCase(Locale.ROOT);
+    final Entry cached = this.memory.get(key);
+
+    if (cached != null) {
+      if (cached.isExpired(this.clock.instant())) {
+        revalidate(key, playerName, cached);
+      }
+
+      return CompletableFuture.completedFuture(cached.image());
+    }
+
+    return singleFlight(key, () -> CompletableFuture.supplyAsync(() -> readFromDisk(key), this.ioExecutor)
+        .thenCompose(stored -> stored != null
+            ? CompletableFuture.completedFuture(stored)
+            : request(key, playerName, null)))
+        .thenApply(entry -> {
+          this.memory.put(key, entry);
+
+          // Loaded from disk but past its TTL: serve it and refresh behind it
+          if (entry.isExpired(this.clock.instant())) {
+            revalidate(key, playerName, entry);
+          }
+
+          return entry.image();
+        });
+  }
+
+  /**
+   * Drops every entry held in memory. Entries on disk are kept.
+   */
+  public void invalidateMemory() {
+    this.memory.clear();
+  }
+
+  private void revalidate(String key, String playerName, Entry stale) {
+    if (!this.inFlight.containsKey(key)) {
+      singleFlight(key, () -> request(key, playerName, stale)).thenAccept(entry -> this.memory.put(key, entry));
+    }
+  }
+
+  private CompletableFuture<Entry> singleFlight(String key, Supplier<CompletableFuture<Entry>> task) {
+    final CompletableFuture<Entry> pending = new CompletableFuture<>();
+    final CompletableFuture<Entry> existing = this.inFlight.putIfAbsent(key, pending);
+
+    if (existing != null) {
+      return existing;
+    }
+
+    CompletableFuture<Entry> started;
+    try {
+      started = task.get();
+    }
+    catch (RuntimeException e) {
+      started = CompletableFuture.failedFuture(e);
+    }
+
+    started.whenComplete((entry, throwable) -> {
+      this.inFlight.remove(key, pending);
+
+      if (throwable != null) {
+        pending.completeExceptionally(throwable);
+      }
+      else {
+        pending.complete(entry);
+      }
+    });
+
+    return pending;
+  }
+
+  private CompletableFuture<Entry> request(String key, String playerName, @Nullable Entry previous) {
+    return this.upstream.send(playerName,
+            previous != null ? previous.etag() : null,
+            previous != null ? previous.lastModified() : null)
+        // Decoding and the disk write stay off the HTTP client's threads
+        .thenApplyAsync(response -> {
+          final Instant expiresAt = this.clock.instant().plus(this.ttl);
+
+          if (response.statusCode() == 304 && previous != null) {
+            final Entry revalidated = previous.withExpiry(expiresAt);
+            writeToDisk(key, revalidated);
+            return revalidated;
+          }
+
+          if (response.statusCode() == 200) {
+            final byte[] bytes = response.body();
+            final BufferedImage image = decode(bytes);
+
+            if (image == null) {
+              LOGGER.log(System.Logger.Level.WARNING, "Failed to read image stream for player " + playerName);
+              return fallback(previous);
+            }
+
+            final Entry fetched = new Entry(image, bytes,
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null),
+                expiresAt);
+
+            writeToDisk(key, fetched);
+            return fetched;
+          }
+
+          return fallback(previous);
+        }, this.ioExecutor)
+        .exceptionally(ex -> {
+          LOGGER.log(System.Logger.Level.WARNING, "Exception fetching head for player " + playerName + ": " + ex.getMessage());
+          return fallback(previous);
+        });
+  }
+
+  private Entry miss() {
+    return new Entry(null, null, null, null, this.clock.instant().plus(MISS_TTL));
+  }
+
+  /**
+   * Keeps serving what we had when upstream fails, but waits before asking again.
+   */
+  private Entry fallback(@Nullable Entry previous) {
+    return previous != null ? previous.withExpiry(this.clock.instant().plus(MISS_TTL)) : miss();
+  }
+
+  @Nullable
+  private static BufferedImage decode(byte[] bytes) {
+    try (InputStream is = new ByteArrayInputStream(bytes)) {
+      return ImageIO.read(is);
+    }
+    catch (IOException e) {
+      return null;
+    }
+  }
+
+  @Nullable
+  private Entry readFromDisk(String key) {
+    if (this.diskDirectory == null) {
+      return null;
+    }
+
+    final Path imagePath = this.diskDirectory.resolve(fileName(key) + ".png");
+    final Path metaPath = this.diskDirectory.resolve(fileName(key) + ".properties");
+
+    if (!Files.isRegularFile(imagePath) || !Files.isRegularFile(metaPath)) {
+      return null;
+    }
+
+    try {
+      final byte[] bytes = Files.readAllBytes(imagePath);
+      final BufferedImage image = decode(bytes);
+
+      if (image == null) {
+        return null;
+      }
+
+      final Properties meta = new Properties();
+      try (InputStream is = Files.newInputStream(metaPath)) {
+        meta.load(is);
+      }
+
+      final long expiresAt = Long.parseLong(meta.getProperty("expiresAt", "0"));
+      return new Entry(image, bytes, meta.getProperty("etag"), meta.getProperty("lastModified"), Instant.ofEpochMilli(expiresAt));
+    }
+    catch (IOException | NumberFormatException e) {
+      LOGGER.log(System.Logger.Level.WARNING, "Failed to read cached head " + imagePath + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  private void writeToDisk(String key, Entry entry) {
+    if (this.diskDirectory == null || entry.bytes() == null) {
+      return;
+    }
+
+    final Properties meta = new Properties();
+    meta.setProperty("expiresAt", Long.toString(entry.expiresAt().toEpochMilli()));
+
+    if (entry.etag() != null) {
+      meta.setProperty("etag", entry.etag());
+    }
+
+    if (entry.lastModified() != null) {
+      meta.setProperty("lastModified", entry.lastModified());
+    }
+
+    try {
+      Files.createDirectories(this.diskDirectory);
+      writeAtomically(this.diskDirectory.resolve(fileName(key) + ".png"), os -> os.write(entry.bytes()));
+      writeAtomically(this.diskDirectory.resolve(fileName(key) + ".properties"), os -> meta.store(os, null));
+    }
+    catch (IOException e) {
+      LOGGER.log(System.Logger.Level.WARNING, "Failed to write cached head for " + key + ": " + e.getMessage());
+    }
+  }
+
+  private static void writeAtomically(Path target, StreamWriter writer) throws IOException {
+    final Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+
+    try {
+      try (OutputStream os = Files.newOutputStream(temp)) {
+        writer.write(os);
+      }
+
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private static String fileName(String key) {
+    return SAFE_FILE_NAME.matcher(key).matches()
+        ? key
+        : "x" + HexFormat.of().formatHex(key.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @FunctionalInterface
+  private interface StreamWriter {
+    void write(OutputStream os) throws IOException;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private HttpHeadProvider upstream = null;
+    private Duration ttl = DEFAULT_TTL;
+    private int maxMemoryEntries = DEFAULT_MAX_MEMORY_ENTRIES;
+    private Path diskDirectory = null;
+    private Clock clock = Clock.systemUTC();
+    private Executor ioExecutor = RenderExecutor.defaultIoExecutor();
+
+    private Builder() {
+    }
+
+    /**
+     * @param upstream The provider heads are fetched and revalidated through, or null for crafthead.net
+     */
+    public Builder upstream(@Nullable HttpHeadProvider upstream) {
+      this.upstream = upstream;
+      return this;
+    }
+
+    /**
+     * @param ttl How long a fetched head is served before it is revalidated
+     */
+    public Builder ttl(@NotNull Duration ttl) {
+      this.ttl = Objects.requireNonNull(ttl);
+      return this;
+    }
+
+    public Builder maxMemoryEntries(int maxMemoryEntries) {
+      this.maxMemoryEntries = Math.max(1, maxMemoryEntries);
+      return this;
+    }
+
+    /**
+     * @param diskDirectory The directory heads are persisted to, or null to keep heads in memory only
+     */
+    public Builder diskDirectory(@Nullable Path diskDirectory) {
+      this.diskDirectory = diskDirectory;
+      return this;
+    }
+
+    public Builder clock(@NotNull Clock clock) {
+      this.clock = Objects.requireNonNull(clock);
+      return this;
+    }
+
+    /**
+     * @param ioExecutor The executor disk reads and writes run on, {@link RenderExecutor#defaultIoExecutor()} by default
+     */
+    public Builder ioExecutor(@NotNull Executor ioExecutor) {
+      this.ioExecutor = Objects.requireNonNull(ioExecutor);
+      return this;
+    }
+
+    public HeadCache build() {
+      return new HeadCache(this);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package net.ultranetwork.render.head;
+
+import java.awt.image.BufferedImage;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Source of player head images for the player list.
+ */
+@FunctionalInterface
+public interface HeadProvider {
+
+  /**
+   * @param playerName The Minecraft username.
+   * @return A CompletableFuture containing the head, or null if there is no head for the player.
+   * Failures complete with null rather than exceptionally.
+   */
+  @NotNull
+  CompletableFuture<BufferedImage> fetchHead(@NotNull String playerName);
+
+  /**
+   * @param uuid       The player's UUID, or null if unknown
+   * @param playerName The Minecraft username.
+   * @return A CompletableFuture containing the head, or null if there is no head for the player.
+   * Looks the head up by name unless the provider knows players by UUID.
+   */
+  @NotNull
+  default CompletableFuture<BufferedImage> fetchHead(@Nullable UUID uuid, @NotNull String playerName) {
+    return fetchHead(playerName);
+  }
+
+  /**
+   * Copies a head the provider already holds, so it can be painted without an image. Heads are
+   * {@value HeadStore#HEAD_SIZE} pixels square, non-premultiplied ARGB, row major.
+   *
+   * @param uuid   The player's UUID, or null if unknown
+   * @param dst    The array to copy the head's {@value HeadStore#HEAD_PIXELS} pixels into
+   * @param offset Where in the array to start
+   * @return Whether the head was copied; if not, fetch it with {@link #fetchHead(UUID, String)}
+   */
+  default boolean copyHead(@Nullable UUID uuid, int @NotNull [] dst, int offset) {
+    return false;
+  }
+
+  /**
+   * @return The shared provider fetching heads from crafthead.net through a memory cache
+   */
+  @NotNull
+  static HeadProvider defaultProvider() {
+    return HeadCache.defaultCache();
+  }
+}
@@ -0,0 +1,234 @@
+package net.ultranetwork.render.head;
+
+import java.awt.image.BufferedImage;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Fixed-capacity store of 16x16 heads keyed by player UUID.
+ * <p>
+ * Every head lives as {@value #HEAD_PIXELS} ARGB ints in one shared slab and is found through an
+ * open-addressed table of slot numbers, so a stored head costs 1 KiB and no objects. Once full, the
+ * slots are reused in turn, clock style, so the heads stored longest ago are dropped first.
+ */
+public final class HeadStore {
+  public static final int HEAD_SIZE = 16;
+  public static final int HEAD_PIXELS = HEAD_SIZE * HEAD_SIZE;
+
+  private final int capacity;
+  private final int[] pixels; // slot * HEAD_PIXELS
+  private final long[] mostBits; // per slot
+  private final long[] leastBits; // per slot
+  private final int[] table; // slot + 1, 0 when empty
+  private final int mask;
+  private final int[] freeSlots;
+  private int freeCount;
+  private int hand;
+  private int size;
+
+  /**
+   * @param capacity The most heads to keep
+   * @throws IllegalArgumentException If the capacity is less than 1 or the slab would be too big
+   */
+  public HeadStore(int capacity) {
+    if (capacity < 1 || capacity > Integer.MAX_VALUE / HEAD_PIXELS) {
+      throw new IllegalArgumentException("Capacity must be between 1 and " + Integer.MAX_VALUE / HEAD_PIXELS
+          + " but was " + capacity);
+    }
+
+    this.capacity = capacity;
+    this.pixels = new int[capacity * HEAD_PIXELS];
+    this.mostBits = new long[capacity];
+    this.leastBits = new long[capacity];
+    this.freeSlots = new int[capacity];
+
+    // At most half full, so probes stay short
+    final int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+    this.table = new int[tableSize];
+    this.mask = tableSize - 1;
+
+    // Hand out slots from 0 upwards
+    for (int i = 0; i < capacity; i++) {
+      this.freeSlots[i] = capacity - 1 - i;
+    }
+    this.freeCount = capacity;
+  }
+
+  /**
+   * Stores a head, replacing any stored for the same player.
+   *
+   * @param uuid   The player
+   * @param argb   The head's non-premultiplied pixels, row major
+   * @param offset Where in the array the head starts
+   * @throws IndexOutOfBoundsException If the array is too short
+   */
+  public synchronized void put(@NotNull UUID uuid, int @NotNull [] argb, int offset) {
+    int slot = slotOf(uuid);
+
+    if (slot < 0) {
+      slot = allocate();
+      this.mostBits[slot] = uuid.getMostSignificantBits();
+      this.leastBits[slot] = uuid.getLeastSignificantBits();
+      insert(slot);
+      this.size++;
+    }
+
+    System.arraycopy(argb, offset, this.pixels, slot * HEAD_PIXELS, HEAD_PIXELS);
+  }
+
+  /**
+   * Stores a head, replacing any stored for the same player.
+   *
+   * @param uuid The player
+   * @param head The head, exactly {@value #HEAD_SIZE} pixels square
+   * @throws IllegalArgumentException If the head is not 16x16
+   */
+  public void put(@NotNull UUID uuid, @NotNull BufferedImage head) {
+    if (head.getWidth() != HEAD_SIZE || head.getHeight() != HEAD_SIZE) {
+      throw new IllegalArgumentException("Head must be " + HEAD_SIZE + "x" + HEAD_SIZE + " but was "
+          + head.getWidth() + "x" + head.getHeight());
+    }
+
+    put(uuid, head.getRGB(0, 0, HEAD_SIZE, HEAD_SIZE, null, 0, HEAD_SIZE), 0);
+  }
+
+  /**
+   * @param uuid   The player
+   * @param dst    The array to copy the head's pixels into, row major
+   * @param offset Where in the array to start
+   * @return Whether a head was stored for the player
+   */
+  public synchronized boolean get(@NotNull UUID uuid, int @NotNull [] dst, int offset) {
+    final int slot = slotOf(uuid);
+
+    if (slot < 0) {
+      return false;
+    }
+
+    System.arraycopy(this.pixels, slot * HEAD_PIXELS, dst, offset, HEAD_PIXELS);
+    return true;
+  }
+
+  /**
+   * @param uuid The player
+   * @return A new TYPE_INT_ARGB image of the player's head, or null if none is stored
+   */
+  @Nullable
+  public BufferedImage image(@NotNull UUID uuid) {
+    final int[] argb = new int[HEAD_PIXELS];
+
+    if (!get(uuid, argb, 0)) {
+      return null;
+    }
+
+    final BufferedImage image = new BufferedImage(HEAD_SIZE, HEAD_SIZE, BufferedImage.TYPE_INT_ARGB);
+    image.setRGB(0, 0, HEAD_SIZE, HEAD_SIZE, argb, 0, HEAD_SIZE);
+    return image;
+  }
+
+  public synchronized boolean contains(@NotNull UUID uuid) {
+    return slotOf(uuid) >= 0;
+  }
+
+  /**
+   * @param uuid The player
+   * @return Whether a head was stored for the player
+   */
+  public synchronized boolean remove(@NotNull UUID uuid) {
+    final int slot = slotOf(uuid);
+
+    if (slot < 0) {
+      return false;
+    }
+
+    delete(slot);
+    this.freeSlots[this.freeCount++] = slot;
+    this.size--;
+    return true;
+  }
+
+  public synchronized int size() {
+    return this.size;
+  }
+
+  public int capacity() {
+    return this.capacity;
+  }
+
+  /**
+   * @return The bytes held by the slab and table, which are allocated up front
+   */
+  public long bytes() {
+    return (long) this.pixels.length * Integer.BYTES
+        + (long) this.capacity * (Long.BYTES * 2 + Integer.BYTES)
+        + (long) this.table.length * Integer.BYTES;
+  }
+
+  private int allocate() {
+    if (this.freeCount > 0) {
+      return this.freeSlots[--this.freeCount];
+    }
+
+    // Full: drop whichever head the hand is on
+    final int slot = this.hand;
+    this.hand = (this.hand + 1) % this.capacity;
+    delete(slot);
+    this.size--;
+    return slot;
+  }
+
+  private int slotOf(UUID uuid) {
+    final long most = uuid.getMostSignificantBits();
+    final long least = uuid.getLeastSignificantBits();
+
+    for (int i = hash(most, least) & this.mask; this.table[i] != 0; i = (i + 1) & this.mask) {
+      final int slot = this.table[i] - 1;
+
+      if (this.mostBits[slot] == most && this.leastBits[slot] == least) {
+        return slot;
+      }
+    }
+
+    return -1;
+  }
+
+  private void insert(int slot) {
+    int i = hash(this.mostBits[slot], this.leastBits[slot]) & this.mask;
+
+    while (this.table[i] != 0) {
+      i = (i + 1) & this.mask;
+    }
+
+    this.table[i] = slot + 1;
+  }
+
+  /**
+   * Removes the slot from the table, shifting later entries of the probe run back into the gap.
+   */
+  private void delete(int slot) {
+    int gap = hash(this.mostBits[slot], this.leastBits[slot]) & this.mask;
+
+    while (this.table[gap] != slot + 1) {
+      gap = (gap + 1) & this.mask;
+    }
+
+    for (int i = (gap + 1) & this.mask; this.table[i] != 0; i = (i + 1) & this.mask) {
+      final int entry = this.table[i] - 1;
+      final int home = hash(this.mostBits[entry], this.leastBits[entry]) & this.mask;
+
+      // Move the entry back if its home is not between the gap and where it sits
+      if (((i - home) & this.mask) >= ((i - gap) & this.mask)) {
+        this.table[gap] = this.table[i];
+        gap = i;
+      }
+    }
+
+    this.table[gap] = 0;
+  }
+
+  private static int hash(long most, long least) {
+    final long mixed = (most ^ least) * 0x9E3779B97F4A7C15L;
+    return (int) (mixed ^ (mixed >>> 32));
+  }
+}
@@ -0,0 +1,347 @@
+package net.ultranetwork.render.head;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.imageio.ImageIO;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Fetches heads over HTTP from {@code <baseUrl>/<name>/<size>.png}.
+ * <p>
+ * Requests are limited to a number in flight and a token-bucket rate; anything over either limit
+ * waits in a queue. Timeouts, 429 and 5xx responses are retried with jittered exponential backoff,
+ * and a circuit breaker fails requests fast while upstream keeps failing.
+ */
+public final class HttpHeadProvider implements HeadProvider {
+  private static final System.Logger LOGGER = System.getLogger(HttpHeadProvider.class.getName());
+
+  private static final String DEFAULT_BASE_URL = "https://crafthead.net/helm/";
+  private static final int DEFAULT_HEAD_SIZE = 16;
+  private static final int DEFAULT_MAX_IN_FLIGHT = 8;
+  private static final double DEFAULT_REQUESTS_PER_SECOND = 20;
+  private static final int DEFAULT_BURST = 20;
+  private static final int DEFAULT_MAX_RETRIES = 2;
+  private static final Duration DEFAULT_RETRY_BASE_DELAY = Duration.ofMillis(250);
+  private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+  private static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+  private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+  private final String baseUrl;
+  private final int headSize;
+  private final HttpClient httpClient;
+  private final Duration requestTimeout;
+  private final int maxInFlight;
+  private final int maxRetries;
+  private final long retryBaseDelayMillis;
+  private final TokenBucket rateLimit; // guarded by this
+  private final CircuitBreaker circuitBreaker;
+  private final Deque<Runnable> queued = new ArrayDeque<>(); // guarded by this
+  private int inFlight; // guarded by this
+  private boolean drainScheduled; // guarded by this
+
+  private HttpHeadProvider(Builder builder) {
+    this.baseUrl = builder.baseUrl.endsWith("/") ? builder.baseUrl : builder.baseUrl + "/";
+    this.headSize = builder.headSize;
+    this.httpClient = builder.httpClient != null ? builder.httpClient : HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    this.requestTimeout = builder.requestTimeout;
+    this.maxInFlight = builder.maxInFlight;
+    this.maxRetries = builder.maxRetries;
+    this.retryBaseDelayMillis = builder.retryBaseDelay.toMillis();
+    this.rateLimit = new TokenBucket(builder.requestsPerSecond, builder.burst);
+    this.circuitBreaker = new CircuitBreaker(builder.failureThreshold, builder.openDuration);
+  }
+
+  @Override
+  @NotNull
+  public CompletableFuture<BufferedImage> fetchHead(@NotNull String playerName) {
+    return send(playerName, null, null)
+        .thenApply(response -> response.statusCode() == 200 ? decode(playerName, response.body()) : null)
+        .exceptionally(ex -> {
+          LOGGER.log(System.Logger.Level.WARNING, "Exception fetching head for player " + playerName + ": " + ex.getMessage());
+          return null;
+        });
+  }
+
+  /**
+   * Sends a (conditional) request through the rate limit, retries and circuit breaker.
+   *
+   * @param playerName   The Minecraft username.
+   * @param etag         The ETag to revalidate, if any
+   * @param lastModified The Last-Modified to revalidate, if any
+   * @return The final response, or a failed future if upstream is failing
+   */
+  @NotNull
+  CompletableFuture<HttpResponse<byte[]>> send(
+      @NotNull String playerName,
+      @Nullable String etag,
+      @Nullable String lastModified
+  ) {
+    final String urlString = this.baseUrl + playerName + "/" + this.headSize + ".png";
+    final HttpRequest.Builder requestBuilder;
+
+    try {
+      requestBuilder = HttpRequest.newBuilder()
+          .uri(URI.create(urlString))
+          .timeout(this.requestTimeout)
+          .GET();
+    }
+    catch (IllegalArgumentException e) {
+      return CompletableFuture.failedFuture(new IOException("Invalid url generated for player " + playerName + ": " + urlString, e));
+    }
+
+    if (etag != null) {
+      requestBuilder.header("If-None-Match", etag);
+    }
+
+    if (lastModified != null) {
+      requestBuilder.header("If-Modified-Since", lastModified);
+    }
+
+    return attempt(requestBuilder.build(), 0);
+  }
+
+  /**
+   * @return The number of requests currently waiting for the in-flight or rate limit
+   */
+  public synchronized int queuedRequests() {
+    return this.queued.size();
+  }
+
+  /**
+   * @return The number of requests currently in flight
+   */
+  public synchronized int inFlightRequests() {
+    return this.inFlight;
+  }
+
+  /**
+   * @return Whether requests are currently failing fast because upstream is failing
+   */
+  public boolean isCircuitOpen() {
+    return this.circuitBreaker.state() != CircuitBreaker.State.CLOSED;
+  }
+
+  private CompletableFuture<HttpResponse<byte[]>> attempt(HttpRequest request, int attempt) {
+    if (!this.circuitBreaker.tryAcquire()) {
+      return CompletableFuture.failedFuture(new CircuitOpenException("Circuit open, not requesting " + request.uri()));
+    }
+
+    return enqueue(() -> this.httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())).handle((response, throwable) -> {
+      final boolean failed = throwable != null || isRetryable(response.statusCode());
+
+      if (!failed) {
+        this.circuitBreaker.onSuccess();
+        return CompletableFuture.completedFuture(response);
+      }
+
+      this.circuitBreaker.onFailure();
+
+      if (attempt >= this.maxRetries) {
+        return throwable != null
+            ? CompletableFuture.<HttpResponse<byte[]>>failedFuture(throwable)
+            : CompletableFuture.completedFuture(response);
+      }
+
+      // Full jitter: anywhere between 0 and base * 2^attempt
+      final long maxDelay = this.retryBaseDelayMillis << Math.min(attempt, 10);
+      final long delay = ThreadLocalRandom.current().nextLong(maxDelay + 1);
+
+      return CompletableFuture.supplyAsync(() -> null, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+          .thenCompose(ignored -> attempt(request, attempt + 1));
+    }).thenCompose(future -> future);
+  }
+
+  private static boolean isRetryable(int statusCode) {
+    return statusCode == 429 || statusCode >= 500;
+  }
+
+  private <T> CompletableFuture<T> enqueue(Supplier<CompletableFuture<T>> task) {
+    final CompletableFuture<T> result = new CompletableFuture<>();
+
+    synchronized (this) {
+      this.queued.add(() -> {
+        CompletableFuture<T> started;
+        try {
+          started = task.get();
+        }
+        catch (RuntimeException e) {
+          started = CompletableFuture.failedFuture(e);
+        }
+
+        started.whenComplete((value, throwable) -> {
+          synchronized (this) {
+            this.inFlight--;
+          }
+
+          drain();
+
+          if (throwable != null) {
+            result.completeExceptionally(throwable);
+          }
+          else {
+            result.complete(value);
+          }
+        });
+      });
+    }
+
+    drain();
+    return result;
+  }
+
+  private void drain() {
+    while (true) {
+      final Runnable next;
+
+      synchronized (this) {
+        if (this.inFlight >= this.maxInFlight || this.queued.isEmpty()) {
+          return;
+        }
+
+        final long waitNanos = this.rateLimit.tryAcquire();
+        if (waitNanos > 0) {
+          if (!this.drainScheduled) {
+            this.drainScheduled = true;
+            CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS).execute(() -> {
+              synchronized (this) {
+                this.drainScheduled = false;
+              }
+
+              drain();
+            });
+          }
+
+          return;
+        }
+
+        this.inFlight++;
+        next = this.queued.poll();
+      }
+
+      next.run();
+    }
+  }
+
+  @Nullable
+  private static BufferedImage decode(String playerName, byte[] bytes) {
+    try (InputStream is = new ByteArrayInputStream(bytes)) {
+      return ImageIO.read(is);
+    }
+    catch (IOException e) {
+      LOGGER.log(System.Logger.Level.WARNING, "Failed to read image stream for player " + playerName + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Thrown instead of calling upstream while the circuit breaker is open.
+   */
+  static final class CircuitOpenException extends IOException {
+    CircuitOpenException(String message) {
+      super(message);
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private String baseUrl = DEFAULT_BASE_URL;
+    private int headSize = DEFAULT_HEAD_SIZE;
+    private HttpClient httpClient = null;
+    private Duration requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    private double requestsPerSecond = DEFAULT_REQUESTS_PER_SECOND;
+    private int burst = DEFAULT_BURST;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private Duration retryBaseDelay = DEFAULT_RETRY_BASE_DELAY;
+    private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    private Duration openDuration = DEFAULT_OPEN_DURATION;
+
+    private Builder() {
+    }
+
+    /**
+     * @param baseUrl The URL heads are requested from, as {@code <baseUrl>/<name>/<size>.png}
+     */
+    public Builder baseUrl(@NotNull String baseUrl) {
+      this.baseUrl = Objects.requireNonNull(baseUrl);
+      return this;
+    }
+
+    public Builder headSize(int headSize) {
+      this.headSize = Math.max(1, headSize);
+      return this;
+    }
+
+    public Builder httpClient(@Nullable HttpClient httpClient) {
+      this.httpClient = httpClient;
+      return this;
+    }
+
+    public Builder requestTimeout(@NotNull Duration requestTimeout) {
+      this.requestTimeout = Objects.requireNonNull(requestTimeout);
+      return this;
+    }
+
+    /**
+     * @param maxInFlight The most requests sent at once, further requests queue
+     */
+    public Builder maxInFlight(int maxInFlight) {
+      this.maxInFlight = Math.max(1, maxInFlight);
+      return this;
+    }
+
+    /**
+     * @param requestsPerSecond The sustained request rate
+     * @param burst             How many requests may be sent at once after being idle
+     */
+    public Builder rateLimit(double requestsPerSecond, int burst) {
+      this.requestsPerSecond = Math.max(0.01, requestsPerSecond);
+      this.burst = Math.max(1, burst);
+      return this;
+    }
+
+    /**
+     * @param maxRetries     How many times a failed request is retried
+     * @param retryBaseDelay The backoff before the first retry, doubled for each retry after
+     */
+    public Builder retries(int maxRetries, @NotNull Duration retryBaseDelay) {
+      this.maxRetries = Math.max(0, maxRetries);
+      this.retryBaseDelay = Objects.requireNonNull(retryBaseDelay);
+      return this;
+    }
+
+    /**
+     * @param failureThreshold Consecutive failures before requests fail fast
+     * @param openDuration     How long requests fail fast before a trial request is let through
+     */
+    public Builder circuitBreaker(int failureThreshold, @NotNull Duration openDuration) {
+      this.failureThreshold = Math.max(1, failureThreshold);
+      this.openDuration = Objects.requireNonNull(openDuration);
+      return this;
+    }
+
+    public HttpHeadProvider build() {
+      return new HttpHeadProvider(this);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package net.ultranetwork.render.head;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import javax.imageio.ImageIO;
+import net.ultranetwork.render.util.LruCache;
+import net.ultranetwork.render.util.RenderExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Serves heads from {@code <name>.png} files in a directory or on the classpath, with lower-case
+ * names. Useful for tests and nodes without network access.
+ * <p>
+ * Heads are read on the I/O executor, once however many fetches are waiting on them, and kept in a
+ * memory cache bounded by their pixel bytes. Missing heads are not remembered, so a file added later
+ * is picked up.
+ */
+public final class LocalHeadProvider implements HeadProvider {
+  private static final System.Logger LOGGER = System.getLogger(LocalHeadProvider.class.getName());
+
+  private static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+  private final Path directory;
+  private final String resourcePrefix;
+  private final Executor ioExecutor;
+  private final LruCache<String, BufferedImage> heads;
+  private final Map<String, CompletableFuture<BufferedImage>> loading = new ConcurrentHashMap<>();
+
+  private LocalHeadProvider(@Nullable Path directory, @Nullable String resourcePrefix, Executor ioExecutor, long maxBytes) {
+    this.directory = directory;
+    this.resourcePrefix = resourcePrefix;
+    this.ioExecutor = Objects.requireNonNull(ioExecutor);
+    this.heads = new LruCache<>(maxBytes, head -> (long) head.getWidth() * head.getHeight() * Integer.BYTES);
+  }
+
+  /**
+   * @param directory The directory containing {@code <name>.png} files
+   */
+  @NotNull
+  public static LocalHeadProvider directory(@NotNull Path directory) {
+    return directory(directory, RenderExecutor.defaultIoExecutor(), DEFAULT_MAX_BYTES);
+  }
+
+  /**
+   * @param directory  The directory containing {@code <name>.png} files
+   * @param ioExecutor The executor heads are read on
+   * @param maxBytes   The pixel bytes of heads kept in memory
+   */
+  @NotNull
+  public static LocalHeadProvider directory(@NotNull Path directory, @NotNull Executor ioExecutor, long maxBytes) {
+    return new LocalHeadProvider(directory, null, ioExecutor, maxBytes);
+  }
+
+  /**
+   * @param resourcePrefix The classpath location containing {@code <name>.png} resources, e.g. {@code /heads/}
+   */
+  @NotNull
+  public static LocalHeadProvider classpath(@NotNull String resourcePrefix) {
+    return classpath(resourcePrefix, RenderExecutor.defaultIoExecutor(), DEFAULT_MAX_BYTES);
+  }
+
+  /**
+   * @param resourcePrefix The classpath location containing {@code <name>.png} resources, e.g. {@code /heads/}
+   * @param ioExecutor     The executor heads are read on
+   * @param maxBytes       The pixel bytes of heads kept in memory
+   */
+  @NotNull
+  public static LocalHeadProvider classpath(@NotNull String resourcePrefix, @NotNull Executor ioExecutor, long maxBytes) {
+    return new LocalHeadProvider(null, resourcePrefix.endsWith("/") ? resourcePrefix : resourcePrefix + "/",
+        ioExecutor, maxBytes);
+  }
+
+  @Override
+  @NotNull
+  public CompletableFuture<BufferedImage> fetchHead(@NotNull String playerName) {
+    final String key = playerName.toLowerCase(Locale.ROOT);
+    final BufferedImage cached = this.heads.get(key);
+
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+
+    final CompletableFuture<BufferedImage> pending = new CompletableFuture<>();
+    final CompletableFuture<BufferedImage> existing = this.loading.putIfAbsent(key, pending);
+
+    if (existing != null) {
+      return existing;
+    }
+
+    try {
+      this.ioExecutor.execute(() -> {
+        final BufferedImage head = load(key);
+
+        if (head != null) {
+          this.heads.put(key, head);
+        }
+
+        this.loading.remove(key, pending);
+        pending.complete(head);
+      });
+    }
+    catch (RejectedExecutionException e) {
+      LOGGER.log(System.Logger.Level.WARNING, "Not reading local head " + key + ": " + e.getMessage());
+      this.loading.remove(key, pending);
+      pending.complete(null);
+    }
+
+    return pending;
+  }
+
+  /**
+   * @return The number of heads kept in memory
+   */
+  public int cachedHeads() {
+    return this.heads.size();
+  }
+
+  @Nullable
+  private BufferedImage load(String key) {
+    final String fileName = key + ".png";
+
+    try (InputStream is = open(fileName)) {
+      return is != null ? ImageIO.read(is) : null;
+    }
+    catch (IOException | RuntimeException e) {
+      LOGGER.log(System.Logger.Level.WARNING, "Failed to read local head " + fileName + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  @Nullable
+  private InputStream open(String fileName) throws IOException {
+    if (this.directory != null) {
+      final Path path = this.directory.resolve(fileName).normalize();
+
+      // Names come from players, keep them inside the directory
+      if (!path.startsWith(this.directory.normalize()) || !Files.isRegularFile(path)) {
+        return null;
+      }
+
+      return Files.newInputStream(path);
+    }
+
+    if (fileName.contains("/") || fileName.contains("..")) {
+      return null;
+    }
+
+    return LocalHeadProvider.class.getResourceAsStream(this.resourcePrefix + fileName);
+  }
+}
@@ -0,0 +1,413 @@
+package net.ultranetwork.render.head;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+import javax.imageio.ImageIO;
+import net.ultranetwork.render.util.RenderExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Cuts heads out of players' skins, keyed by UUID instead of by name.
+ * <p>
+ * Register each player's {@code textures} profile property, the Base64 value the server already has
+ * on its player profiles, with {@link #texture(UUID, String)}. The first time a head is asked for, the
+ * skin PNG is read from the skin directory, or downloaded from {@code textures.minecraft.net} into it
+ * once, and the face and hat layers are composited into a 16x16 helm kept in a {@link HeadStore}.
+ * Players sharing a skin share one decode. Players without a registered texture go to the fallback.
+ */
+public final class SkinHeadProvider implements HeadProvider {
+  private static final System.Logger LOGGER = System.getLogger(SkinHeadProvider.class.getName());
+
+  private static final int DEFAULT_STORE_CAPACITY = 4096;
+  private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+  private static final String TEXTURE_HOST = "textures.minecraft.net";
+  private static final Pattern TEXTURE_HASH = Pattern.compile("[0-9a-f]{1,128}");
+
+  // Alpha below which Minecraft discards a hat pixel
+  private static final int HAT_ALPHA_CUTOFF = 26;
+
+  private final HeadStore store;
+  private final Path skinDirectory;
+  private final HttpClient httpClient;
+  private final Duration requestTimeout;
+  private final Executor ioExecutor;
+  private final HeadProvider fallback;
+  private final Map<UUID, String> textures = new ConcurrentHashMap<>(); // uuid -> texture hash
+  private final Map<String, CompletableFuture<int[]>> loading = new ConcurrentHashMap<>(); // hash -> helm
+
+  private SkinHeadProvider(Builder builder) {
+    this.store = builder.store != null ? builder.store : new HeadStore(DEFAULT_STORE_CAPACITY);
+    this.skinDirectory = builder.skinDirectory;
+    this.httpClient = builder.httpClient != null ? builder.httpClient : HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    this.requestTimeout = builder.requestTimeout;
+    this.ioExecutor = builder.ioExecutor;
+    this.fallback = builder.fallback;
+  }
+
+  /**
+   * Sets the skin a player's head is cut from, dropping their stored head if the skin changed.
+   *
+   * @param uuid     The player
+   * @param property The value of the player's {@code textures} profile property, Base64 JSON
+   * @return Whether the property named a skin on {@code textures.minecraft.net}
+   */
+  public boolean texture(@NotNull UUID uuid, @NotNull String property) {
+    final String hash = textureHash(property);
+
+    if (hash == null) {
+      forget(uuid);
+      return false;
+    }
+
+    final String previous = this.textures.put(uuid, hash);
+    if (previous != null && !previous.equals(hash)) {
+      this.store.remove(uuid);
+    }
+
+    return true;
+  }
+
+  /**
+   * Drops the player's texture and stored head, such as when they leave the network.
+   *
+   * @param uuid The player
+   */
+  public void forget(@NotNull UUID uuid) {
+    this.textures.remove(uuid);
+    this.store.remove(uuid);
+  }
+
+  /**
+   * @return The store heads are kept in
+   */
+  @NotNull
+  public HeadStore store() {
+    return this.store;
+  }
+
+  @Override
+  @NotNull
+  public CompletableFuture<BufferedImage> fetchHead(@NotNull String playerName) {
+    return this.fallback != null
+        ? this.fallback.fetchHead(playerName)
+        : CompletableFuture.completedFuture(null);
+  }
+
+  @Override
+  @NotNull
+  public CompletableFuture<BufferedImage> fetchHead(@Nullable UUID uuid, @NotNull String playerName) {
+    if (uuid == null) {
+      return fetchHead(playerName);
+    }
+
+    final BufferedImage stored = this.store.image(uuid);
+    if (stored != null) {
+      return CompletableFuture.completedFuture(stored);
+    }
+
+    final String hash = this.textures.get(uuid);
+    if (hash == null) {
+      return this.fallback != null
+          ? this.fallback.fetchHead(uuid, playerName)
+          : CompletableFuture.completedFuture(null);
+    }
+
+    return helm(hash).thenApply(helm -> {
+      if (helm == null) {
+        return null;
+      }
+
+      // The texture may have changed while the skin loaded
+      if (hash.equals(this.textures.get(uuid))) {
+        this.store.put(uuid, helm, 0);
+      }
+
+      final BufferedImage image = new BufferedImage(HeadStore.HEAD_SIZE, HeadStore.HEAD_SIZE, BufferedImage.TYPE_INT_ARGB);
+      image.setRGB(0, 0, HeadStore.HEAD_SIZE, HeadStore.HEAD_SIZE, helm, 0, HeadStore.HEAD_SIZE);
+      return image;
+    });
+  }
+
+  /**
+   * Copies the player's head straight out of the store, without the image {@link #fetchHead(UUID, String)}
+   * would allocate.
+   */
+  @Override
+  public boolean copyHead(@Nullable UUID uuid, int @NotNull [] dst, int offset) {
+    if (uuid == null) {
+      return false;
+    }
+
+    if (this.store.get(uuid, dst, offset)) {
+      return true;
+    }
+
+    return this.fallback != null && !this.textures.containsKey(uuid) && this.fallback.copyHead(uuid, dst, offset);
+  }
+
+  /**
+   * Loads a skin's helm once, however many players are waiting on it.
+   */
+  private CompletableFuture<int[]> helm(String hash) {
+    final CompletableFuture<int[]> pending = new CompletableFuture<>();
+    final CompletableFuture<int[]> existing = this.loading.putIfAbsent(hash, pending);
+
+    if (existing != null) {
+      return existing;
+    }
+
+    CompletableFuture.supplyAsync(() -> readSkin(hash), this.ioExecutor)
+        .thenCompose(bytes -> bytes != null ? CompletableFuture.completedFuture(bytes) : download(hash))
+        .thenApply(bytes -> {
+          final BufferedImage skin = bytes != null ? decode(bytes) : null;
+
+          if (bytes != null && skin == null) {
+            LOGGER.log(System.Logger.Level.WARNING, "Failed to read skin " + hash);
+          }
+
+          return skin != null ? extractHelm(skin) : null;
+        })
+        .exceptionally(ex -> {
+          LOGGER.log(System.Logger.Level.WARNING, "Exception loading skin " + hash + ": " + ex.getMessage());
+          return null;
+        })
+        .whenComplete((helm, throwable) -> {
+          this.loading.remove(hash, pending);
+          pending.complete(helm);
+        });
+
+    return pending;
+  }
+
+  private byte @Nullable [] readSkin(String hash) {
+    if (this.skinDirectory == null) {
+      return null;
+    }
+
+    final Path path = this.skinDirectory.resolve(hash + ".png");
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+
+    try {
+      return Files.readAllBytes(path);
+    }
+    catch (IOException e) {
+      LOGGER.log(System.Logger.Level.WARNING, "Failed to read cached skin " + path + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  private CompletableFuture<byte[]> download(String hash) {
+    final HttpRequest request = HttpRequest.newBuilder()
+        .uri(URI.create("https://" + TEXTURE_HOST + "/texture/" + hash))
+        .timeout(this.requestTimeout)
+        .GET()
+        .build();
+
+    return this.httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+        .thenApplyAsync(response -> {
+          if (response.statusCode() != 200) {
+            LOGGER.log(System.Logger.Level.WARNING, "Skin " + hash + " returned status " + response.statusCode());
+            return null;
+          }
+
+          writeSkin(hash, response.body());
+          return response.body();
+        }, this.ioExecutor);
+  }
+
+  private void writeSkin(String hash, byte[] bytes) {
+    if (this.skinDirectory == null) {
+      return;
+    }
+
+    try {
+      Files.createDirectories(this.skinDirectory);
+      final Path target = this.skinDirectory.resolve(hash + ".png");
+      final Path temp = Files.createTempFile(this.skinDirectory, hash, ".tmp");
+
+      try {
+        try (OutputStream os = Files.newOutputStream(temp)) {
+          os.write(bytes);
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      finally {
+        Files.deleteIfExists(temp);
+      }
+    }
+    catch (IOException e) {
+      LOGGER.log(System.Logger.Level.WARNING, "Failed to write cached skin " + hash + ": " + e.getMessage());
+    }
+  }
+
+  @Nullable
+  private static BufferedImage decode(byte[] bytes) {
+    try (InputStream is = new ByteArrayInputStream(bytes)) {
+      return ImageIO.read(is);
+    }
+    catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @param property The Base64 {@code textures} profile property
+   * @return The hash naming the skin on {@code textures.minecraft.net}, or null if there is none
+   */
+  @Nullable
+  static String textureHash(@NotNull String property) {
+    try {
+      final JsonObject root = JsonParser.parseString(
+          new String(Base64.getDecoder().decode(property.trim()), StandardCharsets.UTF_8)).getAsJsonObject();
+      final JsonElement textures = root.get("textures");
+      final JsonElement skin = textures != null && textures.isJsonObject() ? textures.getAsJsonObject().get("SKIN") : null;
+      final JsonElement url = skin != null && skin.isJsonObject() ? skin.getAsJsonObject().get("url") : null;
+
+      if (url == null || !url.isJsonPrimitive()) {
+        return null;
+      }
+
+      final URI uri = URI.create(url.getAsString());
+      final String path = uri.getPath();
+      final String hash = path != null ? path.substring(path.lastIndexOf('/') + 1) : "";
+
+      // The hash becomes a file name, so only accept what Mojang serves
+      return TEXTURE_HOST.equals(uri.getHost()) && TEXTURE_HASH.matcher(hash).matches() ? hash : null;
+    }
+    catch (RuntimeException e) {
+      LOGGER.log(System.Logger.Level.DEBUG, "Ignoring malformed textures property: " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Composites the hat layer over the face, the way the game draws a player head, at 16x16.
+   *
+   * @param skin A 64x64 skin, a legacy 64x32 one, or a multiple of either
+   * @return The helm's {@value HeadStore#HEAD_PIXELS} pixels, row major, or null if the skin is not a skin
+   */
+  static int @Nullable [] extractHelm(@NotNull BufferedImage skin) {
+    final int unit = skin.getWidth() / 64;
+    final boolean legacy = skin.getHeight() * 2 == skin.getWidth();
+
+    if (unit < 1 || skin.getWidth() % 64 != 0 || (!legacy && skin.getHeight() != skin.getWidth())) {
+      return null;
+    }
+
+    final int layerSize = 8 * unit;
+    final int[] face = skin.getRGB(8 * unit, 8 * unit, layerSize, layerSize, null, 0, layerSize);
+    final int[] hat = skin.getRGB(40 * unit, 8 * unit, layerSize, layerSize, null, 0, layerSize);
+
+    // Legacy skins had no transparency, so the game ignores a hat layer that is solid throughout
+    boolean useHat = !legacy;
+    for (int i = 0; !useHat && i < hat.length; i++) {
+      useHat = hat[i] >>> 24 < HAT_ALPHA_CUTOFF;
+    }
+
+    final int[] helm = new int[HeadStore.HEAD_PIXELS];
+    for (int y = 0; y < HeadStore.HEAD_SIZE; y++) {
+      for (int x = 0; x < HeadStore.HEAD_SIZE; x++) {
+        final int source = (y * layerSize / HeadStore.HEAD_SIZE) * layerSize + x * layerSize / HeadStore.HEAD_SIZE;
+        final int hatArgb = hat[source];
+
+        // Both layers are drawn opaque; hat pixels are either there or not
+        helm[y * HeadStore.HEAD_SIZE + x] = 0xff000000
+            | (useHat && hatArgb >>> 24 >= HAT_ALPHA_CUTOFF ? hatArgb : face[source]);
+      }
+    }
+
+    return helm;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private HeadStore store = null;
+    private Path skinDirectory = null;
+    private HttpClient httpClient = null;
+    private Duration requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+    private Executor ioExecutor = RenderExecutor.defaultIoExecutor();
+    private HeadProvider fallback = null;
+
+    private Builder() {
+    }
+
+    /**
+     * @param store The store heads are kept in, or null for one holding 4096 heads
+     */
+    public Builder store(@Nullable HeadStore store) {
+      this.store = store;
+      return this;
+    }
+
+    /**
+     * @param skinDirectory The directory skin PNGs are cached in by texture hash, or null to download
+     *                      skins every time a head is not in the store
+     */
+    public Builder skinDirectory(@Nullable Path skinDirectory) {
+      this.skinDirectory = skinDirectory;
+      return this;
+    }
+
+    public Builder httpClient(@Nullable HttpClient httpClient) {
+      this.httpClient = httpClient;
+      return this;
+    }
+
+    public Builder requestTimeout(@NotNull Duration requestTimeout) {
+      this.requestTimeout = Objects.requireNonNull(requestTimeout);
+      return this;
+    }
+
+    /**
+     * @param ioExecutor The executor skin reads and writes run on, {@link RenderExecutor#defaultIoExecutor()} by default
+     */
+    public Builder ioExecutor(@NotNull Executor ioExecutor) {
+      this.ioExecutor = Objects.requireNonNull(ioExecutor);
+      return this;
+    }
+
+    /**
+     * @param fallback Where heads of players without a registered texture come from, or null for none
+     */
+    public Builder fallback(@Nullable HeadProvider fallback) {
+      this.fallback = fallback;
+      return this;
+    }
+
+    public SkinHeadProvider build() {
+      return new SkinHeadProvider(this);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package net.ultranetwork.render.head;
+
+/**
+ * Token bucket rate limiter. Not thread-safe; callers synchronize.
+ */
+final class TokenBucket {
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  private final double capacity;
+  private final double tokensPerNano;
+  private double tokens;
+  private long lastRefill;
+
+  /**
+   * @param tokensPerSecond The sustained rate
+   * @param capacity        The burst size
+   */
+  TokenBucket(double tokensPerSecond, int capacity) {
+    this.capacity = Math.max(1, capacity);
+    this.tokensPerNano = tokensPerSecond / NANOS_PER_SECOND;
+    this.tokens = this.capacity;
+    this.lastRefill = System.nanoTime();
+  }
+
+  /**
+   * @return 0 if a token was taken, otherwise the nanos until the next token is available
+   */
+  long tryAcquire() {
+    final long now = System.nanoTime();
+    this.tokens = Math.min(this.capacity, this.tokens + (now - this.lastRefill) * this.tokensPerNano);
+    this.lastRefill = now;
+
+    if (this.tokens >= 1) {
+      this.tokens -= 1;
+      return 0;
+    }
+
+    return Math.max(1, (long) Math.ceil((1 - this.tokens) / this.tokensPerNano));
+  }
+}
@@ -0,0 +1,118 @@
+package net.ultranetwork.render.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Request counts and latency of one {@link RenderServer} endpoint. Latencies are kept in power of two
+ * microsecond buckets, so percentiles are rounded up to the next bucket.
+ */
+public final class EndpointStats {
+  private static final int BUCKETS = 40; // up to ~2^39 us, over six days
+
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong rendered = new AtomicLong();
+  private final AtomicLong notModified = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+  private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+  /**
+   * @param requests    Every request answered
+   * @param rendered    Requests answered with a rendered image
+   * @param notModified Requests answered with 304
+   * @param rejected    Requests turned away by the concurrency limit
+   * @param failed      Bad requests and failed renders
+   * @param meanMillis  The mean latency
+   * @param p50Millis   The median latency, rounded up to its bucket
+   * @param p99Millis   The 99th percentile latency, rounded up to its bucket
+   * @param maxMillis   The slowest request
+   */
+  public record Snapshot(
+      long requests,
+      long rendered,
+      long notModified,
+      long rejected,
+      long failed,
+      double meanMillis,
+      double p50Millis,
+      double p99Millis,
+      double maxMillis
+  ) {
+  }
+
+  EndpointStats() {
+  }
+
+  /**
+   * @param status The response status, or -1 if the exchange failed before one was sent
+   * @param nanos  How long the request took
+   */
+  void record(int status, long nanos) {
+    this.requests.incrementAndGet();
+
+    if (status == 200) {
+      this.rendered.incrementAndGet();
+    }
+    else if (status == 304) {
+      this.notModified.incrementAndGet();
+    }
+    else if (status == 503) {
+      this.rejected.incrementAndGet();
+    }
+    else {
+      this.failed.incrementAndGet();
+    }
+
+    this.totalNanos.addAndGet(nanos);
+    this.maxNanos.accumulateAndGet(nanos, Math::max);
+
+    final long micros = Math.max(1, nanos / 1000);
+    this.histogram.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros - 1)));
+  }
+
+  @NotNull
+  public Snapshot snapshot() {
+    final long[] counts = new long[BUCKETS];
+    long total = 0;
+
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = this.histogram.get(i);
+      total += counts[i];
+    }
+
+    final long requests = this.requests.get();
+    return new Snapshot(
+        requests,
+        this.rendered.get(),
+        this.notModified.get(),
+        this.rejected.get(),
+        this.failed.get(),
+        requests == 0 ? 0 : this.totalNanos.get() / 1e6 / requests,
+        percentile(counts, total, 0.50),
+        percentile(counts, total, 0.99),
+        this.maxNanos.get() / 1e6);
+  }
+
+  private static double percentile(long[] counts, long total, double fraction) {
+    if (total == 0) {
+      return 0;
+    }
+
+    final long rank = (long) Math.ceil(total * fraction);
+    long seen = 0;
+
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+
+      if (seen >= rank) {
+        return (1L << i) / 1000.0; // the bucket's upper bound
+      }
+    }
+
+    return (1L << (counts.length - 1)) / 1000.0;
+  }
+}
@@ -0,0 +1,111 @@
+package net.ultranetwork.render.http;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * SHA-256 of everything a render depends on, used as a strong ETag so a request can be answered with
+ * 304 before anything is laid out or drawn. Every field is length or type prefixed, so different
+ * inputs can't run together into the same bytes.
+ */
+final class Fingerprint {
+  /**
+   * Raise whenever the same input renders differently, so clients drop their copies.
+   */
+  static final int RENDER_VERSION = 1;
+
+  private final MessageDigest digest;
+  private final ByteBuffer scratch = ByteBuffer.allocate(Long.BYTES);
+
+  /**
+   * @param kind What is being rendered, so different endpoints never share an ETag
+   */
+  Fingerprint(@NotNull String kind) {
+    try {
+      this.digest = MessageDigest.getInstance("SHA-256");
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    add(RENDER_VERSION);
+    add(kind);
+  }
+
+  @NotNull
+  Fingerprint add(int value) {
+    this.digest.update(this.scratch.clear().putInt(value).array(), 0, Integer.BYTES);
+    return this;
+  }
+
+  @NotNull
+  Fingerprint add(long value) {
+    this.digest.update(this.scratch.clear().putLong(value).array(), 0, Long.BYTES);
+    return this;
+  }
+
+  @NotNull
+  Fingerprint add(boolean value) {
+    this.digest.update(value ? (byte) 1 : (byte) 0);
+    return this;
+  }
+
+  @NotNull
+  Fingerprint add(@Nullable String value) {
+    if (value == null) {
+      return add(-1);
+    }
+
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    add(bytes.length);
+    this.digest.update(bytes);
+    return this;
+  }
+
+  /**
+   * Components are hashed by their JSON, so MiniMessage and JSON input that mean the same text share
+   * an ETag.
+   */
+  @NotNull
+  Fingerprint add(@Nullable Component value) {
+    return add(value == null ? null : GsonComponentSerializer.gson().serialize(value));
+  }
+
+  /**
+   * Images are hashed by their size and ARGB pixels.
+   */
+  @NotNull
+  Fingerprint add(@NotNull BufferedImage image) {
+    final int width = image.getWidth();
+    final int height = image.getHeight();
+    final int[] row = new int[width];
+    final ByteBuffer bytes = ByteBuffer.allocate(width * Integer.BYTES);
+
+    add(width);
+    add(height);
+
+    for (int y = 0; y < height; y++) {
+      image.getRGB(0, y, width, 1, row, 0, width);
+      bytes.clear().asIntBuffer().put(row);
+      this.digest.update(bytes.array());
+    }
+
+    return this;
+  }
+
+  /**
+   * @return The quoted ETag. The fingerprint can't be added to afterwards.
+   */
+  @NotNull
+  String etag() {
+    return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(this.digest.digest()) + '"';
+  }
+}
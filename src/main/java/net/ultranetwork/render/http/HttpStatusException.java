@@ -0,0 +1,19 @@
+package net.ultranetwork.render.http;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Ends a request early with an error status and a plain text message.
+ */
+final class HttpStatusException extends RuntimeException {
+  private final int status;
+
+  HttpStatusException(int status, @NotNull String message) {
+    super(message, null, false, false);
+    this.status = status;
+  }
+
+  int status() {
+    return this.status;
+  }
+}
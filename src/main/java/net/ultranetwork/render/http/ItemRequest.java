@@ -0,0 +1,68 @@
+package net.ultranetwork.render.http;
+
+import java.util.concurrent.CompletableFuture;
+import net.kyori.adventure.text.Component;
+import net.ultranetwork.render.item.ItemImageRenderer;
+import net.ultranetwork.render.item.TooltipLayout;
+import net.ultranetwork.render.item.TooltipSnapshot;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A tooltip to render, from the fields {@code name}, {@code amount}, {@code lore} (repeated, or an
+ * array) and {@code scale}.
+ *
+ * @param snapshot The tooltip contents
+ * @param scale    The output scale
+ */
+record ItemRequest(@NotNull TooltipSnapshot snapshot, int scale) implements RenderRequest {
+  static final int MAX_LORE_LINES = 64;
+  static final int MAX_AMOUNT = 999;
+
+  /**
+   * @param input The request fields
+   * @return The request
+   * @throws IllegalArgumentException If a field is missing or invalid
+   */
+  @NotNull
+  static ItemRequest parse(@NotNull RequestInput input) {
+    final Component name = input.component("name");
+
+    if (name == null) {
+      throw new IllegalArgumentException("name is required");
+    }
+
+    return new ItemRequest(
+        new TooltipSnapshot(name, input.integer("amount", 1, 1, MAX_AMOUNT), input.components("lore", MAX_LORE_LINES)),
+        input.integer("scale", 1, 1, RenderServer.MAX_SCALE));
+  }
+
+  @Override
+  @NotNull
+  public String etag() {
+    final Fingerprint fingerprint = new Fingerprint("item")
+        .add(this.snapshot.name())
+        .add(this.snapshot.amount())
+        .add(this.snapshot.lore().size());
+
+    for (Component line : this.snapshot.lore()) {
+      fingerprint.add(line);
+    }
+
+    return fingerprint.add(this.scale).etag();
+  }
+
+  @Override
+  @NotNull
+  public CompletableFuture<Rendered> render(@NotNull RenderServer server) {
+    final ItemImageRenderer.Builder builder = ItemImageRenderer.builder()
+        .snapshot(this.snapshot)
+        .scale(this.scale)
+        .textCache(server.textCache())
+        .executor(server.executor());
+
+    final TooltipLayout layout = builder.layout();
+    RenderServer.checkSize(layout.width(), layout.height(), this.scale);
+
+    return builder.build().thenApply(image -> new Rendered(image, etag()));
+  }
+}
@@ -0,0 +1,265 @@
+package net.ultranetwork.render.http;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.kyori.adventure.text.Component;
+import net.ultranetwork.render.head.HeadProvider;
+import net.ultranetwork.render.playerlist.PlayerListLayout;
+import net.ultranetwork.render.playerlist.PlayerListName;
+import net.ultranetwork.render.playerlist.PlayerListPages;
+import net.ultranetwork.render.playerlist.PlayerListRenderer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A player list to render, from the fields {@code header}, {@code footer}, {@code player} (repeated,
+ * or an array), {@code heads}, {@code rows}, {@code scale} and {@code page}.
+ * <p>
+ * A player is an object with {@code name} and optionally {@code display}, {@code ping},
+ * {@code priority} and {@code uuid}, or in query parameters just {@code name} or {@code name:ping}.
+ *
+ * @param header  The header, or null for none
+ * @param footer  The footer, or null for the default player count
+ * @param players The players
+ * @param heads   Whether to draw heads, fetched from the server's head provider
+ * @param rows    The most players per column
+ * @param scale   The output scale
+ * @param page    The page to render, or -1 to render one image with the overflow hidden
+ */
+record PlayerListRequest(
+    @Nullable Component header,
+    @Nullable Component footer,
+    @NotNull List<PlayerListName> players,
+    boolean heads,
+    int rows,
+    int scale,
+    int page
+) implements RenderRequest {
+  static final int MAX_PLAYERS = 1000;
+  static final int MAX_ROWS = 100;
+  private static final int MAX_NAME_LENGTH = 64;
+
+  PlayerListRequest {
+    players = List.copyOf(players);
+  }
+
+  /**
+   * @param input The request fields
+   * @return The request
+   * @throws IllegalArgumentException If a field is invalid
+   */
+  @NotNull
+  static PlayerListRequest parse(@NotNull RequestInput input) {
+    final List<JsonElement> entries = input.elements("player", MAX_PLAYERS);
+    final List<PlayerListName> players = new ArrayList<>(entries.size());
+
+    for (JsonElement entry : entries) {
+      players.add(player(entry));
+    }
+
+    return new PlayerListRequest(
+        input.component("header"),
+        input.component("footer"),
+        players,
+        input.bool("heads", false),
+        input.integer("rows", 20, 1, MAX_ROWS),
+        input.integer("scale", 1, 1, RenderServer.MAX_SCALE),
+        input.integer("page", -1, -1, MAX_PLAYERS));
+  }
+
+  private static PlayerListName player(JsonElement entry) {
+    if (entry.isJsonPrimitive()) {
+      final String value = entry.getAsString();
+      final int colon = value.lastIndexOf(':');
+
+      if (colon < 0) {
+        return PlayerListName.of(Component.text(name(value)), -1, value, 0);
+      }
+
+      final String name = name(value.substring(0, colon));
+      return PlayerListName.of(Component.text(name), ping(value.substring(colon + 1)), name, 0);
+    }
+
+    if (!entry.isJsonObject()) {
+      throw new IllegalArgumentException("player must be an object or a name");
+    }
+
+    final JsonObject object = entry.getAsJsonObject();
+    final JsonElement nameElement = object.get("name");
+
+    if (nameElement == null || !nameElement.isJsonPrimitive()) {
+      throw new IllegalArgumentException("player name is required");
+    }
+
+    final String name = name(nameElement.getAsString());
+    final JsonElement display = object.get("display");
+    final JsonElement uuid = object.get("uuid");
+
+    try {
+      return PlayerListName.of(
+          display == null || display.isJsonNull() ? Component.text(name) : RequestInput.component("display", display),
+          object.has("ping") ? object.get("ping").getAsInt() : -1,
+          name,
+          object.has("priority") ? object.get("priority").getAsInt() : 0,
+          uuid == null || uuid.isJsonNull() ? null : UUID.fromString(uuid.getAsString()));
+    }
+    catch (IllegalStateException | UnsupportedOperationException | NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid player " + name + ": " + e.getMessage());
+    }
+  }
+
+  private static String name(String name) {
+    if (name.isEmpty() || name.length() > MAX_NAME_LENGTH) {
+      throw new IllegalArgumentException("Player names must be 1 to " + MAX_NAME_LENGTH + " characters");
+    }
+
+    return name;
+  }
+
+  private static int ping(String ping) {
+    try {
+      return Integer.parseInt(ping);
+    }
+    catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid ping " + ping);
+    }
+  }
+
+  @Override
+  @NotNull
+  public String etag() {
+    return fingerprint().etag();
+  }
+
+  /**
+   * Heads come from the head provider and change with players' skins, so the ETag of a list with heads
+   * is only known once the heads drawn are.
+   */
+  @Override
+  public boolean etagKnownBeforeRender() {
+    return !this.heads;
+  }
+
+  private Fingerprint fingerprint() {
+    final Fingerprint fingerprint = new Fingerprint("playerlist")
+        .add(this.header)
+        .add(this.footer)
+        .add(this.players.size());
+
+    for (PlayerListName player : this.players) {
+      fingerprint.add(player.listNameComponent())
+          .add(player.ping())
+          .add(player.plainListName())
+          .add(player.priority())
+          .add(player.uuid() == null ? null : player.uuid().toString());
+    }
+
+    return fingerprint.add(this.heads)
+        .add(this.rows)
+        .add(this.scale)
+        .add(this.page);
+  }
+
+  @Override
+  @NotNull
+  public CompletableFuture<Rendered> render(@NotNull RenderServer server) {
+    final MissingHeads heads = new MissingHeads(server.headProvider());
+    final PlayerListRenderer.Builder builder = PlayerListRenderer.builder()
+        .header(this.header)
+        .names(this.players)
+        .maxPlayersPerColumn(this.rows)
+        .showNameHeads(this.heads)
+        .headProvider(heads)
+        .textCache(server.textCache())
+        .scale(this.scale)
+        .executor(server.executor());
+
+    if (this.footer != null) {
+      builder.footer(this.footer);
+    }
+
+    // Pages are laid out on the same grid as the whole list, so this is also every page's size
+    final PlayerListLayout layout = builder.layout();
+    RenderServer.checkSize(layout.width(), layout.height(), this.scale);
+
+    final CompletableFuture<BufferedImage> image;
+    if (this.page < 0) {
+      image = builder.build();
+    }
+    else {
+      final PlayerListPages pages = builder.paginate();
+
+      if (this.page >= pages.pageCount()) {
+        throw new HttpStatusException(404, "Page " + this.page + " out of " + pages.pageCount());
+      }
+
+      image = pages.page(this.page);
+    }
+
+    return image.thenApply(rendered -> new Rendered(rendered, etag(heads)));
+  }
+
+  @Nullable
+  private String etag(MissingHeads heads) {
+    if (heads.missed.get()) {
+      return null;
+    }
+
+    if (!this.heads) {
+      return etag();
+    }
+
+    final Fingerprint fingerprint = fingerprint().add(heads.drawn.size());
+    for (Map.Entry<String, BufferedImage> head : heads.drawn.entrySet()) {
+      fingerprint.add(head.getKey()).add(head.getValue());
+    }
+
+    return fingerprint.etag();
+  }
+
+  /**
+   * Passes fetches through, noting whether any player had no head and which heads were fetched.
+   */
+  private static final class MissingHeads implements HeadProvider {
+    private final HeadProvider provider;
+    private final AtomicBoolean missed = new AtomicBoolean();
+    private final Map<String, BufferedImage> drawn = new ConcurrentSkipListMap<>(); // by name, for a stable order
+
+    private MissingHeads(HeadProvider provider) {
+      this.provider = provider;
+    }
+
+    @Override
+    @NotNull
+    public CompletableFuture<BufferedImage> fetchHead(@NotNull String playerName) {
+      return note(playerName, this.provider.fetchHead(playerName));
+    }
+
+    @Override
+    @NotNull
+    public CompletableFuture<BufferedImage> fetchHead(@Nullable UUID uuid, @NotNull String playerName) {
+      return note(playerName, this.provider.fetchHead(uuid, playerName));
+    }
+
+    private CompletableFuture<BufferedImage> note(String playerName, CompletableFuture<BufferedImage> fetch) {
+      return fetch.thenApply(head -> {
+        if (head == null) {
+          this.missed.set(true);
+        }
+        else {
+          this.drawn.put(playerName, head);
+        }
+
+        return head;
+      });
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package net.ultranetwork.render.http;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A parsed and checked request to one of the {@link RenderServer} endpoints.
+ */
+interface RenderRequest {
+
+  /**
+   * @return The strong ETag of the request's fields
+   */
+  @NotNull
+  String etag();
+
+  /**
+   * @return Whether {@link #etag()} covers everything the render depends on, so a request whose
+   * If-None-Match matches can be answered before rendering. Renders that also depend on state outside
+   * the request, like the skins a head provider has, only know their ETag once rendered.
+   */
+  default boolean etagKnownBeforeRender() {
+    return true;
+  }
+
+  /**
+   * @param server The server, for its shared caches and providers
+   * @return The render
+   */
+  @NotNull
+  CompletableFuture<Rendered> render(@NotNull RenderServer server);
+
+  /**
+   * @param image The rendered image
+   * @param etag  The image's ETag, or null if it must not be cached. Renders that fell back because
+   *              something they needed was missing are not cached, so clients ask again later.
+   */
+  record Rendered(@NotNull BufferedImage image, @Nullable String etag) {
+  }
+}
@@ -0,0 +1,447 @@
+package net.ultranetwork.render.http;
+
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import net.ultranetwork.render.head.HeadProvider;
+import net.ultranetwork.render.util.PngEncoder;
+import net.ultranetwork.render.util.RenderExecutor;
+import net.ultranetwork.render.util.TextSpriteCache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Serves tooltips and player lists as PNGs over HTTP, for web pages and bots outside the game.
+ * <p>
+ * {@code /item} and {@code /playerlist} take their fields as query parameters on a GET, or as a JSON
+ * or form body on a POST, with text as MiniMessage strings or Adventure JSON. Every response carries a
+ * strong ETag fingerprinting the input, and a request whose {@code If-None-Match} matches is answered
+ * with 304 before anything is laid out. Player lists with heads also depend on the skins the head
+ * provider has, so their ETag covers the heads drawn too, and is only compared once they have been
+ * rendered. {@code /stats} returns each endpoint's counts and latencies.
+ * <p>
+ * Each exchange runs on its own virtual thread and renders on the render executor, with at most
+ * {@link Builder#maxConcurrentRenders(int)} renders at once. Requests that can't start a render within
+ * the queue timeout are answered with 503.
+ */
+public final class RenderServer implements AutoCloseable {
+  private static final System.Logger LOGGER = System.getLogger(RenderServer.class.getName());
+
+  static final int MAX_SCALE = 8;
+  static final int MAX_PIXELS = 4096 * 4096;
+  static final int MAX_BODY_BYTES = 256 * 1024;
+
+  private static final String ITEM_PATH = "/item";
+  private static final String PLAYER_LIST_PATH = "/playerlist";
+  private static final String STATS_PATH = "/stats";
+
+  private final HttpServer server;
+  private final ExecutorService exchanges;
+  private final Semaphore renders;
+  private final Duration queueTimeout;
+  private final String cacheControl;
+  private final TextSpriteCache textCache;
+  private final HeadProvider headProvider;
+  private final Executor executor;
+  private final PngEncoder encoder;
+  private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+  private RenderServer(Builder builder) throws IOException {
+    this.renders = new Semaphore(builder.maxConcurrentRenders);
+    this.queueTimeout = builder.queueTimeout;
+    this.cacheControl = builder.cacheControl;
+    this.textCache = builder.textCache;
+    this.headProvider = builder.headProvider;
+    this.executor = builder.executor;
+    this.encoder = builder.encoder;
+
+    this.server = HttpServer.create(builder.address, 0);
+    this.exchanges = Executors.newVirtualThreadPerTaskExecutor();
+    this.server.setExecutor(this.exchanges);
+
+    addRenderEndpoint(ITEM_PATH, ItemRequest::parse);
+    addRenderEndpoint(PLAYER_LIST_PATH, PlayerListRequest::parse);
+    this.server.createContext(STATS_PATH, this::handleStats);
+  }
+
+  /**
+   * @return The address the server is listening on, with the actual port if it was bound to port 0
+   */
+  @NotNull
+  public InetSocketAddress address() {
+    return this.server.getAddress();
+  }
+
+  /**
+   * @return The stats of each endpoint, by path
+   */
+  @NotNull
+  public Map<String, EndpointStats> stats() {
+    return Map.copyOf(this.stats);
+  }
+
+  /**
+   * Stops accepting requests, gives those in progress a second to finish, then waits for their threads.
+   */
+  @Override
+  public void close() {
+    this.server.stop(1);
+    this.exchanges.close();
+  }
+
+  @NotNull
+  TextSpriteCache textCache() {
+    return this.textCache;
+  }
+
+  @NotNull
+  HeadProvider headProvider() {
+    return this.headProvider;
+  }
+
+  @NotNull
+  Executor executor() {
+    return this.executor;
+  }
+
+  /**
+   * @throws HttpStatusException With 413 if the output would be larger than {@link #MAX_PIXELS}
+   */
+  static void checkSize(int width, int height, int scale) {
+    if ((long) width * height * scale * scale > MAX_PIXELS) {
+      throw new HttpStatusException(413, "Output of " + width * scale + "x" + height * scale + " is too large");
+    }
+  }
+
+  private void addRenderEndpoint(String path, Function<RequestInput, RenderRequest> parser) {
+    final EndpointStats endpointStats = new EndpointStats();
+    this.stats.put(path, endpointStats);
+
+    this.server.createContext(path, exchange -> {
+      final long start = System.nanoTime();
+      int status = -1;
+
+      try {
+        status = respond(exchange, parser);
+      }
+      catch (IOException e) {
+        // Usually the client going away
+        LOGGER.log(System.Logger.Level.DEBUG, "Failed to answer " + path, e);
+      }
+      finally {
+        exchange.close();
+        endpointStats.record(status, System.nanoTime() - start);
+      }
+    });
+  }
+
+  /**
+   * @return The status sent
+   */
+  private int respond(HttpExchange exchange, Function<RequestInput, RenderRequest> parser) throws IOException {
+    final RenderRequest request;
+    try {
+      request = parser.apply(input(exchange));
+    }
+    catch (HttpStatusException e) {
+      return sendText(exchange, e.status(), e.getMessage());
+    }
+    catch (IllegalArgumentException e) {
+      return sendText(exchange, 400, e.getMessage());
+    }
+
+    final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+    final Headers headers = exchange.getResponseHeaders();
+
+    if (request.etagKnownBeforeRender() && matches(ifNoneMatch, request.etag())) {
+      return sendNotModified(exchange, request.etag());
+    }
+
+    try {
+      if (!this.renders.tryAcquire(this.queueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+        headers.set("Retry-After", "1");
+        return sendText(exchange, 503, "Too many renders in progress");
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return sendText(exchange, 503, "Shutting down");
+    }
+
+    final RenderRequest.Rendered rendered;
+    final byte[] png;
+    try {
+      rendered = request.render(this).join();
+      // Null when the client already has the image
+      png = rendered.etag() != null && matches(ifNoneMatch, rendered.etag()) ? null : this.encoder.encode(rendered.image());
+    }
+    catch (HttpStatusException e) {
+      return sendText(exchange, e.status(), e.getMessage());
+    }
+    catch (CompletionException e) {
+      LOGGER.log(System.Logger.Level.WARNING, "Render failed", e.getCause());
+      return sendText(exchange, 500, "Render failed");
+    }
+    catch (RuntimeException e) {
+      LOGGER.log(System.Logger.Level.WARNING, "Render failed", e);
+      return sendText(exchange, 500, "Render failed");
+    }
+    finally {
+      this.renders.release();
+    }
+
+    final String etag = rendered.etag();
+    if (png == null) {
+      return sendNotModified(exchange, etag);
+    }
+
+    headers.set("Content-Type", "image/png");
+    if (etag != null) {
+      headers.set("ETag", etag);
+      headers.set("Cache-Control", this.cacheControl);
+    }
+    else {
+      headers.set("Cache-Control", "no-store");
+    }
+
+    exchange.sendResponseHeaders(200, png.length);
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(png);
+    }
+
+    return 200;
+  }
+
+  private int sendNotModified(HttpExchange exchange, String etag) throws IOException {
+    exchange.getResponseHeaders().set("ETag", etag);
+    exchange.getResponseHeaders().set("Cache-Control", this.cacheControl);
+    exchange.sendResponseHeaders(304, -1);
+    return 304;
+  }
+
+  private static RequestInput input(HttpExchange exchange) throws IOException {
+    final String method = exchange.getRequestMethod();
+
+    if (method.equals("GET")) {
+      return RequestInput.parameters(exchange.getRequestURI().getRawQuery());
+    }
+
+    if (!method.equals("POST")) {
+      exchange.getResponseHeaders().set("Allow", "GET, POST");
+      throw new HttpStatusException(405, method + " is not allowed");
+    }
+
+    final String contentType = Objects.requireNonNullElse(exchange.getRequestHeaders().getFirst("Content-Type"), "");
+    final byte[] body;
+    try (InputStream is = exchange.getRequestBody()) {
+      body = is.readNBytes(MAX_BODY_BYTES + 1);
+    }
+
+    if (body.length > MAX_BODY_BYTES) {
+      throw new HttpStatusException(413, "Body is larger than " + MAX_BODY_BYTES + " bytes");
+    }
+
+    final String text = new String(body, StandardCharsets.UTF_8);
+
+    if (contentType.startsWith("application/json")) {
+      return RequestInput.json(text);
+    }
+    else if (contentType.startsWith("application/x-www-form-urlencoded")) {
+      return RequestInput.parameters(text);
+    }
+    else {
+      throw new HttpStatusException(415, "Body must be application/json or application/x-www-form-urlencoded");
+    }
+  }
+
+  /**
+   * @param ifNoneMatch The If-None-Match header, or null if there is none
+   * @param etag        The ETag of the current representation
+   * @return Whether the client's copy is current. Weak tags compare equal, as If-None-Match allows.
+   */
+  static boolean matches(@Nullable String ifNoneMatch, @NotNull String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+
+    for (String tag : ifNoneMatch.split(",")) {
+      String candidate = tag.strip();
+
+      if (candidate.equals("*")) {
+        return true;
+      }
+
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+
+      if (candidate.equals(etag)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private void handleStats(HttpExchange exchange) throws IOException {
+    try {
+      final JsonObject body = new JsonObject();
+
+      for (Map.Entry<String, EndpointStats> entry : this.stats.entrySet()) {
+        final EndpointStats.Snapshot snapshot = entry.getValue().snapshot();
+        final JsonObject endpoint = new JsonObject();
+
+        endpoint.addProperty("requests", snapshot.requests());
+        endpoint.addProperty("rendered", snapshot.rendered());
+        endpoint.addProperty("notModified", snapshot.notModified());
+        endpoint.addProperty("rejected", snapshot.rejected());
+        endpoint.addProperty("failed", snapshot.failed());
+        endpoint.addProperty("meanMillis", snapshot.meanMillis());
+        endpoint.addProperty("p50Millis", snapshot.p50Millis());
+        endpoint.addProperty("p99Millis", snapshot.p99Millis());
+        endpoint.addProperty("maxMillis", snapshot.maxMillis());
+        body.add(entry.getKey(), endpoint);
+      }
+
+      final byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.getResponseHeaders().set("Cache-Control", "no-store");
+      exchange.sendResponseHeaders(200, bytes.length);
+
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(bytes);
+      }
+    }
+    finally {
+      exchange.close();
+    }
+  }
+
+  private static int sendText(HttpExchange exchange, int status, String message) throws IOException {
+    final byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(bytes);
+    }
+
+    return status;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 8080);
+    private int maxConcurrentRenders = Runtime.getRuntime().availableProcessors() * 2;
+    private Duration queueTimeout = Duration.ofSeconds(2);
+    private String cacheControl = "public, max-age=300";
+    private TextSpriteCache textCache = new TextSpriteCache();
+    private HeadProvider headProvider = HeadProvider.defaultProvider();
+    private Executor executor = RenderExecutor.defaultExecutor();
+    private PngEncoder encoder = PngEncoder.defaultEncoder();
+
+    private Builder() {
+    }
+
+    /**
+     * @param address The address to listen on, the loopback address on port 8080 by default
+     */
+    public Builder address(@NotNull InetSocketAddress address) {
+      this.address = Objects.requireNonNull(address);
+      return this;
+    }
+
+    /**
+     * @param port The port to listen on, keeping the host, or 0 for any free port
+     */
+    public Builder port(int port) {
+      this.address = new InetSocketAddress(this.address.getAddress(), port);
+      return this;
+    }
+
+    /**
+     * @param maxConcurrentRenders The most renders in progress at once, twice the cores by default
+     */
+    public Builder maxConcurrentRenders(int maxConcurrentRenders) {
+      this.maxConcurrentRenders = Math.max(1, maxConcurrentRenders);
+      return this;
+    }
+
+    /**
+     * @param queueTimeout How long a request waits to start rendering before it is answered with 503
+     */
+    public Builder queueTimeout(@NotNull Duration queueTimeout) {
+      this.queueTimeout = Objects.requireNonNull(queueTimeout);
+      return this;
+    }
+
+    /**
+     * @param cacheControl The Cache-Control header sent with rendered images and 304s
+     */
+    public Builder cacheControl(@NotNull String cacheControl) {
+      this.cacheControl = Objects.requireNonNull(cacheControl);
+      return this;
+    }
+
+    /**
+     * @param textCache The cache of drawn text shared by every render
+     */
+    public Builder textCache(@NotNull TextSpriteCache textCache) {
+      this.textCache = Objects.requireNonNull(textCache);
+      return this;
+    }
+
+    /**
+     * @param headProvider Where player list heads are fetched from
+     */
+    public Builder headProvider(@NotNull HeadProvider headProvider) {
+      this.headProvider = Objects.requireNonNull(headProvider);
+      return this;
+    }
+
+    /**
+     * @param executor The executor rendering runs on, {@link RenderExecutor#defaultExecutor()} by default
+     */
+    public Builder executor(@NotNull Executor executor) {
+      this.executor = Objects.requireNonNull(executor);
+      return this;
+    }
+
+    public Builder encoder(@NotNull PngEncoder encoder) {
+      this.encoder = Objects.requireNonNull(encoder);
+      return this;
+    }
+
+    /**
+     * @return The server, already listening
+     * @throws IOException If the address can't be bound
+     */
+    @NotNull
+    public RenderServer start() throws IOException {
+      final RenderServer server = new RenderServer(this);
+      server.server.start();
+      return server;
+    }
+  }
+}
@@ -0,0 +1,205 @@
+package net.ultranetwork.render.http;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The fields of a request, from a JSON body or from query or form parameters. Parameters are read as
+ * if they were JSON strings, with repeated parameters becoming arrays, so both go through the same
+ * checks. Text is MiniMessage when given as a string and Adventure JSON when given as an object.
+ */
+final class RequestInput {
+  private static final int MAX_TEXT_LENGTH = 1024;
+
+  private final JsonObject fields;
+
+  private RequestInput(JsonObject fields) {
+    this.fields = fields;
+  }
+
+  /**
+   * @param body The JSON object
+   * @return The input
+   * @throws IllegalArgumentException If the body is not a JSON object
+   */
+  @NotNull
+  static RequestInput json(@NotNull String body) {
+    try {
+      final JsonElement root = JsonParser.parseString(body);
+
+      if (!root.isJsonObject()) {
+        throw new IllegalArgumentException("Body must be a JSON object");
+      }
+
+      return new RequestInput(root.getAsJsonObject());
+    }
+    catch (JsonParseException e) {
+      throw new IllegalArgumentException("Malformed JSON: " + e.getMessage());
+    }
+  }
+
+  /**
+   * @param query The raw query string or form body, or null for none
+   * @return The input
+   */
+  @NotNull
+  static RequestInput parameters(@Nullable String query) {
+    final JsonObject fields = new JsonObject();
+
+    if (query == null || query.isEmpty()) {
+      return new RequestInput(fields);
+    }
+
+    for (String pair : query.split("&")) {
+      if (pair.isEmpty()) {
+        continue;
+      }
+
+      final int equals = pair.indexOf('=');
+      final String key = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+      final JsonPrimitive value = new JsonPrimitive(
+          equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+      final JsonElement existing = fields.get(key);
+
+      if (existing == null) {
+        fields.add(key, value);
+      }
+      else if (existing.isJsonArray()) {
+        existing.getAsJsonArray().add(value);
+      }
+      else {
+        final JsonArray values = new JsonArray();
+        values.add(existing);
+        values.add(value);
+        fields.add(key, values);
+      }
+    }
+
+    return new RequestInput(fields);
+  }
+
+  int integer(@NotNull String name, int defaultValue, int min, int max) {
+    final JsonElement element = this.fields.get(name);
+
+    if (element == null || element.isJsonNull()) {
+      return defaultValue;
+    }
+
+    final int value;
+    try {
+      value = element.getAsInt();
+    }
+    catch (RuntimeException e) {
+      throw new IllegalArgumentException(name + " must be a whole number");
+    }
+
+    if (value < min || value > max) {
+      throw new IllegalArgumentException(name + " must be between " + min + " and " + max);
+    }
+
+    return value;
+  }
+
+  boolean bool(@NotNull String name, boolean defaultValue) {
+    final JsonElement element = this.fields.get(name);
+
+    if (element == null || element.isJsonNull()) {
+      return defaultValue;
+    }
+
+    if (!element.isJsonPrimitive()) {
+      throw new IllegalArgumentException(name + " must be true or false");
+    }
+
+    return element.getAsBoolean();
+  }
+
+  @Nullable
+  Component component(@NotNull String name) {
+    final JsonElement element = this.fields.get(name);
+    return element == null || element.isJsonNull() ? null : component(name, element);
+  }
+
+  /**
+   * @return The components of an array field, or of a single value as a list of one
+   */
+  @NotNull
+  List<Component> components(@NotNull String name, int maxCount) {
+    final List<JsonElement> elements = elements(name, maxCount);
+    final List<Component> components = new ArrayList<>(elements.size());
+
+    for (JsonElement element : elements) {
+      components.add(component(name, element));
+    }
+
+    return components;
+  }
+
+  /**
+   * @return The elements of an array field, or a single value as a list of one
+   */
+  @NotNull
+  List<JsonElement> elements(@NotNull String name, int maxCount) {
+    final JsonElement element = this.fields.get(name);
+
+    if (element == null || element.isJsonNull()) {
+      return List.of();
+    }
+
+    final List<JsonElement> elements = new ArrayList<>();
+    if (element.isJsonArray()) {
+      element.getAsJsonArray().forEach(elements::add);
+    }
+    else {
+      elements.add(element);
+    }
+
+    if (elements.size() > maxCount) {
+      throw new IllegalArgumentException(name + " may have at most " + maxCount + " entries");
+    }
+
+    return elements;
+  }
+
+  /**
+   * @param name    The field, for error messages
+   * @param element A MiniMessage string or an Adventure JSON object
+   * @return The component
+   */
+  @NotNull
+  static Component component(@NotNull String name, @NotNull JsonElement element) {
+    if (element.isJsonPrimitive()) {
+      final String text = element.getAsString();
+
+      if (text.length() > MAX_TEXT_LENGTH) {
+        throw new IllegalArgumentException(name + " may be at most " + MAX_TEXT_LENGTH + " characters");
+      }
+
+      return MiniMessage.miniMessage().deserialize(text);
+    }
+
+    if (element.toString().length() > MAX_TEXT_LENGTH * 8) {
+      throw new IllegalArgumentException(name + " is too long");
+    }
+
+    try {
+      return GsonComponentSerializer.gson().deserializeFromTree(element);
+    }
+    catch (RuntimeException e) {
+      throw new IllegalArgumentException(name + " is not a valid component: " + e.getMessage());
+    }
+  }
+}
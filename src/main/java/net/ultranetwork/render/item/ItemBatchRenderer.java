@@ -0,0 +1,320 @@
+package net.ultranetwork.render.item;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import net.kyori.adventure.text.Component;
+import net.ultranetwork.render.util.ArgbRaster;
+import net.ultranetwork.render.util.ImagePool;
+import net.ultranetwork.render.util.RenderInstrumentation;
+import net.ultranetwork.render.util.RenderMetrics;
+import net.ultranetwork.render.util.RenderUtil;
+import net.ultranetwork.render.util.TextSpriteCache;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Renders many item tooltips at once, such as a whole inventory page.
+ * <p>
+ * Items with identical tooltips are rendered once. Layouts are computed and tooltips painted in
+ * parallel on a fork-join pool, and sprite sheets are painted straight into their place in the sheet
+ * instead of into separate images that are then copied. Painting needs no scratch of its own, as
+ * every tooltip is drawn straight into its output raster; the output images can come from an
+ * {@link ImagePool} shared with other renders.
+ */
+public final class ItemBatchRenderer {
+  private static final int DEFAULT_MAX_SHEET_WIDTH = 1024;
+
+  private final List<List<Component>> uniqueLines;
+  private final int[] uniqueIndex; // input index -> index into uniqueLines
+  private final int padding;
+  private final int lineSpacing;
+  private final Color backgroundColour;
+  private final Color shadowColour;
+  private final Color defaultTextColour;
+  private final int maxSheetWidth;
+  private final int spacing;
+  private final TextSpriteCache textCache;
+  private final ImagePool imagePool;
+
+  private static final class DefaultHolder {
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+      final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName("render-batch-" + thread.getPoolIndex());
+      thread.setDaemon(true);
+      return thread;
+    }, null, false);
+  }
+
+  private ItemBatchRenderer(Builder builder) {
+    // Drop duplicates
+    final Map<List<Component>, Integer> seen = new HashMap<>();
+    this.uniqueLines = new ArrayList<>();
+    this.uniqueIndex = new int[builder.snapshots.size()];
+
+    for (int i = 0; i < this.uniqueIndex.length; i++) {
+      final List<Component> lines = List.copyOf(builder.snapshots.get(i).lines());
+      this.uniqueIndex[i] = seen.computeIfAbsent(lines, key -> {
+        this.uniqueLines.add(key);
+        return this.uniqueLines.size() - 1;
+      });
+    }
+
+    this.padding = builder.padding;
+    this.lineSpacing = builder.lineSpacing;
+    this.backgroundColour = builder.backgroundColour;
+    this.shadowColour = builder.shadowColour;
+    this.defaultTextColour = builder.defaultTextColour;
+    this.maxSheetWidth = builder.maxSheetWidth;
+    this.spacing = builder.spacing;
+    this.textCache = builder.textCache;
+    this.imagePool = builder.imagePool;
+  }
+
+  private BufferedImage newImage(int width, int height) {
+    return this.imagePool != null
+        ? this.imagePool.lease(width, height)
+        : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+  }
+
+  private TooltipLayout[] layouts() {
+    return RenderInstrumentation.time(RenderMetrics.Stage.LAYOUT, () -> {
+      final TooltipLayout[] layouts = new TooltipLayout[this.uniqueLines.size()];
+
+      IntStream.range(0, layouts.length).parallel().forEach(i ->
+          layouts[i] = TooltipLayout.compute(this.uniqueLines.get(i), this.padding, this.lineSpacing, this.defaultTextColour));
+
+      return layouts;
+    });
+  }
+
+  private List<BufferedImage> renderImages() {
+    final TooltipLayout[] layouts = layouts();
+    final BufferedImage[] images = RenderInstrumentation.time(RenderMetrics.Stage.PAINT, () -> {
+      final BufferedImage[] painted = new BufferedImage[layouts.length];
+
+      IntStream.range(0, layouts.length).parallel().forEach(i -> {
+        painted[i] = newImage(layouts[i].width(), layouts[i].height());
+        ItemImageRenderer.paint(ArgbRaster.wrap(painted[i]), layouts[i], this.backgroundColour, this.shadowColour,
+            this.textCache);
+      });
+
+      return painted;
+    });
+
+    return Arrays.stream(this.uniqueIndex).mapToObj(i -> images[i]).toList();
+  }
+
+  private SpriteSheet renderSheet() {
+    final TooltipLayout[] layouts = layouts();
+    final SpriteSheet.Sprite[] sprites = new SpriteSheet.Sprite[layouts.length];
+
+    // Shelf packing in input order: fill a row up to the max width, then start the next below the tallest
+    int x = 0;
+    int y = 0;
+    int shelfHeight = 0;
+    int sheetWidth = 1;
+    for (int i = 0; i < layouts.length; i++) {
+      final TooltipLayout layout = layouts[i];
+
+      if (x > 0 && x + layout.width() > this.maxSheetWidth) {
+        x = 0;
+        y += shelfHeight + this.spacing;
+        shelfHeight = 0;
+      }
+
+      sprites[i] = new SpriteSheet.Sprite(x, y, layout.width(), layout.height());
+      sheetWidth = Math.max(sheetWidth, x + layout.width());
+      shelfHeight = Math.max(shelfHeight, layout.height());
+      x += layout.width() + this.spacing;
+    }
+
+    final BufferedImage sheet = newImage(sheetWidth, Math.max(1, y + shelfHeight));
+    RenderInstrumentation.time(RenderMetrics.Stage.PAINT, () -> {
+      final ArgbRaster raster = ArgbRaster.wrap(sheet);
+
+      // Sprites never overlap, so each one can be painted from its own thread
+      IntStream.range(0, layouts.length).parallel().forEach(i -> {
+        final SpriteSheet.Sprite sprite = sprites[i];
+        ItemImageRenderer.paint(raster.region(sprite.x(), sprite.y(), sprite.width(), sprite.height()),
+            layouts[i], this.backgroundColour, this.shadowColour, this.textCache);
+      });
+
+      return sheet;
+    });
+
+    return new SpriteSheet(sheet, Arrays.stream(this.uniqueIndex).mapToObj(i -> sprites[i]).toList());
+  }
+
+  /**
+   * @return The number of distinct tooltips that will be rendered
+   */
+  public int uniqueCount() {
+    return this.uniqueLines.size();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private final List<TooltipSnapshot> snapshots = new ArrayList<>();
+    private int padding = ItemImageRenderer.DEFAULT_PADDING;
+    private int lineSpacing = ItemImageRenderer.DEFAULT_LINE_SPACING;
+    private Color backgroundColour = ItemImageRenderer.DEFAULT_BACKGROUND_COLOUR;
+    private Color shadowColour = ItemImageRenderer.DEFAULT_TOOLTIP_SHADOW_COLOUR;
+    private Color defaultTextColour = RenderUtil.DEFAULT_TEXT_COLOUR;
+    private int maxSheetWidth = DEFAULT_MAX_SHEET_WIDTH;
+    private int spacing = 0;
+    private ForkJoinPool pool = null;
+    private TextSpriteCache textCache = null;
+    private ImagePool imagePool = null;
+
+    private Builder() {
+    }
+
+    /**
+     * Reads the items' tooltips right away, so call this on the thread that owns the items.
+     */
+    public Builder items(@NotNull List<ItemStack> items) {
+      items.forEach(this::item);
+      return this;
+    }
+
+    /**
+     * Reads the item's tooltip right away, so call this on the thread that owns the item.
+     */
+    public Builder item(@NotNull ItemStack item) {
+      this.snapshots.add(TooltipSnapshot.of(Objects.requireNonNull(item, "ItemStack cannot be null")));
+      return this;
+    }
+
+    public Builder snapshots(@NotNull List<TooltipSnapshot> snapshots) {
+      snapshots.forEach(this::snapshot);
+      return this;
+    }
+
+    public Builder snapshot(@NotNull TooltipSnapshot snapshot) {
+      this.snapshots.add(Objects.requireNonNull(snapshot));
+      return this;
+    }
+
+    public Builder padding(int padding) {
+      this.padding = Math.max(0, padding);
+      return this;
+    }
+
+    public Builder lineSpacing(int lineSpacing) {
+      this.lineSpacing = Math.max(0, lineSpacing);
+      return this;
+    }
+
+    public Builder backgroundColor(@NotNull Color backgroundColour) {
+      this.backgroundColour = backgroundColour;
+      return this;
+    }
+
+    public Builder shadowColor(@NotNull Color shadowColour) {
+      this.shadowColour = shadowColour;
+      return this;
+    }
+
+    public Builder defaultTextColor(@NotNull Color defaultTextColour) {
+      this.defaultTextColour = defaultTextColour;
+      return this;
+    }
+
+    /**
+     * @param maxSheetWidth The widest a sprite sheet row may get before wrapping, unless a single tooltip is wider
+     */
+    public Builder maxSheetWidth(int maxSheetWidth) {
+      this.maxSheetWidth = Math.max(1, maxSheetWidth);
+      return this;
+    }
+
+    /**
+     * @param spacing The transparent gap between tooltips in a sprite sheet
+     */
+    public Builder spacing(int spacing) {
+      this.spacing = Math.max(0, spacing);
+      return this;
+    }
+
+    /**
+     * @param textCache The cache of drawn lines to share with other renders, or null to draw every line
+     */
+    public Builder textCache(@Nullable TextSpriteCache textCache) {
+      this.textCache = textCache;
+      return this;
+    }
+
+    /**
+     * @param imagePool The pool to render into, or null to allocate new images. The caller releases each
+     *                  distinct image, or the sprite sheet, back to the pool.
+     */
+    public Builder imagePool(@Nullable ImagePool imagePool) {
+      this.imagePool = imagePool;
+      return this;
+    }
+
+    /**
+     * @param pool The pool rendering is split across, a shared pool sized to the number of cores by default
+     */
+    public Builder pool(@NotNull ForkJoinPool pool) {
+      this.pool = Objects.requireNonNull(pool);
+      return this;
+    }
+
+    /**
+     * @return The number of distinct tooltips among the items added so far, which is how many are rendered
+     */
+    public int uniqueCount() {
+      return new ItemBatchRenderer(this).uniqueCount();
+    }
+
+    /**
+     * Renders each distinct tooltip into its own image.
+     *
+     * @return A future with one image per input item, in input order. Identical items share an image.
+     */
+    public CompletableFuture<List<BufferedImage>> build() {
+      final ItemBatchRenderer renderer = new ItemBatchRenderer(this);
+      return renderAsync(renderer::renderImages, pool());
+    }
+
+    /**
+     * Renders each distinct tooltip into one shared image.
+     *
+     * @return A future with the sprite sheet
+     */
+    public CompletableFuture<SpriteSheet> buildSheet() {
+      final ItemBatchRenderer renderer = new ItemBatchRenderer(this);
+      return renderAsync(renderer::renderSheet, pool());
+    }
+
+    private ForkJoinPool pool() {
+      return this.pool != null ? this.pool : DefaultHolder.POOL;
+    }
+
+    private static <T> CompletableFuture<T> renderAsync(Supplier<T> render, ForkJoinPool pool) {
+      try {
+        return CompletableFuture.supplyAsync(render, pool);
+      }
+      catch (RejectedExecutionException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    }
+  }
+}
@@ -1,158 +1,124 @@
 package net.ultranetwork.render.item;
 
 import java.awt.Color;
-import java.awt.FontMetrics;
-import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.format.NamedTextColor;
+import net.ultranetwork.render.util.ArgbRaster;
+import net.ultranetwork.render.util.ImagePool;
+import net.ultranetwork.render.util.ImageUtil;
+import net.ultranetwork.render.util.PlacedText;
+import net.ultranetwork.render.util.RenderInstrumentation;
+import net.ultranetwork.render.util.RenderExecutor;
+import net.ultranetwork.render.util.RenderMetrics;
 import net.ultranetwork.render.util.RenderUtil;
+import net.ultranetwork.render.util.TextSpriteCache;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.ItemMeta;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class ItemImageRenderer {
-  private static final int DEFAULT_PADDING = 6;
-  private static final int DEFAULT_LINE_SPACING = 3;
-  private static final int FONT_SIZE_PX = 16;
-  private static final int LINE_HEIGHT = FONT_SIZE_PX - 2; // minecrafts line height (i think)
+  static final int DEFAULT_PADDING = 6;
+  static final int DEFAULT_LINE_SPACING = 3;
 
-  private static final Color DEFAULT_BACKGROUND_COLOUR = new Color(16, 0, 16, 240);
-  private static final Color DEFAULT_TOOLTIP_SHADOW_COLOUR = new Color(5, 0, 5, 100);
+  static final Color DEFAULT_BACKGROUND_COLOUR = new Color(16, 0, 16, 240);
+  static final Color DEFAULT_TOOLTIP_SHADOW_COLOUR = new Color(5, 0, 5, 100);
 
-  private final ItemStack item;
+  private final TooltipSnapshot snapshot;
   private final int padding;
   private final int lineSpacing;
   private final Color backgroundColour;
   private final Color shadowColour;
   private final Color defaultTextColour;
+  private final ImagePool imagePool;
+  private final TextSpriteCache textCache;
 
   private ItemImageRenderer(Builder builder) {
-    this.item = Objects.requireNonNull(builder.item, "ItemStack cannot be null");
+    this.snapshot = Objects.requireNonNull(builder.snapshot, "ItemStack cannot be null");
     this.padding = builder.padding;
     this.lineSpacing = builder.lineSpacing;
     this.backgroundColour = builder.backgroundColour;
     this.shadowColour = builder.shadowColour;
     this.defaultTextColour = builder.defaultTextColour;
+    // Cached images are shared between callers, so none of them may release one back to a pool
+    this.imagePool = builder.cache == null ? builder.imagePool : null;
+    this.textCache = builder.textCache;
   }
 
-  /**
-   *
-   * @param item The ItemStack
-   * @return A list of Components representing the tooltip lines
-   */
-  @NotNull
-  private static List<Component> getTooltipLines(
-      @NotNull ItemStack item
-  ) {
-    final List<Component> lines = new ArrayList<>();
-    final ItemMeta meta = item.getItemMeta();
-
-    Component nameComponent = null;
-    if (meta != null) {
-
-      if (meta.hasDisplayName()) {
-        nameComponent = meta.displayName();
-      }
-    }
-
-    // Fallback if no custom display name
-    if (nameComponent == null) {
-      final String baseName = item.getType().name().replace('_', ' ').toLowerCase();
-      final StringBuilder titleCaseName = new StringBuilder();
-      boolean nextTitleCase = true;
-
-      for (char c : baseName.toCharArray()) {
-        if (Character.isSpaceChar(c)) {
-          nextTitleCase = true;
-        }
-        else if (nextTitleCase) {
-          c = Character.toTitleCase(c);
-          nextTitleCase = false;
-        }
-
-        titleCaseName.append(c);
-      }
+  private BufferedImage render() {
+    return render(this.snapshot.lines());
+  }
 
-      nameComponent = Component.text(titleCaseName.toString(), NamedTextColor.WHITE);
-    }
+  private BufferedImage render(List<Component> tooltipLines) {
+    final RenderInstrumentation.Span span = RenderInstrumentation.start(RenderMetrics.Stage.LAYOUT);
+    final TooltipLayout layout;
 
-    // Append amount if greater than 1
-    if (item.getAmount() > 1) {
-      nameComponent = nameComponent.append(Component.text(" x" + item.getAmount(), NamedTextColor.WHITE));
+    try {
+      layout = TooltipLayout.compute(tooltipLines, this.padding, this.lineSpacing, this.defaultTextColour);
+      span.end();
     }
-
-    lines.add(nameComponent);
-
-    if (meta != null && meta.hasLore()) {
-      final List<Component> lore = meta.lore();
-
-      if (lore != null) {
-        lines.addAll(lore);
-      }
+    catch (RuntimeException | Error e) {
+      span.fail(e);
+      throw e;
     }
 
-    return lines;
+    return render(layout);
   }
 
-  private BufferedImage render() {
-    final List<Component> lines = getTooltipLines(this.item);
-    final BufferedImage tempImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
-    final Graphics2D tempG = tempImage.createGraphics();
-    tempG.setFont(RenderUtil.MINECRAFT_FONT);
-
-    final FontMetrics metrics = tempG.getFontMetrics();
-    int maxTextWidth = 0;
-
-    for (Component line : lines) {
-      maxTextWidth = Math.max(maxTextWidth, RenderUtil.calculateComponentWidth(metrics, line));
+  private BufferedImage render(TooltipLayout layout) {
+    final RenderInstrumentation.Span span = RenderInstrumentation.start(RenderMetrics.Stage.PAINT);
+
+    try {
+      // Create final image
+      final BufferedImage tooltipImage = this.imagePool != null
+          ? this.imagePool.lease(layout.width(), layout.height())
+          : new BufferedImage(layout.width(), layout.height(), BufferedImage.TYPE_INT_ARGB);
+      paint(ArgbRaster.wrap(tooltipImage), layout, this.backgroundColour, this.shadowColour, this.textCache);
+      span.end();
+      return tooltipImage;
     }
+    catch (RuntimeException | Error e) {
+      span.fail(e);
+      throw e;
+    }
+  }
 
-    tempG.dispose();
-
-    // Calculate height
-    final int totalLines = lines.size();
-    final int contentHeight = (totalLines == 0) ? 0 : (totalLines * LINE_HEIGHT + Math.max(0, totalLines - 1) * this.lineSpacing);
-
-    // Add padding and border size (1px border)
-    int tooltipWidth = maxTextWidth + this.padding * 2 + 2; // +2 for 1px border on each side
-    int tooltipHeight = contentHeight + this.padding * 2 + 2; // +2 for 1px border top/bottom
-
-    // Ensure minimum size
-    tooltipWidth = Math.max(20, tooltipWidth);
-    tooltipHeight = Math.max(20, tooltipHeight);
-
-    // Create final image
-    final BufferedImage tooltipImage = new BufferedImage(tooltipWidth, tooltipHeight, BufferedImage.TYPE_INT_ARGB);
-    final Graphics2D graphics = tooltipImage.createGraphics();
-    graphics.setFont(RenderUtil.MINECRAFT_FONT);
-    RenderUtil.applyMinecraftRenderingHints(graphics);
+  /**
+   * @param raster           The transparent area to paint into, the size of the layout
+   * @param layout           The tooltip layout
+   * @param backgroundColour The background and border colour
+   * @param shadowColour     The text shadow colour
+   * @param textCache        The cache to draw lines from, or null to draw them glyph by glyph
+   */
+  static void paint(
+      @NotNull ArgbRaster raster,
+      @NotNull TooltipLayout layout,
+      @NotNull Color backgroundColour,
+      @NotNull Color shadowColour,
+      @Nullable TextSpriteCache textCache
+  ) {
+    final int tooltipWidth = layout.width();
+    final int tooltipHeight = layout.height();
+    final int backgroundArgb = backgroundColour.getRGB();
 
     // Draw background fill
-    graphics.setColor(this.backgroundColour);
-    graphics.fillRect(1, 1, tooltipWidth - 2, tooltipHeight - 2);
+    raster.fillRect(1, 1, tooltipWidth - 2, tooltipHeight - 2, backgroundArgb);
 
-    // Draw border top, bottom, left, right
-    graphics.drawLine(0, 0, tooltipWidth - 1, 0);
-    graphics.drawLine(0, tooltipHeight - 1, tooltipWidth - 1, tooltipHeight - 1);
-    graphics.drawLine(0, 0, 0, tooltipHeight - 1);
-    graphics.drawLine(tooltipWidth - 1, 0, tooltipWidth - 1, tooltipHeight - 1);
+    // Draw border top, bottom, left, right (corners are blended twice, as with Graphics2D lines)
+    raster.drawHorizontalLine(0, tooltipWidth - 1, 0, backgroundArgb);
+    raster.drawHorizontalLine(0, tooltipWidth - 1, tooltipHeight - 1, backgroundArgb);
+    raster.drawVerticalLine(0, 0, tooltipHeight - 1, backgroundArgb);
+    raster.drawVerticalLine(tooltipWidth - 1, 0, tooltipHeight - 1, backgroundArgb);
 
     // Draw text lines
-    final int startX = this.padding + 1; // +1 to be inside the border
-    int currentY = this.padding + 1 + metrics.getAscent(); // Start y baseline inside top border
-
-    for (Component line : lines) {
-      RenderUtil.drawAdventureComponent(graphics, line, startX, currentY, this.defaultTextColour, this.shadowColour);
-      currentY += (LINE_HEIGHT + this.lineSpacing);
+    for (PlacedText line : layout.lines()) {
+      RenderUtil.drawCompiledText(raster, line.text(), line.x(), line.baselineY(), shadowColour, textCache);
     }
-
-    graphics.dispose();
-    return tooltipImage;
   }
 
   public static Builder builder() {
@@ -160,19 +126,36 @@ public class ItemImageRenderer {
   }
 
   public static class Builder {
-    private ItemStack item;
+    private TooltipSnapshot snapshot;
     private int padding = DEFAULT_PADDING;
     private int lineSpacing = DEFAULT_LINE_SPACING;
     private Color backgroundColour = DEFAULT_BACKGROUND_COLOUR;
     private Color shadowColour = DEFAULT_TOOLTIP_SHADOW_COLOUR;
     private Color defaultTextColour = RenderUtil.DEFAULT_TEXT_COLOUR;
+    private TooltipCache cache = null;
+    private ImagePool imagePool = null;
+    private TextSpriteCache textCache = null;
+    private int scale = 1;
+    private Executor executor = RenderExecutor.defaultExecutor();
 
     private Builder() {
     }
 
+    /**
+     * Reads the item's tooltip right away, so call this on the thread that owns the item.
+     */
     @NotNull
     public Builder item(@NotNull ItemStack item) {
-      this.item = item;
+      this.snapshot = TooltipSnapshot.of(item);
+      return this;
+    }
+
+    /**
+     * @param snapshot The tooltip to render, captured earlier with {@link TooltipSnapshot#of(ItemStack)}
+     */
+    @NotNull
+    public Builder snapshot(@NotNull TooltipSnapshot snapshot) {
+      this.snapshot = Objects.requireNonNull(snapshot);
       return this;
     }
 
@@ -201,14 +184,138 @@ public class ItemImageRenderer {
       return this;
     }
 
+    /**
+     * @param cache The cache to reuse identical tooltips from, or null to always render
+     */
+    public Builder cache(@Nullable TooltipCache cache) {
+      this.cache = cache;
+      return this;
+    }
+
+    /**
+     * @param imagePool The pool to render into, or null to allocate a new image each time. The caller
+     *                  releases the rendered image back to the pool. Ignored when a {@link #cache} is set.
+     */
+    public Builder imagePool(@Nullable ImagePool imagePool) {
+      this.imagePool = imagePool;
+      return this;
+    }
+
+    /**
+     * @param textCache The cache of drawn lines to share with other renders, or null to draw every line
+     */
+    public Builder textCache(@Nullable TextSpriteCache textCache) {
+      this.textCache = textCache;
+      return this;
+    }
+
+    /**
+     * @param scale How many times bigger to output the tooltip, by repeating each pixel. The tooltip is
+     *              still rendered at 1x, so it stays crisp.
+     */
+    public Builder scale(int scale) {
+      this.scale = Math.max(1, scale);
+      return this;
+    }
+
+    /**
+     * @param executor The executor rendering runs on, {@link RenderExecutor#defaultExecutor()} by default
+     */
+    public Builder executor(@NotNull Executor executor) {
+      this.executor = Objects.requireNonNull(executor);
+      return this;
+    }
+
+    /**
+     * Works out the tooltip's size and line positions without drawing it.
+     *
+     * @return The layout {@link #build()} would render
+     * @throws IllegalStateException If no item is set
+     */
+    @NotNull
+    public TooltipLayout layout() {
+      if (this.snapshot == null) {
+        throw new IllegalStateException("ItemStack must be set before building");
+      }
+
+      return TooltipLayout.compute(this.snapshot.lines(), this.padding, this.lineSpacing, this.defaultTextColour);
+    }
+
     public CompletableFuture<BufferedImage> build() {
-      if (item == null) {
+      if (this.scale == 1) {
+        return renderNative();
+      }
+
+      return buildScales(this.scale).thenApply(images -> images.get(0));
+    }
+
+    /**
+     * Renders once at 1x and scales that render up to each size, ignoring {@link #scale(int)}.
+     *
+     * @param scales The whole number scales, each at least 1
+     * @return A future with one image per scale, in the same order
+     * @throws IllegalArgumentException If a scale is less than 1
+     */
+    public CompletableFuture<List<BufferedImage>> buildScales(int @NotNull ... scales) {
+      final int[] factors = scales.clone();
+      for (int factor : factors) {
+        if (factor < 1) {
+          throw new IllegalArgumentException("Scale must be at least 1 but was " + factor);
+        }
+      }
+
+      final ImagePool pool = this.cache == null ? this.imagePool : null;
+
+      return renderNative().thenApply(image -> {
+        final List<BufferedImage> images = ImageUtil.scale(image, factors, pool);
+
+        // The 1x render was only an intermediate
+        if (pool != null && !images.contains(image)) {
+          pool.release(image);
+        }
+
+        return images;
+      });
+    }
+
+    private CompletableFuture<BufferedImage> renderNative() {
+      if (this.snapshot == null) {
         return CompletableFuture.failedFuture(new IllegalStateException("ItemStack must be set before building"));
       }
 
       // Create immutable copy for async task
       final ItemImageRenderer renderer = new ItemImageRenderer(this);
-      return CompletableFuture.supplyAsync(renderer::render); // Run render() asynchronously
+
+      final Executor executor = this.executor;
+
+      if (this.cache == null) {
+        return renderAsync(renderer::render, executor);
+      }
+
+      final List<Component> lines = List.copyOf(this.snapshot.lines());
+      final TooltipCache.Key key = new TooltipCache.Key(
+          lines,
+          this.padding,
+          this.lineSpacing,
+          this.backgroundColour.getRGB(),
+          this.shadowColour.getRGB(),
+          this.defaultTextColour.getRGB(),
+          this.textCache != null
+      );
+
+      return this.cache.get(key, () -> renderAsync(() -> renderer.render(lines), executor));
+    }
+
+    private static CompletableFuture<BufferedImage> renderAsync(
+        Supplier<BufferedImage> render,
+        Executor executor)
+    {
+      try {
+        return CompletableFuture.supplyAsync(render, executor); // Run render() asynchronously
+      }
+      catch (RejectedExecutionException e) {
+        return CompletableFuture.failedFuture(e);
+      }
     }
   }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package net.ultranetwork.render.item;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The fallback tooltip names of items without a display name, worked out once per material.
+ */
+final class MaterialNames {
+  private static final Map<Material, Component> NAMES = new EnumMap<>(Material.class);
+
+  static {
+    for (Material material : Material.values()) {
+      NAMES.put(material, Component.text(titleCase(material.name()), NamedTextColor.WHITE));
+    }
+  }
+
+  private MaterialNames() {
+  }
+
+  /**
+   * @param material The item type
+   * @return The title cased material name in white, e.g. "Diamond Sword" for DIAMOND_SWORD
+   */
+  @NotNull
+  static Component name(@NotNull Material material) {
+    return NAMES.get(material);
+  }
+
+  private static String titleCase(String enumName) {
+    final String baseName = enumName.replace('_', ' ').toLowerCase(Locale.ROOT);
+    final StringBuilder titleCaseName = new StringBuilder(baseName.length());
+    boolean nextTitleCase = true;
+
+    for (char c : baseName.toCharArray()) {
+      if (Character.isSpaceChar(c)) {
+        nextTitleCase = true;
+      }
+      else if (nextTitleCase) {
+        c = Character.toTitleCase(c);
+        nextTitleCase = false;
+      }
+
+      titleCaseName.append(c);
+    }
+
+    return titleCaseName.toString();
+  }
+}
@@ -0,0 +1,50 @@
+package net.ultranetwork.render.item;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Several tooltips packed into one image, with where each one is.
+ */
+public final class SpriteSheet {
+  private final BufferedImage image;
+  private final List<Sprite> sprites;
+
+  /**
+   * @param x      The left edge in the sheet
+   * @param y      The top edge in the sheet
+   * @param width  The tooltip width
+   * @param height The tooltip height
+   */
+  public record Sprite(int x, int y, int width, int height) {
+  }
+
+  SpriteSheet(@NotNull BufferedImage image, @NotNull List<Sprite> sprites) {
+    this.image = image;
+    this.sprites = List.copyOf(sprites);
+  }
+
+  @NotNull
+  public BufferedImage image() {
+    return this.image;
+  }
+
+  /**
+   * @return Where each input item's tooltip is, in input order. Identical items share a sprite.
+   */
+  @NotNull
+  public List<Sprite> sprites() {
+    return this.sprites;
+  }
+
+  /**
+   * @param index The input item's index
+   * @return A view of that item's tooltip, sharing the sheet's pixels
+   */
+  @NotNull
+  public BufferedImage subimage(int index) {
+    final Sprite sprite = this.sprites.get(index);
+    return this.image.getSubimage(sprite.x(), sprite.y(), sprite.width(), sprite.height());
+  }
+}
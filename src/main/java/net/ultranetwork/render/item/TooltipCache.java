@@ -0,0 +1,150 @@
+package net.ultranetwork.render.item;
+
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import net.kyori.adventure.text.Component;
+import net.ultranetwork.render.util.LruCache;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Opt-in cache of rendered tooltips, shared between builders via {@link ItemImageRenderer.Builder#cache(TooltipCache)}.
+ * <p>
+ * Entries are keyed on the tooltip content and builder settings, so equal items share one image.
+ * Concurrent requests for the same tooltip share a single render. Cached images are handed out to
+ * every caller and must not be modified.
+ */
+public final class TooltipCache {
+  private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+  private final LruCache<Key, BufferedImage> images;
+  private final Map<Key, CompletableFuture<BufferedImage>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  record Key(
+      List<Component> lines,
+      int padding,
+      int lineSpacing,
+      int backgroundArgb,
+      int shadowArgb,
+      int defaultTextArgb,
+      boolean textSprites // Sprites can round translucent pixels differently from drawn glyphs
+  ) {
+  }
+
+  /**
+   * @param maxBytes The total size of cached pixel data before least recently used tooltips are evicted
+   */
+  public TooltipCache(long maxBytes) {
+    this.images = new LruCache<>(maxBytes, image -> (long) image.getWidth() * image.getHeight() * Integer.BYTES);
+  }
+
+  public TooltipCache() {
+    this(DEFAULT_MAX_BYTES);
+  }
+
+  @NotNull
+  CompletableFuture<BufferedImage> get(
+      @NotNull Key key,
+      @NotNull Supplier<CompletableFuture<BufferedImage>> renderer
+  ) {
+    final BufferedImage cached = this.images.get(key);
+
+    if (cached != null) {
+      this.hits.increment();
+      return CompletableFuture.completedFuture(cached);
+    }
+
+    final CompletableFuture<BufferedImage> pending = new CompletableFuture<>();
+    final CompletableFuture<BufferedImage> existing = this.inFlight.putIfAbsent(key, pending);
+
+    if (existing != null) {
+      this.coalesced.increment();
+      return existing.copy(); // Copy so one caller cancelling doesn't affect the others
+    }
+
+    // A render may have finished between the lookup and claiming the key
+    final BufferedImage completed = this.images.get(key);
+
+    if (completed != null) {
+      this.hits.increment();
+      this.inFlight.remove(key, pending);
+      pending.complete(completed);
+      return pending.copy();
+    }
+
+    this.misses.increment();
+
+    try {
+      renderer.get().whenComplete((image, throwable) -> {
+        if (throwable == null) {
+          this.images.put(key, image);
+        }
+
+        this.inFlight.remove(key, pending);
+
+        if (throwable != null) {
+          pending.completeExceptionally(throwable);
+        }
+        else {
+          pending.complete(image);
+        }
+      });
+    }
+    catch (RuntimeException e) {
+      this.inFlight.remove(key, pending);
+      pending.completeExceptionally(e);
+    }
+
+    return pending.copy();
+  }
+
+  /**
+   * @return The number of requests served from a cached image
+   */
+  public long hits() {
+    return this.hits.sum();
+  }
+
+  /**
+   * @return The number of requests that started a new render
+   */
+  public long misses() {
+    return this.misses.sum();
+  }
+
+  /**
+   * @return The number of requests that joined a render already in flight
+   */
+  public long coalesced() {
+    return this.coalesced.sum();
+  }
+
+  /**
+   * @return The number of tooltips evicted to stay within the byte budget
+   */
+  public long evictions() {
+    return this.images.evictions();
+  }
+
+  public int size() {
+    return this.images.size();
+  }
+
+  /**
+   * @return The total size of cached pixel data
+   */
+  public long bytes() {
+    return this.images.weight();
+  }
+
+  public void clear() {
+    this.images.clear();
+  }
+}
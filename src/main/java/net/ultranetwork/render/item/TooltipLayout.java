@@ -0,0 +1,95 @@
+package net.ultranetwork.render.item;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import net.kyori.adventure.text.Component;
+import net.ultranetwork.render.util.AdvanceTable;
+import net.ultranetwork.render.util.CompiledText;
+import net.ultranetwork.render.util.PlacedText;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Measured geometry of a tooltip: its size and where each line is drawn. Computing a layout compiles
+ * and measures the text but draws nothing, so it can be used to size or reject a render up front.
+ */
+public final class TooltipLayout {
+  static final int FONT_SIZE_PX = 16;
+  static final int LINE_HEIGHT = FONT_SIZE_PX - 2; // minecrafts line height (i think)
+  static final int MIN_SIZE = 20;
+
+  private final int width;
+  private final int height;
+  private final List<PlacedText> lines;
+
+  private TooltipLayout(int width, int height, List<PlacedText> lines) {
+    this.width = width;
+    this.height = height;
+    this.lines = List.copyOf(lines);
+  }
+
+  /**
+   * @param tooltipLines      The tooltip lines, name first
+   * @param padding           The space between the border and the text
+   * @param lineSpacing       The extra space between lines
+   * @param defaultTextColour The colour of text with no colour set
+   * @return The layout
+   */
+  @NotNull
+  static TooltipLayout compute(
+      @NotNull List<Component> tooltipLines,
+      int padding,
+      int lineSpacing,
+      @NotNull Color defaultTextColour
+  ) {
+    final List<CompiledText> compiledLines = new ArrayList<>(tooltipLines.size());
+    int maxTextWidth = 0;
+
+    for (Component line : tooltipLines) {
+      final CompiledText compiledLine = CompiledText.of(line, defaultTextColour);
+      compiledLines.add(compiledLine);
+      maxTextWidth = Math.max(maxTextWidth, compiledLine.width());
+    }
+
+    // Calculate height
+    final int totalLines = compiledLines.size();
+    final int contentHeight = (totalLines == 0) ? 0 : (totalLines * LINE_HEIGHT + Math.max(0, totalLines - 1) * lineSpacing);
+
+    // Add padding and border size (1px border), ensuring a minimum size
+    final int width = Math.max(MIN_SIZE, maxTextWidth + padding * 2 + 2);
+    final int height = Math.max(MIN_SIZE, contentHeight + padding * 2 + 2);
+
+    final int startX = padding + 1; // +1 to be inside the border
+    int currentY = padding + 1 + AdvanceTable.minecraft().ascent(); // Start y baseline inside top border
+    final List<PlacedText> lines = new ArrayList<>(totalLines);
+
+    for (CompiledText line : compiledLines) {
+      lines.add(new PlacedText(line, startX, currentY));
+      currentY += (LINE_HEIGHT + lineSpacing);
+    }
+
+    return new TooltipLayout(width, height, lines);
+  }
+
+  /**
+   * @return The image width, including the border
+   */
+  public int width() {
+    return this.width;
+  }
+
+  /**
+   * @return The image height, including the border
+   */
+  public int height() {
+    return this.height;
+  }
+
+  /**
+   * @return The lines in drawing order
+   */
+  @NotNull
+  public List<PlacedText> lines() {
+    return this.lines;
+  }
+}
@@ -0,0 +1,79 @@
+package net.ultranetwork.render.item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * What an item's tooltip shows, read from an {@link ItemStack} on the thread that owns it so it can be
+ * rendered on any other.
+ *
+ * @param name   The display name, or the material name if the item has none
+ * @param amount The stack size
+ * @param lore   The lore lines
+ */
+public record TooltipSnapshot(
+    @NotNull Component name,
+    int amount,
+    @NotNull List<Component> lore
+) {
+
+  public TooltipSnapshot {
+    Objects.requireNonNull(name, "name");
+    lore = List.copyOf(lore);
+  }
+
+  /**
+   * Reads the item's meta once. Call this on the thread that owns the item, usually the main thread.
+   *
+   * @param item The ItemStack
+   * @return The item's tooltip contents
+   */
+  @NotNull
+  public static TooltipSnapshot of(@NotNull ItemStack item) {
+    Component name = null;
+    List<Component> lore = null;
+
+    // getItemMeta() clones the meta, so skip it for plain items
+    if (item.hasItemMeta()) {
+      final ItemMeta meta = item.getItemMeta();
+
+      if (meta != null) {
+        if (meta.hasDisplayName()) {
+          name = meta.displayName();
+        }
+
+        if (meta.hasLore()) {
+          lore = meta.lore();
+        }
+      }
+    }
+
+    // Fallback if no custom display name
+    if (name == null) {
+      name = MaterialNames.name(item.getType());
+    }
+
+    return new TooltipSnapshot(name, item.getAmount(), lore != null ? lore : List.of());
+  }
+
+  /**
+   * @return The tooltip lines: the name, with the amount appended if greater than 1, then the lore
+   */
+  @NotNull
+  public List<Component> lines() {
+    final List<Component> lines = new ArrayList<>(1 + this.lore.size());
+
+    lines.add(this.amount > 1
+        ? this.name.append(Component.text(" x" + this.amount, NamedTextColor.WHITE))
+        : this.name);
+    lines.addAll(this.lore);
+
+    return lines;
+  }
+}
@@ -0,0 +1,370 @@
+package net.ultranetwork.render.playerlist;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.kyori.adventure.text.Component;
+import net.ultranetwork.render.util.AdvanceTable;
+import net.ultranetwork.render.util.CompiledText;
+import net.ultranetwork.render.util.PlacedText;
+import net.ultranetwork.render.util.RenderUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Measured geometry of a player list: its size, where the header and footer go and where each
+ * player's head, name and ping bars go. Computing a layout compiles and measures the text but draws
+ * nothing, so it can be used to size or reject a render up front.
+ */
+public final class PlayerListLayout {
+  static final int MAX_COLUMNS = 4;
+  static final int FOOTER_EXTRA_SPACING = 6;
+  static final int HEADER_FOOTER_PADDING = 4;
+  static final int PLAYER_NAME_PING_SPACING = 4;
+  static final int PING_BAR_COUNT = 5;
+  static final int PING_BAR_WIDTH = 2;
+  static final int PING_BAR_HEIGHT_INCREMENT = 2;
+  static final int PING_BAR_SPACING = 1;
+  static final int PING_BARS_WIDTH = (PING_BAR_WIDTH + PING_BAR_SPACING) * PING_BAR_COUNT - PING_BAR_SPACING;
+  static final int PLAYER_LINE_HEIGHT = 18;
+  static final int PLAYER_HEAD_SIZE = 16;
+  static final int PLAYER_HEAD_NAME_SPACING = 2; // Space between head and name
+
+  private final int width;
+  private final int height;
+  private final int columns;
+  private final int rows;
+  private final int columnWidth;
+  private final int columnSpacing;
+  private final int padding;
+  private final int gridY;
+  private final boolean showHeads;
+  private final PlacedText header;
+  private final PlacedText footer;
+  private final List<Cell> cells;
+  private final int hiddenPlayers;
+
+  /**
+   * One player's slot in the grid.
+   *
+   * @param player    The player
+   * @param name      The player's compiled list name
+   * @param column    The column, from 0
+   * @param row       The row within the column, from 0
+   * @param x         The left edge of the cell, where the head is drawn
+   * @param y         The top edge of the cell
+   * @param nameX     The x the name is drawn at
+   * @param baselineY The y of the name's baseline
+   * @param pingX     The left edge of the ping bars
+   * @param pingY     The top edge of the tallest ping bar
+   */
+  public record Cell(
+      @NotNull PlayerListName player,
+      @NotNull CompiledText name,
+      int column,
+      int row,
+      int x,
+      int y,
+      int nameX,
+      int baselineY,
+      int pingX,
+      int pingY
+  ) {
+    /**
+     * @return The top edge of the head, centred in the line
+     */
+    public int headY() {
+      return this.y + (PLAYER_LINE_HEIGHT - PLAYER_HEAD_SIZE) / 2;
+    }
+  }
+
+  private PlayerListLayout(
+      int width,
+      int height,
+      int columns,
+      int rows,
+      int columnWidth,
+      int columnSpacing,
+      int padding,
+      int gridY,
+      boolean showHeads,
+      @Nullable PlacedText header,
+      @Nullable PlacedText footer,
+      List<Cell> cells,
+      int hiddenPlayers)
+  {
+    this.width = width;
+    this.height = height;
+    this.columns = columns;
+    this.rows = rows;
+    this.columnWidth = columnWidth;
+    this.columnSpacing = columnSpacing;
+    this.padding = padding;
+    this.gridY = gridY;
+    this.showHeads = showHeads;
+    this.header = header;
+    this.footer = footer;
+    this.cells = List.copyOf(cells);
+    this.hiddenPlayers = hiddenPlayers;
+  }
+
+  /**
+   * @param header              The header, or null for none
+   * @param footer              The footer, or null for none
+   * @param players             The players in display order
+   * @param maxPlayersPerColumn The most rows in a column
+   * @param columnSpacing       The space between columns
+   * @param padding             The space around the content
+   * @param showHeads           Whether space is made for heads
+   * @return The layout
+   */
+  @NotNull
+  static PlayerListLayout compute(
+      @Nullable Component header,
+      @Nullable Component footer,
+      @NotNull List<PlayerListName> players,
+      int maxPlayersPerColumn,
+      int columnSpacing,
+      int padding,
+      boolean showHeads)
+  {
+    return compute(header, footer, players, maxPlayersPerColumn, columnSpacing, padding, showHeads, 0, 0, 0);
+  }
+
+  /**
+   * Lays out the players in a grid at least the given size, so several lists can share one shape.
+   *
+   * @param header              The header, or null for none
+   * @param footer              The footer, or null for none
+   * @param players             The players in display order
+   * @param maxPlayersPerColumn The most rows in a column
+   * @param columnSpacing       The space between columns
+   * @param padding             The space around the content
+   * @param showHeads           Whether space is made for heads
+   * @param minNameWidth        The narrowest the name area of a column may be
+   * @param minColumns          The fewest columns, at most {@link #MAX_COLUMNS}
+   * @param minRows             The fewest rows, at most maxPlayersPerColumn
+   * @return The layout
+   */
+  @NotNull
+  static PlayerListLayout compute(
+      @Nullable Component header,
+      @Nullable Component footer,
+      @NotNull List<PlayerListName> players,
+      int maxPlayersPerColumn,
+      int columnSpacing,
+      int padding,
+      boolean showHeads,
+      int minNameWidth,
+      int minColumns,
+      int minRows)
+  {
+    // Hidden players still count towards the column width, as they always have
+    final CompiledText[] compiledNames = new CompiledText[players.size()];
+    int maxPlayerNameWidth = minNameWidth;
+    for (int i = 0; i < compiledNames.length; i++) {
+      compiledNames[i] = CompiledText.of(players.get(i).listNameComponent(), RenderUtil.DEFAULT_TEXT_COLOUR);
+      maxPlayerNameWidth = Math.max(maxPlayerNameWidth, compiledNames[i].width());
+    }
+
+    final PlayerListLayout grid = grid(header, footer, players.size(), maxPlayerNameWidth,
+        maxPlayersPerColumn, columnSpacing, padding, showHeads, minColumns, minRows);
+
+    // Players, filling each column top to bottom
+    final int shownPlayers = players.size() - grid.hiddenPlayers;
+    final List<Cell> cells = new ArrayList<>(shownPlayers);
+    for (int i = 0; i < shownPlayers; i++) {
+      cells.add(grid.cell(i, players.get(i), compiledNames[i]));
+    }
+
+    return grid.withCells(cells);
+  }
+
+  /**
+   * Sizes the grid and places the header and footer without placing any players, so a list that keeps
+   * its players' names compiled can tell whether its geometry changed without laying every player out.
+   *
+   * @param header              The header, or null for none
+   * @param footer              The footer, or null for none
+   * @param playerCount         The number of players
+   * @param maxNameWidth        The width of the widest name, hidden players included
+   * @param maxPlayersPerColumn The most rows in a column
+   * @param columnSpacing       The space between columns
+   * @param padding             The space around the content
+   * @param showHeads           Whether space is made for heads
+   * @param minColumns          The fewest columns, at most {@link #MAX_COLUMNS}
+   * @param minRows             The fewest rows, at most maxPlayersPerColumn
+   * @return The layout, with no cells until they are placed with {@link #cell} and {@link #withCells}
+   */
+  @NotNull
+  static PlayerListLayout grid(
+      @Nullable Component header,
+      @Nullable Component footer,
+      int playerCount,
+      int maxNameWidth,
+      int maxPlayersPerColumn,
+      int columnSpacing,
+      int padding,
+      boolean showHeads,
+      int minColumns,
+      int minRows)
+  {
+    final int numColumns = Math.min(MAX_COLUMNS, Math.max(minColumns, (playerCount == 0) ? 0 :
+        (playerCount + maxPlayersPerColumn - 1) / maxPlayersPerColumn));
+
+    final AdvanceTable advances = AdvanceTable.minecraft();
+
+    final boolean hasHeader = header != null && !Component.empty().equals(header);
+    final boolean hasFooter = footer != null && !Component.empty().equals(footer);
+    final int headerHeight = hasHeader ? PLAYER_LINE_HEIGHT + HEADER_FOOTER_PADDING * 2 : 0;
+    final int footerHeight = hasFooter ? PLAYER_LINE_HEIGHT + HEADER_FOOTER_PADDING * 2 : 0;
+
+    final CompiledText compiledHeader = CompiledText.of(hasHeader ? header : null, RenderUtil.DEFAULT_TEXT_COLOUR);
+    final CompiledText compiledFooter = CompiledText.of(hasFooter ? footer : null, RenderUtil.DEFAULT_TEXT_COLOUR);
+    final int maxHeaderFooterWidth = Math.max(compiledHeader.width(), compiledFooter.width());
+
+    // Calculate height
+    final int numRowsNeeded = (playerCount == 0) ? 0 : (int) Math.ceil((double) playerCount / numColumns);
+    final int actualNumRowsDisplayed = Math.min(maxPlayersPerColumn, Math.max(minRows, numRowsNeeded));
+    final int shownPlayers = Math.min(playerCount, numColumns * actualNumRowsDisplayed);
+
+    final int headAreaWidth = showHeads
+        ? PLAYER_HEAD_SIZE + PLAYER_HEAD_NAME_SPACING
+        : 0;
+
+    // Width needed for one column's content (head + name + ping)
+    final int singleColumnContentWidth = headAreaWidth + maxNameWidth + PLAYER_NAME_PING_SPACING + PING_BARS_WIDTH;
+
+    // Total width for all content columns + spacing between them
+    final int requiredContentWidth = numColumns * singleColumnContentWidth + Math.max(0, numColumns - 1) * columnSpacing;
+
+    // Image width is max of content area or header/footer, plus padding
+    final int imageWidth = Math.max(requiredContentWidth, maxHeaderFooterWidth) + padding * 2;
+
+    // Calculate actual column width based on final image width
+    final int actualContentWidth = imageWidth - padding * 2;
+    final int columnWidth = (numColumns == 0) ? actualContentWidth
+        : (actualContentWidth - Math.max(0, numColumns - 1) * columnSpacing) / numColumns;
+
+    final int playersHeight = actualNumRowsDisplayed * PLAYER_LINE_HEIGHT;
+    final int extraSpacing = (footerHeight > 0 && playersHeight > 0) ? FOOTER_EXTRA_SPACING : 0;
+    final int imageHeight = headerHeight + playersHeight + extraSpacing + footerHeight + padding * 2;
+
+    // Header
+    int currentY = padding;
+    PlacedText placedHeader = null;
+    if (hasHeader) {
+      final int headerX = padding + Math.max(0, (actualContentWidth - compiledHeader.width()) / 2);
+      placedHeader = new PlacedText(compiledHeader, headerX, currentY + HEADER_FOOTER_PADDING + advances.ascent());
+      currentY += headerHeight;
+    }
+
+    final int playerGridY = currentY;
+
+    // Footer
+    PlacedText placedFooter = null;
+    if (hasFooter) {
+      currentY = (playerGridY + playersHeight) + extraSpacing;
+      final int footerX = padding + Math.max(0, (actualContentWidth - compiledFooter.width()) / 2);
+      placedFooter = new PlacedText(compiledFooter, footerX, currentY + HEADER_FOOTER_PADDING + advances.ascent());
+    }
+
+    return new PlayerListLayout(imageWidth, imageHeight, numColumns, actualNumRowsDisplayed, columnWidth, columnSpacing,
+        padding, playerGridY, showHeads, placedHeader, placedFooter, List.of(), playerCount - shownPlayers);
+  }
+
+  /**
+   * @param index  The player's index in display order, less than {@link #capacity()}
+   * @param player The player
+   * @param name   The player's compiled list name
+   * @return The player's cell in this layout's grid
+   */
+  @NotNull
+  Cell cell(int index, @NotNull PlayerListName player, @NotNull CompiledText name) {
+    final int col = index / this.rows;
+    final int row = index % this.rows;
+    final int columnStartX = this.padding + col * (this.columnWidth + this.columnSpacing);
+    final int playerBaseY = this.gridY + row * PLAYER_LINE_HEIGHT;
+    final int headAreaWidth = this.showHeads ? PLAYER_HEAD_SIZE + PLAYER_HEAD_NAME_SPACING : 0;
+
+    // Ping bars sit against the right edge of the column, centred vertically within the line
+    final int pingX = columnStartX + this.columnWidth - PING_BARS_WIDTH;
+    final int pingY = playerBaseY + (PLAYER_LINE_HEIGHT - PING_BAR_HEIGHT_INCREMENT * PING_BAR_COUNT) / 2;
+
+    return new Cell(player, name, col, row,
+        columnStartX,
+        playerBaseY,
+        columnStartX + headAreaWidth, // Always skip the head area even if the head is missing to maintain alignment
+        playerBaseY + AdvanceTable.minecraft().ascent(),
+        pingX,
+        pingY);
+  }
+
+  /**
+   * @param cells The cells, placed with {@link #cell}
+   * @return This layout with the given cells
+   */
+  @NotNull
+  PlayerListLayout withCells(@NotNull List<Cell> cells) {
+    return new PlayerListLayout(this.width, this.height, this.columns, this.rows, this.columnWidth, this.columnSpacing,
+        this.padding, this.gridY, this.showHeads, this.header, this.footer, cells, this.hiddenPlayers);
+  }
+
+  /**
+   * @return The number of cells the grid has room for
+   */
+  int capacity() {
+    return this.columns * this.rows;
+  }
+
+  public int width() {
+    return this.width;
+  }
+
+  public int height() {
+    return this.height;
+  }
+
+  public int columns() {
+    return this.columns;
+  }
+
+  /**
+   * @return The number of rows in the tallest column
+   */
+  public int rows() {
+    return this.rows;
+  }
+
+  public int columnWidth() {
+    return this.columnWidth;
+  }
+
+  public boolean showHeads() {
+    return this.showHeads;
+  }
+
+  @Nullable
+  public PlacedText header() {
+    return this.header;
+  }
+
+  @Nullable
+  public PlacedText footer() {
+    return this.footer;
+  }
+
+  /**
+   * @return The shown players' cells, column by column
+   */
+  @NotNull
+  public List<Cell> cells() {
+    return this.cells;
+  }
+
+  /**
+   * @return The number of players that did not fit and are not shown
+   */
+  public int hiddenPlayers() {
+    return this.hiddenPlayers;
+  }
+}
@@ -1,7 +1,9 @@
 package net.ultranetwork.render.playerlist;
 
+import java.util.UUID;
 import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  *
@@ -9,14 +11,25 @@ import org.jetbrains.annotations.NotNull;
  * @param ping              The player's ping (-1 for unknown)
  * @param plainListName     The player's unformatted name (for sorting)
  * @param priority          Sorting priority (higher values appear first)
+ * @param uuid              The player's UUID, which heads are looked up by when set
  */
 public record PlayerListName(
     @NotNull Component listNameComponent,
     int ping,
     @NotNull String plainListName,
-    int priority
+    int priority,
+    @Nullable UUID uuid
 ) {
 
+  public PlayerListName(
+      @NotNull Component listNameComponent,
+      int ping,
+      @NotNull String plainListName,
+      int priority
+  ) {
+    this(listNameComponent, ping, plainListName, priority, null);
+  }
+
   public static PlayerListName of(
       @NotNull String plainName,
       int priority
@@ -32,4 +45,22 @@ public record PlayerListName(
   ) {
     return new PlayerListName(listNameComponent, ping, plainName, priority);
   }
+
+  public static PlayerListName of(
+      @NotNull Component listNameComponent,
+      int ping,
+      @NotNull String plainName,
+      int priority,
+      @Nullable UUID uuid
+  ) {
+    return new PlayerListName(listNameComponent, ping, plainName, priority, uuid);
+  }
+
+  /**
+   * @return What the player's head is known by: the UUID when set, otherwise the plain name
+   */
+  @NotNull
+  String headKey() {
+    return this.uuid != null ? this.uuid.toString() : this.plainListName;
+  }
 }
\ No newline at end of file
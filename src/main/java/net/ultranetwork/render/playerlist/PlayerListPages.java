@@ -0,0 +1,157 @@
+package net.ultranetwork.render.playerlist;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A player list too long for one image, split into pages that are each rendered only when asked for.
+ * <p>
+ * Every page has the same size and column widths, measured once across all players, so flipping
+ * between pages does not shift anything. Finding a page's players picks them out with a bounded heap
+ * instead of sorting the whole list, and the last player of each page found is remembered so the next
+ * page starts from there.
+ */
+public final class PlayerListPages implements Iterable<CompletableFuture<BufferedImage>> {
+  private final PlayerRanking ranking;
+  private final int playerCount;
+  private final int pageSize;
+  private final Function<List<PlayerListName>, CompletableFuture<BufferedImage>> renderer;
+  private final int[] lastOnPage; // index of each found page's last player, -1 until found
+
+  PlayerListPages(
+      @NotNull List<PlayerListName> players,
+      @NotNull Comparator<PlayerListName> order,
+      int pageSize,
+      @NotNull Function<List<PlayerListName>, CompletableFuture<BufferedImage>> renderer)
+  {
+    this.ranking = new PlayerRanking(players, order);
+    this.playerCount = players.size();
+    this.pageSize = pageSize;
+    this.renderer = renderer;
+    this.lastOnPage = new int[pageCount()];
+    Arrays.fill(this.lastOnPage, -1);
+  }
+
+  /**
+   * @return The number of pages, at least 1 so an empty list still renders its header and footer
+   */
+  public int pageCount() {
+    return Math.max(1, (this.playerCount + this.pageSize - 1) / this.pageSize);
+  }
+
+  /**
+   * @return The most players on one page
+   */
+  public int pageSize() {
+    return this.pageSize;
+  }
+
+  public int playerCount() {
+    return this.playerCount;
+  }
+
+  /**
+   * @param page The page, from 0
+   * @return The page's players in display order
+   * @throws IndexOutOfBoundsException If there is no such page
+   */
+  @NotNull
+  public synchronized List<PlayerListName> players(int page) {
+    if (page < 0 || page >= pageCount()) {
+      throw new IndexOutOfBoundsException("Page " + page + " out of bounds for " + pageCount() + " pages");
+    }
+
+    // Walk forward from the nearest page already found
+    int from = page;
+    while (from > 0 && this.lastOnPage[from - 1] < 0) {
+      from--;
+    }
+
+    int[] indices = new int[0];
+    for (int current = from; current <= page; current++) {
+      indices = this.ranking.next(current == 0 ? -1 : this.lastOnPage[current - 1], this.pageSize);
+
+      if (indices.length > 0) {
+        this.lastOnPage[current] = indices[indices.length - 1];
+      }
+    }
+
+    return this.ranking.players(indices);
+  }
+
+  /**
+   * Renders one page. Only that page's players are selected and only their heads are fetched.
+   *
+   * @param page The page, from 0
+   * @return A future with the page's image
+   * @throws IndexOutOfBoundsException If there is no such page
+   */
+  @NotNull
+  public CompletableFuture<BufferedImage> page(int page) {
+    return this.renderer.apply(players(page));
+  }
+
+  /**
+   * @return The pages in order, each one selected and rendered when the iterator reaches it
+   */
+  @NotNull
+  @Override
+  public Iterator<CompletableFuture<BufferedImage>> iterator() {
+    return new Iterator<>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return this.next < pageCount();
+      }
+
+      @Override
+      public CompletableFuture<BufferedImage> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        return page(this.next++);
+      }
+    };
+  }
+
+  /**
+   * @return The pages in order, each one selected and rendered when the stream reaches it
+   */
+  @NotNull
+  public Stream<CompletableFuture<BufferedImage>> stream() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+  /**
+   * Renders every page, for when they are all needed at once.
+   *
+   * @return A future with every page's image in order
+   */
+  @NotNull
+  public CompletableFuture<List<BufferedImage>> all() {
+    final List<CompletableFuture<BufferedImage>> pages = stream().toList();
+
+    return CompletableFuture.allOf(pages.toArray(new CompletableFuture<?>[0]))
+        .thenApply(v -> {
+          final List<BufferedImage> images = new ArrayList<>(pages.size());
+
+          for (CompletableFuture<BufferedImage> page : pages) {
+            images.add(page.join());
+          }
+
+          return images;
+        });
+  }
+}
@@ -0,0 +1,269 @@
+package net.ultranetwork.render.playerlist;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import net.ultranetwork.render.head.HeadProvider;
+import net.ultranetwork.render.head.HeadStore;
+import net.ultranetwork.render.util.AdvanceTable;
+import net.ultranetwork.render.util.ArgbRaster;
+import net.ultranetwork.render.util.PlacedText;
+import net.ultranetwork.render.util.RenderUtil;
+import net.ultranetwork.render.util.TextSpriteCache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Paints the parts of a {@link PlayerListLayout} into a TYPE_INT_ARGB image. Everything but head images
+ * is written straight into the raster; a Graphics2D is only created once a head image needs scaling.
+ */
+final class PlayerListPainter implements AutoCloseable {
+  // Colours specific to PlayerList
+  private static final Color BACKGROUND_COLOUR = new Color(56, 70, 117);
+  private static final Color TAB_TEXT_SHADOW_COLOUR = new Color(0, 0, 0, 80);
+
+  // Ping thresholds and colours
+  private static final Color PING_GOOD_COLOUR = new Color(0, 255, 0);
+  private static final Color PING_MEDIUM_COLOUR = new Color(255, 255, 0);
+  private static final Color PING_BAD_COLOUR = new Color(255, 85, 85);
+  private static final Color PING_VERY_BAD_COLOUR = new Color(170, 0, 0);
+  private static final Color PING_UNKNOWN_COLOUR = new Color(170, 170, 170);
+
+  // todo this
+  private static final int PING_GOOD_THRESHOLD = 150;
+  private static final int PING_MEDIUM_THRESHOLD = 300;
+  private static final int PING_BAD_THRESHOLD = 500;
+
+  private final BufferedImage image;
+  private final ArgbRaster raster;
+  private final TextSpriteCache textCache;
+  private Graphics2D graphics; // only needed to scale heads
+
+  /**
+   * @param image     The image to paint into
+   * @param textCache The cache to draw text from, or null to draw it glyph by glyph
+   */
+  PlayerListPainter(@NotNull BufferedImage image, @Nullable TextSpriteCache textCache) {
+    this.image = image;
+    this.raster = ArgbRaster.wrap(image);
+    this.textCache = textCache;
+  }
+
+  /**
+   * Fills a rectangle with the background colour, erasing whatever was painted there.
+   */
+  void clear(int x, int y, int width, int height) {
+    this.raster.fillRect(x, y, width, height, BACKGROUND_COLOUR.getRGB());
+  }
+
+  void text(@NotNull PlacedText text) {
+    RenderUtil.drawCompiledText(this.raster, text.text(), text.x(), text.baselineY(), TAB_TEXT_SHADOW_COLOUR, this.textCache);
+  }
+
+  /**
+   * @param cell      The cell to paint
+   * @param headImage The player's head, or null to leave the head area empty
+   */
+  void cell(@NotNull PlayerListLayout.Cell cell, @Nullable BufferedImage headImage) {
+    if (headImage != null) {
+      graphics().drawImage(headImage, cell.x(), cell.headY(), PlayerListLayout.PLAYER_HEAD_SIZE, PlayerListLayout.PLAYER_HEAD_SIZE, null);
+    }
+
+    RenderUtil.drawCompiledText(this.raster, cell.name(), cell.nameX(), cell.baselineY(), TAB_TEXT_SHADOW_COLOUR, this.textCache);
+    pingBars(this.raster, cell.player().ping(), cell.pingX(), cell.pingY());
+  }
+
+  /**
+   * Repaints the rows from {@code top} to {@code bottom} of one column. Text shadows reach into the
+   * rows of the cells next to them, so the cells either side are redrawn too, clipped to the band,
+   * leaving the band as a full paint would.
+   *
+   * @param layout    The layout, for its size
+   * @param cells     The cells in the layout's grid, which may be newer than the layout's own
+   * @param top       The first row of the band
+   * @param bottom    The row after the band, clipped to the image
+   * @param first     The index of the first cell reaching into the band
+   * @param last      The index of the last cell reaching into the band, in the same column
+   * @param cellHeads The head of each cell, or null for none
+   */
+  void band(
+      @NotNull PlayerListLayout layout,
+      @NotNull List<PlayerListLayout.Cell> cells,
+      int top,
+      int bottom,
+      int first,
+      int last,
+      @NotNull List<BufferedImage> cellHeads)
+  {
+    final int x = cells.get(first).x();
+    final int width = layout.columnWidth();
+    final int height = Math.min(bottom, layout.height()) - top;
+
+    if (height <= 0) {
+      return;
+    }
+
+    clear(x, top, width, height);
+    final ArgbRaster band = this.raster.region(x, top, width, height);
+
+    for (int i = first; i <= last; i++) {
+      final PlayerListLayout.Cell cell = cells.get(i);
+      final BufferedImage head = cellHeads.get(i);
+
+      if (head != null) {
+        final Graphics2D graphics = graphics();
+        graphics.setClip(x, top, width, height);
+        graphics.drawImage(head, cell.x(), cell.headY(), PlayerListLayout.PLAYER_HEAD_SIZE, PlayerListLayout.PLAYER_HEAD_SIZE, null);
+        graphics.setClip(null);
+      }
+
+      RenderUtil.drawCompiledText(band, cell.name(), cell.nameX() - x, cell.baselineY() - top, TAB_TEXT_SHADOW_COLOUR, this.textCache);
+      pingBars(band, cell.player().ping(), cell.pingX() - x, cell.pingY() - top);
+    }
+  }
+
+  /**
+   * @return The row after the last one cells can reach: the top of the footer band, or the bottom of
+   * the image if there is no footer
+   */
+  static int gridLimit(@NotNull PlayerListLayout layout) {
+    return layout.footer() != null ? textBandTop(layout.footer()) : layout.height();
+  }
+
+  /**
+   * Erases the band the header or footer text is drawn in, across the whole image.
+   */
+  void clearTextBand(@NotNull PlayerListLayout layout, @NotNull PlacedText text) {
+    clear(0, textBandTop(text), layout.width(), PlayerListLayout.PLAYER_LINE_HEIGHT + PlayerListLayout.HEADER_FOOTER_PADDING * 2);
+  }
+
+  private static int textBandTop(PlacedText text) {
+    return text.baselineY() - AdvanceTable.minecraft().ascent() - PlayerListLayout.HEADER_FOOTER_PADDING;
+  }
+
+  /**
+   * Paints a whole layout.
+   *
+   * @param layout      The layout, the same size as the image
+   * @param headLookup  The head for each cell, or null for none
+   */
+  void paint(@NotNull PlayerListLayout layout, @NotNull HeadLookup headLookup) {
+    // Draw background
+    clear(0, 0, layout.width(), layout.height());
+
+    // Draw header
+    if (layout.header() != null) {
+      text(layout.header());
+    }
+
+    // Draw players
+    for (PlayerListLayout.Cell cell : layout.cells()) {
+      if (!layout.showHeads()) {
+        cell(cell, null);
+        continue;
+      }
+
+      // Heads the provider copied into the lookup's pixels are already at size, so no Graphics2D is needed
+      final int offset = headLookup.pixelOffset(cell.player());
+      if (offset >= 0) {
+        this.raster.composite(headLookup.pixels(), offset, HeadStore.HEAD_SIZE, HeadStore.HEAD_SIZE, cell.x(), cell.headY());
+        cell(cell, null);
+      }
+      else {
+        cell(cell, headLookup.head(cell.player()));
+      }
+    }
+
+    // Draw footer
+    if (layout.footer() != null) {
+      text(layout.footer());
+    }
+  }
+
+  private void pingBars(
+      ArgbRaster raster,
+      int ping,
+      int x,
+      int y)
+  {
+    final int barsToShow;
+    final Color barColour;
+
+    if (ping < 0) {
+      barsToShow = 0;
+      barColour = PING_UNKNOWN_COLOUR;
+    }
+    else if (ping < PING_GOOD_THRESHOLD) {
+      barsToShow = 5;
+      barColour = PING_GOOD_COLOUR;
+    }
+    else if (ping < PING_MEDIUM_THRESHOLD) {
+      barsToShow = 4;
+      barColour = PING_MEDIUM_COLOUR;
+    }
+    else if (ping < PING_BAD_THRESHOLD) {
+      barsToShow = 3;
+      barColour = PING_BAD_COLOUR;
+    }
+    else {
+      barsToShow = 2;
+      barColour = PING_VERY_BAD_COLOUR;
+    }
+
+    final int maxTotalBarHeight = PlayerListLayout.PING_BAR_HEIGHT_INCREMENT * PlayerListLayout.PING_BAR_COUNT;
+    int currentX = x;
+    int currentBarHeight = PlayerListLayout.PING_BAR_HEIGHT_INCREMENT;
+
+    // Draw 5 bar positions/placeholders
+    for (int i = 1; i <= PlayerListLayout.PING_BAR_COUNT; ++i) {
+      final int barY = y + (maxTotalBarHeight - currentBarHeight); // Align bars at the bottom
+
+      if (i <= barsToShow) {
+        raster.fillRect(currentX, barY, PlayerListLayout.PING_BAR_WIDTH, currentBarHeight, barColour.getRGB());
+      }
+      else if (ping >= 0) { // Only draw grey background bars if ping is known
+        raster.fillRect(currentX, barY, PlayerListLayout.PING_BAR_WIDTH, currentBarHeight, PING_UNKNOWN_COLOUR.getRGB());
+      }
+      currentX += PlayerListLayout.PING_BAR_WIDTH + PlayerListLayout.PING_BAR_SPACING;
+      currentBarHeight += PlayerListLayout.PING_BAR_HEIGHT_INCREMENT;
+    }
+  }
+
+  private Graphics2D graphics() {
+    if (this.graphics == null) {
+      this.graphics = this.image.createGraphics();
+      RenderUtil.applyMinecraftRenderingHints(this.graphics);
+    }
+
+    return this.graphics;
+  }
+
+  @Override
+  public void close() {
+    if (this.graphics != null) {
+      this.graphics.dispose();
+      this.graphics = null;
+    }
+  }
+
+  @FunctionalInterface
+  interface HeadLookup {
+    @Nullable
+    BufferedImage head(@NotNull PlayerListName player);
+
+    /**
+     * @return Where the player's head starts in {@link #pixels()}, or -1 to draw {@link #head} instead
+     */
+    default int pixelOffset(@NotNull PlayerListName player) {
+      return -1;
+    }
+
+    /**
+     * @return Heads of {@value HeadStore#HEAD_PIXELS} pixels each, as copied by {@link HeadProvider#copyHead}
+     */
+    default int @Nullable [] pixels() {
+      return null;
+    }
+  }
+}
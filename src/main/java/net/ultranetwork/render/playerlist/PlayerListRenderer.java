@@ -1,266 +1,122 @@
 package net.ultranetwork.render.playerlist;
 
-import java.awt.Color;
-import java.awt.FontMetrics;
-import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
-import net.ultranetwork.render.util.HeadUtil;
+import net.ultranetwork.render.head.HeadProvider;
+import net.ultranetwork.render.head.HeadStore;
+import net.ultranetwork.render.util.CompiledText;
+import net.ultranetwork.render.util.ImagePool;
+import net.ultranetwork.render.util.ImageUtil;
+import net.ultranetwork.render.util.RenderExecutor;
+import net.ultranetwork.render.util.RenderInstrumentation;
+import net.ultranetwork.render.util.RenderMetrics;
 import net.ultranetwork.render.util.RenderUtil;
+import net.ultranetwork.render.util.TextSpriteCache;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public final class PlayerListRenderer {
-  private static final int DEFAULT_MAX_PLAYERS_PER_COLUMN = 20;
-  private static final int DEFAULT_COLUMN_SPACING = 10;
-  private static final int DEFAULT_PADDING = 5;
-  private static final int FOOTER_EXTRA_SPACING = 6;
-  private static final int HEADER_FOOTER_PADDING = 4;
-  private static final int PLAYER_NAME_PING_SPACING = 4;
-  private static final int PING_BAR_WIDTH = 2;
-  private static final int PING_BAR_HEIGHT_INCREMENT = 2;
-  private static final int PING_BAR_SPACING = 1;
-  private static final int PLAYER_LINE_HEIGHT = 18;
-  private static final int PLAYER_HEAD_SIZE = 16;
-  private static final int PLAYER_HEAD_NAME_SPACING = 2; // Space between head and name
-
-  // Colours specific to PlayerList
-  private static final Color BACKGROUND_COLOUR = new Color(56, 70, 117);
-  private static final Color TAB_TEXT_SHADOW_COLOUR = new Color(0, 0, 0, 80);
-
-  // Ping thresholds and colours
-  private static final Color PING_GOOD_COLOUR = new Color(0, 255, 0);
-  private static final Color PING_MEDIUM_COLOUR = new Color(255, 255, 0);
-  private static final Color PING_BAD_COLOUR = new Color(255, 85, 85);
-  private static final Color PING_VERY_BAD_COLOUR = new Color(170, 0, 0);
-  private static final Color PING_UNKNOWN_COLOUR = new Color(170, 170, 170);
-
-  // todo this
-  private static final int PING_GOOD_THRESHOLD = 150;
-  private static final int PING_MEDIUM_THRESHOLD = 300;
-  private static final int PING_BAD_THRESHOLD = 500;
-
-  private final Component header;
-  private final Component footer;
-  private final List<PlayerListName> players;
-  private final int maxPlayersPerColumn;
-  private final int columnSpacing;
-  private final int padding;
-  private final boolean showHeads;
-  private final Map<String, BufferedImage> playerHeads;
+  static final int DEFAULT_MAX_PLAYERS_PER_COLUMN = 20;
+  static final int DEFAULT_COLUMN_SPACING = 10;
+  static final int DEFAULT_PADDING = 5;
+
+  /**
+   * The default order: higher priority first, then by name ignoring case.
+   */
+  static final Comparator<PlayerListName> DEFAULT_ORDER = Comparator
+      .comparingInt(PlayerListName::priority)
+      .reversed() // Higher priority first
+      .thenComparing(PlayerListName::plainListName, String.CASE_INSENSITIVE_ORDER);
+
+  private final PlayerListLayout layout;
+  private final FetchedHeads playerHeads;
+  private final ImagePool imagePool;
+  private final TextSpriteCache textCache;
 
   private PlayerListRenderer(
-      Builder builder,
-      Map<String, BufferedImage> fetchedHeads)
+      PlayerListLayout layout,
+      FetchedHeads fetchedHeads,
+      @Nullable ImagePool imagePool,
+      @Nullable TextSpriteCache textCache)
   {
-    this.header = builder.header != null ? builder.header : Component.empty();
-    this.footer = builder.footer != null ? builder.footer : Component.empty();
-    this.players = List.copyOf(builder.names);
-    this.maxPlayersPerColumn = builder.maxPlayersPerColumn;
-    this.columnSpacing = builder.columnSpacing;
-    this.padding = builder.padding;
-    this.showHeads = builder.showHeads;
+    this.layout = layout;
     this.playerHeads = fetchedHeads;
+    this.imagePool = imagePool;
+    this.textCache = textCache;
   }
 
   private BufferedImage render() {
-    final int playerCount = this.players.size();
-    final int numColumns = (playerCount == 0) ? 0 :
-        Math.min(4, (playerCount + this.maxPlayersPerColumn - 1) / this.maxPlayersPerColumn);
-
-    final BufferedImage tempImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
-    final Graphics2D tempG = tempImage.createGraphics();
-    tempG.setFont(RenderUtil.MINECRAFT_FONT);
-
-    final int headerHeight = !Component.empty().equals(this.header) ? PLAYER_LINE_HEIGHT + HEADER_FOOTER_PADDING * 2 : 0;
-    final int footerHeight = !Component.empty().equals(this.footer) ? PLAYER_LINE_HEIGHT + HEADER_FOOTER_PADDING * 2 : 0;
-
-    final FontMetrics metrics = tempG.getFontMetrics();
-    final int headerWidth = RenderUtil.calculateComponentWidth(metrics, this.header);
-    final int footerWidth = RenderUtil.calculateComponentWidth(metrics, this.footer);
-    final int maxHeaderFooterWidth = Math.max(headerWidth, footerWidth);
-
-    int maxPlayerNameWidth = 0;
-    for (PlayerListName playerListName : this.players) {
-      final Component nameToMeasure = playerListName.listNameComponent();
-      maxPlayerNameWidth = Math.max(maxPlayerNameWidth, RenderUtil.calculateComponentWidth(metrics, nameToMeasure));
-    }
-
-    final int pingBarsWidth = (PING_BAR_WIDTH + PING_BAR_SPACING) * 5 - PING_BAR_SPACING;
-    final int headAreaWidth = this.showHeads
-        ? PLAYER_HEAD_SIZE + PLAYER_HEAD_NAME_SPACING
-        : 0;
-
-    // Width needed for one column's content (head + name + ping)
-    final int singleColumnContentWidth = headAreaWidth + maxPlayerNameWidth + PLAYER_NAME_PING_SPACING + pingBarsWidth;
-
-    // Total width for all content columns + spacing between them
-    final int requiredContentWidth = numColumns * singleColumnContentWidth + Math.max(0, numColumns - 1) * this.columnSpacing;
-
-    // Image width is max of content area or header/footer, plus padding
-    final int imageWidth = Math.max(requiredContentWidth, maxHeaderFooterWidth) + this.padding * 2;
-
-    // Calculate actual column width based on final image width
-    final int actualContentWidth = imageWidth - this.padding * 2;
-    final int columnWidth = (numColumns == 0) ? actualContentWidth
-        : (actualContentWidth - Math.max(0, numColumns - 1) * this.columnSpacing) / numColumns;
-
-    // Calculate height
-    final int numRowsNeeded = (playerCount == 0) ? 0 : (int) Math.ceil((double) playerCount / numColumns);
-    final int actualNumRowsDisplayed = Math.min(this.maxPlayersPerColumn, numRowsNeeded);
-    final int playersHeight = actualNumRowsDisplayed * PLAYER_LINE_HEIGHT;
-    final int extraSpacing = (footerHeight > 0 && playersHeight > 0) ? FOOTER_EXTRA_SPACING : 0;
-    final int imageHeight = headerHeight + playersHeight + extraSpacing + footerHeight + this.padding * 2;
-
-    tempG.dispose();
-
-    // final image
-    final BufferedImage finalImage = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_ARGB);
-    final Graphics2D graphics = finalImage.createGraphics();
-    graphics.setFont(RenderUtil.MINECRAFT_FONT);
-    RenderUtil.applyMinecraftRenderingHints(graphics);
-
-    // Draw background
-    graphics.setColor(BACKGROUND_COLOUR);
-    graphics.fillRect(0, 0, imageWidth, imageHeight);
-
-    // Draw header
-    int currentY = this.padding;
-    if (headerHeight > 0) {
-      final int headerTextWidth = RenderUtil.calculateComponentWidth(metrics, this.header); // Use actual metrics
-      final int headerX = this.padding + Math.max(0, (actualContentWidth - headerTextWidth) / 2);
-      final int headerBaselineY = currentY + HEADER_FOOTER_PADDING + metrics.getAscent();
-
-      RenderUtil.drawAdventureComponent(graphics, this.header, headerX, headerBaselineY, RenderUtil.DEFAULT_TEXT_COLOUR, TAB_TEXT_SHADOW_COLOUR);
-      currentY += headerHeight;
-    }
-
-    // Draw players
-    final int playerGridY = currentY;
-    int playerIndex = 0;
-    for (int col = 0; col < numColumns; col++) {
-      final int columnStartX = this.padding + col * (columnWidth + this.columnSpacing);
-
-      for (int row = 0; row < actualNumRowsDisplayed; row++) {
-        if (playerIndex >= this.players.size())
-          break;
-
-        final PlayerListName playerRenderData = this.players.get(playerIndex++);
-        final int playerBaseY = playerGridY + row * PLAYER_LINE_HEIGHT;
-        final int playerTextBaselineY = playerBaseY + metrics.getAscent();
-        int currentDrawX = columnStartX; // Starting X for this player entry
-
-        // Draw head
-        if (this.showHeads) {
-          final BufferedImage headImage = this.playerHeads.get(playerRenderData.plainListName());
-
-          if (headImage != null) {
-            final int headY = playerBaseY + (PLAYER_LINE_HEIGHT - PLAYER_HEAD_SIZE) / 2; // center
-            graphics.drawImage(headImage, currentDrawX, headY, PLAYER_HEAD_SIZE, PLAYER_HEAD_SIZE, null);
-          }
-
-          // Always continue X even if head is missing t maintain alignment
-          currentDrawX += PLAYER_HEAD_SIZE + PLAYER_HEAD_NAME_SPACING;
-        }
-
-        RenderUtil.drawAdventureComponent(graphics, playerRenderData.listNameComponent(),
-            currentDrawX,
-            playerTextBaselineY,
-            RenderUtil.DEFAULT_TEXT_COLOUR,
-            TAB_TEXT_SHADOW_COLOUR);
-
-        // Calculate ping X relative to the right edge of the columns content area
-        final int columnContentEndX = columnStartX + columnWidth;
-        final int pingX = columnContentEndX - pingBarsWidth;
+    final RenderInstrumentation.Span span = RenderInstrumentation.start(RenderMetrics.Stage.PAINT);
 
-        // Calculate ping Y centered vertically within the line height
-        final int totalPingHeight = PING_BAR_HEIGHT_INCREMENT * 5; // 5 = max height
-        final int pingYOffset = (PLAYER_LINE_HEIGHT - totalPingHeight) / 2;
-        final int pingDrawY = playerBaseY + pingYOffset;
+    try {
+      // final image
+      final BufferedImage finalImage = this.imagePool != null
+          ? this.imagePool.lease(this.layout.width(), this.layout.height())
+          : new BufferedImage(this.layout.width(), this.layout.height(), BufferedImage.TYPE_INT_ARGB);
 
-        drawPingBars(graphics, playerRenderData.ping(), pingX, pingDrawY);
+      try (PlayerListPainter painter = new PlayerListPainter(finalImage, this.textCache)) {
+        painter.paint(this.layout, this.playerHeads);
       }
 
-      if (playerIndex >= this.players.size())
-        break;
+      span.end();
+      return finalImage;
     }
-
-    // Draw footer
-    if (footerHeight > 0) {
-      currentY = (playerGridY + playersHeight) + extraSpacing;
-
-      final int footerTextWidth = RenderUtil.calculateComponentWidth(metrics, this.footer);
-      final int footerX = this.padding + Math.max(0, (actualContentWidth - footerTextWidth) / 2);
-      final int footerBaselineY = currentY + HEADER_FOOTER_PADDING + metrics.getAscent();
-
-      RenderUtil.drawAdventureComponent(graphics, this.footer, footerX, footerBaselineY, RenderUtil.DEFAULT_TEXT_COLOUR, TAB_TEXT_SHADOW_COLOUR);
+    catch (RuntimeException | Error e) {
+      span.fail(e);
+      throw e;
     }
-
-    graphics.dispose();
-    return finalImage;
   }
 
-  private void drawPingBars(
-      Graphics2D graphics,
-      int ping,
-      int x,
-      int y)
+  /**
+   * The heads for one render: those the provider copied into one array, and images of the rest.
+   *
+   * @param images  Fetched heads by {@link PlayerListName#headKey()}
+   * @param pixels  Copied heads, {@value HeadStore#HEAD_PIXELS} pixels each, or null if none were copied
+   * @param offsets Where each copied head starts in the pixels, by {@link PlayerListName#headKey()}
+   */
+  private record FetchedHeads(
+      Map<String, BufferedImage> images,
+      int @Nullable [] pixels,
+      Map<String, Integer> offsets) implements PlayerListPainter.HeadLookup
   {
-    final int barsToShow;
-    final Color barColour;
+    private static final FetchedHeads NONE = new FetchedHeads(Map.of(), null, Map.of());
 
-    if (ping < 0) {
-      barsToShow = 0;
-      barColour = PING_UNKNOWN_COLOUR;
-    }
-    else if (ping < PING_GOOD_THRESHOLD) {
-      barsToShow = 5;
-      barColour = PING_GOOD_COLOUR;
-    }
-    else if (ping < PING_MEDIUM_THRESHOLD) {
-      barsToShow = 4;
-      barColour = PING_MEDIUM_COLOUR;
-    }
-    else if (ping < PING_BAD_THRESHOLD) {
-      barsToShow = 3;
-      barColour = PING_BAD_COLOUR;
+    @Override
+    @Nullable
+    public BufferedImage head(@NotNull PlayerListName player) {
+      return this.images.get(player.headKey());
     }
-    else {
-      barsToShow = 2;
-      barColour = PING_VERY_BAD_COLOUR;
-    }
-
-    final int maxTotalBarHeight = PING_BAR_HEIGHT_INCREMENT * 5;
-    int currentX = x;
-    int currentBarHeight = PING_BAR_HEIGHT_INCREMENT;
-
-    // Draw 5 bar positions/placeholders
-    for (int i = 1; i <= 5; ++i) {
-      final int barY = y + (maxTotalBarHeight - currentBarHeight); // Align bars at the bottom
 
-      if (i <= barsToShow) {
-        graphics.setColor(barColour);
-        graphics.fillRect(currentX, barY, PING_BAR_WIDTH, currentBarHeight);
-      }
-      else if (ping >= 0) { // Only draw grey background bars if ping is known
-        graphics.setColor(PING_UNKNOWN_COLOUR);
-        graphics.fillRect(currentX, barY, PING_BAR_WIDTH, currentBarHeight);
-      }
-      currentX += PING_BAR_WIDTH + PING_BAR_SPACING;
-      currentBarHeight += PING_BAR_HEIGHT_INCREMENT;
+    @Override
+    public int pixelOffset(@NotNull PlayerListName player) {
+      final Integer offset = this.offsets.get(player.headKey());
+      return offset != null ? offset : -1;
     }
   }
 
+  /**
+   * @return The footer shown when none is set, counting the players
+   */
+  @NotNull
+  static Component defaultFooter(int playerCount) {
+    return Component.text("Players Online: ", NamedTextColor.GRAY)
+        .append(Component.text(playerCount, NamedTextColor.WHITE));
+  }
+
   public static Builder builder() {
     return new Builder();
   }
@@ -271,9 +127,18 @@ public final class PlayerListRenderer {
     private int columnSpacing = DEFAULT_COLUMN_SPACING;
     private int padding = DEFAULT_PADDING;
     private Component header = null;
-    private Component footer = Component.text("Players Online: ", NamedTextColor.GRAY).append(Component.text("0", NamedTextColor.WHITE));
+    private Component footer = defaultFooter(0);
     private Comparator<PlayerListName> customSorter = null;
     private boolean showHeads = false;
+    private HeadProvider headProvider = HeadProvider.defaultProvider();
+    private Executor executor = RenderExecutor.defaultExecutor();
+    private ImagePool imagePool = null;
+    private TextSpriteCache textCache = null;
+    private int scale = 1;
+    // Set on the builders of pages, so every page has the same shape
+    private int pageNameWidth = 0;
+    private int pageColumns = 0;
+    private int pageRows = 0;
 
     private Builder() {}
 
@@ -317,50 +182,253 @@ public final class PlayerListRenderer {
       return this;
     }
 
+    /**
+     * @param headProvider Where heads are fetched from when {@link #showNameHeads(boolean)} is enabled
+     */
+    public Builder headProvider(@NotNull HeadProvider headProvider) {
+      this.headProvider = Objects.requireNonNull(headProvider);
+      return this;
+    }
+
+    /**
+     * @param executor The executor rendering runs on, {@link RenderExecutor#defaultExecutor()} by default
+     */
+    public Builder executor(@NotNull Executor executor) {
+      this.executor = Objects.requireNonNull(executor);
+      return this;
+    }
+
+    /**
+     * @param imagePool The pool to render into, or null to allocate a new image each time. The caller
+     *                  releases the rendered image back to the pool.
+     */
+    public Builder imagePool(@Nullable ImagePool imagePool) {
+      this.imagePool = imagePool;
+      return this;
+    }
+
+    /**
+     * @param textCache The cache of drawn names to share with other renders, or null to draw every name
+     */
+    public Builder textCache(@Nullable TextSpriteCache textCache) {
+      this.textCache = textCache;
+      return this;
+    }
+
+    /**
+     * @param scale How many times bigger to output the list, by repeating each pixel. The list is still
+     *              rendered at 1x, so it stays crisp.
+     */
+    public Builder scale(int scale) {
+      this.scale = Math.max(1, scale);
+      return this;
+    }
+
     public Builder sortBy(@NotNull Comparator<PlayerListName> sorter) {
       this.customSorter = sorter;
       return this;
     }
 
+    /**
+     * Works out the size and positions of everything without fetching heads or drawing.
+     *
+     * @return The layout {@link #build()} would render
+     */
+    @NotNull
+    public PlayerListLayout layout() {
+      prepare();
+      return computeLayout();
+    }
+
     public CompletableFuture<BufferedImage> build() {
-      this.names.sort(
-          Objects.requireNonNullElseGet(this.customSorter, () -> Comparator
-              .comparingInt(PlayerListName::priority)
-              .reversed() // Higher priority first
-              .thenComparing(PlayerListName::plainListName, String.CASE_INSENSITIVE_ORDER))
-      );
+      return renderScaled(new int[] {this.scale}).thenApply(images -> images.get(0));
+    }
 
-      if (this.footer != null && this.footer.children().size() == 1
-          && this.footer.equals(Component.text("Players Online: ", NamedTextColor.GRAY).append(Component.text("0", NamedTextColor.WHITE)))) {
-        this.footer = Component.text("Players Online: ", NamedTextColor.GRAY)
-            .append(Component.text(this.names.size(), NamedTextColor.WHITE));
+    /**
+     * Renders once at 1x and scales that render up to each size, ignoring {@link #scale(int)}.
+     *
+     * @param scales The whole number scales, each at least 1
+     * @return A future with one image per scale, in the same order
+     * @throws IllegalArgumentException If a scale is less than 1
+     */
+    public CompletableFuture<List<BufferedImage>> buildScales(int @NotNull ... scales) {
+      final int[] factors = scales.clone();
+      for (int factor : factors) {
+        if (factor < 1) {
+          throw new IllegalArgumentException("Scale must be at least 1 but was " + factor);
+        }
+      }
+
+      return renderScaled(factors);
+    }
+
+    /**
+     * Splits the list into pages of up to {@value PlayerListLayout#MAX_COLUMNS} full columns each, for
+     * lists too long to show in one image. Nothing is sorted or rendered until a page is asked for, and
+     * then only that page's players are picked out and only their heads fetched.
+     * <p>
+     * Every page is the size of the first, with its name columns as wide as the widest name in the
+     * whole list. The default footer counts every player, not just those on the page.
+     *
+     * @return The pages
+     */
+    @NotNull
+    public PlayerListPages paginate() {
+      final Comparator<PlayerListName> order = Objects.requireNonNullElse(this.customSorter, DEFAULT_ORDER);
+      final List<PlayerListName> players = List.copyOf(this.names);
+      final int pageSize = pageSize();
+
+      // Compiled without the cache, as thousands of names would only push out more useful entries
+      int nameWidth = 0;
+      for (PlayerListName player : players) {
+        nameWidth = Math.max(nameWidth,
+            CompiledText.compile(player.listNameComponent(), RenderUtil.DEFAULT_TEXT_COLOUR).width());
       }
 
-      CompletableFuture<Map<String, BufferedImage>> headsFuture;
+      // The first page is the fullest, so every other page fits its grid
+      final int firstPageSize = Math.min(players.size(), pageSize);
+      final int columns = (firstPageSize + this.maxPlayersPerColumn - 1) / this.maxPlayersPerColumn;
+
+      final Builder template = copy();
+      template.names.clear();
+      template.updateFooter(players.size());
+      template.pageNameWidth = nameWidth;
+      template.pageColumns = columns;
+      template.pageRows = columns == 0 ? 0 : (firstPageSize + columns - 1) / columns;
+
+      return new PlayerListPages(players, order, pageSize, page -> {
+        final Builder pageBuilder = template.copy();
+        pageBuilder.names.addAll(page);
+        return pageBuilder.build();
+      });
+    }
+
+    private CompletableFuture<List<BufferedImage>> renderScaled(int[] factors) {
+      prepare();
+
+      CompletableFuture<FetchedHeads> headsFuture;
       if (this.showHeads && !this.names.isEmpty()) {
-        final List<CompletableFuture<Map.Entry<String, BufferedImage>>> fetchFutures = this.names.stream()
-            .map(PlayerListName::plainListName)
-            .distinct()
-            .map(name -> HeadUtil.fetchPlayerHead(name)
-                .thenApply(image -> Map.entry(name, image)))
-            .toList();
+        final RenderInstrumentation.Span headSpan = RenderInstrumentation.start(RenderMetrics.Stage.HEAD_FETCH);
+        // Only the players prepare() sorted to the front can be shown, so only their heads are needed
+        final List<PlayerListName> shown = this.names.subList(0, Math.min(pageSize(), this.names.size()));
+        final Collection<PlayerListName> players = shown.stream()
+            .collect(Collectors.toMap(PlayerListName::headKey, player -> player, (first, second) -> first,
+                LinkedHashMap::new))
+            .values();
+
+        // Heads the provider already holds are copied into one array; only the others are fetched as images
+        int[] pixels = new int[HeadStore.HEAD_PIXELS];
+        final Map<String, Integer> offsets = new HashMap<>();
+        final List<CompletableFuture<Map.Entry<String, BufferedImage>>> fetchFutures = new ArrayList<>();
+
+        for (PlayerListName player : players) {
+          final int offset = offsets.size() * HeadStore.HEAD_PIXELS;
+
+          if (offset == pixels.length) {
+            pixels = Arrays.copyOf(pixels, Math.min(pixels.length * 2, players.size() * HeadStore.HEAD_PIXELS));
+          }
+
+          if (this.headProvider.copyHead(player.uuid(), pixels, offset)) {
+            offsets.put(player.headKey(), offset);
+          }
+          else {
+            fetchFutures.add(this.headProvider.fetchHead(player.uuid(), player.plainListName())
+                .<Map.Entry<String, BufferedImage>>thenApply(image -> new AbstractMap.SimpleImmutableEntry<>(player.headKey(), image))); // image is null for missing heads
+          }
+        }
 
         // Combine all fetch futures: wait for all to complete
+        final int[] copied = offsets.isEmpty() ? null : pixels;
         headsFuture = CompletableFuture.allOf(fetchFutures.toArray(new CompletableFuture[0]))
-            .thenApply(v -> fetchFutures.stream()
-                .map(CompletableFuture::join)
-                .filter(entry -> entry.getValue() != null)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+            .thenApply(v -> {
+              final Map<String, BufferedImage> heads = new HashMap<>();
+
+              for (CompletableFuture<Map.Entry<String, BufferedImage>> fetch : fetchFutures) {
+                final Map.Entry<String, BufferedImage> entry = fetch.join();
+
+                if (entry.getValue() != null) {
+                  heads.put(entry.getKey(), entry.getValue());
+                }
+                else {
+                  RenderInstrumentation.headMissed(entry.getKey());
+                }
+              }
+
+              return new FetchedHeads(heads, copied, offsets);
+            })
+            .whenComplete((heads, throwable) -> {
+              if (throwable != null) {
+                headSpan.fail(throwable);
+              }
+              else {
+                headSpan.end();
+              }
+            });
       }
       else {
-        headsFuture = CompletableFuture.completedFuture(Collections.emptyMap());
+        headsFuture = CompletableFuture.completedFuture(FetchedHeads.NONE);
       }
 
       final Builder builderSnapshot = this.copy();
       return headsFuture.thenApplyAsync(fetchedHeads -> {
-        final PlayerListRenderer renderer = new PlayerListRenderer(builderSnapshot, fetchedHeads);
-        return renderer.render(); // Perform the synchronous rendering part
-      });
+        final PlayerListRenderer renderer = new PlayerListRenderer(
+            builderSnapshot.timedLayout(),
+            fetchedHeads,
+            builderSnapshot.imagePool,
+            builderSnapshot.textCache);
+        final BufferedImage image = renderer.render(); // Perform the synchronous rendering part
+        final List<BufferedImage> images = ImageUtil.scale(image, factors, builderSnapshot.imagePool);
+
+        // The 1x render was only an intermediate
+        if (builderSnapshot.imagePool != null && !images.contains(image)) {
+          builderSnapshot.imagePool.release(image);
+        }
+
+        return images;
+      }, this.executor);
+    }
+
+    /**
+     * Sorts the names that will be shown and fills in the player count of the default footer.
+     */
+    private void prepare() {
+      // Only the first few columns fit, so the hidden players are left unsorted
+      PlayerRanking.sortFirst(this.names, Objects.requireNonNullElse(this.customSorter, DEFAULT_ORDER),
+          pageSize());
+      updateFooter(this.names.size());
+    }
+
+    /**
+     * @return The most players one image can show
+     */
+    private int pageSize() {
+      return (int) Math.min(Integer.MAX_VALUE, (long) PlayerListLayout.MAX_COLUMNS * this.maxPlayersPerColumn);
+    }
+
+    private void updateFooter(int playerCount) {
+      if (this.footer != null && this.footer.children().size() == 1
+          && this.footer.equals(defaultFooter(0))) {
+        this.footer = defaultFooter(playerCount);
+      }
+    }
+
+    private PlayerListLayout timedLayout() {
+      final RenderInstrumentation.Span span = RenderInstrumentation.start(RenderMetrics.Stage.LAYOUT);
+
+      try {
+        final PlayerListLayout layout = computeLayout();
+        span.end();
+        return layout;
+      }
+      catch (RuntimeException | Error e) {
+        span.fail(e);
+        throw e;
+      }
+    }
+
+    private PlayerListLayout computeLayout() {
+      return PlayerListLayout.compute(this.header, this.footer, this.names, this.maxPlayersPerColumn,
+          this.columnSpacing, this.padding, this.showHeads, this.pageNameWidth, this.pageColumns, this.pageRows);
     }
 
     private Builder copy() {
@@ -373,6 +441,14 @@ public final class PlayerListRenderer {
       copy.footer = this.footer;
       copy.customSorter = this.customSorter;
       copy.showHeads = this.showHeads;
+      copy.headProvider = this.headProvider;
+      copy.executor = this.executor;
+      copy.imagePool = this.imagePool;
+      copy.textCache = this.textCache;
+      copy.scale = this.scale;
+      copy.pageNameWidth = this.pageNameWidth;
+      copy.pageColumns = this.pageColumns;
+      copy.pageRows = this.pageRows;
       return copy;
     }
   }
@@ -0,0 +1,536 @@
+package net.ultranetwork.render.playerlist;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import net.kyori.adventure.text.Component;
+import net.ultranetwork.render.head.HeadProvider;
+import net.ultranetwork.render.util.CompiledText;
+import net.ultranetwork.render.util.RenderExecutor;
+import net.ultranetwork.render.util.RenderInstrumentation;
+import net.ultranetwork.render.util.RenderMetrics;
+import net.ultranetwork.render.util.RenderUtil;
+import net.ultranetwork.render.util.TextSpriteCache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A long-lived player list that is updated in place and re-rendered incrementally.
+ * <p>
+ * Players are kept sorted, with their names compiled, as they are added, updated and removed, and
+ * heads are fetched once when a player is added. The session notes which positions in the list changed
+ * since the last render, so a render only places and repaints the cells that moved or changed, clears
+ * the cells of players past the new end of the list, and repaints the footer if its text changed, into
+ * the image from the previous render. The list is only laid out again, and repainted whole, when the
+ * image size or grid changes.
+ */
+public final class PlayerListSession {
+  private final Component header;
+  private final Component footer;
+  private final boolean countFooter;
+  private final int maxPlayersPerColumn;
+  private final int columnSpacing;
+  private final int padding;
+  private final boolean showHeads;
+  private final Comparator<PlayerListName> order;
+  private final HeadProvider headProvider;
+  private final Executor executor;
+  private final TextSpriteCache textCache;
+
+  // Player state, guarded by this
+  private final List<PlayerListName> sorted = new ArrayList<>();
+  private final List<CompiledText> sortedNames = new ArrayList<>(); // in the same order as sorted
+  private final TreeMap<Integer, Integer> nameWidths = new TreeMap<>(); // how many names are each width
+  private final BitSet changed = new BitSet(); // positions whose player or head changed since the last render
+  private final Map<String, PlayerListName> byName = new HashMap<>();
+  private final Map<String, CompletableFuture<BufferedImage>> pendingHeads = new HashMap<>();
+  private final Map<String, BufferedImage> heads = new ConcurrentHashMap<>();
+
+  // Canvas state, guarded by canvasLock
+  private final Object canvasLock = new Object();
+  private BufferedImage canvas;
+  private PlayerListLayout canvasLayout; // the grid and footer painted; its cells are not kept up to date
+  private final List<PlayerListLayout.Cell> canvasCells = new ArrayList<>();
+  private final List<BufferedImage> canvasHeads = new ArrayList<>();
+
+  private final AtomicLong fullRepaints = new AtomicLong();
+  private final AtomicLong partialRepaints = new AtomicLong();
+  private final AtomicLong cellsRepainted = new AtomicLong();
+
+  /**
+   * What changed since the last render, taken under the session's lock.
+   *
+   * @param layout  The layout's grid, header and footer, with no cells
+   * @param shown   The number of players shown
+   * @param full    Whether the grid changed, so the whole image is repainted
+   * @param indices The positions to place again: every shown position for a full repaint, otherwise
+   *                only those that changed, in ascending order
+   * @param cells   The cells at those positions
+   * @param heads   The heads at those positions, or null for none
+   */
+  private record Update(
+      PlayerListLayout layout,
+      int shown,
+      boolean full,
+      int[] indices,
+      PlayerListLayout.Cell[] cells,
+      BufferedImage[] heads
+  ) {
+  }
+
+  private PlayerListSession(Builder builder) {
+    this.header = builder.header;
+    this.footer = builder.footer;
+    this.countFooter = builder.countFooter;
+    this.maxPlayersPerColumn = builder.maxPlayersPerColumn;
+    this.columnSpacing = builder.columnSpacing;
+    this.padding = builder.padding;
+    this.showHeads = builder.showHeads;
+    this.order = builder.order;
+    this.headProvider = builder.headProvider;
+    this.executor = builder.executor;
+    this.textCache = builder.textCache;
+  }
+
+  /**
+   * Adds a player, or replaces the player with the same {@link PlayerListName#plainListName()}.
+   *
+   * @param player The player to show
+   */
+  public synchronized void put(@NotNull PlayerListName player) {
+    final PlayerListName previous = this.byName.put(player.plainListName(), player);
+    int from = Integer.MAX_VALUE;
+    int to = this.sorted.size() + 1; // a new player shifts everyone after it
+
+    if (previous != null) {
+      from = indexOf(previous);
+      to = from + 1;
+      this.sorted.remove(from);
+      removeWidth(this.sortedNames.remove(from));
+    }
+
+    // A new UUID under the same name is a different player, with a different head
+    if (this.showHeads && (previous == null || !Objects.equals(previous.uuid(), player.uuid()))) {
+      this.heads.remove(player.plainListName());
+      fetchHead(player);
+    }
+
+    final CompiledText name = CompiledText.of(player.listNameComponent(), RenderUtil.DEFAULT_TEXT_COLOUR);
+    final int search = Collections.binarySearch(this.sorted, player, this.order);
+    final int index = search < 0 ? -search - 1 : search;
+    this.sorted.add(index, player);
+    this.sortedNames.add(index, name);
+    this.nameWidths.merge(name.width(), 1, Integer::sum);
+
+    // Moving within the list only shifts the players in between
+    this.changed.set(Math.min(from, index), previous != null ? Math.max(to, index + 1) : to);
+  }
+
+  /**
+   * @param plainListName The {@link PlayerListName#plainListName()} of the player to remove
+   * @return Whether the player was shown
+   */
+  public synchronized boolean remove(@NotNull String plainListName) {
+    final PlayerListName previous = this.byName.remove(plainListName);
+
+    if (previous == null) {
+      return false;
+    }
+
+    final int index = indexOf(previous);
+    this.changed.set(index, this.sorted.size());
+    this.sorted.remove(index);
+    removeWidth(this.sortedNames.remove(index));
+    this.pendingHeads.remove(plainListName);
+    this.heads.remove(plainListName);
+    return true;
+  }
+
+  /**
+   * @return The number of players in the session
+   */
+  public synchronized int size() {
+    return this.sorted.size();
+  }
+
+  /**
+   * @return The players in display order
+   */
+  @NotNull
+  public synchronized List<PlayerListName> players() {
+    return List.copyOf(this.sorted);
+  }
+
+  /**
+   * Renders the current state once any heads still being fetched have arrived.
+   *
+   * @return A future with an image of the list. The image is the caller's own and is not changed by
+   * later renders; it is copied from the session's image, which {@link #render(Function)} avoids.
+   */
+  @NotNull
+  public CompletableFuture<BufferedImage> render() {
+    return render(image -> new BufferedImage(image.getColorModel(), image.copyData(null), false, null));
+  }
+
+  /**
+   * Renders the current state once any heads still being fetched have arrived, and hands the session's
+   * own image to the reader, for example to encode it, without copying it.
+   *
+   * @param reader Reads the image. No other render changes the image while it runs, and it must not
+   *               keep the image, which later renders repaint in place.
+   * @return A future with what the reader returned
+   */
+  @NotNull
+  public <T> CompletableFuture<T> render(@NotNull Function<? super BufferedImage, ? extends T> reader) {
+    final CompletableFuture<?> headsReady;
+
+    synchronized (this) {
+      headsReady = this.pendingHeads.isEmpty()
+          ? CompletableFuture.completedFuture(null)
+          : CompletableFuture.allOf(this.pendingHeads.values().toArray(new CompletableFuture<?>[0]));
+    }
+
+    return headsReady.thenApplyAsync(ignored -> paint(reader), this.executor);
+  }
+
+  /**
+   * @return The number of renders that repainted the whole image
+   */
+  public long fullRepaints() {
+    return this.fullRepaints.get();
+  }
+
+  /**
+   * @return The number of renders that only repainted changed cells
+   */
+  public long partialRepaints() {
+    return this.partialRepaints.get();
+  }
+
+  /**
+   * @return The number of cells repainted by partial repaints
+   */
+  public long cellsRepainted() {
+    return this.cellsRepainted.get();
+  }
+
+  private <T> T paint(Function<? super BufferedImage, ? extends T> reader) {
+    synchronized (this.canvasLock) {
+      RenderInstrumentation.Span span = RenderInstrumentation.start(RenderMetrics.Stage.LAYOUT);
+
+      try {
+        final Update update = update();
+        span.end();
+
+        span = RenderInstrumentation.start(RenderMetrics.Stage.PAINT);
+        final BufferedImage canvas = repaint(update);
+        span.end();
+
+        return reader.apply(canvas);
+      }
+      catch (RuntimeException | Error e) {
+        span.fail(e); // Does nothing once the stage has ended
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Sizes the grid and places the cells that changed. Must hold the canvas lock.
+   */
+  private Update update() {
+    synchronized (this) {
+      final int count = this.sorted.size();
+      final Component footer = this.countFooter ? PlayerListRenderer.defaultFooter(count) : this.footer;
+      final PlayerListLayout layout = PlayerListLayout.grid(this.header, footer, count,
+          this.nameWidths.isEmpty() ? 0 : this.nameWidths.lastKey(),
+          this.maxPlayersPerColumn, this.columnSpacing, this.padding, this.showHeads, 0, 0);
+      final int shown = count - layout.hiddenPlayers();
+      final boolean full = this.canvas == null || !sameGeometry(this.canvasLayout, layout);
+
+      final int[] indices = full
+          ? IntStream.range(0, shown).toArray()
+          : this.changed.stream().takeWhile(i -> i < shown).toArray();
+      final PlayerListLayout.Cell[] cells = new PlayerListLayout.Cell[indices.length];
+      final BufferedImage[] cellHeads = new BufferedImage[indices.length];
+
+      for (int k = 0; k < indices.length; k++) {
+        final PlayerListName player = this.sorted.get(indices[k]);
+        cells[k] = layout.cell(indices[k], player, this.sortedNames.get(indices[k]));
+        cellHeads[k] = this.showHeads ? this.heads.get(player.plainListName()) : null;
+      }
+
+      this.changed.clear();
+      return new Update(layout, shown, full, indices, cells, cellHeads);
+    }
+  }
+
+  /**
+   * Brings the canvas up to date. Must hold the canvas lock.
+   *
+   * @return The canvas
+   */
+  private BufferedImage repaint(Update update) {
+    final PlayerListLayout layout = update.layout();
+
+    if (update.full()) {
+      this.canvas = new BufferedImage(layout.width(), layout.height(), BufferedImage.TYPE_INT_ARGB);
+      this.canvasCells.clear();
+      this.canvasHeads.clear();
+      Collections.addAll(this.canvasCells, update.cells());
+      Collections.addAll(this.canvasHeads, update.heads());
+
+      final Map<PlayerListName, BufferedImage> heads = new IdentityHashMap<>();
+      for (int i = 0; i < update.cells().length; i++) {
+        heads.put(update.cells()[i].player(), update.heads()[i]);
+      }
+
+      try (PlayerListPainter painter = new PlayerListPainter(this.canvas, this.textCache)) {
+        painter.paint(layout.withCells(this.canvasCells), heads::get);
+      }
+
+      this.canvasLayout = layout;
+      this.fullRepaints.incrementAndGet();
+      return this.canvas;
+    }
+
+    final int rows = layout.rows();
+    final int limit = PlayerListPainter.gridLimit(layout);
+    final int shown = update.shown();
+    final int previouslyShown = this.canvasCells.size();
+    final BitSet dirty = new BitSet();
+    int repainted = 0;
+
+    // Same geometry puts the cell at each position in the same place, however many cells there are.
+    // A changed cell also dirties its neighbours in the column, which its shadow reaches into.
+    for (int k = 0; k < update.indices().length; k++) {
+      final int i = update.indices()[k];
+      final PlayerListLayout.Cell cell = update.cells()[k];
+      final BufferedImage head = update.heads()[k];
+
+      if (i < previouslyShown) {
+        if (cell.equals(this.canvasCells.get(i)) && head == this.canvasHeads.get(i)) {
+          continue;
+        }
+
+        this.canvasCells.set(i, cell);
+        this.canvasHeads.set(i, head);
+      }
+      else {
+        this.canvasCells.add(cell);
+        this.canvasHeads.add(head);
+      }
+
+      final int columnStart = i / rows * rows;
+      dirty.set(Math.max(columnStart, i - 1), Math.min(Math.min(shown, columnStart + rows), i + 2));
+    }
+
+    try (PlayerListPainter painter = new PlayerListPainter(this.canvas, this.textCache)) {
+      // Players who left the end of the list: the new last cell of their column repaints down to
+      // the footer, or the whole column is cleared if nobody is left in it
+      for (int i = shown; i < previouslyShown; i++) {
+        final PlayerListLayout.Cell removed = this.canvasCells.get(i);
+
+        if (shown > i / rows * rows) {
+          dirty.set(shown - 1);
+        }
+        else if (i % rows == 0) {
+          painter.clear(removed.x(), removed.y(), layout.columnWidth(), limit - removed.y());
+          repainted++;
+        }
+      }
+
+      if (previouslyShown > shown) {
+        this.canvasCells.subList(shown, previouslyShown).clear();
+        this.canvasHeads.subList(shown, previouslyShown).clear();
+      }
+
+      for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+        final int columnStart = i / rows * rows;
+        final int columnEnd = Math.min(shown, columnStart + rows) - 1;
+        final int top = this.canvasCells.get(i).y();
+        final int bottom = i < columnEnd ? top + PlayerListLayout.PLAYER_LINE_HEIGHT : limit;
+
+        painter.band(layout, this.canvasCells, top, bottom, Math.max(columnStart, i - 1), Math.min(columnEnd, i + 1), this.canvasHeads);
+        repainted++;
+      }
+
+      if (!Objects.equals(layout.footer(), this.canvasLayout.footer())) {
+        painter.clearTextBand(layout, layout.footer());
+        painter.text(layout.footer());
+      }
+    }
+
+    this.canvasLayout = layout;
+    this.partialRepaints.incrementAndGet();
+    this.cellsRepainted.addAndGet(repainted);
+    return this.canvas;
+  }
+
+  /**
+   * Whether everything but the cell contents and footer text is where it was, so cells can be
+   * repainted one at a time. Players joining or leaving keep the geometry as long as the grid fits.
+   */
+  private static boolean sameGeometry(PlayerListLayout previous, PlayerListLayout current) {
+    return previous.width() == current.width()
+        && previous.height() == current.height()
+        && previous.columns() == current.columns()
+        && previous.rows() == current.rows()
+        && previous.columnWidth() == current.columnWidth()
+        && Objects.equals(previous.header(), current.header())
+        && (previous.footer() == null) == (current.footer() == null);
+  }
+
+  private void removeWidth(CompiledText name) {
+    this.nameWidths.computeIfPresent(name.width(), (width, count) -> count > 1 ? count - 1 : null);
+  }
+
+  private int indexOf(PlayerListName player) {
+    final int index = Collections.binarySearch(this.sorted, player, this.order);
+
+    if (index >= 0 && this.sorted.get(index).equals(player)) {
+      return index;
+    }
+
+    // The order can tie different players, or the search missed; fall back to scanning
+    return this.sorted.indexOf(player);
+  }
+
+  private void fetchHead(PlayerListName player) {
+    final String plainListName = player.plainListName();
+    final RenderInstrumentation.Span span = RenderInstrumentation.start(RenderMetrics.Stage.HEAD_FETCH);
+    final CompletableFuture<BufferedImage> fetch = this.headProvider.fetchHead(player.uuid(), plainListName);
+    this.pendingHeads.put(plainListName, fetch);
+
+    fetch.whenComplete((image, throwable) -> {
+      if (throwable != null) {
+        span.fail(throwable);
+      }
+      else {
+        span.end();
+      }
+
+      if (image == null) {
+        RenderInstrumentation.headMissed(plainListName);
+      }
+
+      synchronized (this) {
+        if (this.pendingHeads.remove(plainListName, fetch)) {
+          if (image != null) {
+            this.heads.put(plainListName, image);
+          }
+          else {
+            this.heads.remove(plainListName);
+          }
+
+          final PlayerListName current = this.byName.get(plainListName);
+          if (current != null) {
+            this.changed.set(indexOf(current));
+          }
+        }
+      }
+    });
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private Component header = null;
+    private Component footer = null;
+    private boolean countFooter = true;
+    private int maxPlayersPerColumn = PlayerListRenderer.DEFAULT_MAX_PLAYERS_PER_COLUMN;
+    private int columnSpacing = PlayerListRenderer.DEFAULT_COLUMN_SPACING;
+    private int padding = PlayerListRenderer.DEFAULT_PADDING;
+    private boolean showHeads = false;
+    private Comparator<PlayerListName> order = PlayerListRenderer.DEFAULT_ORDER;
+    private HeadProvider headProvider = HeadProvider.defaultProvider();
+    private Executor executor = RenderExecutor.defaultExecutor();
+    private TextSpriteCache textCache = null;
+
+    private Builder() {
+    }
+
+    public Builder header(@Nullable Component header) {
+      this.header = header;
+      return this;
+    }
+
+    /**
+     * @param footer The footer, or null for none. Without this the footer counts the players online.
+     */
+    public Builder footer(@Nullable Component footer) {
+      this.footer = footer;
+      this.countFooter = false;
+      return this;
+    }
+
+    public Builder maxPlayersPerColumn(int maxPlayersPerColumn) {
+      this.maxPlayersPerColumn = Math.max(1, maxPlayersPerColumn);
+      return this;
+    }
+
+    public Builder columnSpacing(int columnSpacing) {
+      this.columnSpacing = Math.max(0, columnSpacing);
+      return this;
+    }
+
+    public Builder padding(int padding) {
+      this.padding = Math.max(0, padding);
+      return this;
+    }
+
+    public Builder showNameHeads(boolean showHeads) {
+      this.showHeads = showHeads;
+      return this;
+    }
+
+    /**
+     * @param headProvider Where heads are fetched from when {@link #showNameHeads(boolean)} is enabled
+     */
+    public Builder headProvider(@NotNull HeadProvider headProvider) {
+      this.headProvider = Objects.requireNonNull(headProvider);
+      return this;
+    }
+
+    /**
+     * @param executor The executor rendering runs on, {@link RenderExecutor#defaultExecutor()} by default
+     */
+    public Builder executor(@NotNull Executor executor) {
+      this.executor = Objects.requireNonNull(executor);
+      return this;
+    }
+
+    /**
+     * @param textCache The cache of drawn names to share with other renders, or null to draw every name
+     */
+    public Builder textCache(@Nullable TextSpriteCache textCache) {
+      this.textCache = textCache;
+      return this;
+    }
+
+    public Builder sortBy(@NotNull Comparator<PlayerListName> sorter) {
+      this.order = Objects.requireNonNull(sorter);
+      return this;
+    }
+
+    public PlayerListSession build() {
+      return new PlayerListSession(this);
+    }
+  }
+}
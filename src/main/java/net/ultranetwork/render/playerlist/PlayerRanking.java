@@ -0,0 +1,163 @@
+package net.ultranetwork.render.playerlist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Picks players out of a list in sorted order a slice at a time, without sorting the whole list.
+ * <p>
+ * Each slice is found with one pass over the list through a bounded heap, so finding k players
+ * costs O(n log k) time and O(k) memory. Ties are broken by position in the list, which gives the
+ * same order as a stable sort.
+ */
+final class PlayerRanking {
+  private final List<PlayerListName> players;
+  private final Comparator<PlayerListName> order;
+
+  PlayerRanking(@NotNull List<PlayerListName> players, @NotNull Comparator<PlayerListName> order) {
+    this.players = players;
+    this.order = order;
+  }
+
+  /**
+   * @param after The index of the last player of the previous slice, or -1 to start from the first
+   * @param count The most players to pick
+   * @return The indices of the next players in sorted order after the given one, in sorted order
+   */
+  int @NotNull [] next(int after, int count) {
+    final int[] heap = new int[Math.max(0, Math.min(count, this.players.size()))];
+    int size = 0;
+
+    if (heap.length == 0) {
+      return heap;
+    }
+
+    // Max-heap of the best players seen so far, the worst of them at the root
+    for (int i = 0; i < this.players.size(); i++) {
+      if (after >= 0 && compare(i, after) <= 0) {
+        continue;
+      }
+
+      if (size < heap.length) {
+        heap[size] = i;
+        siftUp(heap, size++);
+      }
+      else if (compare(i, heap[0]) < 0) {
+        heap[0] = i;
+        siftDown(heap, 0, size);
+      }
+    }
+
+    // Heap sort what is left, popping the worst to the back
+    for (int end = size - 1; end > 0; end--) {
+      final int worst = heap[0];
+      heap[0] = heap[end];
+      heap[end] = worst;
+      siftDown(heap, 0, end);
+    }
+
+    return size == heap.length ? heap : Arrays.copyOf(heap, size);
+  }
+
+  /**
+   * @param indices Indices into the list
+   * @return The players at those indices
+   */
+  @NotNull
+  List<PlayerListName> players(int @NotNull [] indices) {
+    final List<PlayerListName> selected = new ArrayList<>(indices.length);
+
+    for (int index : indices) {
+      selected.add(this.players.get(index));
+    }
+
+    return selected;
+  }
+
+  /**
+   * Reorders the list so its first players are in sorted order, leaving the rest in their original order.
+   *
+   * @param players The list to reorder
+   * @param order   The display order
+   * @param count   How many players at the front need to be sorted
+   */
+  static void sortFirst(
+      @NotNull List<PlayerListName> players,
+      @NotNull Comparator<PlayerListName> order,
+      int count)
+  {
+    if (count >= players.size()) {
+      players.sort(order);
+      return;
+    }
+
+    final PlayerRanking ranking = new PlayerRanking(players, order);
+    final int[] first = ranking.next(-1, count);
+    final boolean[] taken = new boolean[players.size()];
+    final List<PlayerListName> reordered = ranking.players(first);
+
+    for (int index : first) {
+      taken[index] = true;
+    }
+
+    for (int i = 0; i < players.size(); i++) {
+      if (!taken[i]) {
+        reordered.add(players.get(i));
+      }
+    }
+
+    for (int i = 0; i < reordered.size(); i++) {
+      players.set(i, reordered.get(i));
+    }
+  }
+
+  private int compare(int a, int b) {
+    final int result = this.order.compare(this.players.get(a), this.players.get(b));
+    return result != 0 ? result : Integer.compare(a, b);
+  }
+
+  private void siftUp(int[] heap, int index) {
+    final int value = heap[index];
+
+    while (index > 0) {
+      final int parent = (index - 1) >>> 1;
+
+      if (compare(value, heap[parent]) <= 0) {
+        break;
+      }
+
+      heap[index] = heap[parent];
+      index = parent;
+    }
+
+    heap[index] = value;
+  }
+
+  private void siftDown(int[] heap, int index, int size) {
+    final int value = heap[index];
+
+    while (true) {
+      int child = index * 2 + 1;
+
+      if (child >= size) {
+        break;
+      }
+
+      if (child + 1 < size && compare(heap[child + 1], heap[child]) > 0) {
+        child++;
+      }
+
+      if (compare(value, heap[child]) >= 0) {
+        break;
+      }
+
+      heap[index] = heap[child];
+      index = child;
+    }
+
+    heap[index] = value;
+  }
+}
@@ -0,0 +1,159 @@
+package net.ultranetwork.render.util;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Immutable per-character advance widths of a font, computed once so text can be measured without
+ * a Graphics context. Widths are summed per character, exactly as drawing advances the pen, so a
+ * measured width always matches the width drawn.
+ * <p>
+ * Latin-1 is computed up front; the rest of the BMP is filled in 256 character pages the first time
+ * a page is used, since loading every glyph of a fallback font takes seconds. Pages generated at build
+ * time ({@link FontData}) are used as they are, without touching Java2D.
+ */
+public final class AdvanceTable {
+  private static final int PAGE_SIZE = 256;
+  private static final int PAGE_COUNT = (Character.MAX_VALUE + 1) / PAGE_SIZE;
+  private static final int BOLD_EXTRA_BIT = 0x8000;
+  private static final int ADVANCE_MASK = 0x7fff;
+
+  private static final Set<Character> NO_BOLD_OFFSET_CHARS = Set.of( // todo maybe just calculate how fat the character is in font instead?
+      ':', '.', ',', ';', '\'', '`', '!', '|'
+  );
+
+  private final Font font;
+  private FontMetrics metrics; // guarded by this, created the first time a page is computed
+  private final AtomicReferenceArray<char[]> pages = new AtomicReferenceArray<>(PAGE_COUNT);
+  private final int ascent;
+
+  private static final class MinecraftHolder {
+    private static final AdvanceTable INSTANCE = FontData.minecraft() != null
+        ? new AdvanceTable(RenderUtil.MINECRAFT_FONT, FontData.minecraft())
+        : new AdvanceTable(RenderUtil.MINECRAFT_FONT);
+  }
+
+  public AdvanceTable(@NotNull Font font) {
+    this.font = font;
+    this.ascent = metrics().getAscent();
+
+    loadPage(0);
+  }
+
+  /**
+   * @param font The font the data was generated from
+   * @param data The pages generated at build time
+   */
+  AdvanceTable(@NotNull Font font, @NotNull FontData data) {
+    this.font = font;
+    this.ascent = data.ascent();
+
+    for (int i = 0; i < PAGE_COUNT; i++) {
+      if (data.pages()[i] != null) {
+        this.pages.set(i, data.pages()[i].clone());
+      }
+    }
+  }
+
+  /**
+   * @return The table for {@link RenderUtil#MINECRAFT_FONT}
+   */
+  @NotNull
+  public static AdvanceTable minecraft() {
+    return MinecraftHolder.INSTANCE;
+  }
+
+  public int ascent() {
+    return this.ascent;
+  }
+
+  /**
+   * @param character The character
+   * @return The distance the pen moves after drawing the character
+   */
+  public int advance(char character) {
+    return entry(character) & ADVANCE_MASK;
+  }
+
+  /**
+   * @param character The character
+   * @return 1 if bold text draws an extra offset pass for this character, otherwise 0
+   */
+  public int boldExtra(char character) {
+    return (entry(character) & BOLD_EXTRA_BIT) != 0 ? 1 : 0;
+  }
+
+  /**
+   * @param text The text to measure
+   * @return The summed advance of every character
+   */
+  public int width(@NotNull String text) {
+    int width = 0;
+
+    for (int i = 0; i < text.length(); i++) {
+      width += entry(text.charAt(i)) & ADVANCE_MASK;
+    }
+
+    return width;
+  }
+
+  /**
+   * @param pageIndex The page, the character divided by 256
+   * @return A copy of the page's entries
+   */
+  char[] page(int pageIndex) {
+    final char[] page = this.pages.get(pageIndex);
+    return (page != null ? page : loadPage(pageIndex)).clone();
+  }
+
+  private char entry(char character) {
+    char[] page = this.pages.get(character / PAGE_SIZE);
+
+    if (page == null) {
+      page = loadPage(character / PAGE_SIZE);
+    }
+
+    return page[character % PAGE_SIZE];
+  }
+
+  private synchronized char[] loadPage(int pageIndex) {
+    final char[] existing = this.pages.get(pageIndex);
+
+    if (existing != null) {
+      return existing;
+    }
+
+    final FontMetrics metrics = metrics();
+    final char[] page = new char[PAGE_SIZE];
+
+    for (int i = 0; i < PAGE_SIZE; i++) {
+      final char character = (char) (pageIndex * PAGE_SIZE + i);
+      final int advance = Math.min(ADVANCE_MASK, Math.max(0, metrics.stringWidth(String.valueOf(character))));
+      final int boldExtra = NO_BOLD_OFFSET_CHARS.contains(character) ? 0 : BOLD_EXTRA_BIT;
+
+      page[i] = (char) (advance | boldExtra);
+    }
+
+    this.pages.set(pageIndex, page);
+    return page;
+  }
+
+  private synchronized FontMetrics metrics() {
+    if (this.metrics == null) {
+      final BufferedImage tempImage = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+      final Graphics2D tempG = tempImage.createGraphics();
+      tempG.setFont(this.font);
+      RenderUtil.applyMinecraftRenderingHints(tempG);
+
+      this.metrics = tempG.getFontMetrics();
+      tempG.dispose();
+    }
+
+    return this.metrics;
+  }
+}
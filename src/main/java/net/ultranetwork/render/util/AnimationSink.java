@@ -0,0 +1,66 @@
+package net.ultranetwork.render.util;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Writes rendered frames as an animation, one frame at a time.
+ * <p>
+ * Only the rectangle that changed since the previous frame is encoded, and frames are written to the
+ * output as they arrive, so memory use does not grow with the number of frames. The first frame sets
+ * the canvas size; later frames are placed at the top left and may be smaller but not larger.
+ */
+public interface AnimationSink extends AutoCloseable {
+
+  /**
+   * @param frame The frame to append
+   * @param delay How long the frame is shown
+   * @throws IOException              If writing to the output fails
+   * @throws IllegalArgumentException If the frame is larger than the first frame
+   */
+  void frame(@NotNull BufferedImage frame, @NotNull Duration delay) throws IOException;
+
+  /**
+   * @return The number of frames written so far
+   */
+  int frameCount();
+
+  /**
+   * Finishes the file. The output stream is flushed but not closed.
+   *
+   * @throws IOException If writing to the output fails
+   */
+  @Override
+  void close() throws IOException;
+
+  /**
+   * An APNG sink. APNG declares the number of frames before the first one, so it must be known up front.
+   *
+   * @param out        The stream to write to
+   * @param frameCount The exact number of frames that will be written
+   * @param loops      How many times the animation plays, 0 for forever
+   * @return The sink
+   */
+  @NotNull
+  static AnimationSink apng(@NotNull OutputStream out, int frameCount, int loops) {
+    return new ApngSink(out, frameCount, loops);
+  }
+
+  /**
+   * A GIF sink. Translucent pixels are reduced to GIF's 1-bit transparency by the JDK's GIF writer.
+   * Each frame is written once the next arrives, or on close, as how it is disposed of depends on the
+   * next frame.
+   *
+   * @param out   The stream to write to
+   * @param loops How many times the animation plays, 0 for forever
+   * @return The sink
+   * @throws IOException If no GIF writer is available or the stream cannot be opened
+   */
+  @NotNull
+  static AnimationSink gif(@NotNull OutputStream out, int loops) throws IOException {
+    return new GifSink(out, loops);
+  }
+}
@@ -0,0 +1,108 @@
+package net.ultranetwork.render.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Writes an APNG whose first frame is the default image and whose later frames are fcTL/fdAT
+ * sub-frames covering only what changed, drawn over the previous frame.
+ */
+final class ApngSink extends DeltaAnimationSink {
+  private static final byte[] ACTL = "acTL".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] FCTL = "fcTL".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] FDAT = "fdAT".getBytes(StandardCharsets.US_ASCII);
+
+  private static final int DISPOSE_OP_NONE = 0;
+  private static final int BLEND_OP_SOURCE = 0;
+  private static final int MAX_DELAY = 0xffff;
+
+  private final OutputStream out;
+  private final PngEncoder.ChunkWriter writer;
+  private final int declaredFrames;
+  private final int loops;
+  private final PngEncoder encoder = PngEncoder.defaultEncoder();
+  private int sequence;
+
+  ApngSink(OutputStream out, int frameCount, int loops) {
+    if (frameCount < 1) {
+      throw new IllegalArgumentException("An APNG needs at least one frame, got " + frameCount);
+    }
+
+    this.out = out;
+    this.writer = new PngEncoder.ChunkWriter(out, new CRC32());
+    this.declaredFrames = frameCount;
+    this.loops = Math.max(0, loops);
+  }
+
+  @Override
+  protected void writeFrame(
+      int[] pixels,
+      int stride,
+      int x,
+      int y,
+      int width,
+      int height,
+      long delayMillis,
+      boolean first
+  ) throws IOException {
+    if (frameCount() >= this.declaredFrames) {
+      throw new IllegalStateException("All " + this.declaredFrames + " declared frames have been written");
+    }
+
+    if (first) {
+      this.out.write(PngEncoder.SIGNATURE);
+      PngEncoder.writeHeader(this.writer, width, height, 8, PngEncoder.COLOUR_TYPE_RGBA);
+
+      final byte[] animationControl = new byte[8];
+      PngEncoder.writeInt(animationControl, 0, this.declaredFrames);
+      PngEncoder.writeInt(animationControl, 4, this.loops);
+      this.writer.chunk(ACTL, animationControl, 8);
+    }
+
+    final byte[] frameControl = new byte[22];
+    PngEncoder.writeInt(frameControl, 0, width);
+    PngEncoder.writeInt(frameControl, 4, height);
+    PngEncoder.writeInt(frameControl, 8, x);
+    PngEncoder.writeInt(frameControl, 12, y);
+
+    // Delay as a fraction of a second, in milliseconds when it fits and hundredths otherwise
+    final boolean millis = delayMillis <= MAX_DELAY;
+    final int delayNumerator = (int) Math.min(MAX_DELAY, millis ? delayMillis : delayMillis / 10);
+    final int delayDenominator = millis ? 1000 : 100;
+    frameControl[16] = (byte) (delayNumerator >>> 8);
+    frameControl[17] = (byte) delayNumerator;
+    frameControl[18] = (byte) (delayDenominator >>> 8);
+    frameControl[19] = (byte) delayDenominator;
+    frameControl[20] = DISPOSE_OP_NONE;
+    frameControl[21] = BLEND_OP_SOURCE;
+    this.writer.sequencedChunk(FCTL, this.sequence++, frameControl, frameControl.length);
+
+    final int[] row = new int[width];
+    final PngEncoder.RowSource rows = rowY -> {
+      System.arraycopy(pixels, (y + rowY) * stride + x, row, 0, width);
+      return row;
+    };
+
+    if (first) {
+      this.encoder.writeRgbaData(rows, width, height, (data, length) -> this.writer.chunk(PngEncoder.IDAT, data, length));
+    }
+    else {
+      this.encoder.writeRgbaData(rows, width, height, (data, length) -> this.writer.sequencedChunk(FDAT, this.sequence++, data, length));
+    }
+  }
+
+  @Override
+  protected void finish(int frames) throws IOException {
+    if (frames > 0) {
+      this.writer.chunk(PngEncoder.IEND, new byte[0], 0);
+    }
+
+    this.out.flush();
+
+    if (frames != this.declaredFrames) {
+      throw new IllegalStateException("APNG declared " + this.declaredFrames + " frames but " + frames + " were written");
+    }
+  }
+}
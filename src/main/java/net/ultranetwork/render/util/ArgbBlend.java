@@ -0,0 +1,95 @@
+package net.ultranetwork.render.util;
+
+/**
+ * Non-premultiplied ARGB SrcOver blending using the same 8-bit multiply/divide tables as the
+ * Java2D software loops, so pixels written here match what {@code Graphics2D} would have produced.
+ */
+final class ArgbBlend {
+  private static final byte[] MUL8 = new byte[256 * 256];
+  private static final byte[] DIV8 = new byte[256 * 256];
+
+  static {
+    for (int i = 1; i < 256; i++) {
+      final int inc = (i << 16) + (i << 8) + i;
+      int val = inc + (1 << 23);
+
+      for (int j = 1; j < 256; j++) {
+        MUL8[(i << 8) | j] = (byte) (val >>> 24);
+        val += inc;
+      }
+    }
+
+    for (int i = 1; i < 256; i++) {
+      final long inc = ((0xffL << 24) + i / 2) / i;
+      long val = 1 << 23;
+
+      for (int j = 0; j < i; j++) {
+        DIV8[(i << 8) | j] = (byte) (val >>> 24);
+        val += inc;
+      }
+
+      for (int j = i; j < 256; j++) {
+        DIV8[(i << 8) | j] = (byte) 0xff;
+      }
+    }
+  }
+
+  private ArgbBlend() {
+  }
+
+  static int mul8(int a, int b) {
+    return MUL8[(a << 8) | b] & 0xff;
+  }
+
+  static int div8(int v, int a) {
+    return DIV8[(a << 8) | v] & 0xff;
+  }
+
+  /**
+   * @param dst      The destination pixel
+   * @param src      The source colour
+   * @param coverage The mask coverage for this pixel (0-255)
+   * @return The blended pixel
+   */
+  static int srcOver(int dst, int src, int coverage) {
+    int resA = src >>> 24;
+
+    if (resA == 0xff && coverage == 0xff) {
+      return src;
+    }
+
+    if (resA == 0 || coverage == 0) {
+      return dst;
+    }
+
+    int resR = mul8(resA, (src >> 16) & 0xff);
+    int resG = mul8(resA, (src >> 8) & 0xff);
+    int resB = mul8(resA, src & 0xff);
+
+    if (coverage != 0xff) {
+      resA = mul8(coverage, resA);
+      resR = mul8(coverage, resR);
+      resG = mul8(coverage, resG);
+      resB = mul8(coverage, resB);
+    }
+
+    if (resA != 0xff) {
+      final int dstF = mul8(0xff - resA, dst >>> 24);
+
+      if (dstF != 0) {
+        resA += dstF;
+        resR += mul8(dstF, (dst >> 16) & 0xff);
+        resG += mul8(dstF, (dst >> 8) & 0xff);
+        resB += mul8(dstF, dst & 0xff);
+      }
+    }
+
+    if (resA != 0 && resA < 0xff) {
+      resR = div8(resR, resA);
+      resG = div8(resG, resA);
+      resB = div8(resB, resA);
+    }
+
+    return (resA << 24) | (resR << 16) | (resG << 8) | resB;
+  }
+}
@@ -0,0 +1,288 @@
+package net.ultranetwork.render.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Direct view over the pixel array of a {@link BufferedImage#TYPE_INT_ARGB} image.
+ */
+public final class ArgbRaster {
+  private final int[] data;
+  private final int offset;
+  private final int stride;
+  private final int width;
+  private final int height;
+
+  private ArgbRaster(int[] data, int offset, int stride, int width, int height) {
+    this.data = data;
+    this.offset = offset;
+    this.stride = stride;
+    this.width = width;
+    this.height = height;
+  }
+
+  /**
+   * @param image The image to wrap
+   * @return A raster writing straight into the image, or null if the image is not TYPE_INT_ARGB
+   */
+  @Nullable
+  public static ArgbRaster of(@NotNull BufferedImage image) {
+    if (image.getType() != BufferedImage.TYPE_INT_ARGB) {
+      return null;
+    }
+
+    final WritableRaster raster = image.getRaster();
+    final SinglePixelPackedSampleModel sampleModel = (SinglePixelPackedSampleModel) raster.getSampleModel();
+    final DataBufferInt buffer = (DataBufferInt) raster.getDataBuffer();
+    final int stride = sampleModel.getScanlineStride();
+    final int offset = buffer.getOffset()
+        - raster.getSampleModelTranslateY() * stride
+        - raster.getSampleModelTranslateX();
+
+    return new ArgbRaster(buffer.getData(), offset, stride, raster.getWidth(), raster.getHeight());
+  }
+
+  /**
+   * @param image The TYPE_INT_ARGB image to wrap
+   * @return A raster writing straight into the image
+   * @throws IllegalArgumentException If the image is not TYPE_INT_ARGB
+   */
+  @NotNull
+  public static ArgbRaster wrap(@NotNull BufferedImage image) {
+    final ArgbRaster raster = of(image);
+
+    if (raster == null) {
+      throw new IllegalArgumentException("Image must be TYPE_INT_ARGB but was type " + image.getType());
+    }
+
+    return raster;
+  }
+
+  /**
+   * @param x      The left edge of the region
+   * @param y      The top edge of the region
+   * @param width  The region width
+   * @param height The region height
+   * @return A raster over part of this one, with (0, 0) at the region's top left
+   * @throws IllegalArgumentException If the region is not inside this raster
+   */
+  @NotNull
+  public ArgbRaster region(int x, int y, int width, int height) {
+    if (x < 0 || y < 0 || width < 0 || height < 0 || x + width > this.width || y + height > this.height) {
+      throw new IllegalArgumentException("Region " + x + "," + y + " " + width + "x" + height
+          + " is outside the " + this.width + "x" + this.height + " raster");
+    }
+
+    return new ArgbRaster(this.data, this.offset + y * this.stride + x, this.stride, width, height);
+  }
+
+  public int width() {
+    return this.width;
+  }
+
+  public int height() {
+    return this.height;
+  }
+
+  /**
+   * @param y   The row to read
+   * @param dst The array to copy the row's pixels into, at least {@link #width()} long
+   */
+  public void readRow(int y, int @NotNull [] dst) {
+    readRow(y, dst, 0);
+  }
+
+  /**
+   * @param y         The row to read
+   * @param dst       The array to copy the row's pixels into
+   * @param dstOffset Where in the array the row starts
+   */
+  public void readRow(int y, int @NotNull [] dst, int dstOffset) {
+    System.arraycopy(this.data, this.offset + y * this.stride, dst, dstOffset, this.width);
+  }
+
+  /**
+   * @param y   The row to overwrite
+   * @param src The pixels to copy into the row, at least {@link #width()} long
+   */
+  public void writeRow(int y, int @NotNull [] src) {
+    System.arraycopy(src, 0, this.data, this.offset + y * this.stride, this.width);
+  }
+
+  /**
+   * Composites a solid rectangle (SrcOver), clipped to the raster. Matches {@code Graphics2D.fillRect}
+   * with antialiasing off.
+   *
+   * @param x      The left edge
+   * @param y      The top edge
+   * @param width  The rectangle width
+   * @param height The rectangle height
+   * @param argb   The non-premultiplied colour to fill with
+   */
+  public void fillRect(int x, int y, int width, int height, int argb) {
+    final int startX = Math.max(0, x);
+    final int startY = Math.max(0, y);
+    final int endX = Math.min(this.width, x + width);
+    final int endY = Math.min(this.height, y + height);
+    final int alpha = argb >>> 24;
+
+    if (alpha == 0 || startX >= endX || startY >= endY) {
+      return;
+    }
+
+    for (int row = startY; row < endY; row++) {
+      final int rowStart = this.offset + row * this.stride;
+
+      if (alpha == 0xff) {
+        Arrays.fill(this.data, rowStart + startX, rowStart + endX, argb);
+        continue;
+      }
+
+      // Rows are usually uniform underneath, so reuse the last blend when the destination repeats
+      int lastDst = ~this.data[rowStart + startX];
+      int lastResult = 0;
+
+      for (int i = rowStart + startX; i < rowStart + endX; i++) {
+        final int dst = this.data[i];
+
+        if (dst != lastDst) {
+          lastDst = dst;
+          lastResult = ArgbBlend.srcOver(dst, argb, 0xff);
+        }
+
+        this.data[i] = lastResult;
+      }
+    }
+  }
+
+  /**
+   * Composites a horizontal line, like {@code Graphics2D.drawLine(x1, y, x2, y)}.
+   */
+  public void drawHorizontalLine(int x1, int x2, int y, int argb) {
+    fillRect(Math.min(x1, x2), y, Math.abs(x2 - x1) + 1, 1, argb);
+  }
+
+  /**
+   * Composites a vertical line, like {@code Graphics2D.drawLine(x, y1, x, y2)}.
+   */
+  public void drawVerticalLine(int x, int y1, int y2, int argb) {
+    fillRect(x, Math.min(y1, y2), 1, Math.abs(y2 - y1) + 1, argb);
+  }
+
+  /**
+   * Composites another raster (SrcOver) at the given position, clipped to this raster.
+   *
+   * @param source The non-premultiplied pixels to draw
+   * @param x      The destination x of the source's top left corner
+   * @param y      The destination y of the source's top left corner
+   */
+  public void composite(@NotNull ArgbRaster source, int x, int y) {
+    composite(source.data, source.offset, source.stride, source.width, source.height, x, y);
+  }
+
+  /**
+   * Composites pixels from an array (SrcOver) at the given position, clipped to this raster.
+   *
+   * @param src       The non-premultiplied pixels to draw, row major with no gaps between rows
+   * @param srcOffset Where in the array the pixels start
+   * @param srcWidth  The width of the pixels
+   * @param srcHeight The height of the pixels
+   * @param x         The destination x of the top left corner
+   * @param y         The destination y of the top left corner
+   */
+  public void composite(int @NotNull [] src, int srcOffset, int srcWidth, int srcHeight, int x, int y) {
+    composite(src, srcOffset, srcWidth, srcWidth, srcHeight, x, y);
+  }
+
+  private void composite(int[] source, int sourceOffset, int sourceStride, int sourceWidth, int sourceHeight, int x, int y) {
+    final int startX = Math.max(0, -x);
+    final int startY = Math.max(0, -y);
+    final int endX = Math.min(sourceWidth, this.width - x);
+    final int endY = Math.min(sourceHeight, this.height - y);
+
+    for (int sy = startY; sy < endY; sy++) {
+      final int srcRow = sourceOffset + sy * sourceStride;
+      final int dstRow = this.offset + (y + sy) * this.stride + x;
+
+      for (int sx = startX; sx < endX; sx++) {
+        final int src = source[srcRow + sx];
+        final int alpha = src >>> 24;
+
+        if (alpha == 0xff) {
+          this.data[dstRow + sx] = src;
+        }
+        else if (alpha != 0) {
+          this.data[dstRow + sx] = ArgbBlend.srcOver(this.data[dstRow + sx], src, 0xff);
+        }
+      }
+    }
+  }
+
+  /**
+   * Copies this raster into a bigger one, repeating every pixel factor times across and down.
+   *
+   * @param target The raster to overwrite, exactly factor times this raster's size
+   * @param factor The whole number scale
+   * @throws IllegalArgumentException If the target is not the scaled size
+   */
+  public void scaleInto(@NotNull ArgbRaster target, int factor) {
+    if (factor < 1 || target.width != this.width * factor || target.height != this.height * factor) {
+      throw new IllegalArgumentException("Cannot scale a " + this.width + "x" + this.height + " raster by " + factor
+          + " into " + target.width + "x" + target.height);
+    }
+
+    for (int y = 0; y < this.height; y++) {
+      final int srcRow = this.offset + y * this.stride;
+      final int dstRow = target.offset + y * factor * target.stride;
+      int dst = dstRow;
+
+      for (int x = 0; x < this.width; x++) {
+        final int argb = this.data[srcRow + x];
+
+        for (int i = 0; i < factor; i++) {
+          target.data[dst++] = argb;
+        }
+      }
+
+      // The other rows of the block are copies of the first
+      for (int row = 1; row < factor; row++) {
+        System.arraycopy(target.data, dstRow, target.data, dstRow + row * target.stride, target.width);
+      }
+    }
+  }
+
+  /**
+   * Tints an alpha mask with a colour and composites it (SrcOver) at the given position.
+   *
+   * @param mask       The coverage values, row major
+   * @param maskWidth  The mask width
+   * @param maskHeight The mask height
+   * @param x          The destination x of the mask's top left corner
+   * @param y          The destination y of the mask's top left corner
+   * @param argb       The non-premultiplied colour to tint with
+   */
+  public void blendMask(byte[] mask, int maskWidth, int maskHeight, int x, int y, int argb) {
+    final int startX = Math.max(0, -x);
+    final int startY = Math.max(0, -y);
+    final int endX = Math.min(maskWidth, this.width - x);
+    final int endY = Math.min(maskHeight, this.height - y);
+
+    for (int my = startY; my < endY; my++) {
+      final int maskRow = my * maskWidth;
+      final int dstRow = this.offset + (y + my) * this.stride + x;
+
+      for (int mx = startX; mx < endX; mx++) {
+        final int coverage = mask[maskRow + mx] & 0xff;
+
+        if (coverage != 0) {
+          this.data[dstRow + mx] = ArgbBlend.srcOver(this.data[dstRow + mx], argb, coverage);
+        }
+      }
+    }
+  }
+}
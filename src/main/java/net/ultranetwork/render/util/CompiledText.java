@@ -0,0 +1,197 @@
+package net.ultranetwork.render.util;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A Component tree flattened into runs of text with their inherited style already resolved, so
+ * measuring and drawing never walk the tree or allocate styles and colours.
+ */
+public final class CompiledText {
+  private static final int MAX_CACHED = 8192;
+  private static final CompiledText EMPTY = new CompiledText(new Run[0], 0);
+  private static final LruCache<Key, CompiledText> CACHE = new LruCache<>(MAX_CACHED);
+
+  private final Run[] runs;
+  private final int width;
+  private final int hash;
+
+  /**
+   * @param text          The characters in this run
+   * @param argb          The resolved text colour
+   * @param bold          Whether the run is bold
+   * @param italic        Whether the run is italic
+   * @param underlined    Whether the run is underlined
+   * @param strikethrough Whether the run is struck through
+   * @param width         The advance width of the run in {@link RenderUtil#MINECRAFT_FONT}
+   */
+  public record Run(
+      @NotNull String text,
+      int argb,
+      boolean bold,
+      boolean italic,
+      boolean underlined,
+      boolean strikethrough,
+      int width
+  ) {
+    @NotNull
+    public Color colour() {
+      return RenderUtil.internColour(this.argb);
+    }
+  }
+
+  private record Key(Component component, int defaultArgb) {
+  }
+
+  private CompiledText(Run[] runs, int width) {
+    this.runs = runs;
+    this.width = width;
+    this.hash = Arrays.hashCode(runs);
+  }
+
+  /**
+   * Compiles the component, reusing a previous compilation of an equal component when cached.
+   *
+   * @param component     The Component to compile
+   * @param defaultColour The colour of text with no colour set anywhere in its ancestry
+   * @return The compiled text
+   */
+  @NotNull
+  public static CompiledText of(
+      @Nullable Component component,
+      @NotNull Color defaultColour
+  ) {
+    if (component == null) {
+      return EMPTY;
+    }
+
+    return CACHE.computeIfAbsent(new Key(component, defaultColour.getRGB()), key -> compile(key.component(), defaultColour));
+  }
+
+  /**
+   * @param component     The Component to compile
+   * @param defaultColour The colour of text with no colour set anywhere in its ancestry
+   * @return The compiled text
+   */
+  @NotNull
+  public static CompiledText compile(
+      @Nullable Component component,
+      @NotNull Color defaultColour
+  ) {
+    if (component == null) {
+      return EMPTY;
+    }
+
+    final List<Run> runs = new ArrayList<>();
+    final Style style = component.style();
+    final TextColor colour = style.color();
+
+    collect(component, colour != null ? (0xff << 24) | colour.value() : defaultColour.getRGB(),
+        style.hasDecoration(TextDecoration.BOLD),
+        style.hasDecoration(TextDecoration.ITALIC),
+        style.hasDecoration(TextDecoration.UNDERLINED),
+        style.hasDecoration(TextDecoration.STRIKETHROUGH),
+        runs);
+
+    int width = 0;
+    for (Run run : runs) {
+      width += run.width();
+    }
+
+    return new CompiledText(runs.toArray(new Run[0]), width);
+  }
+
+  private static void collect(
+      Component component,
+      int argb,
+      boolean bold,
+      boolean italic,
+      boolean underlined,
+      boolean strikethrough,
+      List<Run> runs
+  ) {
+    if (component instanceof TextComponent textComponent && !textComponent.content().isEmpty()) {
+      final String text = textComponent.content();
+      final int lastIndex = runs.size() - 1;
+      final Run last = lastIndex >= 0 ? runs.get(lastIndex) : null;
+
+      // Merge with the previous run when nothing about the style changed
+      if (last != null && last.argb() == argb && last.bold() == bold && last.italic() == italic
+          && last.underlined() == underlined && last.strikethrough() == strikethrough) {
+        final String merged = last.text() + text;
+        runs.set(lastIndex, new Run(merged, argb, bold, italic, underlined, strikethrough, AdvanceTable.minecraft().width(merged)));
+      }
+      else {
+        runs.add(new Run(text, argb, bold, italic, underlined, strikethrough, AdvanceTable.minecraft().width(text)));
+      }
+    }
+
+    for (Component child : component.children()) {
+      final Style childStyle = child.style();
+      final TextColor childColour = childStyle.color();
+
+      collect(child,
+          childColour != null ? (0xff << 24) | childColour.value() : argb,
+          inherit(childStyle, TextDecoration.BOLD, bold),
+          inherit(childStyle, TextDecoration.ITALIC, italic),
+          inherit(childStyle, TextDecoration.UNDERLINED, underlined),
+          inherit(childStyle, TextDecoration.STRIKETHROUGH, strikethrough),
+          runs);
+    }
+  }
+
+  private static boolean inherit(Style style, TextDecoration decoration, boolean parentValue) {
+    final TextDecoration.State state = style.decoration(decoration);
+    return state == TextDecoration.State.NOT_SET ? parentValue : state == TextDecoration.State.TRUE;
+  }
+
+  public int runCount() {
+    return this.runs.length;
+  }
+
+  /**
+   * @param index The index of the run, in drawing order
+   * @return The run
+   */
+  @NotNull
+  public Run run(int index) {
+    return this.runs[index];
+  }
+
+  /**
+   * @return The total advance width in {@link RenderUtil#MINECRAFT_FONT}
+   */
+  public int width() {
+    return this.width;
+  }
+
+  public boolean isEmpty() {
+    return this.runs.length == 0;
+  }
+
+  /**
+   * Compiled texts are equal when their runs are, whatever components they came from.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+
+    return o instanceof CompiledText other && this.hash == other.hash && Arrays.equals(this.runs, other.runs);
+  }
+
+  @Override
+  public int hashCode() {
+    return this.hash;
+  }
+}
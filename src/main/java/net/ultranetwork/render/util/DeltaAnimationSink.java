@@ -0,0 +1,157 @@
+package net.ultranetwork.render.util;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keeps the previous frame's pixels and hands subclasses only the rectangle that changed.
+ */
+abstract class DeltaAnimationSink implements AnimationSink {
+  private int width;
+  private int height;
+  private int[] previous; // null until the first frame
+  private int[] current;
+  private int frames;
+  private boolean closed;
+
+  @Override
+  public final void frame(@NotNull BufferedImage frame, @NotNull Duration delay) throws IOException {
+    if (this.closed) {
+      throw new IllegalStateException("Animation is already closed");
+    }
+
+    if (this.previous == null) {
+      this.width = frame.getWidth();
+      this.height = frame.getHeight();
+      this.previous = new int[this.width * this.height];
+      this.current = new int[this.width * this.height];
+    }
+    else if (frame.getWidth() > this.width || frame.getHeight() > this.height) {
+      throw new IllegalArgumentException("Frame is " + frame.getWidth() + "x" + frame.getHeight()
+          + " but the animation is " + this.width + "x" + this.height);
+    }
+
+    read(frame, this.current);
+
+    final long delayMillis = Math.max(0, delay.toMillis());
+    if (this.frames == 0) {
+      writeFrame(this.current, this.width, 0, 0, this.width, this.height, delayMillis, true);
+    }
+    else {
+      writeChangedRect(delayMillis);
+    }
+
+    final int[] swap = this.previous;
+    this.previous = this.current;
+    this.current = swap;
+    this.frames++;
+  }
+
+  @Override
+  public final int frameCount() {
+    return this.frames;
+  }
+
+  @Override
+  public final void close() throws IOException {
+    if (!this.closed) {
+      this.closed = true;
+      finish(this.frames);
+    }
+  }
+
+  /**
+   * @param pixels      The whole canvas, row major
+   * @param stride      The canvas width
+   * @param x           The left edge of the changed rectangle
+   * @param y           The top edge of the changed rectangle
+   * @param width       The changed rectangle's width
+   * @param height      The changed rectangle's height
+   * @param delayMillis How long the frame is shown
+   * @param first       Whether this is the first frame, covering the whole canvas
+   */
+  protected abstract void writeFrame(
+      int[] pixels,
+      int stride,
+      int x,
+      int y,
+      int width,
+      int height,
+      long delayMillis,
+      boolean first
+  ) throws IOException;
+
+  /**
+   * @param frames The number of frames written
+   */
+  protected abstract void finish(int frames) throws IOException;
+
+  private void writeChangedRect(long delayMillis) throws IOException {
+    final int[] before = this.previous;
+    final int[] after = this.current;
+    final int w = this.width;
+
+    int minY = 0;
+    while (minY < this.height && Arrays.mismatch(before, minY * w, minY * w + w, after, minY * w, minY * w + w) < 0) {
+      minY++;
+    }
+
+    if (minY == this.height) {
+      // Nothing changed; a frame still has to be written for its delay, so repeat one pixel
+      writeFrame(after, w, 0, 0, 1, 1, delayMillis, false);
+      return;
+    }
+
+    int maxY = this.height - 1;
+    while (Arrays.mismatch(before, maxY * w, maxY * w + w, after, maxY * w, maxY * w + w) < 0) {
+      maxY--;
+    }
+
+    int minX = w;
+    int maxX = -1;
+    for (int y = minY; y <= maxY; y++) {
+      final int row = y * w;
+      final int first = Arrays.mismatch(before, row, row + w, after, row, row + w);
+
+      if (first < 0) {
+        continue;
+      }
+
+      minX = Math.min(minX, first);
+
+      for (int x = w - 1; x > maxX; x--) {
+        if (before[row + x] != after[row + x]) {
+          maxX = x;
+          break;
+        }
+      }
+    }
+
+    writeFrame(after, w, minX, minY, maxX - minX + 1, maxY - minY + 1, delayMillis, false);
+  }
+
+  private void read(BufferedImage frame, int[] pixels) {
+    final int frameWidth = frame.getWidth();
+    final int frameHeight = frame.getHeight();
+    final ArgbRaster raster = ArgbRaster.of(frame);
+
+    for (int y = 0; y < frameHeight; y++) {
+      final int offset = y * this.width;
+
+      if (raster != null) {
+        raster.readRow(y, pixels, offset);
+      }
+      else {
+        frame.getRGB(0, y, frameWidth, 1, pixels, offset, frameWidth);
+      }
+
+      Arrays.fill(pixels, offset + frameWidth, offset + this.width, 0);
+    }
+
+    // Anything below a smaller frame is transparent
+    Arrays.fill(pixels, frameHeight * this.width, pixels.length, 0);
+  }
+}
@@ -0,0 +1,264 @@
+package net.ultranetwork.render.util;
+
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Advance widths and glyph masks of a font, rendered at build time so the first render after startup
+ * does not have to rasterize them through Java2D.
+ * <p>
+ * The {@code generateFontData} Gradle task runs {@link #main(String[])} over the bundled font and packs
+ * the result into the gzipped {@value #RESOURCE} resource. It covers every 256 character page the font
+ * has a glyph in; anything else is still measured and rasterized on first use. The data records a
+ * checksum of the font it was made from and is ignored if the bundled font no longer matches.
+ *
+ * @param checksum The CRC32 of the font file
+ * @param size     The point size the font was rendered at
+ * @param ascent   The font ascent
+ * @param pages    The advance entries of each 256 character page, as kept by {@link AdvanceTable}, or
+ *                 null for pages that were not rendered
+ * @param glyphs   The rasterized glyphs
+ */
+record FontData(
+    long checksum,
+    float size,
+    int ascent,
+    char[][] pages,
+    Map<Character, GlyphAtlas.Glyph> glyphs
+) {
+  static final String RESOURCE = "/minecraft_font.glyphs";
+
+  private static final System.Logger LOGGER = System.getLogger(FontData.class.getName());
+  private static final int MAGIC = 0x4D43474C; // "MCGL"
+  private static final int VERSION = 1;
+  private static final int PAGE_SIZE = 256;
+  private static final int PAGE_COUNT = (Character.MAX_VALUE + 1) / PAGE_SIZE;
+  private static final int LATIN_RANGE = 256;
+
+  private static final class MinecraftHolder {
+    private static final FontData INSTANCE = loadMinecraft();
+  }
+
+  /**
+   * @return The data for {@link RenderUtil#MINECRAFT_FONT}, or null if the resource is missing or was
+   *     made from a different font
+   */
+  @Nullable
+  static FontData minecraft() {
+    return MinecraftHolder.INSTANCE;
+  }
+
+  @Nullable
+  private static FontData loadMinecraft() {
+    try (InputStream is = FontData.class.getResourceAsStream(RESOURCE)) {
+      if (is == null) {
+        LOGGER.log(System.Logger.Level.DEBUG, "No " + RESOURCE + " resource, glyphs are rasterized at runtime");
+        return null;
+      }
+
+      final FontData data = read(is);
+
+      if (data.checksum() != RenderUtil.MINECRAFT_FONT_CHECKSUM || data.size() != RenderUtil.MINECRAFT_FONT.getSize2D()) {
+        LOGGER.log(System.Logger.Level.WARNING, RESOURCE + " was generated from a different font, ignoring it");
+        return null;
+      }
+
+      return data;
+    }
+    catch (IOException e) {
+      LOGGER.log(System.Logger.Level.WARNING, "Failed to read " + RESOURCE, e);
+      return null;
+    }
+  }
+
+  /**
+   * @param in The gzipped data. It is not closed.
+   * @return The data
+   * @throws IOException If reading fails or the data is not font data
+   */
+  @NotNull
+  static FontData read(@NotNull InputStream in) throws IOException {
+    final DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+
+    if (data.readInt() != MAGIC) {
+      throw new IOException("Not font data");
+    }
+
+    final int version = data.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported font data version " + version);
+    }
+
+    final long checksum = data.readLong();
+    final float size = data.readFloat();
+    final int ascent = data.readInt();
+
+    final char[][] pages = new char[PAGE_COUNT][];
+    final int pageCount = data.readUnsignedShort();
+    for (int i = 0; i < pageCount; i++) {
+      final char[] page = new char[PAGE_SIZE];
+
+      for (int j = 0; j < PAGE_SIZE; j++) {
+        page[j] = data.readChar();
+      }
+
+      pages[data.readUnsignedShort()] = page;
+    }
+
+    final int glyphCount = data.readInt();
+    final Map<Character, GlyphAtlas.Glyph> glyphs = new HashMap<>(glyphCount * 2);
+    for (int i = 0; i < glyphCount; i++) {
+      final char character = data.readChar();
+      final int advance = data.readUnsignedShort();
+      final int offsetX = data.readShort();
+      final int offsetY = data.readShort();
+      final int width = data.readUnsignedShort();
+      final int height = data.readUnsignedShort();
+      final byte[] mask = new byte[width * height];
+      data.readFully(mask);
+
+      glyphs.put(character, new GlyphAtlas.Glyph(advance, offsetX, offsetY, width, height, mask));
+    }
+
+    return new FontData(checksum, size, ascent, pages, glyphs);
+  }
+
+  /**
+   * @param out The stream to write the gzipped data to. It is not closed.
+   * @throws IOException If writing fails
+   */
+  void write(@NotNull OutputStream out) throws IOException {
+    final GZIPOutputStream gzip = new GZIPOutputStream(out);
+    final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(gzip));
+
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeLong(this.checksum);
+    data.writeFloat(this.size);
+    data.writeInt(this.ascent);
+
+    int pageCount = 0;
+    for (char[] page : this.pages) {
+      pageCount += page != null ? 1 : 0;
+    }
+
+    data.writeShort(pageCount);
+    for (int i = 0; i < this.pages.length; i++) {
+      if (this.pages[i] != null) {
+        for (char entry : this.pages[i]) {
+          data.writeChar(entry);
+        }
+
+        data.writeShort(i);
+      }
+    }
+
+    data.writeInt(this.glyphs.size());
+    for (Map.Entry<Character, GlyphAtlas.Glyph> entry : this.glyphs.entrySet()) {
+      final GlyphAtlas.Glyph glyph = entry.getValue();
+
+      data.writeChar(entry.getKey());
+      data.writeShort(glyph.advance());
+      data.writeShort(glyph.offsetX());
+      data.writeShort(glyph.offsetY());
+      data.writeShort(glyph.width());
+      data.writeShort(glyph.height());
+      data.write(glyph.mask());
+    }
+
+    data.flush();
+    gzip.finish();
+  }
+
+  /**
+   * Renders the advances of every page the font has a glyph in, and the glyphs themselves.
+   *
+   * @param font     The font at the size it is drawn at
+   * @param checksum The CRC32 of the font file
+   * @return The data
+   */
+  @NotNull
+  static FontData render(@NotNull Font font, long checksum) {
+    final AdvanceTable advances = new AdvanceTable(font);
+    final GlyphAtlas atlas = new GlyphAtlas(font, advances);
+    final char[][] pages = new char[PAGE_COUNT][];
+    final Map<Character, GlyphAtlas.Glyph> glyphs = new HashMap<>();
+
+    for (int pageIndex = 0; pageIndex < PAGE_COUNT; pageIndex++) {
+      boolean covered = pageIndex == 0;
+
+      for (int i = 0; !covered && i < PAGE_SIZE; i++) {
+        covered = font.canDisplay((char) (pageIndex * PAGE_SIZE + i));
+      }
+
+      if (!covered) {
+        continue;
+      }
+
+      pages[pageIndex] = advances.page(pageIndex);
+
+      for (int i = 0; i < PAGE_SIZE; i++) {
+        final char character = (char) (pageIndex * PAGE_SIZE + i);
+
+        // Latin-1 is always rasterized up front, glyphs the font lacks are left to the fallback
+        if (character < LATIN_RANGE || font.canDisplay(character)) {
+          glyphs.put(character, atlas.glyph(character));
+        }
+      }
+    }
+
+    return new FontData(checksum, font.getSize2D(), advances.ascent(), pages, glyphs);
+  }
+
+  /**
+   * @param bytes The font file
+   * @return The CRC32 of the font file
+   */
+  static long checksum(byte @NotNull [] bytes) {
+    final CRC32 crc = new CRC32();
+    crc.update(bytes);
+    return crc.getValue();
+  }
+
+  /**
+   * Generates the resource at build time.
+   *
+   * @param args The TrueType font file and the file to write
+   */
+  public static void main(String[] args) throws IOException, FontFormatException {
+    if (args.length != 2) {
+      System.err.println("Usage: FontData <font.ttf> <output>");
+      System.exit(2);
+    }
+
+    final byte[] fontBytes = Files.readAllBytes(Path.of(args[0]));
+    final Font font = Font.createFont(Font.TRUETYPE_FONT, new ByteArrayInputStream(fontBytes))
+        .deriveFont(RenderUtil.MINECRAFT_FONT_SIZE);
+    final FontData data = render(font, checksum(fontBytes));
+    final Path output = Path.of(args[1]);
+
+    Files.createDirectories(output.toAbsolutePath().getParent());
+    try (OutputStream os = Files.newOutputStream(output)) {
+      data.write(os);
+    }
+
+    System.out.println("Wrote " + data.glyphs().size() + " glyphs to " + output);
+  }
+}
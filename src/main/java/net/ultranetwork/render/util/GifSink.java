@@ -0,0 +1,216 @@
+package net.ultranetwork.render.util;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * Writes a GIF through the JDK's GIF writer, with each frame after the first being only the changed
+ * rectangle, offset into place and left on screen for the next frame to draw over.
+ * <p>
+ * A GIF frame can't make a pixel transparent, as a transparent pixel leaves the one below showing, so
+ * each frame is held back until the next arrives. If the next frame turns any pixel transparent (the
+ * JDK writer makes every pixel with alpha below 255 transparent), the held frame is widened to cover
+ * those pixels and disposed to the background after it is shown, and the next frame is widened to
+ * redraw everything the disposal cleared.
+ * <p>
+ * The writer's stream caches in memory rather than in a temporary file, and is flushed after every
+ * frame, so frames reach the output as they are written.
+ */
+final class GifSink extends DeltaAnimationSink {
+  private static final String METADATA_FORMAT = "javax_imageio_gif_image_1.0";
+
+  private final OutputStream out;
+  private final ImageOutputStream stream;
+  private final ImageWriter writer;
+  private final int loops;
+
+  // The frame waiting for the next one, to know how to dispose of it
+  private int[] pending; // the whole canvas, null until the first frame
+  private int stride;
+  private int pendingX;
+  private int pendingY;
+  private int pendingWidth;
+  private int pendingHeight;
+  private long pendingDelayMillis;
+  private boolean pendingFirst;
+
+  GifSink(OutputStream out, int loops) throws IOException {
+    final Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("gif");
+
+    if (!writers.hasNext()) {
+      throw new IOException("No GIF writer available");
+    }
+
+    this.out = out;
+    this.writer = writers.next();
+    this.stream = new MemoryCacheImageOutputStream(out);
+    this.writer.setOutput(this.stream);
+    this.loops = Math.max(0, loops);
+  }
+
+  @Override
+  protected void writeFrame(
+      int[] pixels,
+      int stride,
+      int x,
+      int y,
+      int width,
+      int height,
+      long delayMillis,
+      boolean first
+  ) throws IOException {
+    int left = x;
+    int top = y;
+    int right = x + width;
+    int bottom = y + height;
+
+    if (this.pending == null) {
+      this.pending = new int[pixels.length];
+      this.stride = stride;
+    }
+    else {
+      // Only changed pixels can turn transparent, and they are all in the changed rectangle
+      int clearLeft = Integer.MAX_VALUE;
+      int clearTop = Integer.MAX_VALUE;
+      int clearRight = Integer.MIN_VALUE;
+      int clearBottom = Integer.MIN_VALUE;
+
+      for (int rowY = y; rowY < y + height; rowY++) {
+        for (int rowX = x; rowX < x + width; rowX++) {
+          final int index = rowY * stride + rowX;
+
+          if (transparent(pixels[index]) && !transparent(this.pending[index])) {
+            clearLeft = Math.min(clearLeft, rowX);
+            clearTop = Math.min(clearTop, rowY);
+            clearRight = Math.max(clearRight, rowX + 1);
+            clearBottom = Math.max(clearBottom, rowY + 1);
+          }
+        }
+      }
+
+      final boolean dispose = clearLeft != Integer.MAX_VALUE;
+      if (dispose) {
+        final int pendingRight = Math.max(this.pendingX + this.pendingWidth, clearRight);
+        final int pendingBottom = Math.max(this.pendingY + this.pendingHeight, clearBottom);
+        this.pendingX = Math.min(this.pendingX, clearLeft);
+        this.pendingY = Math.min(this.pendingY, clearTop);
+        this.pendingWidth = pendingRight - this.pendingX;
+        this.pendingHeight = pendingBottom - this.pendingY;
+
+        // Everything the disposal clears has to be drawn again
+        left = Math.min(left, this.pendingX);
+        top = Math.min(top, this.pendingY);
+        right = Math.max(right, pendingRight);
+        bottom = Math.max(bottom, pendingBottom);
+      }
+
+      writePending(dispose);
+    }
+
+    System.arraycopy(pixels, 0, this.pending, 0, pixels.length);
+    this.pendingX = left;
+    this.pendingY = top;
+    this.pendingWidth = right - left;
+    this.pendingHeight = bottom - top;
+    this.pendingDelayMillis = delayMillis;
+    this.pendingFirst = first;
+  }
+
+  /**
+   * @param dispose Whether to clear the frame's rectangle to the background once it has been shown
+   */
+  private void writePending(boolean dispose) throws IOException {
+    final int x = this.pendingX;
+    final int y = this.pendingY;
+    final int width = this.pendingWidth;
+    final int height = this.pendingHeight;
+    final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    final ArgbRaster raster = ArgbRaster.wrap(image);
+    final int[] row = new int[width];
+
+    for (int rowY = 0; rowY < height; rowY++) {
+      System.arraycopy(this.pending, (y + rowY) * this.stride + x, row, 0, width);
+      raster.writeRow(rowY, row);
+    }
+
+    final ImageWriteParam param = this.writer.getDefaultWriteParam();
+    final IIOMetadata metadata = this.writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), param);
+    final IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(METADATA_FORMAT);
+
+    final IIOMetadataNode graphicControl = child(root, "GraphicControlExtension");
+    graphicControl.setAttribute("disposalMethod", dispose ? "restoreToBackgroundColor" : "doNotDispose");
+    graphicControl.setAttribute("userInputFlag", "FALSE");
+    graphicControl.setAttribute("delayTime", Long.toString(Math.min(0xffff, (this.pendingDelayMillis + 5) / 10)));
+
+    final IIOMetadataNode descriptor = child(root, "ImageDescriptor");
+    descriptor.setAttribute("imageLeftPosition", Integer.toString(x));
+    descriptor.setAttribute("imageTopPosition", Integer.toString(y));
+    descriptor.setAttribute("imageWidth", Integer.toString(width));
+    descriptor.setAttribute("imageHeight", Integer.toString(height));
+    descriptor.setAttribute("interlaceFlag", "FALSE");
+
+    if (this.pendingFirst) {
+      final IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+      loop.setAttribute("applicationID", "NETSCAPE");
+      loop.setAttribute("authenticationCode", "2.0");
+      loop.setUserObject(new byte[] {1, (byte) this.loops, (byte) (this.loops >>> 8)});
+
+      final IIOMetadataNode extensions = child(root, "ApplicationExtensions");
+      extensions.appendChild(loop);
+
+      this.writer.prepareWriteSequence(null);
+    }
+
+    metadata.setFromTree(METADATA_FORMAT, root);
+    this.writer.writeToSequence(new IIOImage(image, null, metadata), param);
+    this.stream.flush();
+  }
+
+  /**
+   * @return Whether the JDK's GIF writer turns the pixel transparent
+   */
+  private static boolean transparent(int argb) {
+    return argb >>> 24 != 0xff;
+  }
+
+  @Override
+  protected void finish(int frames) throws IOException {
+    try {
+      if (frames > 0) {
+        writePending(false);
+        this.writer.endWriteSequence();
+      }
+
+      this.stream.flush();
+      this.out.flush();
+    }
+    finally {
+      this.writer.dispose();
+      // Releases the cache; the output stream itself is left open
+      this.stream.close();
+    }
+  }
+
+  private static IIOMetadataNode child(IIOMetadataNode root, String name) {
+    for (int i = 0; i < root.getLength(); i++) {
+      if (root.item(i).getNodeName().equalsIgnoreCase(name)) {
+        return (IIOMetadataNode) root.item(i);
+      }
+    }
+
+    final IIOMetadataNode node = new IIOMetadataNode(name);
+    root.appendChild(node);
+    return node;
+  }
+}
@@ -0,0 +1,195 @@
+package net.ultranetwork.render.util;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Glyphs of a font rasterized once into alpha masks, so text can be drawn by tinting and
+ * blitting masks instead of running the Java2D text pipeline for every character. Glyphs generated
+ * at build time ({@link FontData}) are used as they are, and Java2D is only set up for any others.
+ */
+public final class GlyphAtlas {
+  private static final int LATIN_RANGE = 256;
+
+  private final Font font;
+  private final AdvanceTable advances;
+  private final int cellSize;
+  private final int originX;
+  private final int originY;
+  private BufferedImage scratchImage; // guarded by this, created the first time a glyph is rasterized
+  private Graphics2D scratchGraphics; // guarded by this
+  private final Glyph[] latinGlyphs = new Glyph[LATIN_RANGE];
+  private final Map<Character, Glyph> extendedGlyphs = new ConcurrentHashMap<>();
+
+  /**
+   * @param advance The distance to move the pen after drawing this glyph
+   * @param offsetX The x of the mask's left edge relative to the pen position
+   * @param offsetY The y of the mask's top edge relative to the baseline
+   * @param width   The mask width
+   * @param height  The mask height
+   * @param mask    The coverage values, row major
+   */
+  public record Glyph(
+      int advance,
+      int offsetX,
+      int offsetY,
+      int width,
+      int height,
+      byte[] mask
+  ) {
+  }
+
+  private static final class MinecraftHolder {
+    private static final GlyphAtlas INSTANCE = FontData.minecraft() != null
+        ? new GlyphAtlas(RenderUtil.MINECRAFT_FONT, AdvanceTable.minecraft(), FontData.minecraft())
+        : new GlyphAtlas(RenderUtil.MINECRAFT_FONT, AdvanceTable.minecraft());
+  }
+
+  /**
+   * @param font     The font to rasterize
+   * @param advances The advance widths of the same font
+   */
+  public GlyphAtlas(@NotNull Font font, @NotNull AdvanceTable advances) {
+    this.font = font;
+    this.advances = advances;
+    this.cellSize = Math.max(8, font.getSize()) * 4;
+    this.originX = this.cellSize / 4;
+    this.originY = this.cellSize / 4 + advances.ascent();
+
+    for (char c = 0; c < LATIN_RANGE; c++) {
+      this.latinGlyphs[c] = rasterize(c);
+    }
+  }
+
+  /**
+   * @param font     The font the data was generated from
+   * @param advances The advance widths of the same font
+   * @param data     The glyphs generated at build time
+   */
+  GlyphAtlas(@NotNull Font font, @NotNull AdvanceTable advances, @NotNull FontData data) {
+    this.font = font;
+    this.advances = advances;
+    this.cellSize = Math.max(8, font.getSize()) * 4;
+    this.originX = this.cellSize / 4;
+    this.originY = this.cellSize / 4 + advances.ascent();
+
+    for (Map.Entry<Character, Glyph> entry : data.glyphs().entrySet()) {
+      if (entry.getKey() < LATIN_RANGE) {
+        this.latinGlyphs[entry.getKey()] = entry.getValue();
+      }
+      else {
+        this.extendedGlyphs.put(entry.getKey(), entry.getValue());
+      }
+    }
+
+    for (char c = 0; c < LATIN_RANGE; c++) {
+      if (this.latinGlyphs[c] == null) {
+        this.latinGlyphs[c] = rasterize(c);
+      }
+    }
+  }
+
+  /**
+   * @return The atlas for {@link RenderUtil#MINECRAFT_FONT}
+   */
+  @NotNull
+  public static GlyphAtlas minecraft() {
+    return MinecraftHolder.INSTANCE;
+  }
+
+  @NotNull
+  public Font font() {
+    return this.font;
+  }
+
+  @NotNull
+  public AdvanceTable advances() {
+    return this.advances;
+  }
+
+  @NotNull
+  public Glyph glyph(char character) {
+    if (character < LATIN_RANGE) {
+      return this.latinGlyphs[character];
+    }
+
+    return this.extendedGlyphs.computeIfAbsent(character, this::rasterize);
+  }
+
+  /**
+   * @param raster   The raster to draw into
+   * @param glyph    The glyph to draw
+   * @param x        The pen x coordinate
+   * @param y        The baseline y coordinate
+   * @param argb     The colour to tint the glyph with
+   */
+  public void draw(
+      @NotNull ArgbRaster raster,
+      @NotNull Glyph glyph,
+      int x,
+      int y,
+      int argb
+  ) {
+    if (glyph.width() > 0) {
+      raster.blendMask(glyph.mask(), glyph.width(), glyph.height(), x + glyph.offsetX(), y + glyph.offsetY(), argb);
+    }
+  }
+
+  private synchronized Glyph rasterize(char character) {
+    final String charStr = String.valueOf(character);
+    final int advance = this.advances.advance(character);
+    final int size = this.cellSize;
+
+    if (this.scratchImage == null) {
+      this.scratchImage = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+      this.scratchGraphics = this.scratchImage.createGraphics();
+      this.scratchGraphics.setFont(this.font);
+      RenderUtil.applyMinecraftRenderingHints(this.scratchGraphics);
+    }
+
+    this.scratchGraphics.setComposite(AlphaComposite.Clear);
+    this.scratchGraphics.fillRect(0, 0, size, size);
+    this.scratchGraphics.setComposite(AlphaComposite.SrcOver);
+    this.scratchGraphics.setColor(Color.WHITE);
+    this.scratchGraphics.drawString(charStr, this.originX, this.originY);
+
+    final int[] pixels = this.scratchImage.getRGB(0, 0, size, size, null, 0, size);
+    int minX = size;
+    int minY = size;
+    int maxX = -1;
+    int maxY = -1;
+
+    for (int py = 0; py < size; py++) {
+      for (int px = 0; px < size; px++) {
+        if ((pixels[py * size + px] >>> 24) != 0) {
+          minX = Math.min(minX, px);
+          minY = Math.min(minY, py);
+          maxX = Math.max(maxX, px);
+          maxY = Math.max(maxY, py);
+        }
+      }
+    }
+
+    if (maxX < 0) {
+      return new Glyph(advance, 0, 0, 0, 0, new byte[0]);
+    }
+
+    final int width = maxX - minX + 1;
+    final int height = maxY - minY + 1;
+    final byte[] mask = new byte[width * height];
+
+    for (int my = 0; my < height; my++) {
+      for (int mx = 0; mx < width; mx++) {
+        mask[my * width + mx] = (byte) (pixels[(minY + my) * size + minX + mx] >>> 24);
+      }
+    }
+
+    return new Glyph(advance, minX - this.originX, minY - this.originY, width, height, mask);
+  }
+}
@@ -0,0 +1,18 @@
+package net.ultranetwork.render.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("net.ultranetwork.render.HeadMiss")
+@Label("Head Miss")
+@Category({"Ultra Network", "Rendering"})
+@Description("A player head that could not be found or fetched")
+@StackTrace(false)
+final class HeadMissEvent extends Event {
+  @Label("Player")
+  String player;
+}
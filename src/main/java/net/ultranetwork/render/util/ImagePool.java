@@ -0,0 +1,234 @@
+package net.ultranetwork.render.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reuses the pixel arrays behind rendered images, and byte arrays for encoded output, instead of
+ * allocating fresh ones for every render.
+ * <p>
+ * Arrays are pooled by size class (the next power of two of their length), so an image can reuse any
+ * array at least as big as it needs. Leased images and buffers are cleared before they are handed out.
+ * Releasing is explicit; anything never released is simply garbage collected, as the pool only holds
+ * leased arrays weakly. Each array remembers the image or buffer it was last leased as, and only that
+ * object can release it, once, so a stale or second release cannot give an array to two owners.
+ * Released arrays are only kept while the pool holds less than its byte budget, and arrays above the
+ * largest size class are never pooled.
+ */
+public final class ImagePool {
+  private static final int MIN_CLASS_SHIFT = 12; // 4096 elements
+  private static final int MAX_CLASS_SHIFT = 24; // 16M elements
+  private static final int[] ARGB_MASKS = {0x00ff0000, 0x0000ff00, 0x000000ff, 0xff000000};
+
+  private final long maxRetainedBytes;
+  private final ConcurrentLinkedDeque<int[]>[] intClasses;
+  private final ConcurrentLinkedDeque<byte[]>[] byteClasses;
+  // Arrays compare by identity, so this maps each leased array to the image or buffer it was leased as
+  private final Map<Object, Reference<?>> leased = new WeakHashMap<>(); // guarded by itself
+  private final AtomicInteger outstanding = new AtomicInteger();
+
+  private final AtomicLong retainedBytes = new AtomicLong();
+  private final AtomicLong leases = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong releases = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+
+  /**
+   * @param maxRetainedBytes The most memory kept in released arrays waiting to be reused
+   */
+  @SuppressWarnings("unchecked")
+  public ImagePool(long maxRetainedBytes) {
+    this.maxRetainedBytes = Math.max(0, maxRetainedBytes);
+    this.intClasses = (ConcurrentLinkedDeque<int[]>[]) new ConcurrentLinkedDeque<?>[MAX_CLASS_SHIFT - MIN_CLASS_SHIFT + 1];
+    this.byteClasses = (ConcurrentLinkedDeque<byte[]>[]) new ConcurrentLinkedDeque<?>[MAX_CLASS_SHIFT - MIN_CLASS_SHIFT + 1];
+
+    for (int i = 0; i < this.intClasses.length; i++) {
+      this.intClasses[i] = new ConcurrentLinkedDeque<>();
+      this.byteClasses[i] = new ConcurrentLinkedDeque<>();
+    }
+  }
+
+  /**
+   * @param width  The image width
+   * @param height The image height
+   * @return A transparent TYPE_INT_ARGB image, to be handed back with {@link #release(BufferedImage)}
+   */
+  @NotNull
+  public BufferedImage lease(int width, int height) {
+    final int size = Math.multiplyExact(width, height);
+    final int sizeClass = sizeClass(size);
+    this.leases.incrementAndGet();
+
+    int[] data = sizeClass >= 0 ? this.intClasses[sizeClass].pollFirst() : null;
+    if (data != null) {
+      this.hits.incrementAndGet();
+      this.retainedBytes.addAndGet(-4L * data.length);
+      Arrays.fill(data, 0, size, 0);
+    }
+    else {
+      data = new int[sizeClass >= 0 ? 1 << (sizeClass + MIN_CLASS_SHIFT) : size];
+    }
+
+    final WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(data, size), width, height, width, ARGB_MASKS, null);
+    final BufferedImage image = new BufferedImage(ColorModel.getRGBdefault(), raster, false, null);
+    leased(data, image);
+    return image;
+  }
+
+  /**
+   * @param image An image from {@link #lease(int, int)}. It must not be used afterwards.
+   * @return Whether the image was leased from this pool and not released since. Other images sharing
+   * its pixels, such as its subimages, are not taken back.
+   */
+  public boolean release(@NotNull BufferedImage image) {
+    final DataBuffer buffer = image.getRaster().getDataBuffer();
+
+    if (!(buffer instanceof DataBufferInt intBuffer) || intBuffer.getNumBanks() != 1) {
+      return false;
+    }
+
+    final int[] data = intBuffer.getData();
+    return giveBack(this.intClasses, data, image, data.length, 4L * data.length);
+  }
+
+  /**
+   * @param capacity The smallest capacity needed
+   * @return A zeroed heap buffer of at least that capacity, to be handed back with {@link #release(ByteBuffer)}
+   */
+  @NotNull
+  public ByteBuffer leaseBuffer(int capacity) {
+    final int sizeClass = sizeClass(capacity);
+    this.leases.incrementAndGet();
+
+    byte[] data = sizeClass >= 0 ? this.byteClasses[sizeClass].pollFirst() : null;
+    if (data != null) {
+      this.hits.incrementAndGet();
+      this.retainedBytes.addAndGet(-data.length);
+      Arrays.fill(data, (byte) 0);
+    }
+    else {
+      data = new byte[sizeClass >= 0 ? 1 << (sizeClass + MIN_CLASS_SHIFT) : capacity];
+    }
+
+    final ByteBuffer buffer = ByteBuffer.wrap(data);
+    leased(data, buffer);
+    return buffer;
+  }
+
+  /**
+   * @param buffer A buffer from {@link #leaseBuffer(int)}. It must not be used afterwards.
+   * @return Whether the buffer was leased from this pool and not released since. Duplicates and slices
+   * of it are not taken back.
+   */
+  public boolean release(@NotNull ByteBuffer buffer) {
+    if (!buffer.hasArray()) {
+      return false;
+    }
+
+    return giveBack(this.byteClasses, buffer.array(), buffer, buffer.array().length, buffer.array().length);
+  }
+
+  private void leased(Object data, Object owner) {
+    synchronized (this.leased) {
+      this.leased.put(data, new WeakReference<>(owner));
+    }
+
+    this.outstanding.incrementAndGet();
+  }
+
+  /**
+   * @param owner The image or buffer being released, which must be the one the array was last leased as
+   * @return Whether the array was taken back, whether or not it was kept
+   */
+  private <T> boolean giveBack(ConcurrentLinkedDeque<T>[] classes, T data, Object owner, int length, long bytes) {
+    synchronized (this.leased) {
+      final Reference<?> leasedAs = this.leased.get(data);
+
+      if (leasedAs == null || leasedAs.get() != owner) {
+        return false;
+      }
+
+      this.leased.remove(data);
+    }
+
+    final int sizeClass = sizeClass(length);
+    this.releases.incrementAndGet();
+    this.outstanding.decrementAndGet();
+
+    if (sizeClass < 0 || this.retainedBytes.addAndGet(bytes) > this.maxRetainedBytes) {
+      if (sizeClass >= 0) {
+        this.retainedBytes.addAndGet(-bytes);
+      }
+
+      this.dropped.incrementAndGet();
+      return true;
+    }
+
+    classes[sizeClass].offerFirst(data);
+    return true;
+  }
+
+  /**
+   * @return The size class index for a length, or -1 if it is too big to pool
+   */
+  private static int sizeClass(int length) {
+    final int shift = Math.max(MIN_CLASS_SHIFT, 32 - Integer.numberOfLeadingZeros(Math.max(1, length) - 1));
+    return shift > MAX_CLASS_SHIFT ? -1 : shift - MIN_CLASS_SHIFT;
+  }
+
+  /**
+   * @return The number of images and buffers leased
+   */
+  public long leases() {
+    return this.leases.get();
+  }
+
+  /**
+   * @return The number of leases served from a released array
+   */
+  public long hits() {
+    return this.hits.get();
+  }
+
+  /**
+   * @return The number of releases
+   */
+  public long releases() {
+    return this.releases.get();
+  }
+
+  /**
+   * @return The number of released arrays not kept, because the pool was full or they were too big
+   */
+  public long dropped() {
+    return this.dropped.get();
+  }
+
+  /**
+   * @return The number of images and buffers leased and not yet released
+   */
+  public int outstanding() {
+    return this.outstanding.get();
+  }
+
+  /**
+   * @return The memory held in released arrays waiting to be reused
+   */
+  public long retainedBytes() {
+    return this.retainedBytes.get();
+  }
+}
@@ -1,38 +1,222 @@
 package net.ultranetwork.render.util;
 
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
-import javax.imageio.ImageIO;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class ImageUtil {
+  private static final System.Logger LOGGER = System.getLogger(ImageUtil.class.getName());
 
   public static byte @Nullable [] createImageBytes(
       @NotNull BufferedImage image
   ) {
-    try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-      ImageIO.write(image, "png", baos);
-      return baos.toByteArray();
-    }
-    catch (IOException e) {
-      e.printStackTrace();
-      return null;
-    }
+    return PngEncoder.defaultEncoder().encode(image);
   }
 
   public static boolean saveImageToFile(
       @NotNull BufferedImage image,
       @NotNull File file
   ) {
-    try {
-      return ImageIO.write(image, "png", file); // returns false if no appropriate writer is found
+    try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(file.toPath()))) {
+      PngEncoder.defaultEncoder().encode(image, os);
+      return true;
     }
     catch (IOException e) {
-      e.printStackTrace();
+      LOGGER.log(System.Logger.Level.WARNING, "Failed to save image to " + file, e);
       return false;
     }
   }
+
+  /**
+   * Scales the image up by pixel replication, keeping every pixel crisp.
+   *
+   * @param image  The image to scale
+   * @param factor The whole number scale, at least 1
+   * @return A new TYPE_INT_ARGB image factor times the size
+   * @throws IllegalArgumentException If the factor is less than 1
+   */
+  @NotNull
+  public static BufferedImage scale(
+      @NotNull BufferedImage image,
+      int factor
+  ) {
+    return scale(image, factor, null);
+  }
+
+  /**
+   * Scales the image up by pixel replication, keeping every pixel crisp.
+   *
+   * @param image  The image to scale
+   * @param factor The whole number scale, at least 1
+   * @param pool   The pool to lease the scaled image from, or null to allocate it
+   * @return A new TYPE_INT_ARGB image factor times the size
+   * @throws IllegalArgumentException If the factor is less than 1
+   */
+  @NotNull
+  public static BufferedImage scale(
+      @NotNull BufferedImage image,
+      int factor,
+      @Nullable ImagePool pool
+  ) {
+    if (factor < 1) {
+      throw new IllegalArgumentException("Scale must be at least 1 but was " + factor);
+    }
+
+    final int width = Math.multiplyExact(image.getWidth(), factor);
+    final int height = Math.multiplyExact(image.getHeight(), factor);
+    final BufferedImage scaled = pool != null
+        ? pool.lease(width, height)
+        : new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+    ArgbRaster source = ArgbRaster.of(image);
+    if (source == null) {
+      final BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+      converted.setRGB(0, 0, image.getWidth(), image.getHeight(),
+          image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth()), 0, image.getWidth());
+      source = ArgbRaster.wrap(converted);
+    }
+
+    source.scaleInto(ArgbRaster.wrap(scaled), factor);
+    return scaled;
+  }
+
+  /**
+   * Scales one image to several sizes by pixel replication.
+   *
+   * @param image   The image to scale
+   * @param factors The whole number scales, each at least 1. A factor of 1 gives back the image itself.
+   * @param pool    The pool to lease the scaled images from, or null to allocate them
+   * @return One image per factor, in the same order
+   * @throws IllegalArgumentException If a factor is less than 1
+   */
+  @NotNull
+  public static List<BufferedImage> scale(
+      @NotNull BufferedImage image,
+      int @NotNull [] factors,
+      @Nullable ImagePool pool
+  ) {
+    final List<BufferedImage> images = new ArrayList<>(factors.length);
+
+    for (int factor : factors) {
+      images.add(factor == 1 ? image : scale(image, factor, pool));
+    }
+
+    return images;
+  }
+
+  /**
+   * Encodes the image as PNG, writing each chunk to the stream as soon as it is produced.
+   *
+   * @param image The image to encode
+   * @param out   The stream to write to. It is not closed.
+   * @throws IOException If writing to the stream fails
+   */
+  public static void writeImage(
+      @NotNull BufferedImage image,
+      @NotNull OutputStream out
+  ) throws IOException {
+    PngEncoder.defaultEncoder().encode(image, out);
+  }
+
+  /**
+   * Encodes the image as PNG, writing each chunk to the channel as soon as it is produced.
+   *
+   * @param image   The image to encode
+   * @param channel The blocking channel to write to. It is not closed.
+   * @throws IOException If writing to the channel fails
+   */
+  public static void writeImage(
+      @NotNull BufferedImage image,
+      @NotNull WritableByteChannel channel
+  ) throws IOException {
+    PngEncoder.defaultEncoder().encode(image, channel);
+  }
+
+  /**
+   * Encodes the image as PNG straight into a heap or direct buffer, starting at its position.
+   *
+   * @param image  The image to encode
+   * @param buffer The buffer to write to, see {@link PngEncoder#maxEncodedSize(int, int)} for sizing it
+   * @return The number of bytes written
+   * @throws java.nio.BufferOverflowException If the PNG does not fit in the buffer's remaining space
+   */
+  public static int writeImage(
+      @NotNull BufferedImage image,
+      @NotNull ByteBuffer buffer
+  ) {
+    return PngEncoder.defaultEncoder().encode(image, buffer);
+  }
+
+  /**
+   * Writes a render's image to the stream once it completes. Writing runs on
+   * {@link RenderExecutor#defaultIoExecutor()} since the stream may block.
+   *
+   * @param image The future from a renderer's {@code build()}
+   * @param out   The stream to write to. It is not closed.
+   * @return A future completing once the whole PNG is written, or exceptionally if rendering or writing fails
+   */
+  @NotNull
+  public static CompletableFuture<Void> writeImage(
+      @NotNull CompletableFuture<BufferedImage> image,
+      @NotNull OutputStream out
+  ) {
+    return image.thenAcceptAsync(rendered -> {
+      try {
+        writeImage(rendered, out);
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, RenderExecutor.defaultIoExecutor());
+  }
+
+  /**
+   * Writes a render's image to the channel once it completes. Writing runs on
+   * {@link RenderExecutor#defaultIoExecutor()} since the channel may block.
+   *
+   * @param image   The future from a renderer's {@code build()}
+   * @param channel The blocking channel to write to. It is not closed.
+   * @return A future completing once the whole PNG is written, or exceptionally if rendering or writing fails
+   */
+  @NotNull
+  public static CompletableFuture<Void> writeImage(
+      @NotNull CompletableFuture<BufferedImage> image,
+      @NotNull WritableByteChannel channel
+  ) {
+    return image.thenAcceptAsync(rendered -> {
+      try {
+        writeImage(rendered, channel);
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }, RenderExecutor.defaultIoExecutor());
+  }
+
+  /**
+   * Encodes a render's image into the buffer once it completes, on the thread that finished the render.
+   *
+   * @param image  The future from a renderer's {@code build()}
+   * @param buffer The heap or direct buffer to write to, starting at its position
+   * @return A future with the number of bytes written, or failing with a
+   *     {@link java.nio.BufferOverflowException} if the PNG does not fit
+   */
+  @NotNull
+  public static CompletableFuture<Integer> writeImage(
+      @NotNull CompletableFuture<BufferedImage> image,
+      @NotNull ByteBuffer buffer
+  ) {
+    return image.thenApply(rendered -> writeImage(rendered, buffer));
+  }
 }
@@ -0,0 +1,107 @@
+package net.ultranetwork.render.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Small thread-safe LRU cache bounded by the total weight of its values.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+public final class LruCache<K, V> {
+  private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final ToLongFunction<? super V> weigher;
+  private final long maxWeight;
+  private long weight;
+  private long evictions;
+
+  /**
+   * @param maxWeight The total weight kept before least recently used entries are evicted
+   * @param weigher   Computes the weight of a value
+   */
+  public LruCache(long maxWeight, @NotNull ToLongFunction<? super V> weigher) {
+    this.maxWeight = maxWeight;
+    this.weigher = weigher;
+  }
+
+  /**
+   * @param maxEntries The number of entries kept before least recently used entries are evicted
+   */
+  public LruCache(int maxEntries) {
+    this(maxEntries, value -> 1);
+  }
+
+  @Nullable
+  public synchronized V get(@NotNull K key) {
+    return this.entries.get(key);
+  }
+
+  public synchronized void put(@NotNull K key, @NotNull V value) {
+    final long valueWeight = this.weigher.applyAsLong(value);
+
+    if (valueWeight > this.maxWeight) {
+      return; // Would evict everything else and then itself
+    }
+
+    final V previous = this.entries.put(key, value);
+
+    if (previous != null) {
+      this.weight -= this.weigher.applyAsLong(previous);
+    }
+
+    this.weight += valueWeight;
+    evict();
+  }
+
+  /**
+   * Computes the value outside the lock, so concurrent misses for the same key may both compute.
+   */
+  @NotNull
+  public V computeIfAbsent(@NotNull K key, @NotNull Function<? super K, ? extends V> loader) {
+    final V cached = get(key);
+
+    if (cached != null) {
+      return cached;
+    }
+
+    final V value = loader.apply(key);
+    put(key, value);
+    return value;
+  }
+
+  public synchronized void clear() {
+    this.entries.clear();
+    this.weight = 0;
+  }
+
+  public synchronized int size() {
+    return this.entries.size();
+  }
+
+  public synchronized long weight() {
+    return this.weight;
+  }
+
+  /**
+   * @return The number of entries evicted to stay within the weight budget
+   */
+  public synchronized long evictions() {
+    return this.evictions;
+  }
+
+  private void evict() {
+    final Iterator<Map.Entry<K, V>> iterator = this.entries.entrySet().iterator();
+
+    while (this.weight > this.maxWeight && iterator.hasNext()) {
+      this.weight -= this.weigher.applyAsLong(iterator.next().getValue());
+      iterator.remove();
+      this.evictions++;
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package net.ultranetwork.render.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Compiled text and where it is drawn.
+ *
+ * @param text      The text to draw
+ * @param x         The x the first character is drawn at
+ * @param baselineY The y of the text baseline
+ */
+public record PlacedText(
+    @NotNull CompiledText text,
+    int x,
+    int baselineY
+) {
+  public int width() {
+    return this.text.width();
+  }
+}
@@ -0,0 +1,781 @@
+package net.ultranetwork.render.util;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * PNG encoder for rendered images.
+ * <p>
+ * Images with at most 256 distinct ARGB values (most tooltips and tab lists) are written as indexed PNGs
+ * with a PLTE/tRNS palette, at the smallest bit depth that fits. Everything else is written as RGB or
+ * RGBA depending on whether any pixel is translucent. Each platform thread reuses one {@link Deflater}
+ * and its scratch buffers, virtual threads borrow them from a small shared pool, and compressed data is
+ * written out in IDAT chunks as it is produced.
+ */
+public final class PngEncoder {
+  /**
+   * Trade-off between encode time and output size.
+   */
+  public enum Preset {
+    /**
+     * Fastest deflate level and no scanline filtering.
+     */
+    FASTEST(Deflater.BEST_SPEED, false),
+    /**
+     * Default deflate level with adaptive filtering of truecolour images.
+     */
+    BALANCED(6, true),
+    /**
+     * Best deflate level with adaptive filtering of truecolour images.
+     */
+    SMALLEST(Deflater.BEST_COMPRESSION, true);
+
+    private final int deflateLevel;
+    private final boolean adaptiveFilter;
+
+    Preset(int deflateLevel, boolean adaptiveFilter) {
+      this.deflateLevel = deflateLevel;
+      this.adaptiveFilter = adaptiveFilter;
+    }
+  }
+
+  static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+  static final byte[] IHDR = "IHDR".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] PLTE = "PLTE".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] TRNS = "tRNS".getBytes(StandardCharsets.US_ASCII);
+  static final byte[] IDAT = "IDAT".getBytes(StandardCharsets.US_ASCII);
+  static final byte[] IEND = "IEND".getBytes(StandardCharsets.US_ASCII);
+
+  private static final int COLOUR_TYPE_RGB = 2;
+  private static final int COLOUR_TYPE_INDEXED = 3;
+  static final int COLOUR_TYPE_RGBA = 6;
+
+  private static final int MAX_PALETTE_SIZE = 256;
+  private static final int PALETTE_HASH_SIZE = 1024; // power of two, well above 256 to keep probes short
+  private static final int IDAT_CHUNK_SIZE = 32 * 1024;
+
+  private static final PngEncoder DEFAULT = new PngEncoder(Preset.BALANCED);
+  private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+  // Virtual threads are seldom reused, so a thread local would build a new Deflater for every encode
+  private static final BlockingQueue<Scratch> VIRTUAL_SCRATCH =
+      new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 2);
+
+  private final Preset preset;
+
+  public PngEncoder(@NotNull Preset preset) {
+    this.preset = preset;
+  }
+
+  /**
+   * @return The shared encoder using {@link Preset#BALANCED}
+   */
+  @NotNull
+  public static PngEncoder defaultEncoder() {
+    return DEFAULT;
+  }
+
+  @NotNull
+  public Preset preset() {
+    return this.preset;
+  }
+
+  /**
+   * @param image The image to encode
+   * @return The PNG file bytes
+   */
+  public byte @NotNull [] encode(@NotNull BufferedImage image) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(image.getWidth() * image.getHeight() / 4 + 256);
+
+    try {
+      encode(image, out);
+    }
+    catch (IOException e) {
+      throw new AssertionError("ByteArrayOutputStream does not throw", e);
+    }
+
+    return out.toByteArray();
+  }
+
+  /**
+   * @param image  The image to encode
+   * @param buffer The buffer to write the PNG file into, starting at its position
+   * @return The number of bytes written
+   * @throws java.nio.BufferOverflowException If the PNG does not fit in the buffer's remaining space
+   */
+  public int encode(@NotNull BufferedImage image, @NotNull ByteBuffer buffer) {
+    final int start = buffer.position();
+
+    try {
+      encode(image, new ByteBufferOutputStream(buffer));
+    }
+    catch (IOException e) {
+      throw new AssertionError("ByteBufferOutputStream does not throw", e);
+    }
+
+    return buffer.position() - start;
+  }
+
+  /**
+   * Writes to the channel about one IDAT chunk at a time as encoding goes, so the receiver can start
+   * reading before encoding finishes without a write per chunk header and CRC.
+   *
+   * @param image   The image to encode
+   * @param channel The blocking channel to write the PNG file to. It is not closed.
+   * @throws IOException If writing to the channel fails
+   */
+  public void encode(@NotNull BufferedImage image, @NotNull WritableByteChannel channel) throws IOException {
+    // Room for a whole IDAT chunk with its length, type and CRC
+    final OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), IDAT_CHUNK_SIZE + 12);
+    encode(image, out);
+    out.flush();
+  }
+
+  /**
+   * @param image The image to encode
+   * @param pool  The pool to lease the output buffer from
+   * @return A buffer leased from the pool holding the PNG file between its position and limit.
+   *         Hand it back with {@link ImagePool#release(ByteBuffer)} once read.
+   */
+  @NotNull
+  public ByteBuffer encode(@NotNull BufferedImage image, @NotNull ImagePool pool) {
+    final ByteBuffer buffer = pool.leaseBuffer(maxEncodedSize(image.getWidth(), image.getHeight()));
+    encode(image, buffer);
+    return buffer.flip();
+  }
+
+  /**
+   * @param width  The image width
+   * @param height The image height
+   * @return The most bytes a PNG of that size can take, whatever its content
+   * @throws ArithmeticException If the bound does not fit in an int
+   */
+  public static int maxEncodedSize(int width, int height) {
+    // RGBA scanlines with their filter byte, through zlib's worst case expansion
+    final long raw = (long) height * (1 + 4L * width);
+    final long deflated = raw + (raw >>> 12) + (raw >>> 14) + (raw >>> 25) + 13 + 6;
+    final long idat = deflated + 12 * ((deflated + IDAT_CHUNK_SIZE - 1) / IDAT_CHUNK_SIZE);
+    final long headers = SIGNATURE.length + (12 + 13) + (12 + 3 * MAX_PALETTE_SIZE) + (12 + MAX_PALETTE_SIZE) + 12;
+    return Math.toIntExact(idat + headers);
+  }
+
+  /**
+   * @param image The image to encode
+   * @param out   The stream to write the PNG file to. It is not closed.
+   * @throws IOException If writing to the stream fails
+   */
+  public void encode(@NotNull BufferedImage image, @NotNull OutputStream out) throws IOException {
+    final RenderInstrumentation.Span span = RenderInstrumentation.start(RenderMetrics.Stage.ENCODE);
+
+    try {
+      span.encoded(writePng(image, out));
+    }
+    catch (IOException | RuntimeException e) {
+      span.fail(e);
+      throw e;
+    }
+  }
+
+  /**
+   * @return The number of bytes written
+   */
+  private long writePng(BufferedImage image, OutputStream out) throws IOException {
+    final Scratch scratch = borrowScratch();
+
+    try {
+      return writePng(image, out, scratch);
+    }
+    finally {
+      returnScratch(scratch);
+    }
+  }
+
+  private long writePng(BufferedImage image, OutputStream out, Scratch scratch) throws IOException {
+    final int width = image.getWidth();
+    final int height = image.getHeight();
+    final PixelSource pixels = new PixelSource(image, scratch.row(width));
+    final Palette palette = scratch.palette;
+
+    // First pass: find the colours, giving up on a palette once there are too many
+    boolean fitsPalette = true;
+    boolean translucent = false;
+    palette.clear();
+
+    for (int y = 0; y < height; y++) {
+      final int[] row = pixels.row(y);
+
+      for (int x = 0; x < width; x++) {
+        final int argb = row[x];
+        translucent |= (argb >>> 24) != 0xff;
+
+        if (fitsPalette && !palette.add(argb)) {
+          fitsPalette = false;
+        }
+      }
+    }
+
+    final int colourType;
+    final int bitDepth;
+    if (fitsPalette) {
+      colourType = COLOUR_TYPE_INDEXED;
+      bitDepth = palette.size() <= 2 ? 1 : palette.size() <= 4 ? 2 : palette.size() <= 16 ? 4 : 8;
+      palette.sortTranslucentFirst();
+    }
+    else {
+      colourType = translucent ? COLOUR_TYPE_RGBA : COLOUR_TYPE_RGB;
+      bitDepth = 8;
+    }
+
+    final ChunkWriter writer = new ChunkWriter(out, scratch.crc);
+    out.write(SIGNATURE);
+    writeHeader(writer, width, height, bitDepth, colourType);
+
+    if (colourType == COLOUR_TYPE_INDEXED) {
+      writer.chunk(PLTE, palette.rgbEntries(), palette.size() * 3);
+
+      final int translucentEntries = palette.translucentCount();
+      if (translucentEntries > 0) {
+        writer.chunk(TRNS, palette.alphaEntries(), translucentEntries);
+      }
+    }
+
+    writeImageData(pixels, width, height, colourType, bitDepth, palette, scratch,
+        (data, length) -> writer.chunk(IDAT, data, length));
+    writer.chunk(IEND, scratch.chunk, 0);
+    return SIGNATURE.length + writer.written();
+  }
+
+  /**
+   * Compresses an RGBA frame, for formats such as APNG that wrap image data in their own chunks.
+   *
+   * @param rows   The frame's rows
+   * @param width  The frame width
+   * @param height The frame height
+   * @param sink   Receives the compressed data in pieces of up to 32 KiB
+   */
+  void writeRgbaData(RowSource rows, int width, int height, DataSink sink) throws IOException {
+    final Scratch scratch = borrowScratch();
+
+    try {
+      writeImageData(rows, width, height, COLOUR_TYPE_RGBA, 8, null, scratch, sink);
+    }
+    finally {
+      returnScratch(scratch);
+    }
+  }
+
+  /**
+   * @return The calling thread's scratch, or on a virtual thread one from the shared pool
+   */
+  private static Scratch borrowScratch() {
+    if (!Thread.currentThread().isVirtual()) {
+      return SCRATCH.get();
+    }
+
+    final Scratch scratch = VIRTUAL_SCRATCH.poll();
+    return scratch != null ? scratch : new Scratch();
+  }
+
+  private static void returnScratch(Scratch scratch) {
+    // A full pool means more virtual threads are encoding at once than usual, so free the extra zlib stream now
+    if (Thread.currentThread().isVirtual() && !VIRTUAL_SCRATCH.offer(scratch)) {
+      scratch.deflater.end();
+    }
+  }
+
+  static void writeHeader(ChunkWriter writer, int width, int height, int bitDepth, int colourType) throws IOException {
+    final byte[] header = new byte[13];
+    writeInt(header, 0, width);
+    writeInt(header, 4, height);
+    header[8] = (byte) bitDepth;
+    header[9] = (byte) colourType;
+    header[10] = 0; // deflate
+    header[11] = 0; // adaptive filtering
+    header[12] = 0; // no interlace
+    writer.chunk(IHDR, header, 13);
+  }
+
+  private void writeImageData(
+      RowSource pixels,
+      int width,
+      int height,
+      int colourType,
+      int bitDepth,
+      Palette palette,
+      Scratch scratch,
+      DataSink sink
+  ) throws IOException {
+    final int bytesPerPixel = colourType == COLOUR_TYPE_RGBA ? 4 : colourType == COLOUR_TYPE_RGB ? 3 : 1;
+    final int lineLength = colourType == COLOUR_TYPE_INDEXED
+        ? (width * bitDepth + 7) / 8
+        : width * bytesPerPixel;
+    final boolean adaptive = this.preset.adaptiveFilter && colourType != COLOUR_TYPE_INDEXED;
+
+    byte[] line = scratch.line(lineLength);
+    byte[] previous = scratch.previousLine(lineLength);
+    final byte[] filtered = scratch.filtered(lineLength + 1);
+    Arrays.fill(previous, 0, lineLength, (byte) 0);
+
+    final Deflater deflater = scratch.deflater;
+    deflater.reset();
+    deflater.setLevel(this.preset.deflateLevel);
+
+    final byte[] chunk = scratch.chunk;
+    int chunkLength = 0;
+
+    for (int y = 0; y < height; y++) {
+      final int[] row = pixels.row(y);
+
+      if (colourType == COLOUR_TYPE_INDEXED) {
+        packIndexed(row, width, bitDepth, palette, line);
+      }
+      else {
+        packTruecolour(row, width, bytesPerPixel, line);
+      }
+
+      if (adaptive) {
+        chooseFilter(line, previous, lineLength, bytesPerPixel, filtered);
+      }
+      else {
+        filtered[0] = 0;
+        System.arraycopy(line, 0, filtered, 1, lineLength);
+      }
+
+      deflater.setInput(filtered, 0, lineLength + 1);
+      while (!deflater.needsInput()) {
+        chunkLength += deflater.deflate(chunk, chunkLength, chunk.length - chunkLength);
+
+        if (chunkLength == chunk.length) {
+          sink.write(chunk, chunkLength);
+          chunkLength = 0;
+        }
+      }
+
+      final byte[] swap = previous;
+      previous = line;
+      line = swap;
+    }
+
+    deflater.finish();
+    while (!deflater.finished()) {
+      chunkLength += deflater.deflate(chunk, chunkLength, chunk.length - chunkLength);
+
+      if (chunkLength == chunk.length) {
+        sink.write(chunk, chunkLength);
+        chunkLength = 0;
+      }
+    }
+
+    if (chunkLength > 0) {
+      sink.write(chunk, chunkLength);
+    }
+  }
+
+  private static void packIndexed(int[] row, int width, int bitDepth, Palette palette, byte[] line) {
+    if (bitDepth == 8) {
+      for (int x = 0; x < width; x++) {
+        line[x] = (byte) palette.indexOf(row[x]);
+      }
+      return;
+    }
+
+    final int pixelsPerByte = 8 / bitDepth;
+    int out = 0;
+    int packed = 0;
+    int count = 0;
+
+    for (int x = 0; x < width; x++) {
+      packed = (packed << bitDepth) | palette.indexOf(row[x]);
+
+      if (++count == pixelsPerByte) {
+        line[out++] = (byte) packed;
+        packed = 0;
+        count = 0;
+      }
+    }
+
+    if (count > 0) {
+      line[out] = (byte) (packed << (bitDepth * (pixelsPerByte - count)));
+    }
+  }
+
+  private static void packTruecolour(int[] row, int width, int bytesPerPixel, byte[] line) {
+    int out = 0;
+
+    for (int x = 0; x < width; x++) {
+      final int argb = row[x];
+      line[out++] = (byte) (argb >> 16);
+      line[out++] = (byte) (argb >> 8);
+      line[out++] = (byte) argb;
+
+      if (bytesPerPixel == 4) {
+        line[out++] = (byte) (argb >>> 24);
+      }
+    }
+  }
+
+  /**
+   * Picks the filter with the smallest sum of absolute differences, the usual heuristic from the PNG spec.
+   */
+  private static void chooseFilter(byte[] line, byte[] previous, int length, int bpp, byte[] filtered) {
+    long bestSum = Long.MAX_VALUE;
+    int bestType = 0;
+
+    for (int type = 0; type <= 4; type++) {
+      long sum = 0;
+
+      for (int i = 0; i < length && sum < bestSum; i++) {
+        sum += Math.abs((byte) filterByte(type, line, previous, i, bpp));
+      }
+
+      if (sum < bestSum) {
+        bestSum = sum;
+        bestType = type;
+      }
+    }
+
+    filtered[0] = (byte) bestType;
+    for (int i = 0; i < length; i++) {
+      filtered[i + 1] = (byte) filterByte(bestType, line, previous, i, bpp);
+    }
+  }
+
+  private static int filterByte(int type, byte[] line, byte[] previous, int i, int bpp) {
+    final int raw = line[i] & 0xff;
+    final int left = i >= bpp ? line[i - bpp] & 0xff : 0;
+    final int up = previous[i] & 0xff;
+    final int upLeft = i >= bpp ? previous[i - bpp] & 0xff : 0;
+
+    switch (type) {
+      case 1:
+        return raw - left;
+      case 2:
+        return raw - up;
+      case 3:
+        return raw - ((left + up) >>> 1);
+      case 4:
+        return raw - paeth(left, up, upLeft);
+      default:
+        return raw;
+    }
+  }
+
+  private static int paeth(int a, int b, int c) {
+    final int p = a + b - c;
+    final int pa = Math.abs(p - a);
+    final int pb = Math.abs(p - b);
+    final int pc = Math.abs(p - c);
+
+    if (pa <= pb && pa <= pc) {
+      return a;
+    }
+
+    return pb <= pc ? b : c;
+  }
+
+  static void writeInt(byte[] buffer, int offset, int value) {
+    buffer[offset] = (byte) (value >>> 24);
+    buffer[offset + 1] = (byte) (value >>> 16);
+    buffer[offset + 2] = (byte) (value >>> 8);
+    buffer[offset + 3] = (byte) value;
+  }
+
+  /**
+   * Supplies an image one row of ARGB pixels at a time.
+   */
+  @FunctionalInterface
+  interface RowSource {
+    /**
+     * @return The row's pixels, valid until the next call
+     */
+    int[] row(int y);
+  }
+
+  /**
+   * Receives compressed image data.
+   */
+  @FunctionalInterface
+  interface DataSink {
+    void write(byte[] data, int length) throws IOException;
+  }
+
+  /**
+   * Reads rows straight out of TYPE_INT_ARGB rasters, or through getRGB for anything else.
+   */
+  private static final class PixelSource implements RowSource {
+    private final BufferedImage image;
+    private final ArgbRaster raster;
+    private final int[] row;
+
+    PixelSource(BufferedImage image, int[] row) {
+      this.image = image;
+      this.raster = ArgbRaster.of(image);
+      this.row = row;
+    }
+
+    @Override
+    public int[] row(int y) {
+      if (this.raster != null) {
+        this.raster.readRow(y, this.row);
+      }
+      else {
+        this.image.getRGB(0, y, this.image.getWidth(), 1, this.row, 0, this.image.getWidth());
+      }
+
+      return this.row;
+    }
+  }
+
+  /**
+   * Up to 256 ARGB colours in an open-addressing hash table.
+   */
+  private static final class Palette {
+    private final int[] keys = new int[PALETTE_HASH_SIZE];
+    private final short[] slots = new short[PALETTE_HASH_SIZE]; // palette index + 1, 0 when empty
+    private final int[] colours = new int[MAX_PALETTE_SIZE];
+    private int size;
+
+    void clear() {
+      Arrays.fill(this.slots, (short) 0);
+      this.size = 0;
+    }
+
+    int size() {
+      return this.size;
+    }
+
+    /**
+     * @return False if the colour is new and the palette is already full
+     */
+    boolean add(int argb) {
+      int slot = hash(argb);
+
+      while (this.slots[slot] != 0) {
+        if (this.keys[slot] == argb) {
+          return true;
+        }
+
+        slot = (slot + 1) & (PALETTE_HASH_SIZE - 1);
+      }
+
+      if (this.size == MAX_PALETTE_SIZE) {
+        return false;
+      }
+
+      this.keys[slot] = argb;
+      this.colours[this.size] = argb;
+      this.slots[slot] = (short) ++this.size;
+      return true;
+    }
+
+    int indexOf(int argb) {
+      int slot = hash(argb);
+
+      while (this.keys[slot] != argb || this.slots[slot] == 0) {
+        slot = (slot + 1) & (PALETTE_HASH_SIZE - 1);
+      }
+
+      return this.slots[slot] - 1;
+    }
+
+    /**
+     * Moves translucent entries to the front so tRNS only needs to cover them.
+     */
+    void sortTranslucentFirst() {
+      final int[] sorted = new int[this.size];
+      int index = 0;
+
+      for (int i = 0; i < this.size; i++) {
+        if ((this.colours[i] >>> 24) != 0xff) {
+          sorted[index++] = this.colours[i];
+        }
+      }
+
+      for (int i = 0; i < this.size; i++) {
+        if ((this.colours[i] >>> 24) == 0xff) {
+          sorted[index++] = this.colours[i];
+        }
+      }
+
+      clear();
+      for (int colour : sorted) {
+        add(colour);
+      }
+    }
+
+    int translucentCount() {
+      int count = 0;
+
+      while (count < this.size && (this.colours[count] >>> 24) != 0xff) {
+        count++;
+      }
+
+      return count;
+    }
+
+    byte[] rgbEntries() {
+      final byte[] entries = new byte[this.size * 3];
+
+      for (int i = 0; i < this.size; i++) {
+        entries[i * 3] = (byte) (this.colours[i] >> 16);
+        entries[i * 3 + 1] = (byte) (this.colours[i] >> 8);
+        entries[i * 3 + 2] = (byte) this.colours[i];
+      }
+
+      return entries;
+    }
+
+    byte[] alphaEntries() {
+      final byte[] entries = new byte[this.size];
+
+      for (int i = 0; i < this.size; i++) {
+        entries[i] = (byte) (this.colours[i] >>> 24);
+      }
+
+      return entries;
+    }
+
+    private static int hash(int argb) {
+      return (argb * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(PALETTE_HASH_SIZE));
+    }
+  }
+
+  /**
+   * Writes length, type, data and CRC of a chunk.
+   */
+  static final class ChunkWriter {
+    private final OutputStream out;
+    private final CRC32 crc;
+    private final byte[] buffer = new byte[8];
+    private long written;
+
+    ChunkWriter(OutputStream out, CRC32 crc) {
+      this.out = out;
+      this.crc = crc;
+    }
+
+    void chunk(byte[] type, byte[] data, int length) throws IOException {
+      this.crc.reset();
+      this.crc.update(type);
+      this.crc.update(data, 0, length);
+
+      writeInt(this.buffer, 0, length);
+      System.arraycopy(type, 0, this.buffer, 4, 4);
+      this.out.write(this.buffer, 0, 8);
+      this.out.write(data, 0, length);
+
+      writeInt(this.buffer, 0, (int) this.crc.getValue());
+      this.out.write(this.buffer, 0, 4);
+      this.written += 12 + length;
+    }
+
+    /**
+     * Writes a chunk whose data starts with a sequence number, as APNG's fcTL and fdAT do.
+     */
+    void sequencedChunk(byte[] type, int sequence, byte[] data, int length) throws IOException {
+      final byte[] sequenceBytes = new byte[4];
+      writeInt(sequenceBytes, 0, sequence);
+
+      this.crc.reset();
+      this.crc.update(type);
+      this.crc.update(sequenceBytes);
+      this.crc.update(data, 0, length);
+
+      writeInt(this.buffer, 0, length + 4);
+      System.arraycopy(type, 0, this.buffer, 4, 4);
+      this.out.write(this.buffer, 0, 8);
+      this.out.write(sequenceBytes);
+      this.out.write(data, 0, length);
+
+      writeInt(this.buffer, 0, (int) this.crc.getValue());
+      this.out.write(this.buffer, 0, 4);
+      this.written += 16 + length;
+    }
+
+    /**
+     * @return The number of bytes of chunks written so far
+     */
+    long written() {
+      return this.written;
+    }
+  }
+
+  /**
+   * State reused between encodes, per platform thread or pooled for virtual threads.
+   */
+  private static final class Scratch {
+    private final Deflater deflater = new Deflater();
+    private final CRC32 crc = new CRC32();
+    private final Palette palette = new Palette();
+    private final byte[] chunk = new byte[IDAT_CHUNK_SIZE];
+    private int[] row = new int[0];
+    private byte[] line = new byte[0];
+    private byte[] previousLine = new byte[0];
+    private byte[] filtered = new byte[0];
+
+    int[] row(int width) {
+      if (this.row.length < width) {
+        this.row = new int[width];
+      }
+
+      return this.row;
+    }
+
+    byte[] line(int length) {
+      if (this.line.length < length) {
+        this.line = new byte[length];
+      }
+
+      return this.line;
+    }
+
+    byte[] previousLine(int length) {
+      if (this.previousLine.length < length) {
+        this.previousLine = new byte[length];
+      }
+
+      return this.previousLine;
+    }
+
+    byte[] filtered(int length) {
+      if (this.filtered.length < length) {
+        this.filtered = new byte[length];
+      }
+
+      return this.filtered;
+    }
+  }
+
+  /**
+   * Writes into a ByteBuffer, failing with a BufferOverflowException once it is full.
+   */
+  private static final class ByteBufferOutputStream extends OutputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferOutputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public void write(int b) {
+      this.buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte @NotNull [] b, int off, int len) {
+      this.buffer.put(b, off, len);
+    }
+  }
+}
@@ -0,0 +1,222 @@
+package net.ultranetwork.render.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Executor for render and head-fetch work, kept off {@link java.util.concurrent.ForkJoinPool#commonPool()}
+ * so render bursts don't compete with everything else using the common pool.
+ * <p>
+ * Platform mode runs tasks on a fixed pool of daemon threads, for CPU-bound rendering. Virtual mode runs
+ * each task on its own virtual thread with a cap on how many run at once, for I/O-bound work such as
+ * head fetching. Either mode can bound the number of waiting tasks, rejecting or running overflow on the
+ * submitting thread.
+ */
+public final class RenderExecutor implements Executor, AutoCloseable {
+  /**
+   * What happens to a task submitted while the queue is full.
+   */
+  public enum OverflowPolicy {
+    /**
+     * Throw a {@link RejectedExecutionException}, failing the render's future.
+     */
+    REJECT,
+    /**
+     * Run the task on the submitting thread, slowing the submitter down.
+     */
+    CALLER_RUNS
+  }
+
+  private static final int CORES = Runtime.getRuntime().availableProcessors();
+
+  private final ThreadPoolExecutor platformPool; // null in virtual mode
+  private final ExecutorService virtualThreads; // null in platform mode
+  private final Semaphore virtualPermits;
+  private final int queueCapacity;
+  private final OverflowPolicy overflowPolicy;
+  private final AtomicInteger virtualWaiting = new AtomicInteger();
+  private final AtomicInteger virtualActive = new AtomicInteger();
+
+  private static final class DefaultHolder {
+    private static final RenderExecutor RENDER = builder().threadName("render").build();
+    private static final RenderExecutor IO = builder().virtual(true).threads(64).threadName("render-io").build();
+  }
+
+  private RenderExecutor(Builder builder) {
+    this.queueCapacity = builder.queueCapacity;
+    this.overflowPolicy = builder.overflowPolicy;
+
+    if (builder.virtual) {
+      this.platformPool = null;
+      this.virtualThreads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(builder.threadName + "-", 0).factory());
+      this.virtualPermits = new Semaphore(builder.threads);
+      return;
+    }
+
+    final AtomicInteger threadCount = new AtomicInteger();
+    final ThreadFactory threadFactory = runnable -> {
+      final Thread thread = new Thread(runnable, builder.threadName + "-" + threadCount.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    };
+
+    final BlockingQueue<Runnable> queue = builder.queueCapacity > 0
+        ? new ArrayBlockingQueue<>(builder.queueCapacity)
+        : new LinkedBlockingQueue<>();
+
+    final RejectedExecutionHandler rejectedHandler = builder.overflowPolicy == OverflowPolicy.CALLER_RUNS
+        ? new ThreadPoolExecutor.CallerRunsPolicy()
+        : new ThreadPoolExecutor.AbortPolicy();
+
+    this.platformPool = new ThreadPoolExecutor(builder.threads, builder.threads, 30, TimeUnit.SECONDS, queue, threadFactory, rejectedHandler);
+    this.platformPool.allowCoreThreadTimeOut(true);
+    this.virtualThreads = null;
+    this.virtualPermits = null;
+  }
+
+  /**
+   * @return The shared platform-thread executor renders run on by default, sized to the number of cores
+   */
+  @NotNull
+  public static RenderExecutor defaultExecutor() {
+    return DefaultHolder.RENDER;
+  }
+
+  /**
+   * @return The shared virtual-thread executor used for blocking I/O such as reading cached heads from disk
+   */
+  @NotNull
+  public static RenderExecutor defaultIoExecutor() {
+    return DefaultHolder.IO;
+  }
+
+  @Override
+  public void execute(@NotNull Runnable command) {
+    if (this.platformPool != null) {
+      this.platformPool.execute(command);
+      return;
+    }
+
+    if (this.virtualWaiting.incrementAndGet() > this.queueCapacity && this.queueCapacity > 0) {
+      this.virtualWaiting.decrementAndGet();
+
+      if (this.overflowPolicy == OverflowPolicy.REJECT) {
+        throw new RejectedExecutionException("Render queue is full (" + this.queueCapacity + " waiting)");
+      }
+
+      command.run();
+      return;
+    }
+
+    this.virtualThreads.execute(() -> {
+      try {
+        this.virtualPermits.acquireUninterruptibly();
+      }
+      finally {
+        this.virtualWaiting.decrementAndGet();
+      }
+
+      this.virtualActive.incrementAndGet();
+      try {
+        command.run();
+      }
+      finally {
+        this.virtualActive.decrementAndGet();
+        this.virtualPermits.release();
+      }
+    });
+  }
+
+  /**
+   * @return The number of submitted tasks waiting to start
+   */
+  public int queueDepth() {
+    return this.platformPool != null ? this.platformPool.getQueue().size() : this.virtualWaiting.get();
+  }
+
+  /**
+   * @return The number of tasks currently running
+   */
+  public int activeCount() {
+    return this.platformPool != null ? this.platformPool.getActiveCount() : this.virtualActive.get();
+  }
+
+  public boolean isVirtual() {
+    return this.virtualThreads != null;
+  }
+
+  /**
+   * Stops accepting tasks and waits for running and queued tasks to finish.
+   */
+  @Override
+  public void close() {
+    if (this.platformPool != null) {
+      this.platformPool.close();
+    }
+    else {
+      this.virtualThreads.close();
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public static class Builder {
+    private boolean virtual = false;
+    private int threads = CORES;
+    private int queueCapacity = 0;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.REJECT;
+    private String threadName = "render";
+
+    private Builder() {
+    }
+
+    /**
+     * @param virtual Whether to run each task on a virtual thread instead of a fixed platform pool
+     */
+    public Builder virtual(boolean virtual) {
+      this.virtual = virtual;
+      return this;
+    }
+
+    /**
+     * @param threads The pool size in platform mode, or the most tasks running at once in virtual mode
+     */
+    public Builder threads(int threads) {
+      this.threads = Math.max(1, threads);
+      return this;
+    }
+
+    /**
+     * @param queueCapacity The most tasks waiting to start, or 0 for no limit
+     * @param policy        What happens to tasks submitted while the queue is full
+     */
+    public Builder boundedQueue(int queueCapacity, @NotNull OverflowPolicy policy) {
+      this.queueCapacity = Math.max(0, queueCapacity);
+      this.overflowPolicy = policy;
+      return this;
+    }
+
+    public Builder threadName(@NotNull String threadName) {
+      this.threadName = threadName;
+      return this;
+    }
+
+    public RenderExecutor build() {
+      return new RenderExecutor(this);
+    }
+  }
+}
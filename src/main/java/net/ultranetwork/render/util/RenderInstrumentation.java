@@ -0,0 +1,187 @@
+package net.ultranetwork.render.util;
+
+import java.util.function.Supplier;
+import jdk.jfr.EventType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reports render stages to the installed {@link RenderMetrics} and as JDK Flight Recorder events
+ * ({@code net.ultranetwork.render.Stage} and {@code net.ultranetwork.render.HeadMiss}).
+ * <p>
+ * With no listener installed and the events disabled in the recording settings, starting a stage
+ * allocates nothing and returns a shared span that does nothing, so the instrumentation can stay in
+ * place. Hot paths start and end spans directly rather than through {@link #time}, whose task is
+ * usually a capturing lambda allocated on every call.
+ */
+public final class RenderInstrumentation {
+  // Checked before building events, which would otherwise be allocated only to find them disabled
+  private static final EventType STAGE_EVENT = EventType.getEventType(RenderStageEvent.class);
+  private static final EventType HEAD_MISS_EVENT = EventType.getEventType(HeadMissEvent.class);
+
+  private static volatile RenderMetrics metrics = null;
+
+  private RenderInstrumentation() {
+  }
+
+  /**
+   * @param metrics The listener to report to, or null to stop reporting
+   */
+  public static void install(@Nullable RenderMetrics metrics) {
+    RenderInstrumentation.metrics = metrics;
+  }
+
+  /**
+   * @return The installed listener, or null if there is none
+   */
+  @Nullable
+  public static RenderMetrics installed() {
+    return metrics;
+  }
+
+  /**
+   * @param stage The stage starting now
+   * @return The span to end once the stage completes or fails
+   */
+  @NotNull
+  public static Span start(@NotNull RenderMetrics.Stage stage) {
+    final RenderMetrics listener = metrics;
+    final boolean recorded = STAGE_EVENT.isEnabled();
+
+    if (listener == null && !recorded) {
+      return Span.DISABLED;
+    }
+
+    final RenderStageEvent event = recorded ? new RenderStageEvent() : null;
+    if (event != null) {
+      event.begin();
+    }
+
+    return new Span(stage, listener, event, System.nanoTime());
+  }
+
+  /**
+   * Runs and times a task. Prefer {@link #start} on hot paths, as a capturing task is allocated on
+   * every call even when nothing is reported.
+   *
+   * @param stage The stage the task performs
+   * @param task  The task to run and time
+   * @return What the task returned
+   */
+  public static <T> T time(@NotNull RenderMetrics.Stage stage, @NotNull Supplier<T> task) {
+    final Span span = start(stage);
+
+    try {
+      final T result = task.get();
+      span.end();
+      return result;
+    }
+    catch (RuntimeException | Error e) {
+      span.fail(e);
+      throw e;
+    }
+  }
+
+  /**
+   * @param playerName The player whose head could not be found or fetched
+   */
+  public static void headMissed(@NotNull String playerName) {
+    final RenderMetrics listener = metrics;
+    if (listener != null) {
+      listener.headMissed(playerName);
+    }
+
+    if (!HEAD_MISS_EVENT.isEnabled()) {
+      return;
+    }
+
+    final HeadMissEvent event = new HeadMissEvent();
+    if (event.shouldCommit()) {
+      event.player = playerName;
+      event.commit();
+    }
+  }
+
+  /**
+   * One timed run of a stage. Only the first call to an end method counts.
+   */
+  public static final class Span {
+    private static final Span DISABLED = new Span(null, null, null, 0);
+
+    private final RenderMetrics.Stage stage;
+    private final RenderMetrics listener;
+    private final RenderStageEvent event; // null when no recording has the event enabled
+    private final long startNanos;
+    private boolean ended;
+
+    private Span(RenderMetrics.Stage stage, RenderMetrics listener, RenderStageEvent event, long startNanos) {
+      this.stage = stage;
+      this.listener = listener;
+      this.event = event;
+      this.startNanos = startNanos;
+    }
+
+    /**
+     * Ends the stage successfully.
+     */
+    public void end() {
+      end(null, 0);
+    }
+
+    /**
+     * Ends an {@link RenderMetrics.Stage#ENCODE} stage successfully.
+     *
+     * @param bytes The size of the encoded image
+     */
+    public void encoded(long bytes) {
+      end(null, bytes);
+    }
+
+    /**
+     * @param cause Why the stage failed
+     */
+    public void fail(@NotNull Throwable cause) {
+      end(cause, 0);
+    }
+
+    private void end(Throwable cause, long bytes) {
+      if (this.stage == null) {
+        return; // The shared disabled span
+      }
+
+      synchronized (this) {
+        if (this.ended) {
+          return;
+        }
+
+        this.ended = true;
+      }
+
+      final long nanos = System.nanoTime() - this.startNanos;
+
+      if (this.event != null) {
+        this.event.end();
+        if (this.event.shouldCommit()) {
+          this.event.stage = this.stage.name();
+          this.event.failed = cause != null;
+          this.event.bytes = bytes;
+          this.event.commit();
+        }
+      }
+
+      if (this.listener == null) {
+        return;
+      }
+
+      if (cause != null) {
+        this.listener.stageFailed(this.stage, cause);
+        return;
+      }
+
+      this.listener.stageCompleted(this.stage, nanos);
+      if (bytes > 0) {
+        this.listener.imageEncoded(bytes);
+      }
+    }
+  }
+}
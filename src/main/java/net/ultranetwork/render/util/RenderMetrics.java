@@ -0,0 +1,61 @@
+package net.ultranetwork.render.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives timings and counters from every render, once installed with
+ * {@link RenderInstrumentation#install(RenderMetrics)}.
+ * <p>
+ * Methods are called on the render threads, so implementations must be thread safe, quick and must not
+ * throw. Every method does nothing by default.
+ */
+public interface RenderMetrics {
+
+  /**
+   * The timed parts of a render.
+   */
+  enum Stage {
+    /**
+     * Waiting for player heads, from the first request until the last one completes.
+     */
+    HEAD_FETCH,
+    /**
+     * Measuring text and working out where everything goes.
+     */
+    LAYOUT,
+    /**
+     * Drawing the layout into an image.
+     */
+    PAINT,
+    /**
+     * Encoding an image to PNG.
+     */
+    ENCODE
+  }
+
+  /**
+   * @param stage The stage that completed
+   * @param nanos How long it took
+   */
+  default void stageCompleted(@NotNull Stage stage, long nanos) {
+  }
+
+  /**
+   * @param stage The stage that failed
+   * @param cause Why it failed
+   */
+  default void stageFailed(@NotNull Stage stage, @NotNull Throwable cause) {
+  }
+
+  /**
+   * @param playerName The player whose head could not be found or fetched
+   */
+  default void headMissed(@NotNull String playerName) {
+  }
+
+  /**
+   * @param bytes The size of an encoded image
+   */
+  default void imageEncoded(long bytes) {
+  }
+}
@@ -0,0 +1,26 @@
+package net.ultranetwork.render.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("net.ultranetwork.render.Stage")
+@Label("Render Stage")
+@Category({"Ultra Network", "Rendering"})
+@Description("Head fetching, layout, painting or encoding for one render")
+@StackTrace(false)
+final class RenderStageEvent extends Event {
+  @Label("Stage")
+  String stage;
+
+  @Label("Failed")
+  boolean failed;
+
+  @Label("Encoded Size")
+  @DataAmount
+  long bytes;
+}
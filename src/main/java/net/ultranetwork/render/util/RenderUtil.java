@@ -5,45 +5,71 @@ import java.awt.Font;
 import java.awt.FontFormatException;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
-import java.awt.GraphicsEnvironment;
 import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
-import net.kyori.adventure.text.format.Style;
 import net.kyori.adventure.text.format.TextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public final class RenderUtil {
+  private static final System.Logger LOGGER = System.getLogger(RenderUtil.class.getName());
+
+  static final String MINECRAFT_FONT_RESOURCE = "/minecraft_font.ttf";
+  static final float MINECRAFT_FONT_SIZE = 16f;
+
   public static final Color DEFAULT_TEXT_COLOUR = Color.WHITE;
   public static final Font MINECRAFT_FONT;
 
-  private static final Set<Character> NO_BOLD_OFFSET_CHARS = Set.of( // todo maybe just calculate how fat the character is in font instead?
-      ':', '.', ',', ';', '\'', '`', '!', '|'
-  );
+  /**
+   * The CRC32 of the bundled font file, or -1 if it could not be loaded
+   */
+  static final long MINECRAFT_FONT_CHECKSUM;
+
+  private static final Map<Integer, Color> INTERNED_COLOURS = new ConcurrentHashMap<>();
 
   static {
     Font loadedFont;
+    long checksum = -1;
 
-    try (InputStream inputStream = RenderUtil.class.getResourceAsStream("/__minecraft_font.ttf")) {
+    try (InputStream inputStream = RenderUtil.class.getResourceAsStream(MINECRAFT_FONT_RESOURCE)) {
       if (inputStream == null) {
-        throw new IOException("Could not find minecraft_font.ttf in resources");
+        throw new IOException("Could not find " + MINECRAFT_FONT_RESOURCE + " in resources");
       }
 
-      loadedFont = Font.createFont(Font.TRUETYPE_FONT, inputStream).deriveFont(16f);
-      GraphicsEnvironment.getLocalGraphicsEnvironment().registerFont(loadedFont);
+      final byte[] fontBytes = inputStream.readAllBytes();
+      loadedFont = Font.createFont(Font.TRUETYPE_FONT, new ByteArrayInputStream(fontBytes)).deriveFont(MINECRAFT_FONT_SIZE);
+      checksum = FontData.checksum(fontBytes);
     }
     catch (IOException | FontFormatException e) {
-      System.err.println("no font using default monoscaped");
-      e.printStackTrace();
-      loadedFont = new Font(Font.MONOSPACED, Font.PLAIN, 16);
+      LOGGER.log(System.Logger.Level.WARNING, "Failed to load the Minecraft font, using monospaced instead", e);
+      loadedFont = new Font(Font.MONOSPACED, Font.PLAIN, (int) MINECRAFT_FONT_SIZE);
     }
 
     MINECRAFT_FONT = loadedFont;
+    MINECRAFT_FONT_CHECKSUM = checksum;
+  }
+
+  /**
+   * Loads the font, its advance widths and glyphs, and the PNG encoder by rendering and encoding a
+   * short line, so the first real render does not pay for it. Call this while the plugin enables.
+   */
+  public static void warmUp() {
+    final CompiledText sample = CompiledText.compile(
+        Component.text("Warm up 0123456789 ").append(Component.text("bold").decorate(TextDecoration.BOLD)),
+        DEFAULT_TEXT_COLOUR);
+    final AdvanceTable advances = AdvanceTable.minecraft();
+    final BufferedImage image = new BufferedImage(sample.width() + 2, advances.ascent() * 2, BufferedImage.TYPE_INT_ARGB);
+
+    drawCompiledText(ArgbRaster.wrap(image), sample, 0, advances.ascent(), Color.DARK_GRAY);
+    PngEncoder.defaultEncoder().encode(image);
   }
 
   public static void applyMinecraftRenderingHints(Graphics2D graphics) {
@@ -62,7 +88,26 @@ public final class RenderUtil {
       @Nullable TextColor textColour,
       @NotNull Color defaultColour
   ) {
-    return (textColour != null) ? new Color(textColour.value()) : defaultColour;
+    return (textColour != null) ? internColour((0xff << 24) | textColour.value()) : defaultColour;
+  }
+
+  /**
+   * @param argb The non-premultiplied ARGB value
+   * @return A shared Color instance for the value
+   */
+  @NotNull
+  public static Color internColour(int argb) {
+    return INTERNED_COLOURS.computeIfAbsent(argb, value -> new Color(value, true));
+  }
+
+  /**
+   * @param component The Component to measure
+   * @return The width of the component in pixels when drawn with {@link #MINECRAFT_FONT}
+   */
+  public static int calculateComponentWidth(
+      @Nullable Component component
+  ) {
+    return CompiledText.of(component, DEFAULT_TEXT_COLOUR).width();
   }
 
   /**
@@ -74,6 +119,10 @@ public final class RenderUtil {
       @NotNull FontMetrics metrics,
       @Nullable Component component
   ) {
+    if (MINECRAFT_FONT.equals(metrics.getFont())) {
+      return calculateComponentWidth(AdvanceTable.minecraft(), component);
+    }
+
     if (component == null || Component.empty().equals(component)) {
       return 0;
     }
@@ -82,8 +131,9 @@ public final class RenderUtil {
     if (component instanceof TextComponent textComponent) {
       final String text = textComponent.content();
 
-      if (!(text.isEmpty())) {
-        width += metrics.stringWidth(text);
+      // Sum per character, the same way drawAdventureComponent advances
+      for (int i = 0; i < text.length(); i++) {
+        width += metrics.charWidth(text.charAt(i));
       }
     }
 
@@ -94,6 +144,31 @@ public final class RenderUtil {
     return width;
   }
 
+  /**
+   * @param advances  The advance table for the font being used
+   * @param component The Component to measure
+   * @return The width of the component in pixels
+   */
+  public static int calculateComponentWidth(
+      @NotNull AdvanceTable advances,
+      @Nullable Component component
+  ) {
+    if (component == null) {
+      return 0;
+    }
+
+    int width = 0;
+    if (component instanceof TextComponent textComponent) {
+      width += advances.width(textComponent.content());
+    }
+
+    for (Component child : component.children()) {
+      width += calculateComponentWidth(advances, child);
+    }
+
+    return width;
+  }
+
   /**
    * @param graphics      The Graphics2D context.
    * @param component     The Component to draw.
@@ -111,65 +186,163 @@ public final class RenderUtil {
       @NotNull Color defaultColour,
       @NotNull Color shadowColour
   ) {
-    if (component == null) {
-      return 0;
-    }
-
     final FontMetrics fm = graphics.getFontMetrics();
-    final Style style = component.style();
-    final Color colour = getAwtColour(style.color(), defaultColour);
-    final boolean isBold = style.hasDecoration(TextDecoration.BOLD);
-    int currentX = x;
-    int actualWidthDrawn = 0;
 
-    if (component instanceof TextComponent textComponent) {
-      final String text = textComponent.content();
+    return drawRuns(CompiledText.of(component, defaultColour), (character, charX, charY, argb, boldOffset) -> {
+      final String charStr = String.valueOf(character);
 
-      for (char character : text.toCharArray()) {
-        final String charStr = String.valueOf(character);
-        final int charWidth = fm.stringWidth(charStr);
+      // Draw shadow first
+      graphics.setColor(shadowColour);
+      graphics.drawString(charStr, charX + 1, charY + 1);
 
-        // Determine if bold offset should be skipped for this character
-        final boolean skipBoldOffset = NO_BOLD_OFFSET_CHARS.contains(character);
+      // Apply extra shadow offset only if bold AND not skipping offset
+      if (boldOffset) {
+        graphics.drawString(charStr, charX + 2, charY + 1);
+      }
 
-        // Draw shadow first
-        graphics.setColor(shadowColour);
-        graphics.drawString(charStr, currentX + 1, y + 1);
+      // Draw text
+      graphics.setColor(internColour(argb));
+      graphics.drawString(charStr, charX, charY);
 
-        // Apply extra shadow offset only if bold AND not skipping offset
-        if (isBold && !skipBoldOffset) {
-          graphics.drawString(charStr, currentX + 2, y + 1);
-        }
+      // Apply bold offset draw only if bold AND not skipping offset
+      if (boldOffset) {
+        // Draw again slightly offset for visual bold effect
+        graphics.drawString(charStr, charX + 1, charY);
+      }
 
-        // Draw text
-        graphics.setColor(colour);
-        graphics.drawString(charStr, currentX, y);
+      return fm.stringWidth(charStr);
+    }, x, y);
+  }
 
-        // Apply bold offset draw only if bold AND not skipping offset
-        if (isBold && !skipBoldOffset) {
-          // Draw again slightly offset for visual bold effect
-          graphics.drawString(charStr, currentX + 1, y);
-        }
+  /**
+   * Draws using the pre-rasterized {@link GlyphAtlas} for {@link #MINECRAFT_FONT}, writing straight into
+   * the image's pixels. Falls back to Graphics2D if the image is not TYPE_INT_ARGB.
+   *
+   * @param image         The image to draw into.
+   * @param component     The Component to draw.
+   * @param x             The starting X coordinate.
+   * @param y             The baseline Y coordinate for the text.
+   * @param defaultColour The default text colour if the component has no colour specified.
+   * @param shadowColour  The colour to use for the text shadow.
+   * @return The total pixel width drawn
+   */
+  public static int drawAdventureComponent(
+      @NotNull BufferedImage image,
+      @Nullable Component component,
+      int x,
+      int y,
+      @NotNull Color defaultColour,
+      @NotNull Color shadowColour
+  ) {
+    final ArgbRaster raster = ArgbRaster.of(image);
+
+    if (raster == null) {
+      final Graphics2D graphics = image.createGraphics();
+      graphics.setFont(MINECRAFT_FONT);
+      applyMinecraftRenderingHints(graphics);
 
-        currentX += charWidth; // Advance X ONLY by the characters metric width
-        actualWidthDrawn += charWidth;
+      try {
+        return drawAdventureComponent(graphics, component, x, y, defaultColour, shadowColour);
+      }
+      finally {
+        graphics.dispose();
       }
     }
 
-    // Recursively draw children, updating currentX
-    for (Component child : component.children()) {
-      final Color childDefaultColour = child.style().color() == null ? colour : getAwtColour(child.style().color(), Color.WHITE);
-      final Style childStyle = child.style();
-      final boolean childBoldExplicit = childStyle.decoration(TextDecoration.BOLD) != TextDecoration.State.NOT_SET;
-      final boolean childShouldBeBold = childBoldExplicit ? childStyle.hasDecoration(TextDecoration.BOLD) : isBold;
-      final Component effectiveChild = child.style(s -> s.decoration(TextDecoration.BOLD, childShouldBeBold));
-      final int childWidth = drawAdventureComponent(graphics, effectiveChild, currentX, y, childDefaultColour, shadowColour);
-
-      currentX += childWidth;
-      actualWidthDrawn += childWidth;
+    return drawCompiledText(raster, CompiledText.of(component, defaultColour), x, y, shadowColour);
+  }
+
+  /**
+   * @param raster       The raster to draw into.
+   * @param text         The compiled text to draw.
+   * @param x            The starting X coordinate.
+   * @param y            The baseline Y coordinate for the text.
+   * @param shadowColour The colour to use for the text shadow.
+   * @return The total pixel width drawn
+   */
+  public static int drawCompiledText(
+      @NotNull ArgbRaster raster,
+      @NotNull CompiledText text,
+      int x,
+      int y,
+      @NotNull Color shadowColour
+  ) {
+    final GlyphAtlas atlas = GlyphAtlas.minecraft();
+    final int shadowArgb = shadowColour.getRGB();
+
+    return drawRuns(text, (character, charX, charY, argb, boldOffset) -> {
+      final GlyphAtlas.Glyph glyph = atlas.glyph(character);
+
+      atlas.draw(raster, glyph, charX + 1, charY + 1, shadowArgb);
+
+      if (boldOffset) {
+        atlas.draw(raster, glyph, charX + 2, charY + 1, shadowArgb);
+      }
+
+      atlas.draw(raster, glyph, charX, charY, argb);
+
+      if (boldOffset) {
+        atlas.draw(raster, glyph, charX + 1, charY, argb);
+      }
+
+      return glyph.advance();
+    }, x, y);
+  }
+
+  /**
+   * @param raster       The raster to draw into.
+   * @param text         The compiled text to draw.
+   * @param x            The starting X coordinate.
+   * @param y            The baseline Y coordinate for the text.
+   * @param shadowColour The colour to use for the text shadow.
+   * @param spriteCache  The cache to draw the line from, or null to draw it glyph by glyph.
+   * @return The total pixel width drawn
+   */
+  public static int drawCompiledText(
+      @NotNull ArgbRaster raster,
+      @NotNull CompiledText text,
+      int x,
+      int y,
+      @NotNull Color shadowColour,
+      @Nullable TextSpriteCache spriteCache
+  ) {
+    return spriteCache != null
+        ? spriteCache.draw(raster, text, x, y, shadowColour)
+        : drawCompiledText(raster, text, x, y, shadowColour);
+  }
+
+  private static int drawRuns(
+      @NotNull CompiledText text,
+      @NotNull GlyphPainter painter,
+      int x,
+      int y
+  ) {
+    final AdvanceTable advances = AdvanceTable.minecraft();
+    int currentX = x;
+
+    for (int runIndex = 0; runIndex < text.runCount(); runIndex++) {
+      final CompiledText.Run run = text.run(runIndex);
+      final String runText = run.text();
+
+      for (int i = 0; i < runText.length(); i++) {
+        final char character = runText.charAt(i);
+
+        // Determine if bold offset should be skipped for this character
+        final boolean boldOffset = run.bold() && advances.boldExtra(character) != 0;
+
+        currentX += painter.paint(character, currentX, y, run.argb(), boldOffset); // Advance X ONLY by the characters metric width
+      }
     }
 
     // Return the actual calculated width based on metrics, not the final currentX which might include visual bold offsets
-    return actualWidthDrawn;
+    return currentX - x;
+  }
+
+  @FunctionalInterface
+  private interface GlyphPainter {
+    /**
+     * @return The advance width of the character
+     */
+    int paint(char character, int x, int y, int argb, boolean boldOffset);
   }
-}
\ No newline at end of file
+}
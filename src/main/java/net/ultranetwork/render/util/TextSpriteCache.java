@@ -0,0 +1,180 @@
+package net.ultranetwork.render.util;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Opt-in cache of whole text lines drawn once with their shadow and bold into small sprites, so a line
+ * seen before is drawn with a single blit instead of glyph by glyph.
+ * <p>
+ * Lines are keyed on their compiled runs and shadow colour, so the same lore line or rank prefix is
+ * shared between different tooltips and player lists. Compositing a sprite can differ from drawing the
+ * glyphs in place by one step of rounding where translucent pixels overlap. Least recently used sprites
+ * are evicted once their pixels exceed the memory limit.
+ */
+public final class TextSpriteCache {
+  private static final long DEFAULT_MAX_BYTES = 8L * 1024 * 1024;
+
+  private final LruCache<Key, Sprite> sprites;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  private record Key(CompiledText text, int shadowArgb) {
+  }
+
+  /**
+   * @param raster  The drawn line, or null if it has no visible pixels
+   * @param left    The x of the sprite's left edge relative to the pen start
+   * @param top     The y of the sprite's top edge relative to the baseline
+   * @param advance The width the line advances the pen by
+   */
+  private record Sprite(ArgbRaster raster, int left, int top, int advance) {
+    long bytes() {
+      return this.raster != null ? (long) this.raster.width() * this.raster.height() * Integer.BYTES : 0;
+    }
+  }
+
+  /**
+   * @param maxBytes The total size of sprite pixels kept before least recently used lines are evicted
+   */
+  public TextSpriteCache(long maxBytes) {
+    // Count every entry as at least one int so empty lines still count towards the limit
+    this.sprites = new LruCache<>(maxBytes, sprite -> Math.max(Integer.BYTES, sprite.bytes()));
+  }
+
+  /**
+   * Creates a cache holding up to 8 MiB of sprites.
+   */
+  public TextSpriteCache() {
+    this(DEFAULT_MAX_BYTES);
+  }
+
+  /**
+   * Draws the line like {@link RenderUtil#drawCompiledText(ArgbRaster, CompiledText, int, int, Color)},
+   * from a cached sprite when there is one.
+   *
+   * @param raster       The raster to draw into.
+   * @param text         The compiled text to draw.
+   * @param x            The starting X coordinate.
+   * @param y            The baseline Y coordinate for the text.
+   * @param shadowColour The colour to use for the text shadow.
+   * @return The total pixel width drawn
+   */
+  public int draw(
+      @NotNull ArgbRaster raster,
+      @NotNull CompiledText text,
+      int x,
+      int y,
+      @NotNull Color shadowColour
+  ) {
+    final Key key = new Key(text, shadowColour.getRGB());
+    Sprite sprite = this.sprites.get(key);
+
+    if (sprite != null) {
+      this.hits.incrementAndGet();
+    }
+    else {
+      this.misses.incrementAndGet();
+      sprite = render(text, shadowColour);
+      this.sprites.put(key, sprite);
+    }
+
+    if (sprite.raster() != null) {
+      raster.composite(sprite.raster(), x + sprite.left(), y + sprite.top());
+    }
+
+    return sprite.advance();
+  }
+
+  private static Sprite render(CompiledText text, Color shadowColour) {
+    final GlyphAtlas atlas = GlyphAtlas.minecraft();
+    final AdvanceTable advances = AdvanceTable.minecraft();
+
+    // Bounds of every mask drawn, shadow and bold copies included, relative to the pen start and baseline
+    int minX = Integer.MAX_VALUE;
+    int minY = Integer.MAX_VALUE;
+    int maxX = Integer.MIN_VALUE;
+    int maxY = Integer.MIN_VALUE;
+    int penX = 0;
+
+    for (int runIndex = 0; runIndex < text.runCount(); runIndex++) {
+      final CompiledText.Run run = text.run(runIndex);
+      final String runText = run.text();
+
+      for (int i = 0; i < runText.length(); i++) {
+        final char character = runText.charAt(i);
+        final GlyphAtlas.Glyph glyph = atlas.glyph(character);
+
+        if (glyph.width() > 0) {
+          final int boldExtra = run.bold() && advances.boldExtra(character) != 0 ? 1 : 0;
+          minX = Math.min(minX, penX + glyph.offsetX());
+          minY = Math.min(minY, glyph.offsetY());
+          maxX = Math.max(maxX, penX + glyph.offsetX() + glyph.width() + 1 + boldExtra);
+          maxY = Math.max(maxY, glyph.offsetY() + glyph.height() + 1);
+        }
+
+        penX += glyph.advance();
+      }
+    }
+
+    if (minX == Integer.MAX_VALUE) {
+      return new Sprite(null, 0, 0, penX);
+    }
+
+    final BufferedImage image = new BufferedImage(maxX - minX, maxY - minY, BufferedImage.TYPE_INT_ARGB);
+    final ArgbRaster raster = ArgbRaster.wrap(image);
+    final int advance = RenderUtil.drawCompiledText(raster, text, -minX, -minY, shadowColour);
+
+    return new Sprite(raster, minX, minY, advance);
+  }
+
+  /**
+   * @return The number of lines drawn from a cached sprite
+   */
+  public long hits() {
+    return this.hits.get();
+  }
+
+  /**
+   * @return The number of lines that had to be drawn into a new sprite
+   */
+  public long misses() {
+    return this.misses.get();
+  }
+
+  /**
+   * @return The fraction of lines drawn from a cached sprite, or 0 before any were drawn
+   */
+  public double hitRatio() {
+    final long hits = this.hits.get();
+    final long total = hits + this.misses.get();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  /**
+   * @return The number of sprites evicted to stay under the memory limit
+   */
+  public long evictions() {
+    return this.sprites.evictions();
+  }
+
+  /**
+   * @return The number of cached sprites
+   */
+  public int size() {
+    return this.sprites.size();
+  }
+
+  /**
+   * @return The total size of cached sprite pixels in bytes
+   */
+  public long bytes() {
+    return this.sprites.weight();
+  }
+
+  public void clear() {
+    this.sprites.clear();
+  }
+}
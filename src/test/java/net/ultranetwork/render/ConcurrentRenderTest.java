@@ -0,0 +1,88 @@
+package net.ultranetwork.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Renders the {@link GoldenCorpus} from many threads at once, through the shared glyph, text and
+ * layout caches, and checks every render matches a single threaded one.
+ * <p>
+ * The thread and round counts can be raised with {@code -Drender.threads} and {@code -Drender.rounds}
+ * to use it as a load test; renders per second are printed either way.
+ */
+class ConcurrentRenderTest {
+  private static final int THREADS = Integer.getInteger("render.threads",
+      Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+  private static final int ROUNDS = Integer.getInteger("render.rounds", 10);
+
+  @Test
+  void rendersDeterministicallyUnderLoad() throws Exception {
+    final List<GoldenCorpus.Case> cases = GoldenCorpus.cases();
+    final Map<String, String> expected = new HashMap<>();
+
+    for (GoldenCorpus.Case testCase : cases) {
+      expected.put(testCase.name(), GoldenCorpus.hash(testCase.render().get().join()));
+    }
+
+    final ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+    final CountDownLatch start = new CountDownLatch(1);
+    final Queue<String> mismatches = new ConcurrentLinkedQueue<>();
+    final AtomicLong renders = new AtomicLong();
+    final List<Future<?>> workers = new ArrayList<>();
+
+    try {
+      for (int thread = 0; thread < THREADS; thread++) {
+        final int offset = thread;
+
+        workers.add(threads.submit(() -> {
+          start.await();
+
+          for (int round = 0; round < ROUNDS; round++) {
+            // Each thread walks the cases from a different place, so different cases overlap
+            for (int i = 0; i < cases.size(); i++) {
+              final GoldenCorpus.Case testCase = cases.get((i + offset) % cases.size());
+              final String hash = GoldenCorpus.hash(testCase.render().get().join());
+
+              if (!hash.equals(expected.get(testCase.name()))) {
+                mismatches.add(testCase.name() + " on thread " + offset + " round " + round);
+              }
+
+              renders.incrementAndGet();
+            }
+          }
+
+          return null;
+        }));
+      }
+
+      final long startNanos = System.nanoTime();
+      start.countDown();
+
+      for (Future<?> worker : workers) {
+        worker.get(5, TimeUnit.MINUTES);
+      }
+
+      final double seconds = (System.nanoTime() - startNanos) / 1e9;
+      System.out.printf("%d renders on %d threads in %.2fs: %.0f renders/sec%n",
+          renders.get(), THREADS, seconds, renders.get() / seconds);
+    }
+    finally {
+      threads.shutdownNow();
+    }
+
+    assertEquals(List.of(), List.copyOf(mismatches), "Renders that differed from the single threaded render");
+  }
+}
@@ -0,0 +1,166 @@
+package net.ultranetwork.render;
+
+import java.awt.image.BufferedImage;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.ultranetwork.render.item.ItemImageRenderer;
+import net.ultranetwork.render.item.TooltipSnapshot;
+import net.ultranetwork.render.playerlist.PlayerListName;
+import net.ultranetwork.render.playerlist.PlayerListRenderer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The canonical inputs golden images are kept for. Every case builds its renderer afresh, so cases
+ * can be rendered from any thread, and nothing touches Bukkit so no server is needed.
+ */
+final class GoldenCorpus {
+  private static final int[] PINGS = {-1, 0, 10, 149, 150, 299, 300, 599, 600, 999, 1000, 5000, Integer.MAX_VALUE, -250};
+
+  /**
+   * @param name   The case name, also its key in the golden file
+   * @param render Starts a render of the case
+   */
+  record Case(@NotNull String name, @NotNull Supplier<CompletableFuture<BufferedImage>> render) {
+    @Override
+    public String toString() {
+      return this.name;
+    }
+  }
+
+  private GoldenCorpus() {
+  }
+
+  @NotNull
+  static List<Case> cases() {
+    final List<Case> cases = new ArrayList<>();
+
+    cases.add(new Case("item_plain", () -> item(new TooltipSnapshot(
+        Component.text("Diamond Pickaxe", NamedTextColor.WHITE), 1, List.of())).build()));
+    cases.add(new Case("item_bold_nested", () -> item(new TooltipSnapshot(
+        Component.text("Excalibur ", NamedTextColor.GOLD).decorate(TextDecoration.BOLD)
+            .append(Component.text("of ", NamedTextColor.AQUA).decoration(TextDecoration.BOLD, false)
+                .append(Component.text("the ", NamedTextColor.GREEN).decorate(TextDecoration.ITALIC)))
+            .append(Component.text("Light!:.", NamedTextColor.YELLOW)),
+        3,
+        List.of(
+            Component.text("Bold ", NamedTextColor.RED, TextDecoration.BOLD)
+                .append(Component.text("inherits ", TextColor.color(0x55aa33)))
+                .append(Component.text("until unset", NamedTextColor.GRAY).decoration(TextDecoration.BOLD, false)),
+            Component.empty(),
+            Component.text("Rarity: LEGENDARY", NamedTextColor.GOLD, TextDecoration.BOLD)))).build()));
+    cases.add(new Case("item_long_lore", () -> item(new TooltipSnapshot(
+        Component.text("Tome of Everything", NamedTextColor.LIGHT_PURPLE), 1, longLore())).build()));
+    cases.add(new Case("item_unicode", () -> item(new TooltipSnapshot(
+        Component.text("Épée ", NamedTextColor.AQUA).append(Component.text("Меч ✦ ß", NamedTextColor.YELLOW)),
+        64,
+        List.of(Component.text("ÀÉÎÕÜ àéîõü ñ ¿¡", NamedTextColor.GRAY)))).build()));
+    cases.add(new Case("item_tight_scaled", () -> item(new TooltipSnapshot(
+        Component.text("Compact", NamedTextColor.GREEN), 1, List.of(Component.text("x2", NamedTextColor.GRAY))))
+        .padding(2)
+        .lineSpacing(0)
+        .scale(2)
+        .build()));
+
+    cases.add(new Case("list_empty", () -> PlayerListRenderer.builder().executor(Runnable::run).build()));
+    cases.add(new Case("list_pings", () -> players(PINGS.length, false).build()));
+    cases.add(new Case("list_many_hidden", () -> players(250, false).build()));
+    cases.add(new Case("list_heads", () -> players(30, true).headProvider(GoldenCorpus::head).build()));
+    cases.add(new Case("list_missing_heads", () -> players(30, true)
+        .headProvider(name -> CompletableFuture.completedFuture(null))
+        .build()));
+    cases.add(new Case("list_page_two", () -> players(250, false).paginate().page(1)));
+
+    return cases;
+  }
+
+  /**
+   * @param image The image to hash
+   * @return The size and the SHA-256 of the ARGB pixels, row major
+   */
+  @NotNull
+  static String hash(@NotNull BufferedImage image) {
+    final int width = image.getWidth();
+    final int height = image.getHeight();
+    final int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+    final byte[] bytes = new byte[pixels.length * 4];
+
+    for (int i = 0; i < pixels.length; i++) {
+      bytes[i * 4] = (byte) (pixels[i] >>> 24);
+      bytes[i * 4 + 1] = (byte) (pixels[i] >>> 16);
+      bytes[i * 4 + 2] = (byte) (pixels[i] >>> 8);
+      bytes[i * 4 + 3] = (byte) pixels[i];
+    }
+
+    try {
+      return width + "x" + height + ":" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+    catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static ItemImageRenderer.Builder item(TooltipSnapshot snapshot) {
+    return ItemImageRenderer.builder().snapshot(snapshot).executor(Runnable::run);
+  }
+
+  private static List<Component> longLore() {
+    final List<Component> lore = new ArrayList<>();
+
+    for (int i = 0; i < 40; i++) {
+      lore.add(Component.text("Line " + i + ": ", NamedTextColor.GRAY)
+          .append(Component.text("value " + i * 37, TextColor.color(0x55aa33 + i)).decorate(TextDecoration.BOLD))
+          .append(Component.text(" ||;;'' the quick brown fox jumps over the lazy dog", NamedTextColor.DARK_PURPLE)));
+    }
+
+    return lore;
+  }
+
+  private static PlayerListRenderer.Builder players(int count, boolean heads) {
+    final PlayerListRenderer.Builder builder = PlayerListRenderer.builder()
+        .header(Component.text("Welcome to ", NamedTextColor.AQUA)
+            .append(Component.text("Ultra", NamedTextColor.GOLD, TextDecoration.BOLD)))
+        .showNameHeads(heads)
+        .executor(Runnable::run);
+
+    for (int i = 0; i < count; i++) {
+      builder.name(PlayerListName.of(
+          Component.text("[R" + i % 3 + "] ", NamedTextColor.RED).append(Component.text("Player" + i, NamedTextColor.WHITE)),
+          PINGS[i % PINGS.length],
+          "Player" + i,
+          i % 3,
+          new UUID(0, i)));
+    }
+
+    return builder;
+  }
+
+  /**
+   * A made up head per name, with some players missing one, so no network is needed.
+   */
+  private static CompletableFuture<BufferedImage> head(String name) {
+    final int seed = name.hashCode();
+
+    if (Math.floorMod(seed, 4) == 0) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    final BufferedImage head = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+    for (int y = 0; y < 8; y++) {
+      for (int x = 0; x < 8; x++) {
+        head.setRGB(x, y, 0xff000000 | (seed * 31 + x * 0x1f0b + y * 0x0b1f00) & 0xffffff);
+      }
+    }
+
+    return CompletableFuture.completedFuture(head);
+  }
+}
@@ -0,0 +1,98 @@
+package net.ultranetwork.render;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Renders every {@link GoldenCorpus} case and checks it matches its stored hash pixel for pixel.
+ * <p>
+ * Mismatching images are written to {@code build/golden} for inspection. After an intended change to
+ * the output, run {@code ./gradlew test -PupdateGolden=true} and copy {@code build/golden/golden.properties}
+ * over the stored one once the images there look right.
+ */
+class GoldenImageTest {
+  private static final String GOLDEN_RESOURCE = "/net/ultranetwork/render/golden.properties";
+  private static final boolean UPDATE = Boolean.getBoolean("golden.update");
+
+  private static final Properties golden = new Properties();
+  private static final Properties actual = new Properties();
+
+  @BeforeAll
+  static void loadGolden() throws IOException {
+    try (InputStream is = GoldenImageTest.class.getResourceAsStream(GOLDEN_RESOURCE)) {
+      if (is == null && UPDATE) {
+        return; // Generating the first golden file
+      }
+
+      assertNotNull(is, "Missing " + GOLDEN_RESOURCE);
+      golden.load(is);
+    }
+  }
+
+  @AfterAll
+  static void writeActual() throws IOException {
+    if (!UPDATE) {
+      return;
+    }
+
+    final Path output = outputDirectory().resolve("golden.properties");
+    try (OutputStream os = Files.newOutputStream(output)) {
+      actual.store(os, "Generated by GoldenImageTest, review the images before replacing " + GOLDEN_RESOURCE);
+    }
+  }
+
+  static List<GoldenCorpus.Case> cases() {
+    return GoldenCorpus.cases();
+  }
+
+  @ParameterizedTest
+  @MethodSource("cases")
+  void matchesGolden(GoldenCorpus.Case testCase) throws Exception {
+    final BufferedImage image = testCase.render().get().get(30, TimeUnit.SECONDS);
+    final String hash = GoldenCorpus.hash(image);
+    final String expected = golden.getProperty(testCase.name());
+
+    synchronized (actual) {
+      actual.setProperty(testCase.name(), hash);
+    }
+
+    if (UPDATE || !hash.equals(expected)) {
+      ImageIO.write(image, "png", outputDirectory().resolve(testCase.name() + ".png").toFile());
+    }
+
+    if (!UPDATE) {
+      assertEquals(expected, hash, testCase.name() + " no longer matches its golden image, see build/golden");
+    }
+  }
+
+  @Test
+  void everyGoldenHasACase() {
+    final Set<String> stored = new TreeSet<>(golden.stringPropertyNames());
+    stored.removeAll(cases().stream().map(GoldenCorpus.Case::name).collect(Collectors.toSet()));
+
+    assertEquals(Set.of(), stored, "Golden hashes without a case");
+  }
+
+  private static Path outputDirectory() throws IOException {
+    return Files.createDirectories(Path.of(System.getProperty("golden.output", "build/golden")));
+  }
+}
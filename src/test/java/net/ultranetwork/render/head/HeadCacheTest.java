@@ -0,0 +1,242 @@
+package net.ultranetwork.render.head;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs {@link HeadCache} against a local HTTP server standing in for the head service. Every test uses
+ * its own player name, so the server's counts are per test.
+ */
+class HeadCacheTest {
+  private static final String ETAG = "\"v1\"";
+  private static final Duration TTL = Duration.ofMinutes(10);
+  private static final long TIMEOUT_SECONDS = 10;
+
+  private static final Map<String, AtomicInteger> REQUESTS = new ConcurrentHashMap<>();
+  private static final Map<String, AtomicInteger> NOT_MODIFIED = new ConcurrentHashMap<>();
+  private static final Map<String, CountDownLatch> HELD = new ConcurrentHashMap<>();
+  private static final Map<String, CountDownLatch> ARRIVED = new ConcurrentHashMap<>();
+
+  private static HttpServer server;
+  private static ExecutorService serverExecutor;
+  private static ExecutorService ioPool;
+  private static byte[] head;
+
+  @BeforeAll
+  static void startServer() throws IOException {
+    final BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB);
+    image.setRGB(3, 5, 0xff336699);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", out);
+    head = out.toByteArray();
+
+    serverExecutor = Executors.newCachedThreadPool();
+    ioPool = Executors.newCachedThreadPool();
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", HeadCacheTest::serve);
+    server.setExecutor(serverExecutor);
+    server.start();
+  }
+
+  @AfterAll
+  static void stopServer() {
+    server.stop(0);
+    serverExecutor.shutdownNow();
+    ioPool.shutdownNow();
+  }
+
+  @Test
+  void concurrentFetchesShareOneRequest() throws Exception {
+    final String name = "flight";
+    final CountDownLatch release = hold(name);
+    final HeadCache cache = cache(new MutableClock(), null);
+
+    final List<CompletableFuture<BufferedImage>> fetches = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      fetches.add(cache.fetchHead(name));
+    }
+
+    awaitArrival(name);
+    release.countDown();
+
+    for (CompletableFuture<BufferedImage> fetch : fetches) {
+      assertNotNull(fetch.get(TIMEOUT_SECONDS, TimeUnit.SECONDS), "Head");
+    }
+
+    assertEquals(1, requests(name), "Requests upstream");
+  }
+
+  @Test
+  void revalidatesWithNotModified() throws Exception {
+    final String name = "revalidated";
+    final MutableClock clock = new MutableClock();
+    final Semaphore ioTasks = new Semaphore(0);
+    final HeadCache cache = cache(clock, ioTasks);
+
+    final BufferedImage fetched = cache.fetchHead(name).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertNotNull(fetched, "Head");
+    // The disk lookup and the response
+    assertTrue(ioTasks.tryAcquire(2, TIMEOUT_SECONDS, TimeUnit.SECONDS), "Fetch finished");
+
+    clock.advance(TTL.plusSeconds(1));
+    cache.fetchHead(name);
+
+    // The 304 is handled on the I/O executor, which also puts the refreshed entry back
+    assertTrue(ioTasks.tryAcquire(TIMEOUT_SECONDS, TimeUnit.SECONDS), "Revalidation finished");
+    assertEquals(2, requests(name), "Requests upstream");
+    assertEquals(1, notModified(name), "Answered with 304");
+
+    final CompletableFuture<BufferedImage> again = cache.fetchHead(name);
+    assertTrue(again.isDone(), "Served from memory");
+    assertTrue(again.get() == fetched, "Kept the cached head");
+    assertEquals(2, requests(name), "Requests upstream once fresh again");
+  }
+
+  @Test
+  void servesStaleWhileRevalidating() throws Exception {
+    final String name = "stale";
+    final MutableClock clock = new MutableClock();
+    final HeadCache cache = cache(clock, null);
+
+    final BufferedImage fetched = cache.fetchHead(name).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertNotNull(fetched, "Head");
+
+    final CountDownLatch release = hold(name);
+    clock.advance(TTL.plusSeconds(1));
+
+    final CompletableFuture<BufferedImage> stale = cache.fetchHead(name);
+    assertTrue(stale.isDone(), "Stale head served without waiting");
+    assertTrue(stale.get() == fetched, "Stale head");
+
+    awaitArrival(name);
+    assertTrue(cache.fetchHead(name).isDone(), "Stale head served while revalidating");
+    release.countDown();
+
+    assertEquals(2, requests(name), "Requests upstream");
+  }
+
+  private static HeadCache cache(Clock clock, Semaphore ioTasks) {
+    final HttpHeadProvider upstream = HttpHeadProvider.builder()
+        .baseUrl("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/")
+        .build();
+
+    return HeadCache.builder()
+        .upstream(upstream)
+        .ttl(TTL)
+        .clock(clock)
+        .ioExecutor(task -> ioPool.execute(() -> {
+          task.run();
+
+          if (ioTasks != null) {
+            ioTasks.release();
+          }
+        }))
+        .build();
+  }
+
+  private static void serve(HttpExchange exchange) throws IOException {
+    final String name = exchange.getRequestURI().getPath().split("/")[1];
+    REQUESTS.computeIfAbsent(name, key -> new AtomicInteger()).incrementAndGet();
+    ARRIVED.computeIfAbsent(name, key -> new CountDownLatch(1)).countDown();
+
+    try (exchange) {
+      final CountDownLatch held = HELD.get(name);
+      if (held != null && !held.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        exchange.sendResponseHeaders(500, -1);
+        return;
+      }
+
+      if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+        NOT_MODIFIED.computeIfAbsent(name, key -> new AtomicInteger()).incrementAndGet();
+        exchange.sendResponseHeaders(304, -1);
+        return;
+      }
+
+      exchange.getResponseHeaders().set("Content-Type", "image/png");
+      exchange.getResponseHeaders().set("ETag", ETAG);
+      exchange.sendResponseHeaders(200, head.length);
+
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(head);
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * @return A latch the server waits on before answering the next requests for the name
+   */
+  private static CountDownLatch hold(String name) {
+    final CountDownLatch release = new CountDownLatch(1);
+    HELD.put(name, release);
+    ARRIVED.put(name, new CountDownLatch(1));
+    return release;
+  }
+
+  private static void awaitArrival(String name) throws InterruptedException {
+    assertTrue(ARRIVED.get(name).await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "Request reached the server");
+  }
+
+  private static int requests(String name) {
+    return REQUESTS.getOrDefault(name, new AtomicInteger()).get();
+  }
+
+  private static int notModified(String name) {
+    return NOT_MODIFIED.getOrDefault(name, new AtomicInteger()).get();
+  }
+
+  private static final class MutableClock extends Clock {
+    private volatile Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      this.now = this.now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return this.now;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package net.ultranetwork.render.head;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks {@link HeadStore} against a map: lookups after puts and removals, and which heads a full
+ * store drops.
+ */
+class HeadStoreTest {
+
+  @Test
+  void storesAndReplacesHeads() {
+    final HeadStore store = new HeadStore(4);
+    final UUID uuid = UUID.randomUUID();
+
+    store.put(uuid, head(1), 0);
+    assertHead(store, uuid, 1);
+
+    store.put(uuid, head(2), 0);
+    assertHead(store, uuid, 2);
+    assertEquals(1, store.size(), "Replacing keeps one head");
+
+    // Heads can sit anywhere in the source array
+    final int[] padded = new int[HeadStore.HEAD_PIXELS + 7];
+    System.arraycopy(head(3), 0, padded, 7, HeadStore.HEAD_PIXELS);
+    store.put(uuid, padded, 7);
+    assertHead(store, uuid, 3);
+
+    final BufferedImage image = store.image(uuid);
+    assertTrue(image != null && Arrays.equals(head(3), image.getRGB(0, 0, 16, 16, null, 0, 16)), "Image of the head");
+    assertNull(store.image(UUID.randomUUID()), "Image of an unknown player");
+  }
+
+  @Test
+  void dropsTheOldestHeadsWhenFull() {
+    final HeadStore store = new HeadStore(3);
+    final List<UUID> players = new ArrayList<>();
+
+    for (int i = 0; i < 5; i++) {
+      players.add(UUID.randomUUID());
+      store.put(players.get(i), head(i), 0);
+    }
+
+    assertEquals(3, store.size(), "Size once full");
+    assertFalse(store.contains(players.get(0)), "First head dropped");
+    assertFalse(store.contains(players.get(1)), "Second head dropped");
+    for (int i = 2; i < 5; i++) {
+      assertHead(store, players.get(i), i);
+    }
+
+    // A removed head frees its slot, so the next head drops nothing
+    assertTrue(store.remove(players.get(3)), "Removed");
+    assertFalse(store.remove(players.get(3)), "Removed twice");
+    final UUID next = UUID.randomUUID();
+    store.put(next, head(9), 0);
+
+    assertEquals(3, store.size(), "Size after reusing the slot");
+    assertHead(store, players.get(2), 2);
+    assertHead(store, players.get(4), 4);
+    assertHead(store, next, 9);
+  }
+
+  @Test
+  void matchesAMapThroughPutsAndRemovals() {
+    // Enough slots that nothing is dropped, and few enough players that probe runs overlap
+    final HeadStore store = new HeadStore(256);
+    final Map<UUID, Integer> expected = new HashMap<>();
+    final UUID[] players = new UUID[200];
+    final Random random = new Random(3);
+
+    for (int i = 0; i < players.length; i++) {
+      players[i] = new UUID(random.nextLong(), random.nextLong());
+    }
+
+    for (int step = 0; step < 20_000; step++) {
+      final UUID uuid = players[random.nextInt(players.length)];
+
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(uuid) != null, store.remove(uuid), "Removal at step " + step);
+      }
+      else {
+        store.put(uuid, head(step), 0);
+        expected.put(uuid, step);
+      }
+    }
+
+    assertEquals(expected.size(), store.size(), "Size");
+    for (UUID uuid : players) {
+      if (expected.containsKey(uuid)) {
+        assertHead(store, uuid, expected.get(uuid));
+      }
+      else {
+        assertFalse(store.get(uuid, new int[HeadStore.HEAD_PIXELS], 0), "Removed head");
+      }
+    }
+  }
+
+  @Test
+  void rejectsBadInput() {
+    assertThrows(IllegalArgumentException.class, () -> new HeadStore(0), "No capacity");
+    assertThrows(IllegalArgumentException.class, () -> new HeadStore(Integer.MAX_VALUE), "Slab too big");
+    assertThrows(IllegalArgumentException.class,
+        () -> new HeadStore(1).put(UUID.randomUUID(), new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB)),
+        "Head not 16x16");
+  }
+
+  private static void assertHead(HeadStore store, UUID uuid, int seed) {
+    final int[] dst = new int[HeadStore.HEAD_PIXELS + 3];
+    assertTrue(store.get(uuid, dst, 3), "Head stored for " + seed);
+    assertTrue(Arrays.equals(head(seed), Arrays.copyOfRange(dst, 3, dst.length)), "Pixels of head " + seed);
+  }
+
+  private static int[] head(int seed) {
+    final int[] pixels = new int[HeadStore.HEAD_PIXELS];
+    Arrays.fill(pixels, 0xff000000 | seed * 0x10101);
+    pixels[seed % pixels.length] = seed;
+    return pixels;
+  }
+}
@@ -0,0 +1,253 @@
+package net.ultranetwork.render.head;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs {@link HttpHeadProvider} against a local HTTP server that answers each player name with a
+ * chosen status, optionally holding requests until released. Every test uses its own names.
+ */
+class HttpHeadProviderTest {
+  private static final long TIMEOUT_SECONDS = 10;
+
+  private static final Map<String, Integer> STATUS = new ConcurrentHashMap<>();
+  private static final Map<String, AtomicInteger> REQUESTS = new ConcurrentHashMap<>();
+  private static final Map<String, CountDownLatch> HELD = new ConcurrentHashMap<>();
+  private static final AtomicInteger ACTIVE = new AtomicInteger();
+  private static final AtomicInteger MAX_ACTIVE = new AtomicInteger();
+
+  private static HttpServer server;
+  private static ExecutorService serverExecutor;
+  private static byte[] head;
+
+  @BeforeAll
+  static void startServer() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(16, 16, BufferedImage.TYPE_INT_ARGB), "png", out);
+    head = out.toByteArray();
+
+    serverExecutor = Executors.newCachedThreadPool();
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", HttpHeadProviderTest::serve);
+    server.setExecutor(serverExecutor);
+    server.start();
+  }
+
+  @AfterAll
+  static void stopServer() {
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  @Test
+  void opensTheCircuitAndTriesAgainHalfOpen() throws Exception {
+    final String name = "failing";
+    STATUS.put(name, 500);
+    final HttpHeadProvider provider = provider()
+        .retries(0, Duration.ZERO)
+        .circuitBreaker(2, Duration.ofMillis(200))
+        .build();
+
+    assertNull(fetch(provider, name), "First failure");
+    assertFalse(provider.isCircuitOpen(), "Closed after one failure");
+    assertNull(fetch(provider, name), "Second failure");
+    assertTrue(provider.isCircuitOpen(), "Open after the threshold");
+
+    // Open: fails without calling upstream
+    assertNull(fetch(provider, name), "Failed fast");
+    assertEquals(2, requests(name), "Requests while open");
+
+    // Once the open period passes a single trial goes through, held here so others arrive meanwhile
+    STATUS.put(name, 200);
+    final CountDownLatch release = hold(name);
+    Thread.sleep(250);
+
+    final CompletableFuture<BufferedImage> trial = provider.fetchHead(name);
+    awaitRequests(name, 3);
+    assertNull(fetch(provider, name), "Failed fast beside the trial");
+    assertEquals(3, requests(name), "Only the trial reached upstream");
+
+    release.countDown();
+    assertNotNull(trial.get(TIMEOUT_SECONDS, TimeUnit.SECONDS), "Trial head");
+    assertFalse(provider.isCircuitOpen(), "Closed after the trial succeeded");
+    assertNotNull(fetch(provider, name), "Head once closed");
+  }
+
+  @Test
+  void reopensWhenTheTrialFails() throws Exception {
+    final String name = "stillFailing";
+    STATUS.put(name, 503);
+    final HttpHeadProvider provider = provider()
+        .retries(0, Duration.ZERO)
+        .circuitBreaker(1, Duration.ofMillis(100))
+        .build();
+
+    assertNull(fetch(provider, name), "Failure");
+    assertTrue(provider.isCircuitOpen(), "Open");
+
+    Thread.sleep(150);
+    assertNull(fetch(provider, name), "Failed trial");
+    assertEquals(2, requests(name), "Trial reached upstream");
+    assertNull(fetch(provider, name), "Failed fast again");
+    assertEquals(2, requests(name), "Open again after the trial");
+  }
+
+  @Test
+  void holdsTheInFlightLimit() throws Exception {
+    final String name = "limited";
+    final CountDownLatch release = hold(name);
+    MAX_ACTIVE.set(0);
+    final HttpHeadProvider provider = provider().maxInFlight(2).build();
+
+    final List<CompletableFuture<BufferedImage>> fetches = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      fetches.add(provider.fetchHead(name));
+    }
+
+    awaitRequests(name, 2);
+    Thread.sleep(100);
+    assertEquals(2, requests(name), "Requests sent while two are held");
+    assertEquals(2, provider.inFlightRequests(), "In flight");
+    assertEquals(4, provider.queuedRequests(), "Queued");
+
+    release.countDown();
+    for (CompletableFuture<BufferedImage> fetch : fetches) {
+      assertNotNull(fetch.get(TIMEOUT_SECONDS, TimeUnit.SECONDS), "Head");
+    }
+
+    assertEquals(6, requests(name), "Every request sent in the end");
+    assertEquals(2, MAX_ACTIVE.get(), "Most requests at the server at once");
+    assertEquals(0, provider.inFlightRequests(), "In flight afterwards");
+  }
+
+  @Test
+  void stopsRetryingAtTheLimit() throws Exception {
+    final HttpHeadProvider provider = provider()
+        .retries(2, Duration.ofMillis(1))
+        .circuitBreaker(100, Duration.ofMinutes(1))
+        .build();
+
+    STATUS.put("overloaded", 503);
+    assertNull(fetch(provider, "overloaded"), "Head after 503s");
+    assertEquals(3, requests("overloaded"), "The request and two retries");
+
+    STATUS.put("throttled", 429);
+    assertNull(fetch(provider, "throttled"), "Head after 429s");
+    assertEquals(3, requests("throttled"), "429 is retried too");
+
+    STATUS.put("unknown", 404);
+    assertNull(fetch(provider, "unknown"), "Head after a 404");
+    assertEquals(1, requests("unknown"), "404 is not retried");
+  }
+
+  @Test
+  void spacesRequestsToTheRate() throws Exception {
+    final HttpHeadProvider provider = provider().rateLimit(20, 1).build();
+    final long start = System.nanoTime();
+
+    final List<CompletableFuture<BufferedImage>> fetches = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      fetches.add(provider.fetchHead("paced"));
+    }
+
+    for (CompletableFuture<BufferedImage> fetch : fetches) {
+      assertNotNull(fetch.get(TIMEOUT_SECONDS, TimeUnit.SECONDS), "Head");
+    }
+
+    // One request at once, then one every 50ms
+    final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    assertTrue(elapsedMillis >= 190, "Took " + elapsedMillis + "ms for 5 requests at 20/s");
+  }
+
+  private static HttpHeadProvider.Builder provider() {
+    return HttpHeadProvider.builder()
+        .baseUrl("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/")
+        .rateLimit(1000, 1000);
+  }
+
+  private static BufferedImage fetch(HttpHeadProvider provider, String name) throws Exception {
+    return provider.fetchHead(name).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+  }
+
+  private static void serve(HttpExchange exchange) throws IOException {
+    final String name = exchange.getRequestURI().getPath().split("/")[1];
+    REQUESTS.computeIfAbsent(name, key -> new AtomicInteger()).incrementAndGet();
+    MAX_ACTIVE.accumulateAndGet(ACTIVE.incrementAndGet(), Math::max);
+
+    try (exchange) {
+      final CountDownLatch held = HELD.get(name);
+      if (held != null && !held.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        exchange.sendResponseHeaders(500, -1);
+        return;
+      }
+
+      final int status = STATUS.getOrDefault(name, 200);
+      if (status != 200) {
+        exchange.sendResponseHeaders(status, -1);
+        return;
+      }
+
+      exchange.getResponseHeaders().set("Content-Type", "image/png");
+      exchange.sendResponseHeaders(200, head.length);
+
+      try (OutputStream os = exchange.getResponseBody()) {
+        os.write(head);
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    finally {
+      ACTIVE.decrementAndGet();
+    }
+  }
+
+  /**
+   * @return A latch the server waits on before answering requests for the name
+   */
+  private static CountDownLatch hold(String name) {
+    final CountDownLatch release = new CountDownLatch(1);
+    HELD.put(name, release);
+    return release;
+  }
+
+  private static void awaitRequests(String name, int count) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+
+    while (requests(name) < count) {
+      assertTrue(System.nanoTime() < deadline, count + " requests reached the server");
+      Thread.sleep(5);
+    }
+  }
+
+  private static int requests(String name) {
+    return REQUESTS.getOrDefault(name, new AtomicInteger()).get();
+  }
+}
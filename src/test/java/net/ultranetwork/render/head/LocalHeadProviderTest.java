@@ -0,0 +1,144 @@
+package net.ultranetwork.render.head;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reads heads from a temporary directory through an executor the test runs by hand, so it can see
+ * what happens before and after each read.
+ */
+class LocalHeadProviderTest {
+  private static Path directory;
+
+  @BeforeAll
+  static void createDirectory() throws IOException {
+    directory = Files.createTempDirectory("heads");
+    write("steve", 8);
+    write("alex", 8);
+  }
+
+  @AfterAll
+  static void deleteDirectory() throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Test
+  void readsOnTheIoExecutorOnce() {
+    final ManualExecutor io = new ManualExecutor();
+    final LocalHeadProvider provider = LocalHeadProvider.directory(directory, io, 1024 * 1024);
+
+    final List<CompletableFuture<BufferedImage>> fetches = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      fetches.add(provider.fetchHead(i % 2 == 0 ? "Steve" : "STEVE"));
+    }
+
+    assertFalse(fetches.get(0).isDone(), "Nothing read on the caller's thread");
+    assertEquals(1, io.tasks.size(), "One read for every fetch");
+
+    io.runAll();
+    for (CompletableFuture<BufferedImage> fetch : fetches) {
+      assertNotNull(fetch.join(), "Head");
+    }
+
+    final CompletableFuture<BufferedImage> cached = provider.fetchHead("steve");
+    assertTrue(cached.isDone() && cached.join() == fetches.get(0).join(), "Served from memory");
+    assertEquals(0, io.tasks.size(), "No read once kept");
+  }
+
+  @Test
+  void doesNotRememberMissingHeads() throws IOException {
+    final ManualExecutor io = new ManualExecutor();
+    final LocalHeadProvider provider = LocalHeadProvider.directory(directory, io, 1024 * 1024);
+
+    final CompletableFuture<BufferedImage> missing = provider.fetchHead("notch");
+    io.runAll();
+    assertNull(missing.join(), "No file yet");
+    assertEquals(0, provider.cachedHeads(), "Miss not kept");
+
+    write("notch", 8);
+    final CompletableFuture<BufferedImage> added = provider.fetchHead("notch");
+    io.runAll();
+    assertNotNull(added.join(), "File added later");
+
+    final CompletableFuture<BufferedImage> outside = provider.fetchHead("../heads/steve");
+    io.runAll();
+    assertNull(outside.join(), "Names stay inside the directory");
+  }
+
+  @Test
+  void keepsHeadsWithinTheByteBudget() {
+    final ManualExecutor io = new ManualExecutor();
+    // Room for one 8x8 head
+    final LocalHeadProvider provider = LocalHeadProvider.directory(directory, io, 8 * 8 * Integer.BYTES);
+
+    provider.fetchHead("steve");
+    io.runAll();
+    provider.fetchHead("alex");
+    io.runAll();
+    assertEquals(1, provider.cachedHeads(), "Heads kept");
+
+    // Steve was evicted for Alex, so is read again
+    provider.fetchHead("alex");
+    assertEquals(0, io.tasks.size(), "Alex kept");
+    provider.fetchHead("steve");
+    assertEquals(1, io.tasks.size(), "Steve read again");
+    io.runAll();
+  }
+
+  @Test
+  void completesWhenTheExecutorRejects() {
+    final Executor rejecting = task -> {
+      throw new RejectedExecutionException("Shut down");
+    };
+    final LocalHeadProvider provider = LocalHeadProvider.directory(directory, rejecting, 1024 * 1024);
+
+    final CompletableFuture<BufferedImage> fetch = provider.fetchHead("steve");
+    assertTrue(fetch.isDone() && fetch.join() == null, "No head");
+  }
+
+  private static void write(String name, int size) throws IOException {
+    final BufferedImage head = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+    head.setRGB(1, 2, 0xff336699);
+    ImageIO.write(head, "png", directory.resolve(name + ".png").toFile());
+  }
+
+  private static final class ManualExecutor implements Executor {
+    private final Deque<Runnable> tasks = new ArrayDeque<>();
+
+    @Override
+    public void execute(Runnable command) {
+      this.tasks.add(command);
+    }
+
+    void runAll() {
+      while (!this.tasks.isEmpty()) {
+        this.tasks.poll().run();
+      }
+    }
+  }
+}
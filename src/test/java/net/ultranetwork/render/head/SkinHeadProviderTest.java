@@ -0,0 +1,273 @@
+package net.ultranetwork.render.head;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.kyori.adventure.text.Component;
+import net.ultranetwork.render.playerlist.PlayerListName;
+import net.ultranetwork.render.playerlist.PlayerListRenderer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Cuts helms out of skins drawn pixel by pixel, reads texture properties, and paints stored heads.
+ */
+class SkinHeadProviderTest {
+  private static final int HAT_ARGB = 0xff123456;
+
+  @Test
+  void compositesTheHatOverTheFace() {
+    final BufferedImage skin = skin(64, 64);
+    hat(skin, 1, 2, 3, HAT_ARGB);
+
+    final int[] helm = SkinHeadProvider.extractHelm(skin);
+    assertNotNull(helm, "Helm");
+
+    // Each skin pixel covers 2x2 helm pixels
+    for (int y = 0; y < HeadStore.HEAD_SIZE; y++) {
+      for (int x = 0; x < HeadStore.HEAD_SIZE; x++) {
+        final int expected = x / 2 == 2 && y / 2 == 3 ? HAT_ARGB : 0xff000000 | face(1, x / 2, y / 2);
+        assertEquals(expected, helm[y * HeadStore.HEAD_SIZE + x], "Helm pixel " + x + "," + y);
+      }
+    }
+  }
+
+  @Test
+  void ignoresTheSolidHatOfLegacySkins() {
+    final BufferedImage solid = skin(64, 32);
+    fillHat(solid, 1, HAT_ARGB);
+    assertTrue(Arrays.equals(faceOnly(1), SkinHeadProvider.extractHelm(solid)), "Solid legacy hat ignored");
+
+    // One see-through pixel means the hat was drawn on purpose
+    final BufferedImage drawn = skin(64, 32);
+    fillHat(drawn, 1, HAT_ARGB);
+    hat(drawn, 1, 0, 0, 0);
+
+    final int[] helm = SkinHeadProvider.extractHelm(drawn);
+    assertNotNull(helm, "Helm");
+    assertEquals(0xff000000 | face(1, 0, 0), helm[0], "Face under the clear pixel");
+    assertEquals(HAT_ARGB, helm[HeadStore.HEAD_PIXELS - 1], "Hat");
+  }
+
+  @Test
+  void dropsHatPixelsBelowTheAlphaCutoff() {
+    final BufferedImage skin = skin(64, 64);
+    hat(skin, 1, 0, 0, 0x19ffffff);
+    hat(skin, 1, 1, 0, 0x1a123456);
+
+    final int[] helm = SkinHeadProvider.extractHelm(skin);
+    assertNotNull(helm, "Helm");
+    assertEquals(0xff000000 | face(1, 0, 0), helm[0], "Alpha 25 leaves the face");
+    assertEquals(HAT_ARGB, helm[2], "Alpha 26 draws the hat, opaque");
+  }
+
+  @Test
+  void samplesHdSkins() {
+    // 128x128 skins have a 16x16 face, so the helm is the face itself
+    final BufferedImage twice = skin(128, 128);
+    hat(twice, 2, 15, 15, HAT_ARGB);
+
+    final int[] helm = SkinHeadProvider.extractHelm(twice);
+    assertNotNull(helm, "Helm");
+    assertEquals(0xff000000 | face(2, 7, 0), helm[7], "Face pixel");
+    assertEquals(HAT_ARGB, helm[HeadStore.HEAD_PIXELS - 1], "Hat pixel");
+
+    // Larger skins are sampled every few pixels
+    final BufferedImage fourTimes = skin(256, 128);
+    final int[] legacyHelm = SkinHeadProvider.extractHelm(fourTimes);
+    assertNotNull(legacyHelm, "Legacy HD helm");
+    assertEquals(0xff000000 | face(4, 6, 10), legacyHelm[5 * HeadStore.HEAD_SIZE + 3], "Sampled face pixel");
+  }
+
+  @Test
+  void rejectsImagesThatAreNotSkins() {
+    assertNull(SkinHeadProvider.extractHelm(new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB)), "Too small");
+    assertNull(SkinHeadProvider.extractHelm(new BufferedImage(64, 48, BufferedImage.TYPE_INT_ARGB)), "Not square or 2:1");
+    assertNull(SkinHeadProvider.extractHelm(new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB)), "Not a multiple of 64");
+  }
+
+  @Test
+  void readsTextureHashes() {
+    assertEquals("0123abcdef", SkinHeadProvider.textureHash(property("http://textures.minecraft.net/texture/0123abcdef")),
+        "Mojang URL");
+    assertEquals("0123abcdef", SkinHeadProvider.textureHash(" " + property("https://textures.minecraft.net/texture/0123abcdef") + "\n"),
+        "Padded property");
+  }
+
+  @Test
+  void rejectsForeignHosts() {
+    for (String url : List.of(
+        "http://example.com/texture/0123abcdef",
+        "http://textures.minecraft.net.example.com/texture/0123abcdef",
+        "http://textures.minecraft.net@example.com/texture/0123abcdef",
+        "file:///texture/0123abcdef",
+        "/texture/0123abcdef")) {
+      assertNull(SkinHeadProvider.textureHash(property(url)), url);
+    }
+  }
+
+  @Test
+  void rejectsPathLikeHashes() {
+    for (String hash : List.of("..", "%2E%2E", "abc%5C..%5Cdef", "abc.png", "ABCDEF", "abc%00", "", "a".repeat(129))) {
+      final String url = "http://textures.minecraft.net/texture/" + hash;
+      assertNull(SkinHeadProvider.textureHash(property(url)), url);
+    }
+  }
+
+  @Test
+  void rejectsMalformedProperties() {
+    assertNull(SkinHeadProvider.textureHash("not base64!"), "Not Base64");
+    assertNull(SkinHeadProvider.textureHash(encode("[]")), "Not an object");
+    assertNull(SkinHeadProvider.textureHash(encode("{\"textures\":{}}")), "No skin");
+    assertNull(SkinHeadProvider.textureHash(encode("{\"textures\":{\"SKIN\":{\"url\":{}}}}")), "URL not a string");
+  }
+
+  @Test
+  void paintsStoredHeadsWithoutFetching() throws Exception {
+    final UUID stored = UUID.randomUUID();
+    final UUID translucent = UUID.randomUUID();
+    final UUID missing = UUID.randomUUID();
+
+    final int[] pixels = new int[HeadStore.HEAD_PIXELS];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = 0xff000000 | i * 0x010203;
+    }
+
+    final int[] seeThrough = new int[HeadStore.HEAD_PIXELS];
+    for (int i = 0; i < seeThrough.length; i++) {
+      seeThrough[i] = (i % 4) * 0x40000000 | 0x00ff8040;
+    }
+
+    final BufferedImage fallbackHead = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+    fallbackHead.setRGB(3, 4, 0xff00ff00);
+
+    final SkinHeadProvider skins = SkinHeadProvider.builder()
+        .fallback(name -> CompletableFuture.completedFuture(fallbackHead))
+        .build();
+    skins.store().put(stored, pixels, 0);
+    skins.store().put(translucent, seeThrough, 0);
+
+    final AtomicInteger fetches = new AtomicInteger();
+    final HeadProvider counting = new HeadProvider() {
+      @Override
+      public CompletableFuture<BufferedImage> fetchHead(String playerName) {
+        return fetchHead(null, playerName);
+      }
+
+      @Override
+      public CompletableFuture<BufferedImage> fetchHead(UUID uuid, String playerName) {
+        fetches.incrementAndGet();
+        return skins.fetchHead(uuid, playerName);
+      }
+
+      @Override
+      public boolean copyHead(UUID uuid, int[] dst, int offset) {
+        return skins.copyHead(uuid, dst, offset);
+      }
+    };
+
+    // The same heads, only as images
+    final HeadProvider images = new HeadProvider() {
+      @Override
+      public CompletableFuture<BufferedImage> fetchHead(String playerName) {
+        return skins.fetchHead(playerName);
+      }
+
+      @Override
+      public CompletableFuture<BufferedImage> fetchHead(UUID uuid, String playerName) {
+        return skins.fetchHead(uuid, playerName);
+      }
+    };
+
+    final List<PlayerListName> players = List.of(
+        PlayerListName.of(Component.text("Stored"), 20, "Stored", 0, stored),
+        PlayerListName.of(Component.text("Translucent"), 20, "Translucent", 0, translucent),
+        PlayerListName.of(Component.text("Missing"), 20, "Missing", 0, missing));
+
+    final BufferedImage copied = render(players, counting);
+    assertEquals(1, fetches.get(), "Only the head not in the store is fetched");
+
+    final BufferedImage fetched = render(players, images);
+    assertTrue(Arrays.equals(pixels(fetched), pixels(copied)), "Copied heads paint like fetched ones");
+  }
+
+  private static BufferedImage render(List<PlayerListName> players, HeadProvider heads) throws Exception {
+    return PlayerListRenderer.builder()
+        .showNameHeads(true)
+        .headProvider(heads)
+        .names(players)
+        .build()
+        .get();
+  }
+
+  /**
+   * @return A skin whose face pixels are all different and whose hat layer is clear
+   */
+  private static BufferedImage skin(int width, int height) {
+    final BufferedImage skin = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    final int unit = width / 64;
+
+    for (int y = 0; y < 8 * unit; y++) {
+      for (int x = 0; x < 8 * unit; x++) {
+        skin.setRGB(8 * unit + x, 8 * unit + y, face(unit, x, y));
+      }
+    }
+
+    return skin;
+  }
+
+  /**
+   * @return The colour of a face pixel, some of them see-through as the helm must make them opaque
+   */
+  private static int face(int unit, int x, int y) {
+    final int index = y * 8 * unit + x;
+    return (index % 3 == 0 ? 0x80000000 : 0xff000000) | index * 0x030507 & 0xffffff;
+  }
+
+  private static int[] faceOnly(int unit) {
+    final int[] helm = new int[HeadStore.HEAD_PIXELS];
+    final int layerSize = 8 * unit;
+
+    for (int y = 0; y < HeadStore.HEAD_SIZE; y++) {
+      for (int x = 0; x < HeadStore.HEAD_SIZE; x++) {
+        helm[y * HeadStore.HEAD_SIZE + x] = 0xff000000
+            | face(unit, x * layerSize / HeadStore.HEAD_SIZE, y * layerSize / HeadStore.HEAD_SIZE);
+      }
+    }
+
+    return helm;
+  }
+
+  private static void hat(BufferedImage skin, int unit, int x, int y, int argb) {
+    skin.setRGB(40 * unit + x, 8 * unit + y, argb);
+  }
+
+  private static void fillHat(BufferedImage skin, int unit, int argb) {
+    for (int y = 0; y < 8 * unit; y++) {
+      for (int x = 0; x < 8 * unit; x++) {
+        hat(skin, unit, x, y, argb);
+      }
+    }
+  }
+
+  private static String property(String url) {
+    return encode("{\"timestamp\":0,\"textures\":{\"SKIN\":{\"url\":\"" + url + "\"}}}");
+  }
+
+  private static String encode(String json) {
+    return Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static int[] pixels(BufferedImage image) {
+    return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+  }
+}
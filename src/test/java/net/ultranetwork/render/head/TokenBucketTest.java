@@ -0,0 +1,54 @@
+package net.ultranetwork.render.head;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Takes tokens from {@link TokenBucket}s, checking the burst, the wait it reports and the refill.
+ */
+class TokenBucketTest {
+
+  @Test
+  void allowsTheBurstThenReportsTheWait() {
+    final TokenBucket bucket = new TokenBucket(1, 3);
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0L, bucket.tryAcquire(), "Token " + i + " of the burst");
+    }
+
+    final long wait = bucket.tryAcquire();
+    assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1), "Wait of " + wait + "ns for the next token at 1/s");
+    assertTrue(bucket.tryAcquire() > 0, "Still empty");
+  }
+
+  @Test
+  void refillsAtTheRate() throws InterruptedException {
+    final TokenBucket bucket = new TokenBucket(100, 1);
+    assertEquals(0L, bucket.tryAcquire(), "First token");
+
+    final long wait = bucket.tryAcquire();
+    assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(10), "Wait of " + wait + "ns at 100/s");
+
+    Thread.sleep(20);
+    assertEquals(0L, bucket.tryAcquire(), "Token after the wait");
+  }
+
+  @Test
+  void keepsNoMoreThanTheBurst() throws InterruptedException {
+    final TokenBucket bucket = new TokenBucket(10, 2);
+    Thread.sleep(300); // Long enough for 3 tokens, but only 2 fit
+
+    assertEquals(0L, bucket.tryAcquire(), "First token");
+    assertEquals(0L, bucket.tryAcquire(), "Second token");
+    assertTrue(bucket.tryAcquire() > 0, "No third token");
+  }
+
+  @Test
+  void keepsAtLeastOneToken() {
+    final TokenBucket bucket = new TokenBucket(1, 0);
+    assertEquals(0L, bucket.tryAcquire(), "Token from a bucket of capacity 0");
+  }
+}
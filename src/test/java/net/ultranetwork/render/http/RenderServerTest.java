@@ -0,0 +1,215 @@
+package net.ultranetwork.render.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.awt.image.BufferedImage;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import net.ultranetwork.render.head.HeadProvider;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs {@link RenderServer} on a free port and talks to it over HTTP.
+ */
+class RenderServerTest {
+  private static final HttpClient CLIENT = HttpClient.newHttpClient();
+  private static final String ITEM_QUERY = "/item?name=" + encode("<gold>Sword") + "&lore=" + encode("<gray>Sharp");
+
+  @Test
+  void answersMatchingETagsWithoutRendering() throws Exception {
+    final AtomicInteger tasks = new AtomicInteger();
+
+    try (RenderServer server = RenderServer.builder()
+        .port(0)
+        .executor(task -> {
+          tasks.incrementAndGet();
+          ForkJoinPool.commonPool().execute(task);
+        })
+        .start()) {
+      final HttpResponse<byte[]> first = get(server, ITEM_QUERY, null);
+      assertEquals(200, first.statusCode(), "First request");
+      assertEquals("image/png", first.headers().firstValue("Content-Type").orElse(null), "Content type");
+      final String etag = first.headers().firstValue("ETag").orElse(null);
+      assertNotNull(etag, "ETag");
+
+      final int rendered = tasks.get();
+      assertTrue(rendered > 0, "Rendered on the executor");
+
+      final HttpResponse<byte[]> second = get(server, ITEM_QUERY, "W/" + etag);
+      assertEquals(304, second.statusCode(), "Matching request");
+      assertEquals(etag, second.headers().firstValue("ETag").orElse(null), "ETag on the 304");
+      assertEquals(0, second.body().length, "304 body");
+      assertEquals(rendered, tasks.get(), "Tasks after the 304");
+
+      // The same tooltip as JSON shares the ETag
+      final HttpResponse<byte[]> json = send(server, HttpRequest.newBuilder(uri(server, "/item"))
+          .header("Content-Type", "application/json")
+          .header("If-None-Match", etag)
+          .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"<gold>Sword\",\"lore\":[\"<gray>Sharp\"]}")));
+      assertEquals(304, json.statusCode(), "Same tooltip as JSON");
+    }
+  }
+
+  @Test
+  void revalidatesHeadsAfterRendering() throws Exception {
+    final AtomicReference<BufferedImage> skin = new AtomicReference<>(head(0xff336699));
+    final HeadProvider heads = name -> CompletableFuture.completedFuture(skin.get());
+
+    try (RenderServer server = RenderServer.builder().port(0).headProvider(heads).start()) {
+      final String query = "/playerlist?player=Steve&player=Alex&heads=true";
+
+      final HttpResponse<byte[]> first = get(server, query, null);
+      assertEquals(200, first.statusCode(), "First request");
+      final String etag = first.headers().firstValue("ETag").orElse(null);
+      assertNotNull(etag, "ETag");
+
+      assertEquals(304, get(server, query, etag).statusCode(), "Unchanged skins");
+
+      skin.set(head(0xff996633));
+      final HttpResponse<byte[]> changed = get(server, query, etag);
+      assertEquals(200, changed.statusCode(), "Changed skin");
+      final String changedEtag = changed.headers().firstValue("ETag").orElse(null);
+      assertNotNull(changedEtag, "ETag after the change");
+      assertTrue(!changedEtag.equals(etag), "ETag changes with the skin");
+
+      assertEquals(304, get(server, query, changedEtag).statusCode(), "New skin");
+    }
+  }
+
+  @Test
+  void rejectsOverTheConcurrencyLimit() throws Exception {
+    final CompletableFuture<BufferedImage> stalled = new CompletableFuture<>();
+    final CompletableFuture<Void> fetching = new CompletableFuture<>();
+    final HeadProvider heads = name -> {
+      fetching.complete(null);
+      return stalled;
+    };
+
+    try (RenderServer server = RenderServer.builder()
+        .port(0)
+        .maxConcurrentRenders(1)
+        .queueTimeout(Duration.ofMillis(50))
+        .headProvider(heads)
+        .start()) {
+      // Holds the only render permit until its head arrives
+      final CompletableFuture<HttpResponse<byte[]>> holding = CLIENT.sendAsync(
+          HttpRequest.newBuilder(uri(server, "/playerlist?player=Steve&heads=true")).build(),
+          HttpResponse.BodyHandlers.ofByteArray());
+      fetching.get(10, TimeUnit.SECONDS);
+
+      final HttpResponse<byte[]> rejected = get(server, ITEM_QUERY, null);
+      assertEquals(503, rejected.statusCode(), "Over the limit");
+      assertEquals("1", rejected.headers().firstValue("Retry-After").orElse(null), "Retry-After");
+
+      stalled.complete(head(0xff336699));
+      assertEquals(200, holding.get(10, TimeUnit.SECONDS).statusCode(), "Held request");
+      assertEquals(200, get(server, ITEM_QUERY, null).statusCode(), "Once the permit is back");
+
+      final EndpointStats.Snapshot items = server.stats().get("/item").snapshot();
+      assertEquals(1L, items.rejected(), "Rejected items");
+      assertEquals(1L, items.rendered(), "Rendered items");
+    }
+  }
+
+  @Test
+  void refusesBadRequests() throws Exception {
+    try (RenderServer server = RenderServer.builder().port(0).start()) {
+      final HttpResponse<byte[]> put = send(server, HttpRequest.newBuilder(uri(server, "/item"))
+          .PUT(HttpRequest.BodyPublishers.ofString("{}")));
+      assertEquals(405, put.statusCode(), "PUT");
+      assertEquals("GET, POST", put.headers().firstValue("Allow").orElse(null), "Allow");
+
+      final HttpResponse<byte[]> text = send(server, HttpRequest.newBuilder(uri(server, "/item"))
+          .header("Content-Type", "text/plain")
+          .POST(HttpRequest.BodyPublishers.ofString("name=Sword")));
+      assertEquals(415, text.statusCode(), "Plain text body");
+
+      final HttpResponse<byte[]> large = send(server, HttpRequest.newBuilder(uri(server, "/item"))
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofString(" ".repeat(RenderServer.MAX_BODY_BYTES + 1))));
+      assertEquals(413, large.statusCode(), "Body too large");
+
+      final String lore = "&lore=" + "W".repeat(1000);
+      final HttpResponse<byte[]> wide = get(server, "/item?name=Sword&scale=" + RenderServer.MAX_SCALE + lore.repeat(8), null);
+      assertEquals(413, wide.statusCode(), "Output too large");
+
+      assertEquals(400, get(server, "/item?lore=NoName", null).statusCode(), "Missing name");
+      assertEquals(400, get(server, ITEM_QUERY + "&scale=99", null).statusCode(), "Scale out of range");
+    }
+  }
+
+  @Test
+  void countsEveryOutcome() throws Exception {
+    try (RenderServer server = RenderServer.builder().port(0).start()) {
+      final String etag = get(server, ITEM_QUERY, null).headers().firstValue("ETag").orElseThrow();
+      get(server, ITEM_QUERY, etag);
+      get(server, ITEM_QUERY, etag);
+      get(server, "/item", null);
+      get(server, "/playerlist?player=Steve", null);
+
+      final HttpResponse<byte[]> stats = get(server, "/stats", null);
+      assertEquals(200, stats.statusCode(), "Stats");
+      assertEquals("application/json", stats.headers().firstValue("Content-Type").orElse(null), "Stats content type");
+
+      final JsonObject body = JsonParser.parseString(new String(stats.body(), StandardCharsets.UTF_8)).getAsJsonObject();
+      final JsonObject item = body.getAsJsonObject("/item");
+      assertEquals(4, item.get("requests").getAsInt(), "Item requests");
+      assertEquals(1, item.get("rendered").getAsInt(), "Items rendered");
+      assertEquals(2, item.get("notModified").getAsInt(), "Items not modified");
+      assertEquals(0, item.get("rejected").getAsInt(), "Items rejected");
+      assertEquals(1, item.get("failed").getAsInt(), "Items failed");
+      assertTrue(item.get("maxMillis").getAsDouble() > 0, "Item latency");
+
+      final JsonObject playerList = body.getAsJsonObject("/playerlist");
+      assertEquals(1, playerList.get("requests").getAsInt(), "Player list requests");
+      assertEquals(1, playerList.get("rendered").getAsInt(), "Player lists rendered");
+    }
+  }
+
+  private static BufferedImage head(int argb) {
+    final BufferedImage head = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+    for (int y = 0; y < 8; y++) {
+      for (int x = 0; x < 8; x++) {
+        head.setRGB(x, y, argb);
+      }
+    }
+
+    return head;
+  }
+
+  private static HttpResponse<byte[]> get(RenderServer server, String pathAndQuery, String ifNoneMatch) throws Exception {
+    final HttpRequest.Builder request = HttpRequest.newBuilder(uri(server, pathAndQuery));
+
+    if (ifNoneMatch != null) {
+      request.header("If-None-Match", ifNoneMatch);
+    }
+
+    return send(server, request);
+  }
+
+  private static HttpResponse<byte[]> send(RenderServer server, HttpRequest.Builder request) throws Exception {
+    return CLIENT.send(request.timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.ofByteArray());
+  }
+
+  private static URI uri(RenderServer server, String pathAndQuery) {
+    return URI.create("http://" + server.address().getHostString() + ":" + server.address().getPort() + pathAndQuery);
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+}
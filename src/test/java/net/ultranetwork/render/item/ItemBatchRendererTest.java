@@ -0,0 +1,180 @@
+package net.ultranetwork.render.item;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.ultranetwork.render.util.ImagePool;
+import net.ultranetwork.render.util.TextSpriteCache;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Renders batches with repeated items, checking each distinct tooltip is drawn once, where sprites are
+ * packed, and that every tooltip matches {@link ItemImageRenderer} pixel for pixel.
+ */
+class ItemBatchRendererTest {
+  private static final TooltipSnapshot SWORD = new TooltipSnapshot(
+      Component.text("Diamond Sword", NamedTextColor.AQUA), 1,
+      List.of(Component.text("Sharpness V", NamedTextColor.GRAY), Component.text("Unbreakable", NamedTextColor.BLUE)));
+  private static final TooltipSnapshot SWORDS = new TooltipSnapshot(SWORD.name(), 2, SWORD.lore());
+  private static final TooltipSnapshot BOW = new TooltipSnapshot(
+      Component.text("Bow of the ", NamedTextColor.GOLD).append(Component.text("Ancients").decorate(TextDecoration.BOLD)), 1,
+      List.of(Component.text("Power IV", NamedTextColor.GRAY)));
+  private static final TooltipSnapshot STONE = new TooltipSnapshot(Component.text("Stone"), 1, List.of());
+
+  // Repeats, and the same name with a different amount
+  private static final List<TooltipSnapshot> ITEMS = List.of(SWORD, BOW, SWORD, SWORDS, STONE, BOW, SWORD);
+
+  @Test
+  void rendersEachDistinctTooltipOnce() {
+    final ItemBatchRenderer.Builder builder = ItemBatchRenderer.builder().snapshots(ITEMS);
+    assertEquals(4, builder.uniqueCount(), "Unique tooltips");
+
+    final List<BufferedImage> images = builder.build().join();
+    assertEquals(ITEMS.size(), images.size(), "One image per item");
+
+    final Map<BufferedImage, Boolean> distinct = new IdentityHashMap<>();
+    images.forEach(image -> distinct.put(image, true));
+    assertEquals(4, distinct.size(), "Distinct images");
+
+    for (int i = 0; i < ITEMS.size(); i++) {
+      for (int j = 0; j < ITEMS.size(); j++) {
+        assertEquals(ITEMS.get(i).equals(ITEMS.get(j)), images.get(i) == images.get(j),
+            "Items " + i + " and " + j + " share an image");
+      }
+    }
+  }
+
+  @Test
+  void matchesSingleRenders() {
+    final TextSpriteCache textCache = new TextSpriteCache();
+    final List<BufferedImage> defaults = ItemBatchRenderer.builder().snapshots(ITEMS).build().join();
+    final List<BufferedImage> styled = style(ItemBatchRenderer.builder()).snapshots(ITEMS).build().join();
+    final List<BufferedImage> sprites = ItemBatchRenderer.builder().snapshots(ITEMS).textCache(textCache).build().join();
+
+    for (int i = 0; i < ITEMS.size(); i++) {
+      assertSame(single(ITEMS.get(i)).build().join(), defaults.get(i), "Default item " + i);
+      assertSame(style(single(ITEMS.get(i))).build().join(), styled.get(i), "Styled item " + i);
+      assertSame(single(ITEMS.get(i)).textCache(textCache).build().join(), sprites.get(i), "Sprite item " + i);
+    }
+  }
+
+  @Test
+  void packsSpritesIntoShelves() {
+    final int spacing = 2;
+    final List<BufferedImage> singles = ITEMS.stream().map(item -> single(item).build().join()).toList();
+    // Room for the two widest tooltips side by side, so some rows wrap and some do not
+    final int maxWidth = singles.get(0).getWidth() + spacing + singles.get(1).getWidth();
+
+    final SpriteSheet sheet = ItemBatchRenderer.builder()
+        .snapshots(ITEMS)
+        .maxSheetWidth(maxWidth)
+        .spacing(spacing)
+        .buildSheet()
+        .join();
+    final List<SpriteSheet.Sprite> sprites = sheet.sprites();
+    assertEquals(ITEMS.size(), sprites.size(), "One sprite per item");
+
+    // Distinct tooltips are placed in order of first appearance, left to right and then on a new shelf
+    final List<TooltipSnapshot> unique = ITEMS.stream().distinct().toList();
+    final List<SpriteSheet.Sprite> expected = new ArrayList<>();
+    int x = 0;
+    int y = 0;
+    int shelfHeight = 0;
+    for (TooltipSnapshot item : unique) {
+      final BufferedImage image = singles.get(ITEMS.indexOf(item));
+
+      if (x > 0 && x + image.getWidth() > maxWidth) {
+        x = 0;
+        y += shelfHeight + spacing;
+        shelfHeight = 0;
+      }
+
+      expected.add(new SpriteSheet.Sprite(x, y, image.getWidth(), image.getHeight()));
+      shelfHeight = Math.max(shelfHeight, image.getHeight());
+      x += image.getWidth() + spacing;
+    }
+    assertTrue(y > 0, "Wrapped onto a second shelf");
+
+    final BufferedImage image = sheet.image();
+    final boolean[] covered = new boolean[image.getWidth() * image.getHeight()];
+
+    for (int i = 0; i < ITEMS.size(); i++) {
+      final SpriteSheet.Sprite sprite = sprites.get(i);
+      assertEquals(expected.get(unique.indexOf(ITEMS.get(i))), sprite, "Sprite of item " + i);
+      assertSame(singles.get(i), image.getSubimage(sprite.x(), sprite.y(), sprite.width(), sprite.height()),
+          "Sheet pixels of item " + i);
+
+      for (int sy = sprite.y(); sy < sprite.y() + sprite.height(); sy++) {
+        for (int sx = sprite.x(); sx < sprite.x() + sprite.width(); sx++) {
+          covered[sy * image.getWidth() + sx] = true;
+        }
+      }
+    }
+
+    // Gaps between and around sprites stay transparent
+    for (int i = 0; i < covered.length; i++) {
+      if (!covered[i]) {
+        assertEquals(0, image.getRGB(i % image.getWidth(), i / image.getWidth()), "Gap pixel " + i);
+      }
+    }
+  }
+
+  @Test
+  void leasesImagesFromThePool() {
+    final ImagePool pool = new ImagePool(1024 * 1024);
+    final List<BufferedImage> images = ItemBatchRenderer.builder().snapshots(ITEMS).imagePool(pool).build().join();
+    assertEquals(4, pool.outstanding(), "One lease per distinct tooltip");
+
+    for (int i = 0; i < ITEMS.size(); i++) {
+      assertSame(single(ITEMS.get(i)).build().join(), images.get(i), "Pooled item " + i);
+    }
+
+    final Map<BufferedImage, Boolean> distinct = new IdentityHashMap<>();
+    images.forEach(image -> distinct.put(image, true));
+    distinct.keySet().forEach(image -> assertTrue(pool.release(image), "Released"));
+
+    final SpriteSheet sheet = ItemBatchRenderer.builder().snapshots(ITEMS).imagePool(pool).buildSheet().join();
+    assertEquals(1, pool.outstanding(), "One lease for the sheet");
+    assertTrue(pool.release(sheet.image()), "Sheet released");
+  }
+
+  private static ItemImageRenderer.Builder single(TooltipSnapshot snapshot) {
+    return ItemImageRenderer.builder().snapshot(snapshot).executor(Runnable::run);
+  }
+
+  private static ItemImageRenderer.Builder style(ItemImageRenderer.Builder builder) {
+    return builder.padding(2)
+        .lineSpacing(5)
+        .backgroundColor(new Color(0x40, 0x10, 0x60, 0xc0))
+        .shadowColor(new Color(0, 0, 0, 0x80))
+        .defaultTextColor(Color.PINK);
+  }
+
+  private static ItemBatchRenderer.Builder style(ItemBatchRenderer.Builder builder) {
+    return builder.padding(2)
+        .lineSpacing(5)
+        .backgroundColor(new Color(0x40, 0x10, 0x60, 0xc0))
+        .shadowColor(new Color(0, 0, 0, 0x80))
+        .defaultTextColor(Color.PINK);
+  }
+
+  private static void assertSame(BufferedImage expected, BufferedImage actual, String name) {
+    assertEquals(expected.getWidth() + "x" + expected.getHeight(), actual.getWidth() + "x" + actual.getHeight(),
+        "Size of " + name);
+    assertTrue(Arrays.equals(pixels(expected), pixels(actual)), "Pixels of " + name);
+  }
+
+  private static int[] pixels(BufferedImage image) {
+    return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+  }
+}
@@ -0,0 +1,180 @@
+package net.ultranetwork.render.item;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.ultranetwork.render.util.TextSpriteCache;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that {@link TooltipCache} renders each tooltip once however many ask for it, stays within
+ * its byte budget, and counts what it does.
+ */
+class TooltipCacheTest {
+  private static final long TIMEOUT_SECONDS = 10;
+  private static final int THREADS = 16;
+
+  @Test
+  void rendersConcurrentRequestsOnce() throws Exception {
+    final TooltipCache cache = new TooltipCache();
+    final TooltipCache.Key key = key("Shared");
+    final BufferedImage image = image(8, 8);
+    final CompletableFuture<BufferedImage> render = new CompletableFuture<>();
+    final AtomicInteger renders = new AtomicInteger();
+
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Future<CompletableFuture<BufferedImage>>> requests = new ArrayList<>();
+
+    try {
+      for (int i = 0; i < THREADS; i++) {
+        requests.add(executor.submit(() -> {
+          start.await();
+          return cache.get(key, () -> {
+            renders.incrementAndGet();
+            return render;
+          });
+        }));
+      }
+
+      // Every request arrives while the render is held
+      start.countDown();
+      final List<CompletableFuture<BufferedImage>> results = new ArrayList<>();
+      for (Future<CompletableFuture<BufferedImage>> request : requests) {
+        results.add(request.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+      }
+
+      assertEquals(1, renders.get(), "Renders");
+      assertEquals(1L, cache.misses(), "Misses");
+      assertEquals(THREADS - 1L, cache.coalesced(), "Coalesced");
+
+      render.complete(image);
+      for (CompletableFuture<BufferedImage> result : results) {
+        assertTrue(result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS) == image, "Shared image");
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    // Once rendered the image is served from the cache
+    assertTrue(cache.get(key, TooltipCacheTest::unexpected).join() == image, "Cached image");
+    assertEquals(1L, cache.hits(), "Hits");
+    assertEquals(1, renders.get(), "Renders after the hit");
+  }
+
+  @Test
+  void cancellingOneRequestLeavesTheOthers() {
+    final TooltipCache cache = new TooltipCache();
+    final TooltipCache.Key key = key("Cancelled");
+    final CompletableFuture<BufferedImage> render = new CompletableFuture<>();
+
+    final CompletableFuture<BufferedImage> first = cache.get(key, () -> render);
+    final CompletableFuture<BufferedImage> second = cache.get(key, TooltipCacheTest::unexpected);
+    first.cancel(false);
+
+    final BufferedImage image = image(4, 4);
+    render.complete(image);
+    assertTrue(second.join() == image, "Other request completed");
+  }
+
+  @Test
+  void retriesFailedRenders() {
+    final TooltipCache cache = new TooltipCache();
+    final TooltipCache.Key key = key("Failing");
+
+    final CompletableFuture<BufferedImage> failed = cache.get(key,
+        () -> CompletableFuture.failedFuture(new IllegalStateException("Render failed")));
+    assertTrue(failed.isCompletedExceptionally(), "Failure passed on");
+    assertEquals(0, cache.size(), "Failure not cached");
+
+    final BufferedImage image = image(4, 4);
+    assertTrue(cache.get(key, () -> CompletableFuture.completedFuture(image)).join() == image, "Rendered again");
+    assertEquals(2L, cache.misses(), "Misses");
+  }
+
+  @Test
+  void evictsToStayWithinTheBudget() {
+    final long imageBytes = 10 * 10 * Integer.BYTES;
+    final TooltipCache cache = new TooltipCache(3 * imageBytes);
+
+    for (int i = 0; i < 4; i++) {
+      final BufferedImage image = image(10, 10);
+      cache.get(key("Line " + i), () -> CompletableFuture.completedFuture(image)).join();
+    }
+
+    assertEquals(1L, cache.evictions(), "Evictions");
+    assertEquals(3, cache.size(), "Size");
+    assertEquals(3 * imageBytes, cache.bytes(), "Bytes");
+
+    // The oldest tooltip was dropped and renders again, the newest is still there
+    assertNotNull(cache.get(key("Line 3"), TooltipCacheTest::unexpected).join(), "Newest kept");
+    final AtomicInteger renders = new AtomicInteger();
+    cache.get(key("Line 0"), () -> {
+      renders.incrementAndGet();
+      return CompletableFuture.completedFuture(image(10, 10));
+    }).join();
+    assertEquals(1, renders.get(), "Oldest rendered again");
+
+    // A tooltip bigger than the whole budget is returned but not kept
+    final BufferedImage huge = image(100, 100);
+    assertTrue(cache.get(key("Huge"), () -> CompletableFuture.completedFuture(huge)).join() == huge, "Huge image");
+    assertTrue(cache.bytes() <= 3 * imageBytes, "Within the budget");
+
+    cache.clear();
+    assertEquals(0, cache.size(), "Size after clearing");
+    assertEquals(0L, cache.bytes(), "Bytes after clearing");
+  }
+
+  @Test
+  void keepsSpriteRendersApart() {
+    final TooltipCache cache = new TooltipCache();
+    final TooltipSnapshot snapshot = new TooltipSnapshot(Component.text("Sword", NamedTextColor.AQUA), 1,
+        List.of(Component.text("Sharp", NamedTextColor.GRAY)));
+
+    final BufferedImage drawn = render(snapshot, cache, null);
+    final BufferedImage sprites = render(snapshot, cache, new TextSpriteCache());
+
+    assertTrue(drawn != sprites, "Separate images");
+    assertEquals(2L, cache.misses(), "Misses");
+
+    assertTrue(render(snapshot, cache, null) == drawn, "Drawn image cached");
+    assertTrue(render(snapshot, cache, new TextSpriteCache()) == sprites, "Sprite image cached");
+    assertEquals(2L, cache.hits(), "Hits");
+  }
+
+  private static BufferedImage render(TooltipSnapshot snapshot, TooltipCache cache, TextSpriteCache textCache) {
+    return ItemImageRenderer.builder()
+        .snapshot(snapshot)
+        .cache(cache)
+        .textCache(textCache)
+        .executor(Runnable::run)
+        .build()
+        .join();
+  }
+
+  private static TooltipCache.Key key(String line) {
+    return new TooltipCache.Key(List.of(Component.text(line)), 4, 1, 0xf0100010, 0xff000000, 0xffffffff, false);
+  }
+
+  private static BufferedImage image(int width, int height) {
+    return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+  }
+
+  private static CompletableFuture<BufferedImage> unexpected() {
+    throw new AssertionError("Rendered although cached or in flight");
+  }
+}
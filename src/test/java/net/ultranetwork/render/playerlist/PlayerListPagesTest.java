@@ -0,0 +1,94 @@
+package net.ultranetwork.render.playerlist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.ultranetwork.render.util.CompiledText;
+import net.ultranetwork.render.util.RenderUtil;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Renders every page of a long list and compares each with a single render of the same slice of the
+ * sorted list, laid out at the widths and grid shared by all pages.
+ */
+class PlayerListPagesTest {
+  private static final int ROWS = 6;
+  private static final Component HEADER = Component.text("Network", NamedTextColor.GOLD);
+
+  @Test
+  void pagesMatchSingleRendersOfTheirSlice() throws Exception {
+    final Random random = new Random(8);
+    final List<PlayerListName> players = new ArrayList<>();
+
+    for (int i = 0; i < 90; i++) {
+      final String name = (random.nextBoolean() ? "Player" : "mc_") + random.nextInt(1000);
+      players.add(PlayerListName.of(Component.text(name, NamedTextColor.WHITE), random.nextInt(600), name,
+          random.nextInt(3)));
+    }
+
+    // The widest name sorts last, so only the shared widths put its width on the earlier pages
+    final String wide = "WWWW_the_widest_name_WWWW";
+    players.add(PlayerListName.of(Component.text(wide, NamedTextColor.RED), 20, wide, -1));
+
+    final PlayerListPages pages = PlayerListRenderer.builder()
+        .header(HEADER)
+        .maxPlayersPerColumn(ROWS)
+        .names(players)
+        .paginate();
+
+    final int pageSize = PlayerListLayout.MAX_COLUMNS * ROWS;
+    assertEquals(pageSize, pages.pageSize(), "Page size");
+    assertEquals((players.size() + pageSize - 1) / pageSize, pages.pageCount(), "Page count");
+
+    final List<PlayerListName> sorted = new ArrayList<>(players);
+    sorted.sort(PlayerListRenderer.DEFAULT_ORDER);
+
+    int nameWidth = 0;
+    for (PlayerListName player : players) {
+      nameWidth = Math.max(nameWidth, CompiledText.compile(player.listNameComponent(), RenderUtil.DEFAULT_TEXT_COLOUR).width());
+    }
+
+    // Every page takes the grid of the first, which is full
+    final int columns = PlayerListLayout.MAX_COLUMNS;
+
+    for (int page = 0; page < pages.pageCount(); page++) {
+      final List<PlayerListName> slice = sorted.subList(page * pageSize, Math.min(sorted.size(), (page + 1) * pageSize));
+      assertEquals(slice, pages.players(page), "Players on page " + page);
+
+      final PlayerListLayout layout = PlayerListLayout.compute(HEADER, PlayerListRenderer.defaultFooter(players.size()),
+          slice, ROWS, PlayerListRenderer.DEFAULT_COLUMN_SPACING, PlayerListRenderer.DEFAULT_PADDING, false,
+          nameWidth, columns, ROWS);
+      final BufferedImage expected = new BufferedImage(layout.width(), layout.height(), BufferedImage.TYPE_INT_ARGB);
+      try (PlayerListPainter painter = new PlayerListPainter(expected, null)) {
+        painter.paint(layout, player -> null);
+      }
+
+      final BufferedImage actual = pages.page(page).get();
+      assertEquals(expected.getWidth() + "x" + expected.getHeight(), actual.getWidth() + "x" + actual.getHeight(),
+          "Size of page " + page);
+      assertTrue(Arrays.equals(pixels(expected), pixels(actual)), "Pixels of page " + page);
+    }
+  }
+
+  @Test
+  void rendersOneEmptyPage() throws Exception {
+    final PlayerListPages pages = PlayerListRenderer.builder().header(HEADER).paginate();
+
+    assertEquals(1, pages.pageCount(), "Pages of an empty list");
+    assertTrue(pages.players(0).isEmpty(), "Players");
+
+    final BufferedImage single = PlayerListRenderer.builder().header(HEADER).build().get();
+    assertTrue(Arrays.equals(pixels(single), pixels(pages.page(0).get())), "Same as a single render");
+  }
+
+  private static int[] pixels(BufferedImage image) {
+    return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+  }
+}
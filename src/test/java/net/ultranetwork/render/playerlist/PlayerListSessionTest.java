@@ -0,0 +1,136 @@
+package net.ultranetwork.render.playerlist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.ultranetwork.render.head.HeadProvider;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Drives sessions through random joins, updates and leaves, checking after every step that the
+ * incremental render matches a full render of the same players pixel for pixel.
+ */
+class PlayerListSessionTest {
+  private static final int STEPS = 400;
+  private static final int ROWS = 7;
+  private static final Component HEADER = Component.text("Lobby", NamedTextColor.AQUA);
+
+  /**
+   * A head for each player and UUID, coloured by both so a new UUID draws a different head.
+   */
+  private static final HeadProvider HEADS = new HeadProvider() {
+    @Override
+    public CompletableFuture<BufferedImage> fetchHead(String playerName) {
+      return fetchHead(null, playerName);
+    }
+
+    @Override
+    public CompletableFuture<BufferedImage> fetchHead(UUID uuid, String playerName) {
+      // Some players have no head
+      if (playerName.endsWith("3")) {
+        return CompletableFuture.completedFuture(null);
+      }
+
+      final BufferedImage head = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+      final int colour = 0xff000000 | (playerName.hashCode() * 31 + (uuid == null ? 0 : uuid.hashCode())) & 0xffffff;
+      for (int y = 0; y < 8; y++) {
+        for (int x = 0; x < 8; x++) {
+          head.setRGB(x, y, (x + y) % 3 == 0 ? 0xff202020 : colour);
+        }
+      }
+
+      return CompletableFuture.completedFuture(head);
+    }
+  };
+
+  @Test
+  void matchesFullRendersWithoutHeads() throws Exception {
+    randomSession(false, 1);
+  }
+
+  @Test
+  void matchesFullRendersWithHeads() throws Exception {
+    randomSession(true, 2);
+  }
+
+  @Test
+  void repaintsOnlyTheChangedCell() throws Exception {
+    final PlayerListSession session = PlayerListSession.builder().maxPlayersPerColumn(ROWS).build();
+
+    for (int i = 0; i < 20; i++) {
+      session.put(player("Player" + (char) ('a' + i), 20, 0, null));
+    }
+
+    session.render().get();
+    final long cells = session.cellsRepainted();
+
+    // A new ping for a player in the middle of a column leaves the grid as it was
+    session.put(player("Playerj", 400, 0, null));
+    session.render().get();
+
+    assertEquals(1L, session.fullRepaints(), "Full repaints");
+    assertEquals(1L, session.partialRepaints(), "Partial repaints");
+    assertTrue(session.cellsRepainted() - cells <= 3, "Only the cell and the neighbours its shadow reaches");
+  }
+
+  private static void randomSession(boolean heads, long seed) throws Exception {
+    final PlayerListSession session = PlayerListSession.builder()
+        .header(HEADER)
+        .maxPlayersPerColumn(ROWS)
+        .showNameHeads(heads)
+        .headProvider(HEADS)
+        .build();
+    final Map<String, PlayerListName> expected = new HashMap<>();
+    final Random random = new Random(seed);
+
+    for (int step = 0; step < STEPS; step++) {
+      // Many players early on, to fill and overflow the grid, then fewer so columns empty again
+      final String name = (random.nextBoolean() ? "gy_" : "Qj") + random.nextInt(step < 60 ? 60 : 25);
+      final int operation = random.nextInt(10);
+
+      if (operation < 2) {
+        session.remove(name);
+        expected.remove(name);
+      }
+      else {
+        final PlayerListName player = player(name, random.nextInt(700) - 50, random.nextInt(3),
+            operation == 9 ? UUID.randomUUID() : null);
+        session.put(player);
+        expected.put(name, player);
+      }
+
+      final BufferedImage incremental = session.render().get();
+      final BufferedImage full = PlayerListRenderer.builder()
+          .header(HEADER)
+          .maxPlayersPerColumn(ROWS)
+          .showNameHeads(heads)
+          .headProvider(HEADS)
+          .names(expected.values())
+          .build()
+          .get();
+
+      assertEquals(full.getWidth() + "x" + full.getHeight(), incremental.getWidth() + "x" + incremental.getHeight(),
+          "Size at step " + step);
+      assertTrue(Arrays.equals(pixels(full), pixels(incremental)), "Pixels at step " + step);
+    }
+
+    assertTrue(session.partialRepaints() > session.fullRepaints(), "Mostly partial repaints");
+  }
+
+  private static PlayerListName player(String name, int ping, int priority, UUID uuid) {
+    return PlayerListName.of(Component.text(name, NamedTextColor.WHITE), ping, name, priority, uuid);
+  }
+
+  private static int[] pixels(BufferedImage image) {
+    return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+  }
+}
@@ -0,0 +1,111 @@
+package net.ultranetwork.render.playerlist;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares partial sorts and slices with a stable sort of the whole list, on lists full of ties.
+ */
+class PlayerRankingTest {
+
+  @Test
+  void sortFirstMatchesAFullSort() {
+    final Random random = new Random(5);
+
+    for (int round = 0; round < 200; round++) {
+      final List<PlayerListName> players = players(random, random.nextInt(60));
+      final int count = switch (round % 5) {
+        case 0 -> 0;
+        case 1 -> 1;
+        case 2 -> Math.max(0, players.size() - 1);
+        case 3 -> players.size() + 3;
+        default -> random.nextInt(players.size() + 1);
+      };
+
+      final List<PlayerListName> sorted = new ArrayList<>(players);
+      sorted.sort(PlayerListRenderer.DEFAULT_ORDER);
+
+      final List<PlayerListName> partial = new ArrayList<>(players);
+      PlayerRanking.sortFirst(partial, PlayerListRenderer.DEFAULT_ORDER, count);
+
+      final int first = Math.min(count, players.size());
+      assertSame(sorted.subList(0, first), partial.subList(0, first), "First " + count + " of " + players.size());
+
+      // The rest keep their original order
+      final List<PlayerListName> rest = new ArrayList<>(players);
+      rest.removeIf(player -> containsSame(partial.subList(0, first), player));
+      assertSame(rest, partial.subList(first, partial.size()), "Rest after " + count + " of " + players.size());
+    }
+  }
+
+  @Test
+  void slicesMatchAFullSort() {
+    final Random random = new Random(6);
+
+    for (int round = 0; round < 100; round++) {
+      final List<PlayerListName> players = players(random, 1 + random.nextInt(80));
+      final int sliceSize = 1 + random.nextInt(12);
+      final PlayerRanking ranking = new PlayerRanking(players, PlayerListRenderer.DEFAULT_ORDER);
+
+      final List<PlayerListName> sliced = new ArrayList<>();
+      int after = -1;
+      for (int[] slice = ranking.next(after, sliceSize); slice.length > 0; slice = ranking.next(after, sliceSize)) {
+        assertTrue(slice.length <= sliceSize, "Slice size");
+        sliced.addAll(ranking.players(slice));
+        after = slice[slice.length - 1];
+      }
+
+      final List<PlayerListName> sorted = new ArrayList<>(players);
+      sorted.sort(PlayerListRenderer.DEFAULT_ORDER);
+      assertSame(sorted, sliced, "Slices of " + sliceSize + " from " + players.size());
+    }
+  }
+
+  @Test
+  void keepsListOrderWhenEverythingTies() {
+    final List<PlayerListName> players = players(new Random(7), 30);
+    final List<PlayerListName> partial = new ArrayList<>(players);
+    final Comparator<PlayerListName> none = (a, b) -> 0;
+
+    PlayerRanking.sortFirst(partial, none, 10);
+    assertSame(players, partial, "Order with every player tied");
+  }
+
+  /**
+   * @return Players drawn from a few names differing only in case and a few priorities, so many tie
+   */
+  private static List<PlayerListName> players(Random random, int count) {
+    final String[] names = {"alex", "Alex", "ALEX", "steve", "Steve", "notch", "jeb_"};
+    final List<PlayerListName> players = new ArrayList<>(count);
+
+    for (int i = 0; i < count; i++) {
+      players.add(PlayerListName.of(names[random.nextInt(names.length)], random.nextInt(3)));
+    }
+
+    return players;
+  }
+
+  private static void assertSame(List<PlayerListName> expected, List<PlayerListName> actual, String message) {
+    assertEquals(expected.size(), actual.size(), message + " size");
+
+    for (int i = 0; i < expected.size(); i++) {
+      assertTrue(expected.get(i) == actual.get(i), message + " at " + i);
+    }
+  }
+
+  private static boolean containsSame(List<PlayerListName> players, PlayerListName player) {
+    for (PlayerListName candidate : players) {
+      if (candidate == player) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+}
@@ -0,0 +1,250 @@
+package net.ultranetwork.render.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.InflaterInputStream;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Writes animations through {@link AnimationSink#apng}, then reads the chunks back: the sequence
+ * numbers, where each frame is placed, and the pixels each frame leaves on the canvas.
+ */
+class ApngSinkTest {
+  private static final int WIDTH = 20;
+  private static final int HEIGHT = 12;
+  private static final int RED = 0xffff0000;
+  private static final int BLUE = 0xff0000ff;
+
+  private record Chunk(String type, byte[] data) {
+  }
+
+  private record FrameControl(int width, int height, int x, int y, int delayNumerator, int delayDenominator) {
+  }
+
+  @Test
+  void writesSequencedDeltaFrames() throws Exception {
+    final List<BufferedImage> frames = new ArrayList<>();
+
+    final BufferedImage background = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+    fillRect(background, 0, 0, WIDTH, HEIGHT, RED);
+    frames.add(background);
+
+    // A changed block away from the corner, part of it cleared
+    final BufferedImage block = copy(background);
+    fillRect(block, 5, 3, 4, 2, BLUE);
+    fillRect(block, 7, 4, 3, 3, 0);
+    block.setRGB(8, 6, 0x80123456);
+    frames.add(block);
+
+    // Unchanged, still written for its delay
+    frames.add(copy(block));
+
+    // A single pixel in the far corner
+    final BufferedImage corner = copy(block);
+    corner.setRGB(WIDTH - 1, HEIGHT - 1, BLUE);
+    frames.add(corner);
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (AnimationSink sink = AnimationSink.apng(out, frames.size(), 3)) {
+      for (BufferedImage frame : frames) {
+        sink.frame(frame, Duration.ofMillis(150));
+      }
+    }
+
+    final byte[] png = out.toByteArray();
+    final List<Chunk> chunks = chunks(png);
+
+    assertEquals("IHDR", chunks.get(0).type(), "First chunk");
+    assertEquals("acTL", chunks.get(1).type(), "acTL before the image data");
+    assertEquals(frames.size(), readInt(chunks.get(1).data(), 0), "Declared frames");
+    assertEquals(3, readInt(chunks.get(1).data(), 4), "Loops");
+    assertEquals("IEND", chunks.get(chunks.size() - 1).type(), "Last chunk");
+
+    // Sequence numbers run from 0 across fcTL and fdAT, and each frame's data follows its fcTL
+    final List<FrameControl> controls = new ArrayList<>();
+    final List<ByteArrayOutputStream> data = new ArrayList<>();
+    int sequence = 0;
+
+    for (Chunk chunk : chunks) {
+      switch (chunk.type()) {
+        case "fcTL" -> {
+          assertEquals(sequence++, readInt(chunk.data(), 0), "fcTL sequence number");
+          final byte[] d = chunk.data();
+          controls.add(new FrameControl(readInt(d, 4), readInt(d, 8), readInt(d, 12), readInt(d, 16),
+              readShort(d, 20), readShort(d, 22)));
+          assertEquals(0, (int) d[24], "Dispose op");
+          assertEquals(0, (int) d[25], "Blend op");
+          data.add(new ByteArrayOutputStream());
+        }
+        case "IDAT" -> {
+          assertEquals(1, controls.size(), "IDAT belongs to the first frame");
+          data.get(0).write(chunk.data());
+        }
+        case "fdAT" -> {
+          assertTrue(controls.size() > 1, "fdAT after a later frame's fcTL");
+          assertEquals(sequence++, readInt(chunk.data(), 0), "fdAT sequence number");
+          data.get(data.size() - 1).write(chunk.data(), 4, chunk.data().length - 4);
+        }
+        default -> {
+        }
+      }
+    }
+
+    assertEquals(frames.size(), controls.size(), "fcTL count");
+    assertEquals(new FrameControl(WIDTH, HEIGHT, 0, 0, 150, 1000), controls.get(0), "First frame");
+    assertEquals(new FrameControl(5, 4, 5, 3, 150, 1000), controls.get(1), "Changed block");
+    assertEquals(new FrameControl(1, 1, 0, 0, 150, 1000), controls.get(2), "Unchanged frame");
+    assertEquals(new FrameControl(1, 1, WIDTH - 1, HEIGHT - 1, 150, 1000), controls.get(3), "Changed corner");
+
+    // Play the frames back over each other and compare with what was written
+    final int[] canvas = new int[WIDTH * HEIGHT];
+    for (int i = 0; i < controls.size(); i++) {
+      final FrameControl control = controls.get(i);
+      final int[] pixels = decode(data.get(i).toByteArray(), control.width(), control.height());
+
+      for (int y = 0; y < control.height(); y++) {
+        System.arraycopy(pixels, y * control.width(), canvas, (control.y() + y) * WIDTH + control.x(), control.width());
+      }
+
+      final int[] expected = frames.get(i).getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+      assertTrue(Arrays.equals(expected, canvas), "Frame " + i + " pixels");
+    }
+
+    // Viewers without APNG support show the first frame
+    final BufferedImage still = ImageIO.read(new ByteArrayInputStream(png));
+    assertTrue(Arrays.equals(frames.get(0).getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH),
+        still.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH)), "Default image");
+  }
+
+  @Test
+  void rejectsTheWrongFrameCount() throws Exception {
+    final BufferedImage frame = new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB);
+    final AnimationSink sink = AnimationSink.apng(new ByteArrayOutputStream(), 2, 0);
+    sink.frame(frame, Duration.ofMillis(100));
+
+    boolean thrown = false;
+    try {
+      sink.close();
+    }
+    catch (IllegalStateException e) {
+      thrown = true;
+    }
+
+    assertTrue(thrown, "Closing short of the declared frames fails");
+  }
+
+  private static List<Chunk> chunks(byte[] png) throws IOException {
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(png));
+    final byte[] signature = new byte[8];
+    in.readFully(signature);
+    assertTrue(Arrays.equals(PngEncoder.SIGNATURE, signature), "PNG signature");
+
+    final List<Chunk> chunks = new ArrayList<>();
+    while (in.available() > 0) {
+      final byte[] data = new byte[in.readInt()];
+      final byte[] type = new byte[4];
+      in.readFully(type);
+      in.readFully(data);
+
+      final CRC32 crc = new CRC32();
+      crc.update(type);
+      crc.update(data);
+      final String name = new String(type, StandardCharsets.US_ASCII);
+      assertEquals((int) crc.getValue(), in.readInt(), name + " CRC");
+
+      chunks.add(new Chunk(name, data));
+    }
+
+    return chunks;
+  }
+
+  /**
+   * @return The ARGB pixels of 8-bit RGBA image data
+   */
+  private static int[] decode(byte[] zlib, int width, int height) throws IOException {
+    final byte[] raw;
+    try (InflaterInputStream in = new InflaterInputStream(new ByteArrayInputStream(zlib))) {
+      raw = in.readAllBytes();
+    }
+
+    final int stride = width * 4;
+    assertEquals(height * (stride + 1), raw.length, "Image data length");
+
+    final int[] pixels = new int[width * height];
+    byte[] previous = new byte[stride];
+
+    for (int y = 0; y < height; y++) {
+      final int filter = raw[y * (stride + 1)];
+      final byte[] row = Arrays.copyOfRange(raw, y * (stride + 1) + 1, (y + 1) * (stride + 1));
+
+      for (int i = 0; i < stride; i++) {
+        final int a = i >= 4 ? row[i - 4] & 0xff : 0;
+        final int b = previous[i] & 0xff;
+        final int c = i >= 4 ? previous[i - 4] & 0xff : 0;
+        final int predicted = switch (filter) {
+          case 0 -> 0;
+          case 1 -> a;
+          case 2 -> b;
+          case 3 -> (a + b) / 2;
+          case 4 -> paeth(a, b, c);
+          default -> throw new AssertionError("Unknown filter " + filter);
+        };
+
+        row[i] = (byte) (row[i] + predicted);
+      }
+
+      for (int x = 0; x < width; x++) {
+        final int r = row[x * 4] & 0xff;
+        final int g = row[x * 4 + 1] & 0xff;
+        final int bl = row[x * 4 + 2] & 0xff;
+        final int alpha = row[x * 4 + 3] & 0xff;
+        pixels[y * width + x] = alpha << 24 | r << 16 | g << 8 | bl;
+      }
+
+      previous = row;
+    }
+
+    return pixels;
+  }
+
+  private static int paeth(int a, int b, int c) {
+    final int p = a + b - c;
+    final int pa = Math.abs(p - a);
+    final int pb = Math.abs(p - b);
+    final int pc = Math.abs(p - c);
+    return pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+  }
+
+  private static int readInt(byte[] data, int offset) {
+    return (data[offset] & 0xff) << 24 | (data[offset + 1] & 0xff) << 16 | (data[offset + 2] & 0xff) << 8 | data[offset + 3] & 0xff;
+  }
+
+  private static int readShort(byte[] data, int offset) {
+    return (data[offset] & 0xff) << 8 | data[offset + 1] & 0xff;
+  }
+
+  private static void fillRect(BufferedImage image, int x, int y, int width, int height, int argb) {
+    for (int row = y; row < y + height; row++) {
+      for (int column = x; column < x + width; column++) {
+        image.setRGB(column, row, argb);
+      }
+    }
+  }
+
+  private static BufferedImage copy(BufferedImage image) {
+    return new BufferedImage(image.getColorModel(), image.copyData(null), false, null);
+  }
+}
@@ -0,0 +1,199 @@
+package net.ultranetwork.render.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Node;
+
+/**
+ * Writes animations through {@link AnimationSink#gif}, decodes them again and plays the frames back
+ * the way a viewer does, checking every frame shows what was written, transparency included.
+ */
+class GifSinkTest {
+  private static final int WIDTH = 24;
+  private static final int HEIGHT = 16;
+  private static final int RED = 0xffff0000;
+  private static final int BLUE = 0xff0000ff;
+  private static final int GREEN = 0xff00ff00;
+
+  @Test
+  void playsBackEveryFrame() throws Exception {
+    final List<BufferedImage> frames = new ArrayList<>();
+
+    final BufferedImage halves = fill(WIDTH, HEIGHT, RED);
+    fillRect(halves, WIDTH / 2, 0, WIDTH / 2, HEIGHT, BLUE);
+    frames.add(halves);
+
+    // Cleared cells and a translucent pixel, which GIF can only show as transparent
+    final BufferedImage cleared = copy(halves);
+    fillRect(cleared, 4, 4, 6, 4, 0);
+    fillRect(cleared, 16, 10, 3, 2, 0x00123456);
+    cleared.setRGB(20, 2, 0x80ff00ff);
+    frames.add(cleared);
+
+    // A smaller frame, leaving everything outside it transparent
+    frames.add(fill(12, 10, GREEN));
+
+    // Back to full size, drawing over where the transparent pixels were
+    final BufferedImage redrawn = copy(halves);
+    fillRect(redrawn, 2, 12, 5, 3, GREEN);
+    frames.add(redrawn);
+
+    // Unchanged
+    frames.add(copy(redrawn));
+
+    // Only a corner turns transparent
+    final BufferedImage corner = copy(redrawn);
+    corner.setRGB(WIDTH - 1, HEIGHT - 1, 0);
+    frames.add(corner);
+
+    final List<int[]> played = playBack(write(frames));
+    assertEquals(frames.size(), played.size(), "Frame count");
+
+    for (int i = 0; i < frames.size(); i++) {
+      final int[] expected = expected(frames.get(i));
+      final int[] actual = played.get(i);
+
+      for (int p = 0; p < expected.length; p++) {
+        if (expected[p] != actual[p]) {
+          assertEquals(Integer.toHexString(expected[p]), Integer.toHexString(actual[p]),
+              "Frame " + i + " pixel " + p % WIDTH + "," + p / WIDTH);
+        }
+      }
+    }
+  }
+
+  @Test
+  void streamsFramesBeforeClose() throws Exception {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (AnimationSink sink = AnimationSink.gif(out, 0)) {
+      sink.frame(fill(WIDTH, HEIGHT, RED), Duration.ofMillis(100));
+      sink.frame(fill(WIDTH, HEIGHT, BLUE), Duration.ofMillis(100));
+      final int afterFirst = out.size();
+      assertTrue(afterFirst > 0, "First frame written once the second arrived");
+
+      sink.frame(fill(WIDTH, HEIGHT, GREEN), Duration.ofMillis(100));
+      assertTrue(out.size() > afterFirst, "Second frame written once the third arrived");
+    }
+
+    assertEquals(3, playBack(out.toByteArray()).size(), "Frame count");
+  }
+
+  private static byte[] write(List<BufferedImage> frames) throws Exception {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (AnimationSink sink = AnimationSink.gif(out, 0)) {
+      for (BufferedImage frame : frames) {
+        sink.frame(frame, Duration.ofMillis(100));
+      }
+    }
+
+    return out.toByteArray();
+  }
+
+  /**
+   * @return The canvas shown during each frame, with every transparent pixel as 0
+   */
+  private static List<int[]> playBack(byte[] gif) throws Exception {
+    final List<int[]> shown = new ArrayList<>();
+    final int[] canvas = new int[WIDTH * HEIGHT];
+
+    try (ImageInputStream stream = ImageIO.createImageInputStream(new ByteArrayInputStream(gif))) {
+      final ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+      reader.setInput(stream);
+
+      try {
+        final int count = reader.getNumImages(true);
+
+        for (int i = 0; i < count; i++) {
+          final BufferedImage frame = reader.read(i);
+          final IIOMetadataNode root = (IIOMetadataNode) reader.getImageMetadata(i).getAsTree("javax_imageio_gif_image_1.0");
+          final IIOMetadataNode descriptor = child(root, "ImageDescriptor");
+          final int left = Integer.parseInt(descriptor.getAttribute("imageLeftPosition"));
+          final int top = Integer.parseInt(descriptor.getAttribute("imageTopPosition"));
+
+          for (int y = 0; y < frame.getHeight(); y++) {
+            for (int x = 0; x < frame.getWidth(); x++) {
+              final int argb = frame.getRGB(x, y);
+
+              if (argb >>> 24 != 0) {
+                canvas[(top + y) * WIDTH + left + x] = argb;
+              }
+            }
+          }
+
+          shown.add(canvas.clone());
+
+          if (child(root, "GraphicControlExtension").getAttribute("disposalMethod").equals("restoreToBackgroundColor")) {
+            for (int y = top; y < top + frame.getHeight(); y++) {
+              Arrays.fill(canvas, y * WIDTH + left, y * WIDTH + left + frame.getWidth(), 0);
+            }
+          }
+        }
+      }
+      finally {
+        reader.dispose();
+      }
+    }
+
+    return shown;
+  }
+
+  /**
+   * @return The frame on the animation's canvas as GIF shows it: pixels with any transparency become
+   * fully transparent, and so does everything outside a smaller frame
+   */
+  private static int[] expected(BufferedImage frame) {
+    final int[] pixels = new int[WIDTH * HEIGHT];
+
+    for (int y = 0; y < frame.getHeight(); y++) {
+      for (int x = 0; x < frame.getWidth(); x++) {
+        final int argb = frame.getRGB(x, y);
+        pixels[y * WIDTH + x] = argb >>> 24 == 0xff ? argb : 0;
+      }
+    }
+
+    return pixels;
+  }
+
+  private static IIOMetadataNode child(IIOMetadataNode root, String name) {
+    for (Node node = root.getFirstChild(); node != null; node = node.getNextSibling()) {
+      if (node.getNodeName().equals(name)) {
+        return (IIOMetadataNode) node;
+      }
+    }
+
+    throw new AssertionError("No " + name + " in the frame's metadata");
+  }
+
+  private static BufferedImage fill(int width, int height, int argb) {
+    final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    fillRect(image, 0, 0, width, height, argb);
+    return image;
+  }
+
+  private static void fillRect(BufferedImage image, int x, int y, int width, int height, int argb) {
+    for (int row = y; row < y + height; row++) {
+      for (int column = x; column < x + width; column++) {
+        image.setRGB(column, row, argb);
+      }
+    }
+  }
+
+  private static BufferedImage copy(BufferedImage image) {
+    return new BufferedImage(image.getColorModel(), image.copyData(null), false, null);
+  }
+}
@@ -0,0 +1,151 @@
+package net.ultranetwork.render.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Leases and releases images and buffers, checking they come back cleared, what the pool keeps, and
+ * which releases it takes.
+ */
+class ImagePoolTest {
+  private static final int CLASS_BYTES = 4096 * 4; // The smallest int size class
+
+  @Test
+  void clearsImagesOnReuse() {
+    final ImagePool pool = new ImagePool(1024 * 1024);
+
+    final BufferedImage first = pool.lease(64, 64);
+    fill(first, 0xff336699);
+    assertTrue(pool.release(first), "Released");
+
+    // A smaller image reuses the same array, cleared where it is seen
+    final BufferedImage second = pool.lease(30, 20);
+    assertTrue(data(second) == data(first), "Array reused");
+    assertEquals(1L, pool.hits(), "Hits");
+
+    for (int y = 0; y < second.getHeight(); y++) {
+      for (int x = 0; x < second.getWidth(); x++) {
+        assertEquals(0, second.getRGB(x, y), "Pixel " + x + "," + y);
+      }
+    }
+  }
+
+  @Test
+  void clearsBuffersOnReuse() {
+    final ImagePool pool = new ImagePool(1024 * 1024);
+
+    final ByteBuffer first = pool.leaseBuffer(100);
+    while (first.hasRemaining()) {
+      first.put((byte) 7);
+    }
+    assertTrue(pool.release(first), "Released");
+
+    final ByteBuffer second = pool.leaseBuffer(4000);
+    assertTrue(second.array() == first.array(), "Array reused");
+    assertEquals(0, second.position(), "Position");
+    for (byte b : second.array()) {
+      assertEquals((byte) 0, b, "Cleared byte");
+    }
+  }
+
+  @Test
+  void keepsReleasedArraysWithinTheBudget() {
+    final ImagePool pool = new ImagePool(2L * CLASS_BYTES);
+    final BufferedImage[] images = new BufferedImage[3];
+
+    for (int i = 0; i < images.length; i++) {
+      images[i] = pool.lease(64, 64);
+    }
+    assertEquals(3, pool.outstanding(), "Outstanding");
+
+    for (BufferedImage image : images) {
+      assertTrue(pool.release(image), "Released");
+    }
+
+    assertEquals(0, pool.outstanding(), "Outstanding after release");
+    assertEquals(3L, pool.releases(), "Releases");
+    assertEquals(1L, pool.dropped(), "Dropped over the budget");
+    assertEquals(2L * CLASS_BYTES, pool.retainedBytes(), "Retained");
+
+    pool.lease(64, 64);
+    assertEquals((long) CLASS_BYTES, pool.retainedBytes(), "Retained after reuse");
+    assertEquals(4L, pool.leases(), "Leases");
+    assertEquals(1L, pool.hits(), "Hits");
+
+    // Nothing is kept without a budget
+    final ImagePool empty = new ImagePool(0);
+    assertTrue(empty.release(empty.lease(8, 8)), "Released into an empty pool");
+    assertEquals(0L, empty.retainedBytes(), "Retained without a budget");
+    assertEquals(1L, empty.dropped(), "Dropped without a budget");
+  }
+
+  @Test
+  void takesEachLeaseBackOnce() {
+    final ImagePool pool = new ImagePool(1024 * 1024);
+
+    final BufferedImage image = pool.lease(64, 64);
+    assertTrue(pool.release(image), "First release");
+    assertFalse(pool.release(image), "Second release while waiting in the pool");
+
+    // Leased again, the array belongs to the new image, not the old one
+    final BufferedImage again = pool.lease(64, 64);
+    assertTrue(data(again) == data(image), "Array reused");
+    assertFalse(pool.release(image), "Stale release");
+    assertEquals(1, pool.outstanding(), "Still leased");
+    assertTrue(pool.release(again), "Release by the new owner");
+
+    final ByteBuffer buffer = pool.leaseBuffer(100);
+    assertTrue(pool.release(buffer), "Buffer release");
+    assertFalse(pool.release(buffer), "Second buffer release");
+    assertEquals(3L, pool.releases(), "Releases counted once each");
+  }
+
+  @Test
+  void refusesWhatItDidNotLease() {
+    final ImagePool pool = new ImagePool(1024 * 1024);
+    final BufferedImage image = pool.lease(64, 64);
+
+    assertFalse(pool.release(image.getSubimage(0, 0, 32, 32)), "Subimage of a leased image");
+    assertFalse(pool.release(new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB)), "Image of the same size");
+    assertFalse(pool.release(new BufferedImage(64, 64, BufferedImage.TYPE_4BYTE_ABGR)), "Image of another type");
+    assertTrue(pool.release(image), "The leased image itself");
+
+    final ByteBuffer buffer = pool.leaseBuffer(100);
+    assertFalse(pool.release(buffer.duplicate()), "Duplicate of a leased buffer");
+    assertFalse(pool.release(ByteBuffer.allocate(4096)), "Buffer of a size class");
+    assertFalse(pool.release(ByteBuffer.allocateDirect(4096)), "Direct buffer");
+    assertTrue(pool.release(buffer), "The leased buffer itself");
+
+    assertEquals(0, pool.outstanding(), "Outstanding");
+    assertEquals(2L, pool.releases(), "Releases");
+  }
+
+  @Test
+  void dropsArraysAboveTheLargestClass() {
+    final ImagePool pool = new ImagePool(Long.MAX_VALUE);
+    final ByteBuffer huge = pool.leaseBuffer((1 << 24) + 1);
+
+    assertEquals((1 << 24) + 1, huge.capacity(), "Exact size above the largest class");
+    assertTrue(pool.release(huge), "Released");
+    assertEquals(1L, pool.dropped(), "Not kept");
+    assertEquals(0L, pool.retainedBytes(), "Retained");
+  }
+
+  private static int[] data(BufferedImage image) {
+    return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+  }
+
+  private static void fill(BufferedImage image, int argb) {
+    for (int y = 0; y < image.getHeight(); y++) {
+      for (int x = 0; x < image.getWidth(); x++) {
+        image.setRGB(x, y, argb);
+      }
+    }
+  }
+}
@@ -0,0 +1,205 @@
+package net.ultranetwork.render.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Encodes images across palette sizes, alpha and widths with every preset, decodes them with ImageIO
+ * and compares the pixels, and checks every output gets the same bytes.
+ */
+class PngEncoderTest {
+  private static final int[] WIDTHS = {1, 3, 7, 13, 33};
+  private static final int COLOUR_TYPE_INDEXED = 3;
+  private static final int COLOUR_TYPE_RGB = 2;
+
+  @Test
+  void roundTripsPalettes() throws IOException {
+    // Each palette size crosses into the next bit depth or out of the palette
+    final int[][] cases = {
+        {1, 1, COLOUR_TYPE_INDEXED},
+        {2, 1, COLOUR_TYPE_INDEXED},
+        {3, 2, COLOUR_TYPE_INDEXED},
+        {4, 2, COLOUR_TYPE_INDEXED},
+        {5, 4, COLOUR_TYPE_INDEXED},
+        {16, 4, COLOUR_TYPE_INDEXED},
+        {17, 8, COLOUR_TYPE_INDEXED},
+        {256, 8, COLOUR_TYPE_INDEXED},
+        {257, 8, COLOUR_TYPE_RGB},
+        {1000, 8, COLOUR_TYPE_RGB}
+    };
+
+    for (int[] test : cases) {
+      for (int width : WIDTHS) {
+        final BufferedImage image = image(width, test[0], false, test[0] * 31L + width);
+
+        for (PngEncoder.Preset preset : PngEncoder.Preset.values()) {
+          final String name = test[0] + " colours, " + width + " wide, " + preset;
+          final byte[] png = new PngEncoder(preset).encode(image);
+
+          assertRoundTrip(image, png, name);
+          assertEquals(test[1], (int) png[24], "Bit depth of " + name);
+          assertEquals(test[2], (int) png[25], "Colour type of " + name);
+        }
+      }
+    }
+  }
+
+  @Test
+  void roundTripsAlpha() throws IOException {
+    for (int colours : new int[] {1, 2, 15, 256, 257, 5000}) {
+      for (int width : WIDTHS) {
+        final BufferedImage image = image(width, colours, true, colours * 17L + width);
+
+        for (PngEncoder.Preset preset : PngEncoder.Preset.values()) {
+          assertRoundTrip(image, new PngEncoder(preset).encode(image),
+              colours + " translucent colours, " + width + " wide, " + preset);
+        }
+      }
+    }
+
+    // Fully see-through pixels keep their colour
+    final BufferedImage clear = new BufferedImage(5, 3, BufferedImage.TYPE_INT_ARGB);
+    clear.setRGB(1, 1, 0x00123456);
+    clear.setRGB(2, 2, 0xff654321);
+    assertRoundTrip(clear, PngEncoder.defaultEncoder().encode(clear), "Clear pixels");
+  }
+
+  @Test
+  void readsOtherImageTypes() throws IOException {
+    final BufferedImage source = image(40, 300, true, 5);
+
+    final BufferedImage abgr = new BufferedImage(40, source.getHeight(), BufferedImage.TYPE_4BYTE_ABGR);
+    abgr.setRGB(0, 0, 40, source.getHeight(), pixels(source), 0, 40);
+    assertRoundTrip(abgr, PngEncoder.defaultEncoder().encode(abgr), "TYPE_4BYTE_ABGR");
+
+    // A subimage starts inside its parent's array with the parent's stride
+    final BufferedImage sub = source.getSubimage(3, 1, 17, 8);
+    assertRoundTrip(sub, PngEncoder.defaultEncoder().encode(sub), "Subimage");
+  }
+
+  @Test
+  void writesTheSameBytesEverywhere() throws IOException {
+    // Indexed, truecolour, and noise big enough to span several IDAT chunks
+    final BufferedImage[] images = {image(13, 7, false, 1), image(33, 300, true, 2), noise(301, 211, 3)};
+
+    for (BufferedImage image : images) {
+      for (PngEncoder.Preset preset : PngEncoder.Preset.values()) {
+        final PngEncoder encoder = new PngEncoder(preset);
+        final String name = image.getWidth() + "x" + image.getHeight() + ", " + preset;
+        final byte[] expected = encoder.encode(image);
+        assertRoundTrip(image, expected, name);
+
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        encoder.encode(image, stream);
+        assertTrue(Arrays.equals(expected, stream.toByteArray()), "Stream output of " + name);
+
+        final ByteArrayOutputStream channelBytes = new ByteArrayOutputStream();
+        try (WritableByteChannel channel = Channels.newChannel(channelBytes)) {
+          encoder.encode(image, channel);
+        }
+        assertTrue(Arrays.equals(expected, channelBytes.toByteArray()), "Channel output of " + name);
+
+        // Written from the buffer's position, which is left after the PNG
+        final ByteBuffer buffer = ByteBuffer.allocate(PngEncoder.maxEncodedSize(image.getWidth(), image.getHeight()) + 5);
+        buffer.position(5);
+        assertEquals(expected.length, encoder.encode(image, buffer), "Length written to the buffer for " + name);
+        assertEquals(5 + expected.length, buffer.position(), "Buffer position for " + name);
+        assertTrue(Arrays.equals(expected, Arrays.copyOfRange(buffer.array(), 5, buffer.position())),
+            "Buffer output of " + name);
+
+        final ImagePool pool = new ImagePool(1024 * 1024);
+        final ByteBuffer leased = encoder.encode(image, pool);
+        final byte[] pooled = new byte[leased.remaining()];
+        leased.get(pooled);
+        assertTrue(Arrays.equals(expected, pooled), "Pooled output of " + name);
+        assertTrue(pool.release(leased), "Pooled buffer released");
+      }
+    }
+  }
+
+  @Test
+  void staysWithinTheSizeBound() {
+    // Noise does not compress, so it comes closest to the bound
+    for (int[] size : new int[][] {{1, 1}, {1, 50}, {50, 1}, {97, 61}, {256, 256}}) {
+      final BufferedImage image = noise(size[0], size[1], size[0] * 7L + size[1]);
+
+      for (PngEncoder.Preset preset : PngEncoder.Preset.values()) {
+        final int length = new PngEncoder(preset).encode(image).length;
+        assertTrue(length <= PngEncoder.maxEncodedSize(size[0], size[1]),
+            length + " bytes within the bound for " + size[0] + "x" + size[1] + ", " + preset);
+      }
+    }
+  }
+
+  private static void assertRoundTrip(BufferedImage image, byte[] png, String name) throws IOException {
+    final BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(png));
+    assertNotNull(decoded, "Decoded " + name);
+    assertEquals(image.getWidth() + "x" + image.getHeight(), decoded.getWidth() + "x" + decoded.getHeight(),
+        "Size of " + name);
+
+    final int[] expected = pixels(image);
+    final int[] actual = pixels(decoded);
+    for (int i = 0; i < expected.length; i++) {
+      if (expected[i] != actual[i]) {
+        assertEquals(Integer.toHexString(expected[i]), Integer.toHexString(actual[i]),
+            "Pixel " + i % image.getWidth() + "," + i / image.getWidth() + " of " + name);
+      }
+    }
+  }
+
+  /**
+   * @return An image using exactly the given number of colours
+   */
+  private static BufferedImage image(int width, int colours, boolean alpha, long seed) {
+    final Random random = new Random(seed);
+    final int[] palette = new int[colours];
+
+    for (int i = 0; i < colours; i++) {
+      // Spread the colours apart and keep them distinct
+      final int rgb = (i * 0x9e3779b1 ^ random.nextInt(0x100)) & 0xffff00 | i & 0xff;
+      final int a = alpha ? (i % 3 == 0 ? 0xff : random.nextInt(0x100)) : 0xff;
+      palette[i] = a << 24 | rgb;
+    }
+
+    // Tall enough that every colour appears, in order first and then at random
+    final int height = Math.max(1, (colours + width - 1) / width + 2);
+    final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+    for (int i = 0; i < width * height; i++) {
+      final int argb = i < colours ? palette[i] : palette[random.nextInt(colours)];
+      image.setRGB(i % width, i / width, argb);
+    }
+
+    return image;
+  }
+
+  private static BufferedImage noise(int width, int height, long seed) {
+    final Random random = new Random(seed);
+    final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        image.setRGB(x, y, random.nextInt());
+      }
+    }
+
+    return image;
+  }
+
+  private static int[] pixels(BufferedImage image) {
+    return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+  }
+}
@@ -0,0 +1,68 @@
+package net.ultranetwork.render.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reports stages to an installed listener without a recording, and checks nothing is built for
+ * spans when neither is there.
+ */
+class RenderInstrumentationTest {
+
+  @Test
+  void reportsToTheListenerWithoutARecording() {
+    final List<String> reported = new ArrayList<>();
+    RenderInstrumentation.install(new RenderMetrics() {
+      @Override
+      public void stageCompleted(RenderMetrics.Stage stage, long nanos) {
+        reported.add(stage + " completed");
+      }
+
+      @Override
+      public void stageFailed(RenderMetrics.Stage stage, Throwable cause) {
+        reported.add(stage + " failed");
+      }
+
+      @Override
+      public void imageEncoded(long bytes) {
+        reported.add("encoded");
+      }
+
+      @Override
+      public void headMissed(String playerName) {
+        reported.add(playerName + " missed");
+      }
+    });
+
+    try {
+      final RenderInstrumentation.Span span = RenderInstrumentation.start(RenderMetrics.Stage.LAYOUT);
+      span.end();
+      span.fail(new IllegalStateException()); // Only the first end counts
+
+      RenderInstrumentation.start(RenderMetrics.Stage.PAINT).fail(new IllegalStateException());
+      RenderInstrumentation.start(RenderMetrics.Stage.ENCODE).encoded(10);
+      RenderInstrumentation.headMissed("Steve");
+
+      assertEquals(List.of("LAYOUT completed", "PAINT failed", "ENCODE completed", "encoded", "Steve missed"),
+          reported, "Reported");
+    }
+    finally {
+      RenderInstrumentation.install(null);
+    }
+  }
+
+  @Test
+  void sharesOneSpanWhenNothingListens() {
+    // No recording is running in tests, so with no listener every stage gets the shared span
+    final RenderInstrumentation.Span first = RenderInstrumentation.start(RenderMetrics.Stage.LAYOUT);
+    final RenderInstrumentation.Span second = RenderInstrumentation.start(RenderMetrics.Stage.PAINT);
+
+    assertTrue(first == second, "Shared span");
+    first.end();
+    second.fail(new IllegalStateException());
+  }
+}